@@ -0,0 +1,107 @@
+package org.hdf5javalib.benchmarks;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.datasource.AxisReduction;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.utils.FlattenedArrayUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link FlattenedArrayUtils} operations over a streamed double matrix.
+ * <p>
+ * The stream-based reductions, slices and filters are measured next to
+ * {@link AxisReduction}, the primitive reduction engine, so the cost of boxing and
+ * coordinate arrays shows in the comparison. Run with {@code -prof gc} to report
+ * allocation rates.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class FlattenedArrayUtilsBenchmark {
+    /** The number of elements of the matrix. */
+    @Param({"65536", "1048576"})
+    public int elements;
+
+    /** The temporary directory holding the file. */
+    private Path directory;
+    /** The channel the file is read through. */
+    private FileChannel channel;
+    /** The two-dimensional double dataset. */
+    private TypedDataSource<Double> matrix;
+    /** The shape of the matrix. */
+    private int[] shape;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("hdf5javalib-bench");
+        Path path = SyntheticFiles.create(directory, SyntheticFiles.DataKind.DOUBLE, elements);
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        HdfFileReader reader = new HdfFileReader(channel).readFile();
+        matrix = new TypedDataSource<>(channel, reader, reader.getRootGroup().findDataset(SyntheticFiles.MATRIX), Double.class);
+        shape = matrix.getShape();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        channel.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Object reduceRows() {
+        return FlattenedArrayUtils.reduceAlongAxis(matrix.streamFlattened(), shape, 0, Double::sum, Double.class);
+    }
+
+    @Benchmark
+    public Object reduceColumns() {
+        return FlattenedArrayUtils.reduceAlongAxis(matrix.streamFlattened(), shape, 1, Double::sum, Double.class);
+    }
+
+    @Benchmark
+    public Object axisReductionRows() throws IOException {
+        return new AxisReduction(matrix).reduce(0, AxisReduction.Reducer.SUM);
+    }
+
+    @Benchmark
+    public Object sliceHalf() {
+        return FlattenedArrayUtils.sliceStream(matrix.streamFlattened(), shape, new int[][]{{0, shape[0] / 2}, {}}, Double.class);
+    }
+
+    @Benchmark
+    public Object filterToCoordinateList() {
+        return FlattenedArrayUtils.filterToCoordinateList(matrix.streamFlattened(), shape, value -> value > 900.0);
+    }
+
+    @Benchmark
+    public Object filterToNDArray() {
+        return FlattenedArrayUtils.filterToNDArray(matrix.streamFlattened(), shape, Double.class, value -> value > 900.0);
+    }
+}
@@ -0,0 +1,198 @@
+package org.hdf5javalib.benchmarks;
+
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.VariableLengthDatatype;
+import org.hdf5javalib.file.infrastructure.HdfGlobalHeap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the metadata paths of the writer scale with the number of objects.
+ * <p>
+ * {@code createDataSets} creates and writes many small datasets in the root group, which
+ * exercises {@code HdfLocalHeap.addToHeap}, {@code HdfBTreeV1.addDataset} and the
+ * {@code HdfFileAllocation} bookkeeping; {@code closeFile} measures {@link HdfFile#close()}
+ * of such a file on its own. {@code addToGlobalHeap} adds many variable-length objects to
+ * the global heap, and {@code writeVariableLength} also writes their references and closes
+ * the file. Every operation is timed once per iteration, since the point of these
+ * benchmarks is to show how the cost grows from one parameter value to the next: linear
+ * paths grow tenfold between the steps, quadratic ones a hundredfold.
+ * </p>
+ * <p>
+ * The scales are bounded by the writer's format limits. The root group's B-tree is a
+ * single leaf of 32 symbol table nodes, so files with more than about 130 datasets cannot
+ * be closed; {@code createDataSets} therefore leaves its file open and accepts larger
+ * counts, such as {@code -p datasets=100000}. The global heap keeps at most two
+ * collections of 65535 objects, which bounds {@code vlenObjects} to about 130000.
+ * </p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MetadataBenchmark {
+    /** The number of int64 values in each small dataset. */
+    private static final int SMALL_DATASET_VALUES = 4;
+    /** The file space reserved per small dataset, covering its header, name and values. */
+    private static final int BYTES_PER_DATASET = 1024;
+    /** The file space reserved per heap object beyond its payload, covering its header, padding and reference. */
+    private static final int BYTES_PER_HEAP_OBJECT = 48;
+
+    /**
+     * The number of datasets created in the root group.
+     */
+    @State(Scope.Thread)
+    public static class Group {
+        /** The number of datasets created per operation. */
+        @Param({"10", "1000", "10000"})
+        public int datasets;
+    }
+
+    /**
+     * An open file holding as many datasets as the root group can be closed with.
+     */
+    @State(Scope.Thread)
+    public static class ClosableFile {
+        /** The number of datasets in the file. */
+        @Param({"10", "32", "128"})
+        public int closableDatasets;
+
+        /** The channel the file is written to. */
+        private SeekableByteChannel channel;
+        /** The file to close. */
+        private HdfFile file;
+
+        @Setup(Level.Iteration)
+        public void setUp(WriteTarget target) throws IOException {
+            channel = target.open((long) closableDatasets * BYTES_PER_DATASET);
+            file = new HdfFile(channel);
+            createDataSets(file, closableDatasets);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(WriteTarget target) throws IOException {
+            target.release(channel);
+        }
+    }
+
+    /**
+     * An open file with an empty variable-length dataset whose heap objects are added by the benchmark.
+     */
+    @State(Scope.Thread)
+    public static class Heap {
+        /** The number of heap objects added per operation. */
+        @Param({"1000", "10000", "50000"})
+        public int vlenObjects;
+
+        /** The size of each heap object, in bytes. */
+        @Param({"16", "1024"})
+        public int vlenBytes;
+
+        /** The channel the file is written to. */
+        private SeekableByteChannel channel;
+        /** The file holding the heap. */
+        private HdfFile file;
+        /** The dataset the heap objects belong to. */
+        private HdfDataSet dataset;
+        /** The global heap of the file. */
+        private HdfGlobalHeap globalHeap;
+        /** The payload of each heap object. */
+        private byte[] object;
+        /** The heap references returned for the objects. */
+        private ByteBuffer references;
+
+        @Setup(Level.Iteration)
+        public void setUp(WriteTarget target) throws IOException {
+            // The last heap collection doubles whenever it fills, so up to half of it may be unused
+            channel = target.open(2L * vlenObjects * (vlenBytes + BYTES_PER_HEAP_OBJECT));
+            file = new HdfFile(channel);
+            HdfDatatype datatype = SyntheticFiles.datatype(SyntheticFiles.DataKind.VLEN_STRING);
+            dataset = file.createDataSet(SyntheticFiles.VECTOR, datatype, SyntheticFiles.dataspace(file, new long[]{vlenObjects}));
+            globalHeap = ((VariableLengthDatatype) datatype).getGlobalHeap();
+            object = new byte[vlenBytes];
+            for (int i = 0; i < vlenBytes; i++) {
+                object[i] = (byte) ('a' + i % 26);
+            }
+            references = ByteBuffer.allocate(vlenObjects * datatype.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(WriteTarget target) throws IOException {
+            target.release(channel);
+        }
+    }
+
+    @Benchmark
+    public long createDataSets(Group group, WriteTarget target) throws IOException {
+        SeekableByteChannel channel = target.open((long) group.datasets * BYTES_PER_DATASET);
+        HdfFile file = new HdfFile(channel);
+        createDataSets(file, group.datasets);
+        target.release(channel);
+        return file.getFileAllocation().getEndOfFileOffset();
+    }
+
+    @Benchmark
+    public HdfFile closeFile(ClosableFile closable) throws IOException {
+        closable.file.close();
+        return closable.file;
+    }
+
+    @Benchmark
+    public ByteBuffer addToGlobalHeap(Heap heap) {
+        return addObjects(heap);
+    }
+
+    @Benchmark
+    public long writeVariableLength(Heap heap) throws IOException {
+        heap.dataset.write(addObjects(heap));
+        heap.dataset.close();
+        heap.file.close();
+        return heap.file.getFileAllocation().getEndOfFileOffset();
+    }
+
+    private static ByteBuffer addObjects(Heap heap) {
+        ByteBuffer references = heap.references.clear();
+        for (int i = 0; i < heap.vlenObjects; i++) {
+            references.put(heap.globalHeap.addToHeap(heap.object));
+        }
+        return references.flip();
+    }
+
+    /**
+     * Creates, writes and closes small int64 datasets named so that they sort in creation order.
+     */
+    private static void createDataSets(HdfFile file, int count) throws IOException {
+        HdfDatatype datatype = SyntheticFiles.datatype(SyntheticFiles.DataKind.INT64);
+        ByteBuffer values = ByteBuffer.allocate(SMALL_DATASET_VALUES * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; i++) {
+            HdfDataSet dataset = file.createDataSet(String.format("dataset_%07d", i), datatype,
+                    SyntheticFiles.dataspace(file, new long[]{SMALL_DATASET_VALUES}));
+            values.clear();
+            for (int j = 0; j < SMALL_DATASET_VALUES; j++) {
+                values.putLong((long) i * SMALL_DATASET_VALUES + j);
+            }
+            dataset.write(values.flip());
+            dataset.close();
+        }
+    }
+}
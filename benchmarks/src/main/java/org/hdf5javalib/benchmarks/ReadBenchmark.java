@@ -0,0 +1,155 @@
+package org.hdf5javalib.benchmarks;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the read path of {@link TypedDataSource} for every {@link SyntheticFiles.DataKind}.
+ * <p>
+ * Each trial writes a synthetic file to a temporary directory and reads it through a
+ * {@link FileChannel}. Whole-dataset reads are compared with sequential and parallel
+ * streams, whose elements are folded into a hash sum so that every element is converted.
+ * The {@code bytes} counter reports the raw dataset bytes read per second; run with
+ * {@code -prof gc} to add the allocation rate.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ReadBenchmark {
+    /** The element type of the file. */
+    @Param({"INT8", "INT16", "INT32", "INT64", "FLOAT", "DOUBLE", "SCALED_FIXED", "FIXED_STRING", "VLEN_STRING", "COMPOUND"})
+    public SyntheticFiles.DataKind kind;
+
+    /** The number of elements per dataset; variable-length strings are capped at {@link SyntheticFiles#MAX_VLEN_ELEMENTS}. */
+    @Param({"16384", "1048576"})
+    public int elements;
+
+    /** The temporary directory holding the file. */
+    private Path directory;
+    /** The channel the file is read through. */
+    private FileChannel channel;
+    /** The one-dimensional dataset. */
+    private TypedDataSource<?> vector;
+    /** The two-dimensional dataset. */
+    private TypedDataSource<?> matrix;
+    /** The raw size of each dataset in bytes. */
+    private long datasetBytes;
+
+    /**
+     * Counts the raw dataset bytes read, reported as a rate next to the operation rate.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        /** The number of raw bytes read in the current iteration. */
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int count = kind == SyntheticFiles.DataKind.VLEN_STRING ? Math.min(elements, SyntheticFiles.MAX_VLEN_ELEMENTS) : elements;
+        directory = Files.createTempDirectory("hdf5javalib-bench");
+        Path path = SyntheticFiles.create(directory, kind, count);
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        HdfFileReader reader = new HdfFileReader(channel).readFile();
+        vector = new TypedDataSource<>(channel, reader, reader.getRootGroup().findDataset(SyntheticFiles.VECTOR), kind.getJavaClass());
+        matrix = new TypedDataSource<>(channel, reader, reader.getRootGroup().findDataset(SyntheticFiles.MATRIX), kind.getJavaClass());
+        datasetBytes = vector.getElementCount() * vector.getElementSize();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        channel.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Object readVector(Bytes counter) throws IOException {
+        counter.bytes += datasetBytes;
+        return vector.readVector();
+    }
+
+    @Benchmark
+    public Object readMatrix(Bytes counter) throws IOException {
+        counter.bytes += datasetBytes;
+        return matrix.readMatrix();
+    }
+
+    @Benchmark
+    public Object readFlattened(Bytes counter) throws IOException {
+        counter.bytes += datasetBytes;
+        return matrix.readFlattened();
+    }
+
+    @Benchmark
+    public long streamVector(Bytes counter) {
+        counter.bytes += datasetBytes;
+        return vector.streamVector().mapToLong(Objects::hashCode).sum();
+    }
+
+    @Benchmark
+    public long parallelStreamVector(Bytes counter) {
+        counter.bytes += datasetBytes;
+        return vector.parallelStreamVector().mapToLong(Objects::hashCode).sum();
+    }
+
+    @Benchmark
+    public long streamMatrix(Bytes counter) {
+        counter.bytes += datasetBytes;
+        return matrix.streamMatrix().mapToLong(row -> row.length).sum();
+    }
+
+    @Benchmark
+    public long parallelStreamMatrix(Bytes counter) {
+        counter.bytes += datasetBytes;
+        return matrix.parallelStreamMatrix().mapToLong(row -> row.length).sum();
+    }
+
+    @Benchmark
+    public long streamFlattened(Bytes counter) {
+        counter.bytes += datasetBytes;
+        return matrix.streamFlattened().mapToLong(Objects::hashCode).sum();
+    }
+
+    @Benchmark
+    public long parallelStreamFlattened(Bytes counter) {
+        counter.bytes += datasetBytes;
+        return matrix.parallelStreamFlattened().mapToLong(Objects::hashCode).sum();
+    }
+}
@@ -0,0 +1,254 @@
+package org.hdf5javalib.benchmarks;
+
+import org.hdf5javalib.dataclass.HdfCompound;
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundMemberDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.FloatingPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.StringDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.VariableLengthDatatype;
+import org.hdf5javalib.utils.HdfWriteUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Generates the HDF5 files read by the benchmarks.
+ * <p>
+ * The {@code SyntheticFiles} class writes a file per {@link DataKind} and element count
+ * with {@link HdfFile}, holding the same values twice: as a one-dimensional dataset named
+ * {@value #VECTOR} and as a two-dimensional dataset named {@value #MATRIX} with
+ * {@value #COLUMNS} columns. Values are a deterministic function of the element index, so
+ * runs are comparable across machines and commits.
+ * </p>
+ * <p>
+ * The variable-length string matrix reuses the heap objects of the vector: the writer
+ * keeps at most two global heap collections and grows the second one in place, so heap
+ * objects can only be added while the file's last dataset is being written.
+ * </p>
+ */
+public final class SyntheticFiles {
+    /** The name of the one-dimensional dataset. */
+    public static final String VECTOR = "vector";
+    /** The name of the two-dimensional dataset. */
+    public static final String MATRIX = "matrix";
+    /** The number of columns of the two-dimensional dataset. */
+    public static final int COLUMNS = 256;
+    /** The length of fixed strings, in bytes. */
+    private static final int STRING_LENGTH = 16;
+    /** The largest number of variable-length strings written, as the writer keeps at most 65535 objects per heap collection. */
+    public static final int MAX_VLEN_ELEMENTS = 16384;
+    /** The number of elements encoded per buffer handed to the dataset. */
+    private static final int WRITE_BLOCK_ELEMENTS = 8192;
+
+    /**
+     * The element types the benchmarks are run with.
+     */
+    public enum DataKind {
+        /** Signed 8-bit integers. */
+        INT8(Byte.class),
+        /** Signed 16-bit integers. */
+        INT16(Short.class),
+        /** Signed 32-bit integers. */
+        INT32(Integer.class),
+        /** Signed 64-bit integers. */
+        INT64(Long.class),
+        /** IEEE 754 single-precision values. */
+        FLOAT(Float.class),
+        /** IEEE 754 double-precision values. */
+        DOUBLE(Double.class),
+        /** Unsigned 57-bit integers at bit offset 7, read as scaled decimals. */
+        SCALED_FIXED(BigDecimal.class),
+        /** Null-terminated ASCII strings of {@value #STRING_LENGTH} bytes. */
+        FIXED_STRING(String.class),
+        /** Variable-length ASCII strings stored in the global heap. */
+        VLEN_STRING(String.class),
+        /** Records of an integer, a double, a fixed string and a short. */
+        COMPOUND(HdfCompound.class);
+
+        /** The class the elements are read as. */
+        private final Class<?> javaClass;
+
+        DataKind(Class<?> javaClass) {
+            this.javaClass = javaClass;
+        }
+
+        public Class<?> getJavaClass() {
+            return javaClass;
+        }
+    }
+
+    private SyntheticFiles() {
+    }
+
+    /**
+     * Writes a file holding {@code elements} values of a kind as a vector and as a matrix.
+     *
+     * @param directory the directory to create the file in
+     * @param kind      the element type
+     * @param elements  the number of elements, a multiple of {@value #COLUMNS}
+     * @return the path of the new file
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the element count is not a positive multiple of the column count,
+     *                                  or exceeds {@value #MAX_VLEN_ELEMENTS} for variable-length strings
+     */
+    public static Path create(Path directory, DataKind kind, int elements) throws IOException {
+        if (elements <= 0 || elements % COLUMNS != 0) {
+            throw new IllegalArgumentException("Element count must be a positive multiple of " + COLUMNS + ": " + elements);
+        }
+        if (kind == DataKind.VLEN_STRING && elements > MAX_VLEN_ELEMENTS) {
+            throw new IllegalArgumentException("At most " + MAX_VLEN_ELEMENTS + " variable-length strings are supported: " + elements);
+        }
+        Path path = Files.createTempFile(directory, kind.name().toLowerCase() + "-" + elements + "-", ".h5");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            HdfFile file = new HdfFile(channel);
+            // The heap references of variable-length strings, recorded by the vector and reused by the matrix
+            ByteBuffer references = kind == DataKind.VLEN_STRING ? ByteBuffer.allocate(elements * 16) : null;
+            writeDataSet(file, VECTOR, kind, new long[]{elements}, references, false);
+            writeDataSet(file, MATRIX, kind, new long[]{elements / COLUMNS, COLUMNS}, references, true);
+            file.close();
+        }
+        return path;
+    }
+
+    private static void writeDataSet(HdfFile file, String name, DataKind kind, long[] shape,
+                                     ByteBuffer references, boolean reuseReferences) throws IOException {
+        HdfDatatype datatype = datatype(kind);
+        HdfDataSet dataset = file.createDataSet(name, datatype, dataspace(file, shape));
+        long elements = 1;
+        for (long dimension : shape) {
+            elements *= dimension;
+        }
+        long total = elements;
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BLOCK_ELEMENTS * datatype.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+        long[] next = {0};
+        dataset.write(() -> {
+            buffer.clear();
+            int count = (int) Math.min(WRITE_BLOCK_ELEMENTS, total - next[0]);
+            for (int i = 0; i < count; i++) {
+                encode(kind, datatype, next[0] + i, buffer, i * datatype.getSize(), references, reuseReferences);
+            }
+            next[0] += count;
+            return buffer.limit(count * datatype.getSize());
+        });
+        dataset.close();
+    }
+
+    /**
+     * Encodes the value of one element at an absolute buffer offset.
+     */
+    private static void encode(DataKind kind, HdfDatatype datatype, long index, ByteBuffer buffer, int offset,
+                               ByteBuffer references, boolean reuseReferences) {
+        switch (kind) {
+            case INT8 -> buffer.put(offset, (byte) index);
+            case INT16 -> buffer.putShort(offset, (short) index);
+            case INT32 -> buffer.putInt(offset, (int) (index * 2654435761L));
+            case INT64 -> buffer.putLong(offset, index * 0x9E3779B97F4A7C15L);
+            case FLOAT -> buffer.putFloat(offset, index * 0.5f);
+            case DOUBLE -> buffer.putDouble(offset, Math.sin(index) * 1000.0);
+            // The value occupies bits 7 to 63; the padding bits stay zero
+            case SCALED_FIXED -> buffer.putLong(offset, (index + 1) << 7);
+            case FIXED_STRING -> putString(buffer, offset, "s" + index, STRING_LENGTH);
+            case VLEN_STRING -> {
+                int referenceOffset = (int) index * 16;
+                if (!reuseReferences) {
+                    byte[] bytes = ("value-" + index).getBytes(StandardCharsets.US_ASCII);
+                    // The heap returns the 16-byte reference stored in the dataset
+                    references.put(referenceOffset, ((VariableLengthDatatype) datatype).getGlobalHeap().addToHeap(bytes));
+                }
+                buffer.put(offset, references, referenceOffset, 16);
+            }
+            case COMPOUND -> {
+                buffer.putInt(offset, (int) index);
+                buffer.putDouble(offset + 8, index * 0.25);
+                putString(buffer, offset + 16, "r" + (index % 1000), 8);
+                buffer.putShort(offset + 24, (short) (index % 30000));
+            }
+        }
+    }
+
+    private static void putString(ByteBuffer buffer, int offset, String value, int length) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < length; i++) {
+            buffer.put(offset + i, i < bytes.length ? bytes[i] : 0);
+        }
+    }
+
+    /**
+     * Creates the datatype elements of a kind are written with.
+     *
+     * @param kind the element type
+     * @return a new datatype instance, not yet bound to a global heap
+     */
+    static HdfDatatype datatype(DataKind kind) {
+        return switch (kind) {
+            case INT8 -> fixedPoint(1, true, 0, 8);
+            case INT16 -> fixedPoint(2, true, 0, 16);
+            case INT32 -> fixedPoint(4, true, 0, 32);
+            case INT64 -> fixedPoint(8, true, 0, 64);
+            case FLOAT -> floatingPoint(4);
+            case DOUBLE -> floatingPoint(8);
+            case SCALED_FIXED -> fixedPoint(8, false, 7, 57);
+            case FIXED_STRING -> string(STRING_LENGTH);
+            case VLEN_STRING -> new VariableLengthDatatype(VariableLengthDatatype.createClassAndVersion(),
+                    VariableLengthDatatype.createClassBitField(VariableLengthDatatype.Type.STRING,
+                            VariableLengthDatatype.PaddingType.NULL_TERMINATE, VariableLengthDatatype.CharacterSet.ASCII),
+                    16, fixedPoint(1, false, 0, 8));
+            case COMPOUND -> new CompoundDatatype(CompoundDatatype.createClassAndVersion(),
+                    CompoundDatatype.createClassBitField((short) 4), 32, List.of(
+                    new CompoundMemberDatatype("id", 0, 0, 0, new int[4], fixedPoint(4, true, 0, 32)),
+                    new CompoundMemberDatatype("value", 8, 0, 0, new int[4], floatingPoint(8)),
+                    new CompoundMemberDatatype("label", 16, 0, 0, new int[4], string(8)),
+                    new CompoundMemberDatatype("count", 24, 0, 0, new int[4], fixedPoint(2, true, 0, 16))));
+        };
+    }
+
+    private static FixedPointDatatype fixedPoint(int size, boolean signed, int bitOffset, int bitPrecision) {
+        return new FixedPointDatatype(FixedPointDatatype.createClassAndVersion(),
+                FixedPointDatatype.createClassBitField(false, false, false, signed),
+                size, (short) bitOffset, (short) bitPrecision);
+    }
+
+    private static FloatingPointDatatype floatingPoint(int size) {
+        boolean isDouble = size == 8;
+        return new FloatingPointDatatype(FloatingPointDatatype.createClassAndVersion(),
+                FloatingPointDatatype.ClassBitField.createBitSet(FloatingPointDatatype.ClassBitField.ByteOrder.LITTLE_ENDIAN,
+                        false, false, false, FloatingPointDatatype.ClassBitField.MantissaNormalization.IMPLIED_SET, size * 8 - 1),
+                size, (short) 0, (short) (size * 8),
+                (byte) (isDouble ? 52 : 23), (byte) (isDouble ? 11 : 8), (byte) 0, (byte) (isDouble ? 52 : 23), isDouble ? 1023 : 127);
+    }
+
+    private static StringDatatype string(int size) {
+        return new StringDatatype(StringDatatype.createClassAndVersion(),
+                StringDatatype.createClassBitField(StringDatatype.PaddingType.NULL_TERMINATE, StringDatatype.CharacterSet.ASCII), size);
+    }
+
+    /**
+     * Creates the dataspace of a fixed-size dataset.
+     *
+     * @param file  the file the dataset belongs to
+     * @param shape the dimensions of the dataset
+     * @return the dataspace message
+     */
+    static DataspaceMessage dataspace(HdfFile file, long[] shape) {
+        HdfFixedPoint[] hdfDimensions = new HdfFixedPoint[shape.length];
+        for (int i = 0; i < shape.length; i++) {
+            hdfDimensions[i] = HdfWriteUtils.hdfFixedPointFromValue(shape[i], file.getFixedPointDatatypeForLength());
+        }
+        return new DataspaceMessage(1, shape.length, DataspaceMessage.buildFlagSet(true, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, (short) (8 + 16 * shape.length));
+    }
+}
@@ -0,0 +1,192 @@
+package org.hdf5javalib.benchmarks;
+
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundDatatype;
+import org.hdf5javalib.utils.HdfWriteUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the raw data write path of {@link HdfFile} and {@link HdfDataSet}.
+ * <p>
+ * Each operation writes a complete file holding one double-precision dataset of
+ * {@code payloadBytes} bytes to a {@link WriteTarget}, either from a single buffer or from
+ * a supplier handing out {@value #CHUNK_BYTES}-byte chunks, and closes it. The
+ * {@code bytes} counter reports the payload bytes written per second. Compound encoding
+ * through {@link HdfWriteUtils#writeCompoundTypeToBuffer} is measured on its own, without a
+ * file, since it dominates compound writes. Run with {@code -prof gc} to add the
+ * allocation rate.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class WriteBenchmark {
+    /** The number of bytes per buffer handed out by the supplier. */
+    private static final int CHUNK_BYTES = 65536;
+
+    /**
+     * The values of the dataset written by each operation.
+     */
+    @State(Scope.Benchmark)
+    public static class Payload {
+        /** The size of the dataset written, in bytes. */
+        @Param({"65536", "4194304", "67108864"})
+        public int payloadBytes;
+
+        /** The encoded values. */
+        private ByteBuffer values;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            values = ByteBuffer.allocate(payloadBytes).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < payloadBytes / 8; i++) {
+                values.putDouble(Math.sin(i) * 1000.0);
+            }
+            values.flip();
+        }
+    }
+
+    /**
+     * Counts the payload bytes written, reported as a rate next to the operation rate.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        /** The number of payload bytes written in the current iteration. */
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    /**
+     * The records encoded by {@link #encodeCompound}.
+     */
+    @State(Scope.Thread)
+    public static class Records {
+        /** The number of records encoded per operation. */
+        @Param({"1024", "65536"})
+        public int records;
+
+        /** The compound datatype of the synthetic files. */
+        private CompoundDatatype datatype;
+        /** The records to encode. */
+        private Record[] values;
+        /** The buffer each record is encoded into. */
+        private ByteBuffer record;
+        /** The buffer the encoded records are gathered in. */
+        private ByteBuffer buffer;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            datatype = (CompoundDatatype) SyntheticFiles.datatype(SyntheticFiles.DataKind.COMPOUND);
+            values = new Record[records];
+            for (int i = 0; i < records; i++) {
+                values[i] = new Record(i, i * 0.25, "r" + (i % 1000), (short) (i % 30000));
+            }
+            record = ByteBuffer.allocate(datatype.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+            buffer = ByteBuffer.allocate(records * datatype.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * A record matching the compound datatype of the synthetic files, field by member name.
+     */
+    public static class Record {
+        /** The {@code id} member. */
+        private final Integer id;
+        /** The {@code value} member. */
+        private final Double value;
+        /** The {@code label} member. */
+        private final String label;
+        /** The {@code count} member. */
+        private final Short count;
+
+        /**
+         * Constructs a Record.
+         *
+         * @param id    the {@code id} member
+         * @param value the {@code value} member
+         * @param label the {@code label} member
+         * @param count the {@code count} member
+         */
+        public Record(Integer id, Double value, String label, Short count) {
+            this.id = id;
+            this.value = value;
+            this.label = label;
+            this.count = count;
+        }
+    }
+
+    @Benchmark
+    public long writeBuffer(Payload payload, WriteTarget target, Bytes bytes) throws IOException {
+        SeekableByteChannel channel = target.open(payload.payloadBytes);
+        HdfFile file = new HdfFile(channel);
+        HdfDataSet dataset = createDataSet(file, payload.payloadBytes);
+        dataset.write(payload.values.duplicate());
+        dataset.close();
+        file.close();
+        target.release(channel);
+        bytes.bytes += payload.payloadBytes;
+        return file.getFileAllocation().getEndOfFileOffset();
+    }
+
+    @Benchmark
+    public long writeSupplier(Payload payload, WriteTarget target, Bytes bytes) throws IOException {
+        SeekableByteChannel channel = target.open(payload.payloadBytes);
+        HdfFile file = new HdfFile(channel);
+        HdfDataSet dataset = createDataSet(file, payload.payloadBytes);
+        ByteBuffer source = payload.values.duplicate();
+        dataset.write(() -> {
+            int length = Math.min(CHUNK_BYTES, source.remaining());
+            ByteBuffer chunk = source.slice(source.position(), length);
+            source.position(source.position() + length);
+            return chunk;
+        });
+        dataset.close();
+        file.close();
+        target.release(channel);
+        bytes.bytes += payload.payloadBytes;
+        return file.getFileAllocation().getEndOfFileOffset();
+    }
+
+    @Benchmark
+    public ByteBuffer encodeCompound(Records records) {
+        ByteBuffer buffer = records.buffer.clear();
+        ByteBuffer record = records.record;
+        for (Record value : records.values) {
+            record.clear();
+            HdfWriteUtils.writeCompoundTypeToBuffer(value, records.datatype, record, Record.class);
+            buffer.put(record.rewind());
+        }
+        return buffer.flip();
+    }
+
+    private static HdfDataSet createDataSet(HdfFile file, int payloadBytes) {
+        return file.createDataSet(SyntheticFiles.VECTOR, SyntheticFiles.datatype(SyntheticFiles.DataKind.DOUBLE),
+                SyntheticFiles.dataspace(file, new long[]{payloadBytes / 8}));
+    }
+}
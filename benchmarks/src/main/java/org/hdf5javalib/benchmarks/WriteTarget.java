@@ -0,0 +1,96 @@
+package org.hdf5javalib.benchmarks;
+
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The channel the write benchmarks write their files to.
+ * <p>
+ * The {@code WriteTarget} state opens either a {@link MemorySeekableByteChannel}, which
+ * isolates the cost of encoding and bookkeeping, or a {@link FileChannel} on a temporary
+ * file that is truncated before every write, which adds the cost of the operating system's
+ * page cache. Files are not forced to disk, so the results measure the library rather than
+ * the storage device. The in-memory channel is allocated once and reused while it is large
+ * enough, so its allocation does not count against the write being measured.
+ * </p>
+ */
+@State(Scope.Thread)
+public class WriteTarget {
+    /** The extra capacity of in-memory channels, covering the superblock, group and headers. */
+    private static final int METADATA_CAPACITY = 1 << 20;
+
+    /**
+     * The kinds of channel written to.
+     */
+    public enum Kind {
+        /** A fixed-capacity channel backed by a heap buffer. */
+        MEMORY,
+        /** A file channel on a temporary file. */
+        FILE
+    }
+
+    /** The kind of channel written to. */
+    @Param({"MEMORY", "FILE"})
+    public Kind target;
+
+    /** The temporary file written by the {@code FILE} target. */
+    private Path path;
+    /** The channel reused by the {@code MEMORY} target. */
+    private MemorySeekableByteChannel memoryChannel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (target == Kind.FILE) {
+            path = Files.createTempFile("hdf5javalib-write-", ".h5");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (path != null) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Opens an empty channel large enough for a file holding the given number of data bytes.
+     *
+     * @param dataBytes the number of bytes of raw data and heap objects the file will hold
+     * @return the open channel, positioned at 0
+     * @throws IOException if the temporary file cannot be opened
+     */
+    public SeekableByteChannel open(long dataBytes) throws IOException {
+        if (target == Kind.MEMORY) {
+            long capacity = dataBytes + METADATA_CAPACITY;
+            if (memoryChannel == null || memoryChannel.size() < capacity) {
+                memoryChannel = new MemorySeekableByteChannel(Math.toIntExact(capacity));
+            }
+            return memoryChannel.position(0);
+        }
+        return FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Releases a channel returned by {@link #open(long)} once its file has been closed.
+     *
+     * @param channel the channel to release
+     * @throws IOException if the file channel cannot be closed
+     */
+    public void release(SeekableByteChannel channel) throws IOException {
+        if (channel != memoryChannel) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * JMH benchmarks for HDF5JavaLib.
+ * <p>
+ * The benchmarks generate their input files with {@link org.hdf5javalib.file.HdfFile}
+ * through {@link org.hdf5javalib.benchmarks.SyntheticFiles}, so no fixtures are needed.
+ * Build the library with {@code mvn install}, package this module with
+ * {@code mvn -f benchmarks/pom.xml package}, and run
+ * {@code java -jar benchmarks/target/benchmarks.jar -prof gc} to report throughput,
+ * bytes per second and allocation rates.
+ * </p>
+ */
+package org.hdf5javalib.benchmarks;
@@ -1,8 +1,10 @@
 package org.hdf5javalib;
 
 import org.hdf5javalib.file.HdfFileAllocation;
+import org.hdf5javalib.file.WriteBehindQueue;
 import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
 import org.hdf5javalib.file.infrastructure.HdfGlobalHeap;
+import org.hdf5javalib.storage.HdfStorage;
 
 import java.nio.channels.SeekableByteChannel;
 
@@ -14,6 +16,11 @@ import java.nio.channels.SeekableByteChannel;
  * byte channel, and fixed-point datatypes for offset and length fields. Implementations
  * of this interface provide the necessary context for reading and writing HDF5 data.
  * </p>
+ * <p>
+ * Beneath the channel sits an {@link HdfStorage}, which reads and writes at explicit
+ * positions. Code that reads concurrently, such as the parallel streams of
+ * {@code TypedDataSource}, goes through the storage rather than the shared channel position.
+ * </p>
  */
 public interface HdfDataFile {
     /**
@@ -37,6 +44,20 @@ public interface HdfDataFile {
      */
     SeekableByteChannel getSeekableByteChannel();
 
+    /**
+     * Retrieves the storage holding the HDF5 file.
+     *
+     * @return the {@link HdfStorage} beneath the channel
+     */
+    HdfStorage getStorage();
+
+    /**
+     * Retrieves the write-behind queue through which all channel writes must be issued.
+     *
+     * @return the {@link WriteBehindQueue}, or null if writes are performed synchronously
+     */
+    WriteBehindQueue getWriteBehindQueue();
+
     /**
      * Retrieves the fixed-point datatype used for offset fields in the HDF5 file.
      *
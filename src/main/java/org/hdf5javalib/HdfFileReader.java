@@ -4,11 +4,16 @@ import org.hdf5javalib.dataclass.HdfString;
 import org.hdf5javalib.file.HdfDataSet;
 import org.hdf5javalib.file.HdfFileAllocation;
 import org.hdf5javalib.file.HdfGroup;
+import org.hdf5javalib.file.WriteBehindQueue;
 import org.hdf5javalib.file.dataobject.HdfObjectHeaderPrefixV1;
 import org.hdf5javalib.file.dataobject.message.DatatypeMessage;
 import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
 import org.hdf5javalib.file.infrastructure.*;
 import org.hdf5javalib.file.metadata.HdfSuperblock;
+import org.hdf5javalib.io.IoCategory;
+import org.hdf5javalib.jfr.FileOpenEvent;
+import org.hdf5javalib.storage.HdfStorage;
+import org.hdf5javalib.storage.StorageChannel;
 import org.hdf5javalib.utils.HdfWriteUtils;
 
 import java.io.IOException;
@@ -24,6 +29,10 @@ import java.util.Map;
  * root group, global heap, and file allocation, and constructs a hierarchy of groups and
  * datasets by parsing the file's metadata and data structures.
  * </p>
+ * <p>
+ * A reader can also be opened on any {@link HdfStorage}, such as a memory-mapped file or an
+ * in-memory image, in which case metadata is parsed through a {@link StorageChannel}.
+ * </p>
  */
 public class HdfFileReader implements HdfDataFile {
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(HdfFileReader.class);
@@ -36,6 +45,9 @@ public class HdfFileReader implements HdfDataFile {
     /** The seekable byte channel for reading the HDF5 file. */
     private final SeekableByteChannel fileChannel;
 
+    /** The storage beneath the channel. */
+    private final HdfStorage storage;
+
     /** The global heap for storing variable-length data. */
     private final HdfGlobalHeap globalHeap;
 
@@ -48,7 +60,21 @@ public class HdfFileReader implements HdfDataFile {
      * @param fileChannel the seekable byte channel for accessing the HDF5 file
      */
     public HdfFileReader(SeekableByteChannel fileChannel) {
+        this(fileChannel, HdfStorage.of(fileChannel));
+    }
+
+    /**
+     * Constructs an HdfFileReader for reading an HDF5 file held in a storage.
+     *
+     * @param storage the storage holding the HDF5 file
+     */
+    public HdfFileReader(HdfStorage storage) {
+        this(new StorageChannel(storage), storage);
+    }
+
+    private HdfFileReader(SeekableByteChannel fileChannel, HdfStorage storage) {
         this.fileChannel = fileChannel;
+        this.storage = storage;
         this.fileAllocation = new HdfFileAllocation();
         this.globalHeap = new HdfGlobalHeap(this::initializeGlobalHeap, this);
     }
@@ -63,11 +89,17 @@ public class HdfFileReader implements HdfDataFile {
      * @param offset the file offset where the global heap data begins
      */
     private void initializeGlobalHeap(long offset) {
+        IoCategory previous = IoCategory.enter(IoCategory.GLOBAL_HEAP);
+        // Hold the channel's lock like TypedDataSource does, since the read moves the channel position
         try {
-            fileChannel.position(offset);
-            globalHeap.readFromFileChannel(fileChannel, this);
+            synchronized (fileChannel) {
+                fileChannel.position(offset);
+                globalHeap.readFromFileChannel(fileChannel, this);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            IoCategory.restore(previous);
         }
     }
 
@@ -83,22 +115,37 @@ public class HdfFileReader implements HdfDataFile {
      * @throws IOException if an I/O error occurs during reading
      */
     public HdfFileReader readFile() throws IOException {
-        superblock = HdfSuperblock.readFromFileChannel(fileChannel, this);
-        log.debug("{}", superblock);
+        FileOpenEvent event = new FileOpenEvent();
+        event.begin();
+        IoCategory previous = IoCategory.enter(IoCategory.SUPERBLOCK);
+        HdfObjectHeaderPrefixV1 objectHeader;
+        HdfLocalHeap localHeap;
+        HdfBTreeV1 bTree;
+        Map<String, HdfGroup.DataSetInfo> datasetMap;
+        try {
+            superblock = HdfSuperblock.readFromFileChannel(fileChannel, this);
+            log.debug("{}", superblock);
 
-        long objectHeaderAddress = superblock.getRootGroupSymbolTableEntry().getObjectHeaderOffset().getInstance(Long.class);
-        fileChannel.position(objectHeaderAddress);
-        HdfObjectHeaderPrefixV1 objectHeader = HdfObjectHeaderPrefixV1.readFromFileChannel(fileChannel, this);
+            IoCategory.enter(IoCategory.OBJECT_HEADER);
+            long objectHeaderAddress = superblock.getRootGroupSymbolTableEntry().getObjectHeaderOffset().getInstance(Long.class);
+            fileChannel.position(objectHeaderAddress);
+            objectHeader = HdfObjectHeaderPrefixV1.readFromFileChannel(fileChannel, this);
 
-        long localHeapAddress = superblock.getRootGroupSymbolTableEntry().getLocalHeapOffset().getInstance(Long.class);
-        fileChannel.position(localHeapAddress);
-        HdfLocalHeap localHeap = HdfLocalHeap.readFromFileChannel(fileChannel, this);
+            IoCategory.enter(IoCategory.LOCAL_HEAP);
+            long localHeapAddress = superblock.getRootGroupSymbolTableEntry().getLocalHeapOffset().getInstance(Long.class);
+            fileChannel.position(localHeapAddress);
+            localHeap = HdfLocalHeap.readFromFileChannel(fileChannel, this);
 
-        long bTreeAddress = superblock.getRootGroupSymbolTableEntry().getBTreeOffset().getInstance(Long.class);
-        fileChannel.position(bTreeAddress);
-        HdfBTreeV1 bTree = HdfBTreeV1.readFromFileChannel(fileChannel, this);
+            IoCategory.enter(IoCategory.BTREE);
+            long bTreeAddress = superblock.getRootGroupSymbolTableEntry().getBTreeOffset().getInstance(Long.class);
+            fileChannel.position(bTreeAddress);
+            bTree = HdfBTreeV1.readFromFileChannel(fileChannel, this);
 
-        Map<String, HdfGroup.DataSetInfo> datasetMap = collectDatasetsMap(fileChannel, bTree, localHeap);
+            IoCategory.enter(IoCategory.OBJECT_HEADER);
+            datasetMap = collectDatasetsMap(fileChannel, bTree, localHeap);
+        } finally {
+            IoCategory.restore(previous);
+        }
 
         rootGroup = new HdfGroup(
                 null,
@@ -112,6 +159,11 @@ public class HdfFileReader implements HdfDataFile {
         log.debug("{}", rootGroup);
         log.debug("Parsing complete. NEXT: {}", fileChannel.position());
 
+        if (event.shouldCommit()) {
+            event.fileSize = fileChannel.size();
+            event.datasetCount = datasetMap.size();
+            event.commit();
+        }
         return this;
     }
 
@@ -192,13 +244,36 @@ public class HdfFileReader implements HdfDataFile {
 
     /**
      * Retrieves the seekable byte channel for reading the HDF5 file.
+     * <p>
+     * The channel's position is moved while metadata is parsed and global heap collections
+     * are loaded; hold its lock when positioning it, or read through {@link #getStorage()}.
+     * </p>
      *
      * @return the {@link SeekableByteChannel} instance
-     * @throws UnsupportedOperationException as this operation is not yet supported
      */
     @Override
     public SeekableByteChannel getSeekableByteChannel() {
-        throw new UnsupportedOperationException("Not supported yet.");
+        return fileChannel;
+    }
+
+    /**
+     * Retrieves the storage holding the HDF5 file.
+     *
+     * @return the {@link HdfStorage} instance
+     */
+    @Override
+    public HdfStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Retrieves the write-behind queue of the HDF5 file.
+     *
+     * @return null, as files opened for reading are never written
+     */
+    @Override
+    public WriteBehindQueue getWriteBehindQueue() {
+        return null;
     }
 
     /**
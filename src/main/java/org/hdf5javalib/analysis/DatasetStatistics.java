@@ -0,0 +1,237 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.datasource.AxisCellCursor;
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.PrimitiveDecoder;
+import org.hdf5javalib.datasource.TypedDataSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Computes mergeable statistics over a numeric dataset in a single parallel pass.
+ * <p>
+ * The {@code DatasetStatistics} class scans a {@link TypedDataSource} with a
+ * {@link ParallelBlockReader}, decodes each block into a reusable {@code double[]} with a
+ * {@link PrimitiveDecoder}, and feeds the values to per-partition
+ * {@link DoubleAccumulator}s that are merged once all partitions finish. Any accumulator
+ * can be used: {@link SummaryStatistics}, {@link Histogram}, {@link QuantileSketch}, or
+ * an application-defined one. Statistics are computed either over the whole dataset or
+ * along one axis, with one accumulator per cell of the remaining dimensions.
+ * </p>
+ */
+public class DatasetStatistics {
+    /** The data source being summarized. */
+    private final TypedDataSource<?> source;
+    /** The decoder for the dataset's elements. */
+    private final PrimitiveDecoder decoder;
+    /** The block reader used for scans. */
+    private final ParallelBlockReader blockReader;
+
+    /**
+     * Constructs a DatasetStatistics using one partition per processor.
+     *
+     * @param source the numeric data source to summarize
+     * @throws IllegalArgumentException if the dataset is not numeric
+     */
+    public DatasetStatistics(TypedDataSource<?> source) {
+        this(source, new ParallelBlockReader(source));
+    }
+
+    /**
+     * Constructs a DatasetStatistics with an explicit block reader.
+     *
+     * @param source      the numeric data source to summarize
+     * @param blockReader the block reader used to scan the data source
+     * @throws IllegalArgumentException if the dataset is not numeric
+     */
+    public DatasetStatistics(TypedDataSource<?> source, ParallelBlockReader blockReader) {
+        this.source = source;
+        this.decoder = PrimitiveDecoder.forDatatype(source.getDatatype());
+        this.blockReader = blockReader;
+    }
+
+    /**
+     * Computes count, extremes, sum, mean and variance over the whole dataset.
+     *
+     * @return the summary
+     * @throws IOException if an I/O error occurs
+     */
+    public SummaryStatistics summarize() throws IOException {
+        return compute(SummaryStatistics::new);
+    }
+
+    /**
+     * Computes count, extremes, sum, mean and variance along one axis.
+     *
+     * @param axis the axis to summarize along
+     * @return one summary per cell of the remaining dimensions, in row-major order
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the axis is out of range
+     */
+    public List<SummaryStatistics> summarizeAlongAxis(int axis) throws IOException {
+        return computeAlongAxis(axis, SummaryStatistics::new);
+    }
+
+    /**
+     * Counts the values of the whole dataset into bins.
+     *
+     * @param layout a histogram defining the bins; it is not modified
+     * @return a new histogram with the counts
+     * @throws IOException if an I/O error occurs
+     */
+    public Histogram histogram(Histogram layout) throws IOException {
+        return compute(layout::emptyCopy);
+    }
+
+    /**
+     * Estimates quantiles of the whole dataset.
+     *
+     * @param k the accuracy parameter of the sketch
+     * @return the quantile sketch
+     * @throws IOException if an I/O error occurs
+     */
+    public QuantileSketch quantileSketch(int k) throws IOException {
+        return compute(() -> new QuantileSketch(k));
+    }
+
+    /**
+     * Feeds every value of the dataset to an accumulator.
+     *
+     * @param <S>     the accumulator type
+     * @param factory creates an empty accumulator for each partition
+     * @return the merged accumulator
+     * @throws IOException if an I/O error occurs
+     */
+    public <S extends DoubleAccumulator<S>> S compute(Supplier<S> factory) throws IOException {
+        return blockReader.read(
+                (first, count) -> new Partition<S>(factory.get()),
+                (partition, block, first, count) -> partition.accumulator.accept(partition.decode(block, count), 0, count),
+                (a, b) -> {
+                    a.accumulator.merge(b.accumulator);
+                    return a;
+                }).accumulator;
+    }
+
+    /**
+     * Feeds the values along one axis to one accumulator per cell of the remaining dimensions.
+     *
+     * @param <S>     the accumulator type
+     * @param axis    the axis to summarize along
+     * @param factory creates an empty accumulator for each cell of each partition
+     * @return the merged accumulators, in row-major order of the remaining dimensions
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the axis is out of range
+     */
+    public <S extends DoubleAccumulator<S>> List<S> computeAlongAxis(int axis, Supplier<S> factory) throws IOException {
+        int[] shape = source.getShape();
+        if (axis < 0 || axis >= shape.length) {
+            throw new IllegalArgumentException("Invalid axis for statistics: " + axis);
+        }
+        long outer = 1;
+        for (int i = 0; i < axis; i++) {
+            outer *= shape[i];
+        }
+        long inner = 1;
+        for (int i = axis + 1; i < shape.length; i++) {
+            inner *= shape[i];
+        }
+        if (outer * inner > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many cells for statistics: " + outer * inner);
+        }
+        long innerCount = inner;
+        long slab = shape[axis] * inner;
+        // Align partitions to slabs when there are enough of them to keep every core busy
+        long granularity = outer >= blockReader.getParallelism() ? Math.max(1, slab) : 1;
+        List<AxisPartition<S>> partitions = blockReader.readPartitions(0, source.getElementCount(), granularity,
+                (first, count) -> new AxisPartition<>(factory, new AxisCellCursor(first, count, slab, innerCount)),
+                (partition, block, first, count) -> partition.accept(partition.decode(block, count), first, count));
+
+        int cells = (int) (outer * inner);
+        List<S> result = new ArrayList<>(Collections.nCopies(cells, null));
+        for (AxisPartition<S> partition : partitions) {
+            for (int i = 0; i < partition.cells.size(); i++) {
+                int cell = partition.cursor.getBase() + i;
+                S existing = result.get(cell);
+                if (existing == null) {
+                    result.set(cell, partition.cells.get(i));
+                } else {
+                    existing.merge(partition.cells.get(i));
+                }
+            }
+        }
+        for (int i = 0; i < cells; i++) {
+            if (result.get(i) == null) {
+                result.set(i, factory.get());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The decoding buffer of one partition.
+     */
+    private class BlockDecoder {
+        /** The decoded values of the current block. */
+        private double[] scratch = new double[0];
+
+        double[] decode(ByteBuffer block, int count) {
+            if (scratch.length < count) {
+                scratch = new double[count];
+            }
+            decoder.getDoubles(block, 0, count, scratch, 0);
+            return scratch;
+        }
+    }
+
+    /**
+     * The accumulator of one partition.
+     */
+    private class Partition<S> extends BlockDecoder {
+        /** The partition's accumulator. */
+        private final S accumulator;
+
+        Partition(S accumulator) {
+            this.accumulator = accumulator;
+        }
+    }
+
+    /**
+     * The per-cell accumulators of one partition, covering the cells its elements touch.
+     */
+    private class AxisPartition<S extends DoubleAccumulator<S>> extends BlockDecoder {
+        /** The cell of the value being accumulated. */
+        private final AxisCellCursor cursor;
+        /** The accumulators of the touched cells. */
+        private final List<S> cells;
+
+        AxisPartition(Supplier<S> factory, AxisCellCursor cursor) {
+            this.cursor = cursor;
+            int length = cursor.getCellCount();
+            this.cells = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                cells.add(factory.get());
+            }
+        }
+
+        void accept(double[] values, long firstElement, int count) {
+            cursor.seek(firstElement);
+            int i = 0;
+            while (i < count) {
+                // Consecutive values share a cell when the axis is the last dimension
+                int run = cursor.run(count - i);
+                if (run == 1) {
+                    cells.get(cursor.cell()).accept(values[i]);
+                } else {
+                    cells.get(cursor.cell()).accept(values, i, i + run);
+                }
+                cursor.advance(run);
+                i += run;
+            }
+        }
+    }
+}
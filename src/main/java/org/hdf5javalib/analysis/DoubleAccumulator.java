@@ -0,0 +1,43 @@
+package org.hdf5javalib.analysis;
+
+/**
+ * A single-pass summary of double values that can be merged with others of its kind.
+ * <p>
+ * Implementations are not thread-safe. Parallel scans give each partition its own
+ * accumulator and merge the partial results once the partitions complete, so merging
+ * must give the same result, up to rounding or sketch error, as accepting all values
+ * into a single accumulator.
+ * </p>
+ *
+ * @param <S> the concrete accumulator type
+ */
+public interface DoubleAccumulator<S extends DoubleAccumulator<S>> {
+
+    /**
+     * Adds a value to the summary.
+     *
+     * @param value the value to add
+     */
+    void accept(double value);
+
+    /**
+     * Adds a range of values to the summary.
+     *
+     * @param values the array holding the values
+     * @param from   the first index to add, inclusive
+     * @param to     the last index to add, exclusive
+     */
+    default void accept(double[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            accept(values[i]);
+        }
+    }
+
+    /**
+     * Merges another summary into this one.
+     *
+     * @param other the summary to merge, which is left unchanged
+     * @return this summary
+     */
+    S merge(S other);
+}
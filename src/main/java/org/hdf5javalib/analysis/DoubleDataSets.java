@@ -0,0 +1,74 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.FloatingPointDatatype;
+import org.hdf5javalib.utils.HdfWriteUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Creates the datasets produced by the analysis operators, most of which hold little-endian IEEE doubles.
+ */
+final class DoubleDataSets {
+
+    private DoubleDataSets() {
+    }
+
+    /**
+     * Creates the datatype of a little-endian IEEE 754 double.
+     *
+     * @return the datatype
+     */
+    static FloatingPointDatatype doubleDatatype() {
+        return new FloatingPointDatatype(
+                FloatingPointDatatype.createClassAndVersion(),
+                FloatingPointDatatype.ClassBitField.createBitSet(FloatingPointDatatype.ClassBitField.ByteOrder.LITTLE_ENDIAN,
+                        false, false, false, FloatingPointDatatype.ClassBitField.MantissaNormalization.IMPLIED_SET, 63),
+                8, (short) 0, (short) 64, (byte) 52, (byte) 11, (byte) 0, (byte) 52, 1023);
+    }
+
+    /**
+     * Creates a simple dataspace whose maximum dimensions equal its dimensions.
+     *
+     * @param file       the file the dataspace belongs to
+     * @param dimensions the dimensions of the dataspace
+     * @return the dataspace message
+     */
+    static DataspaceMessage dataspace(HdfFile file, long... dimensions) {
+        HdfFixedPoint[] hdfDimensions = new HdfFixedPoint[dimensions.length];
+        for (int i = 0; i < dimensions.length; i++) {
+            hdfDimensions[i] = HdfWriteUtils.hdfFixedPointFromValue(dimensions[i], file.getFixedPointDatatypeForLength());
+        }
+        // Version 1 dataspace: 8 header bytes plus a size and a maximum size per dimension
+        return new DataspaceMessage(1, dimensions.length, DataspaceMessage.buildFlagSet(dimensions.length > 0, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, (short) (8 + 16 * dimensions.length));
+    }
+
+    /**
+     * Creates, writes and closes a dataset of doubles.
+     *
+     * @param file   the file to write to
+     * @param name   the name of the dataset
+     * @param shape  the dimensions of the dataset
+     * @param values the values in row-major order
+     * @return the closed dataset
+     * @throws IOException if an I/O error occurs
+     */
+    static HdfDataSet write(HdfFile file, String name, int[] shape, double[] values) throws IOException {
+        long[] dimensions = new long[shape.length];
+        for (int i = 0; i < shape.length; i++) {
+            dimensions[i] = shape[i];
+        }
+        HdfDataSet dataset = file.createDataSet(name, doubleDatatype(), dataspace(file, dimensions));
+        ByteBuffer data = ByteBuffer.allocate(values.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        data.asDoubleBuffer().put(values);
+        dataset.write(data);
+        dataset.close();
+        return dataset;
+    }
+}
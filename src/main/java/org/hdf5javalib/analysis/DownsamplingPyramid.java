@@ -0,0 +1,119 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.HdfDataFile;
+import org.hdf5javalib.datasource.PermutedReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfGroup;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the levels of a pyramid written by {@link PyramidBuilder}.
+ * <p>
+ * The {@code DownsamplingPyramid} class discovers the levels of a dataset by name, level
+ * 0 being the original dataset, and selects the coarsest level that still meets a
+ * requested resolution, so overviews read as little data as possible.
+ * </p>
+ */
+public class DownsamplingPyramid {
+    /** The suffix placed between a dataset name and a level number. */
+    public static final String LEVEL_SUFFIX = "_level";
+
+    /** The channel of the file holding the pyramid. */
+    private final SeekableByteChannel channel;
+    /** The file holding the pyramid. */
+    private final HdfDataFile hdfDataFile;
+    /** The dataset of each level, starting with the original. */
+    private final List<HdfDataSet> levels = new ArrayList<>();
+    /** The shape of each level. */
+    private final List<int[]> shapes = new ArrayList<>();
+
+    /**
+     * Constructs a DownsamplingPyramid from the levels present in a group.
+     *
+     * @param channel     the channel of the file holding the pyramid
+     * @param hdfDataFile the file holding the pyramid
+     * @param group       the group holding the original dataset and its levels
+     * @param baseName    the name of the original dataset
+     * @throws IllegalArgumentException if the original dataset does not exist
+     */
+    public DownsamplingPyramid(SeekableByteChannel channel, HdfDataFile hdfDataFile, HdfGroup group, String baseName) {
+        this.channel = channel;
+        this.hdfDataFile = hdfDataFile;
+        HdfDataSet dataset = group.findDataset(baseName);
+        if (dataset == null) {
+            throw new IllegalArgumentException("No dataset named " + baseName);
+        }
+        for (int level = 1; dataset != null; level++) {
+            levels.add(dataset);
+            shapes.add(new TypedDataSource<>(channel, hdfDataFile, dataset, Object.class).getShape());
+            dataset = group.findDataset(levelName(baseName, level));
+        }
+    }
+
+    /**
+     * Computes the name of a level's dataset.
+     *
+     * @param baseName the name of the original dataset
+     * @param level    the level, 0 being the original dataset
+     * @return the dataset name
+     */
+    public static String levelName(String baseName, int level) {
+        return level == 0 ? baseName : baseName + LEVEL_SUFFIX + level;
+    }
+
+    /**
+     * Selects the coarsest level whose every dimension is at least the requested size.
+     *
+     * @param minimumShape the smallest acceptable size of each dimension
+     * @return the selected level; level 0 if no coarser level is large enough
+     * @throws IllegalArgumentException if the number of dimensions does not match
+     */
+    public int selectLevel(int... minimumShape) {
+        if (minimumShape.length != shapes.get(0).length) {
+            throw new IllegalArgumentException("Requested " + minimumShape.length + " dimensions but the dataset has " + shapes.get(0).length);
+        }
+        for (int level = shapes.size() - 1; level > 0; level--) {
+            int[] shape = shapes.get(level);
+            boolean sufficient = true;
+            for (int i = 0; i < shape.length && sufficient; i++) {
+                sufficient = shape[i] >= minimumShape[i];
+            }
+            if (sufficient) {
+                return level;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads a level as doubles.
+     *
+     * @param level the level to read
+     * @return the values in row-major order
+     * @throws IOException if an I/O error occurs
+     */
+    public double[] readLevel(int level) throws IOException {
+        int[] identity = new int[shapes.get(level).length];
+        for (int i = 0; i < identity.length; i++) {
+            identity[i] = i;
+        }
+        return new PermutedReader(new TypedDataSource<>(channel, hdfDataFile, levels.get(level), Object.class)).readDoubles(identity);
+    }
+
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    public HdfDataSet getDataSet(int level) {
+        return levels.get(level);
+    }
+
+    public int[] getShape(int level) {
+        return shapes.get(level).clone();
+    }
+}
@@ -0,0 +1,448 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sorts the elements of a dataset that may not fit in memory into a new dataset.
+ * <p>
+ * The {@code ExternalSort} class reads the source in runs of a fixed number of records,
+ * sorts each run by its primitive key with a stable merge sort over a {@code long[]} of
+ * mapped keys and an {@code int[]} permutation, and spills the sorted runs as datasets of
+ * scratch {@link HdfFile}s in temporary files. The runs are then read back block by block
+ * and merged through a heap of run cursors into a one-dimensional dataset of the output
+ * file, written as a stream of buffers. A source that fits in one run is sorted in memory
+ * without a scratch file. Memory use is about twice the run size.
+ * </p>
+ * <p>
+ * A scratch file holds at most {@value #MAX_MERGE_RUNS} runs, well within what the
+ * writer's root group can index, and at most that many runs are merged at once. With more
+ * runs, the merge takes several passes: each pass merges consecutive groups of runs into
+ * longer runs in new scratch files, until the remaining runs can be merged into the output.
+ * </p>
+ * <p>
+ * Keys are the elements of a numeric dataset or one numeric member of a compound dataset;
+ * whole records are moved, so the output has the source's datatype. Keys are ordered like
+ * {@link Double#compare} for floating-point types, with NaN last, and the sort is stable.
+ * Datatypes that store data in the global heap, such as variable-length strings, are not
+ * supported because their records refer to the source file's heap.
+ * </p>
+ */
+public class ExternalSort {
+    /** The default number of bytes sorted in memory per run. */
+    public static final int DEFAULT_RUN_BYTES = 64 << 20;
+    /** The name prefix of the run datasets in each scratch file. */
+    public static final String RUN_PREFIX = "run_";
+    /** The most runs merged at once, which is also the most runs stored in one scratch file. */
+    static final int MAX_MERGE_RUNS = 64;
+    /** The number of bytes read from the runs per merge pass, shared by all runs. */
+    private static final int MERGE_BUFFER_BYTES = 8 << 20;
+    /** The number of bytes per buffer of merged output. */
+    private static final int OUTPUT_BLOCK_BYTES = 1 << 20;
+
+    /** The data source to sort. */
+    private final TypedDataSource<?> source;
+    /** The key of each record. */
+    private final SortKey key;
+    /** The number of records sorted in memory per run. */
+    private final int runRecords;
+    /** The directory of the scratch file, or null for the default temporary directory. */
+    private final Path scratchDirectory;
+
+    /**
+     * Constructs an ExternalSort of a numeric dataset with the default run size.
+     *
+     * @param source the numeric data source to sort
+     * @throws IllegalArgumentException if the dataset is not numeric
+     */
+    public ExternalSort(TypedDataSource<?> source) {
+        this(source, null, Math.max(1, DEFAULT_RUN_BYTES / source.getElementSize()), null);
+    }
+
+    /**
+     * Constructs an ExternalSort of a compound dataset by one member, with the default run size.
+     *
+     * @param source     the compound data source to sort
+     * @param memberName the name of the numeric member to sort by
+     * @throws IllegalArgumentException if the dataset is not compound or the member is not numeric
+     */
+    public ExternalSort(TypedDataSource<?> source, String memberName) {
+        this(source, memberName, Math.max(1, DEFAULT_RUN_BYTES / source.getElementSize()), null);
+    }
+
+    /**
+     * Constructs an ExternalSort.
+     *
+     * @param source           the data source to sort
+     * @param memberName       the name of the numeric member to sort by, or null for a numeric dataset
+     * @param runRecords       the number of records sorted in memory per run
+     * @param scratchDirectory the directory of the scratch file, or null for the default temporary directory
+     * @throws IllegalArgumentException if the key is not numeric, the datatype uses the global heap or the run size is not positive
+     */
+    public ExternalSort(TypedDataSource<?> source, String memberName, int runRecords, Path scratchDirectory) {
+        if (runRecords <= 0) {
+            throw new IllegalArgumentException("Run size must be positive: " + runRecords);
+        }
+        if (source.getDatatype().requiresGlobalHeap(false)) {
+            throw new IllegalArgumentException("Datatypes stored in the global heap cannot be sorted into another file");
+        }
+        this.source = source;
+        this.key = SortKey.of(source.getDatatype(), memberName);
+        this.runRecords = runRecords;
+        this.scratchDirectory = scratchDirectory;
+    }
+
+    /**
+     * Computes the number of sorted runs the source is split into.
+     *
+     * @return the number of runs
+     */
+    public long getRunCount() {
+        return (source.getElementCount() + runRecords - 1) / runRecords;
+    }
+
+    /**
+     * Sorts the source into a new one-dimensional dataset of the output file.
+     *
+     * @param output the file to write the sorted dataset to
+     * @param name   the name of the sorted dataset
+     * @return the closed sorted dataset
+     * @throws IOException if an I/O error occurs
+     */
+    public HdfDataSet sort(HdfFile output, String name) throws IOException {
+        HdfDatatype datatype = source.getDatatype();
+        long elementCount = source.getElementCount();
+        long runs = getRunCount();
+        RunSorter sorter = new RunSorter((int) Math.min(runRecords, elementCount));
+        if (runs <= 1) {
+            HdfDataSet dataset = output.createDataSet(name, datatype, DoubleDataSets.dataspace(output, elementCount));
+            if (elementCount > 0) {
+                dataset.write(sorter.sort(0, (int) elementCount));
+            }
+            dataset.close();
+            return dataset;
+        }
+
+        RunSpill spill = new RunSpill();
+        try {
+            for (long run = 0; run < runs; run++) {
+                long first = run * runRecords;
+                int length = (int) Math.min(runRecords, elementCount - first);
+                HdfDataSet runDataSet = spill.createRun(datatype, length);
+                runDataSet.write(sorter.sort(first, length));
+                runDataSet.close();
+            }
+            sorter = null;
+            List<TypedDataSource<?>> sortedRuns = spill.finish();
+
+            while (sortedRuns.size() > MAX_MERGE_RUNS) {
+                RunSpill next = new RunSpill();
+                try {
+                    for (int from = 0; from < sortedRuns.size(); from += MAX_MERGE_RUNS) {
+                        List<TypedDataSource<?>> group = sortedRuns.subList(from, Math.min(sortedRuns.size(), from + MAX_MERGE_RUNS));
+                        long length = group.stream().mapToLong(TypedDataSource::getElementCount).sum();
+                        merge(new Merger(group), next.createRun(datatype, length));
+                    }
+                    sortedRuns = next.finish();
+                } catch (IOException | RuntimeException e) {
+                    next.close();
+                    throw e;
+                }
+                spill.close();
+                spill = next;
+            }
+
+            HdfDataSet dataset = output.createDataSet(name, datatype, DoubleDataSets.dataspace(output, elementCount));
+            merge(new Merger(sortedRuns), dataset);
+            return dataset;
+        } finally {
+            spill.close();
+        }
+    }
+
+    /**
+     * Writes the merged records to a dataset and closes it.
+     */
+    private static void merge(Merger merger, HdfDataSet dataset) throws IOException {
+        try {
+            dataset.write(merger::next);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        dataset.close();
+    }
+
+    /**
+     * Stores runs as datasets of scratch files, starting a new file every {@link #MAX_MERGE_RUNS} runs.
+     */
+    private final class RunSpill implements Closeable {
+        /** The scratch files, in run order. */
+        private final List<Path> paths = new ArrayList<>();
+        /** The open channel of each scratch file. */
+        private final List<FileChannel> channels = new ArrayList<>();
+        /** The file receiving runs, or null if none is open. */
+        private HdfFile current;
+        /** The number of runs in the current file. */
+        private int currentRuns;
+
+        /**
+         * Creates the dataset of the next run.
+         *
+         * @param datatype the datatype of the records
+         * @param length   the number of records in the run
+         * @return the run dataset, to be written and closed by the caller
+         * @throws IOException if a scratch file cannot be created
+         */
+        private HdfDataSet createRun(HdfDatatype datatype, long length) throws IOException {
+            if (current == null || currentRuns == MAX_MERGE_RUNS) {
+                closeCurrent();
+                Path path = scratchDirectory == null
+                        ? Files.createTempFile("hdf5javalib-sort", ".h5")
+                        : Files.createTempFile(scratchDirectory, "hdf5javalib-sort", ".h5");
+                paths.add(path);
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channels.add(channel);
+                current = new HdfFile(channel);
+            }
+            return current.createDataSet(RUN_PREFIX + currentRuns++, datatype, DoubleDataSets.dataspace(current, length));
+        }
+
+        private void closeCurrent() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+                currentRuns = 0;
+            }
+        }
+
+        /**
+         * Closes the file being written and opens every run for reading.
+         *
+         * @return the runs, in the order they were created
+         * @throws IOException if a scratch file cannot be read
+         */
+        private List<TypedDataSource<?>> finish() throws IOException {
+            closeCurrent();
+            List<TypedDataSource<?>> runs = new ArrayList<>();
+            for (FileChannel channel : channels) {
+                channel.position(0);
+                HdfFileReader reader = new HdfFileReader(channel).readFile();
+                for (int run = 0; ; run++) {
+                    HdfDataSet runDataSet = reader.getRootGroup().findDataset(RUN_PREFIX + run);
+                    if (runDataSet == null) {
+                        break;
+                    }
+                    runs.add(new TypedDataSource<>(channel, reader, runDataSet, Object.class));
+                }
+            }
+            return runs;
+        }
+
+        /**
+         * Closes and deletes the scratch files.
+         */
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (int i = 0; i < paths.size(); i++) {
+                try {
+                    if (i < channels.size()) {
+                        channels.get(i).close();
+                    }
+                    Files.deleteIfExists(paths.get(i));
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            paths.clear();
+            channels.clear();
+            current = null;
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Sorts runs of records in memory, reusing its arrays from run to run.
+     */
+    private final class RunSorter {
+        /** The records of the run as read. */
+        private final ByteBuffer records;
+        /** The sorted records of the run. */
+        private final byte[] sorted;
+        /** The mapped key of each record. */
+        private final long[] keys;
+        /** The record index of each sorted position. */
+        private final int[] order;
+
+        private RunSorter(int capacity) {
+            int elementSize = source.getElementSize();
+            this.records = ByteBuffer.allocate(capacity * elementSize).order(key.getByteOrder());
+            this.sorted = new byte[capacity * elementSize];
+            this.keys = new long[capacity];
+            this.order = new int[capacity];
+        }
+
+        private ByteBuffer sort(long firstElement, int count) throws IOException {
+            int elementSize = source.getElementSize();
+            records.clear().limit(count * elementSize);
+            source.readElements(firstElement, records);
+            for (int i = 0; i < count; i++) {
+                keys[i] = key.get(records, i * elementSize);
+                order[i] = i;
+            }
+            SortKey.sort(keys, order, count);
+            byte[] array = records.array();
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(array, order[i] * elementSize, sorted, i * elementSize, elementSize);
+            }
+            return ByteBuffer.wrap(sorted, 0, count * elementSize);
+        }
+    }
+
+    /**
+     * Merges sorted runs through a heap of run cursors.
+     */
+    private final class Merger {
+        /** The cursor of each run. */
+        private final RunCursor[] cursors;
+        /** The numbers of the runs that still have records, as a min-heap by current key and run number. */
+        private final int[] heap;
+        /** The number of runs in the heap. */
+        private int size;
+        /** The buffer of merged records handed to the dataset. */
+        private final ByteBuffer output;
+
+        private Merger(List<TypedDataSource<?>> runs) {
+            int elementSize = source.getElementSize();
+            int blockRecords = Math.max(1, MERGE_BUFFER_BYTES / runs.size() / elementSize);
+            this.cursors = new RunCursor[runs.size()];
+            this.heap = new int[runs.size()];
+            for (int run = 0; run < runs.size(); run++) {
+                cursors[run] = new RunCursor(runs.get(run), blockRecords);
+                if (cursors[run].advance()) {
+                    heap[size++] = run;
+                }
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+            this.output = ByteBuffer.allocate(Math.max(1, OUTPUT_BLOCK_BYTES / elementSize) * elementSize);
+        }
+
+        /**
+         * Fills the output buffer with the next merged records; an empty buffer ends the data.
+         */
+        private ByteBuffer next() {
+            int elementSize = source.getElementSize();
+            output.clear();
+            byte[] array = output.array();
+            while (size > 0 && output.remaining() >= elementSize) {
+                RunCursor cursor = cursors[heap[0]];
+                System.arraycopy(cursor.block.array(), cursor.position * elementSize, array, output.position(), elementSize);
+                output.position(output.position() + elementSize);
+                if (!cursor.advance()) {
+                    heap[0] = heap[--size];
+                }
+                siftDown(0);
+            }
+            return output.flip();
+        }
+
+        private boolean less(int runA, int runB) {
+            long keyA = cursors[runA].key;
+            long keyB = cursors[runB].key;
+            // Ties go to the earlier run, which keeps the merge stable
+            return keyA < keyB || (keyA == keyB && runA < runB);
+        }
+
+        private void siftDown(int parent) {
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!less(heap[child], heap[parent])) {
+                    return;
+                }
+                int swap = heap[parent];
+                heap[parent] = heap[child];
+                heap[child] = swap;
+                parent = child;
+            }
+        }
+    }
+
+    /**
+     * Reads one sorted run block by block, exposing the key of its current record.
+     */
+    private final class RunCursor {
+        /** The run being read. */
+        private final TypedDataSource<?> run;
+        /** The records of the current block. */
+        private final ByteBuffer block;
+        /** The number of records per block. */
+        private final int blockRecords;
+        /** The index of the next record to read from the run. */
+        private long next;
+        /** The position of the current record in the block. */
+        private int position = -1;
+        /** The number of records in the block. */
+        private int limit;
+        /** The mapped key of the current record. */
+        private long key;
+
+        private RunCursor(TypedDataSource<?> run, int blockRecords) {
+            this.run = run;
+            this.blockRecords = (int) Math.min(blockRecords, run.getElementCount());
+            this.block = ByteBuffer.allocate(this.blockRecords * source.getElementSize()).order(ExternalSort.this.key.getByteOrder());
+        }
+
+        /**
+         * Moves to the next record of the run.
+         *
+         * @return false once the run is exhausted
+         */
+        private boolean advance() {
+            if (++position >= limit) {
+                long remaining = run.getElementCount() - next;
+                if (remaining == 0) {
+                    return false;
+                }
+                limit = (int) Math.min(blockRecords, remaining);
+                block.clear().limit(limit * source.getElementSize());
+                try {
+                    run.readElements(next, block);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                next += limit;
+                position = 0;
+            }
+            key = ExternalSort.this.key.get(block, position * source.getElementSize());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,513 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.PrimitiveDecoder;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundMemberDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.EnumDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.StringDatatype;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aggregates numeric members of a compound dataset per value of a key member.
+ * <p>
+ * The {@code GroupBy} class hashes the key member of each record straight from the record
+ * bytes into an open-addressing table of primitive arrays: fixed-point and enum keys are
+ * decoded to a {@code long}, fixed-length strings of up to 8 bytes are packed into one,
+ * and longer strings are hashed and compared byte by byte. Each group gets a dense index,
+ * and the count, sum, minimum and maximum of every aggregated member are updated in
+ * place in per-member arrays, so no object is created per record. The dataset is scanned
+ * in parallel partitions with a {@link ParallelBlockReader}, each filling its own table,
+ * and the partial tables are merged once the scan is done.
+ * </p>
+ * <p>
+ * Results are columns with one entry per group, in order of the group's first record.
+ * NaN values are not aggregated; a group without values for a member has a NaN mean,
+ * minimum and maximum for it. For null-terminated and null-padded string keys, bytes
+ * after the first null are ignored.
+ * </p>
+ */
+public class GroupBy {
+    /** The initial number of slots of a table, a power of two. */
+    private static final int INITIAL_SLOTS = 64;
+
+    /** The compound data source. */
+    private final TypedDataSource<?> source;
+    /** The block reader used to scan the data source. */
+    private final ParallelBlockReader blockReader;
+    /** The datatype of the key member. */
+    private final HdfDatatype keyType;
+    /** The offset of the key member within a record. */
+    private final int keyOffset;
+    /** The size of the key member in bytes. */
+    private final int keySize;
+    /** The decoder of fixed-point and enum keys, or null for string keys. */
+    private final PrimitiveDecoder keyDecoder;
+    /** Indicates whether string key bytes after the first null are padding. */
+    private final boolean nullTerminated;
+    /** The names of the aggregated members. */
+    private final String[] valueNames;
+    /** The offset of each aggregated member within a record. */
+    private final int[] valueOffsets;
+    /** The decoder of each aggregated member. */
+    private final PrimitiveDecoder[] valueDecoders;
+
+    /**
+     * Constructs a GroupBy using one partition per processor.
+     *
+     * @param source       the compound data source to aggregate
+     * @param keyMember    the name of the fixed-point, fixed-length string or enum member to group by
+     * @param valueMembers the names of the numeric members to aggregate
+     * @throws IllegalArgumentException if the dataset is not compound or a member does not exist or has an unsupported type
+     */
+    public GroupBy(TypedDataSource<?> source, String keyMember, String... valueMembers) {
+        this(source, new ParallelBlockReader(source), keyMember, valueMembers);
+    }
+
+    /**
+     * Constructs a GroupBy with an explicit block reader.
+     *
+     * @param source       the compound data source to aggregate
+     * @param blockReader  the block reader used to scan the data source
+     * @param keyMember    the name of the fixed-point, fixed-length string or enum member to group by
+     * @param valueMembers the names of the numeric members to aggregate
+     * @throws IllegalArgumentException if the dataset is not compound or a member does not exist or has an unsupported type
+     */
+    public GroupBy(TypedDataSource<?> source, ParallelBlockReader blockReader, String keyMember, String... valueMembers) {
+        if (!(source.getDatatype() instanceof CompoundDatatype)) {
+            throw new IllegalArgumentException("Dataset is not compound: " + source.getDatatype().getDatatypeClass());
+        }
+        this.source = source;
+        this.blockReader = blockReader;
+        List<CompoundMemberDatatype> members = ((CompoundDatatype) source.getDatatype()).getMembers();
+        CompoundMemberDatatype key = findMember(members, keyMember);
+        this.keyType = key.getType();
+        this.keyOffset = key.getOffset();
+        this.keySize = keyType.getSize();
+        if (keyType instanceof FixedPointDatatype) {
+            this.keyDecoder = PrimitiveDecoder.forDatatype(keyType);
+            this.nullTerminated = false;
+        } else if (keyType instanceof EnumDatatype && ((EnumDatatype) keyType).getBaseType() instanceof FixedPointDatatype) {
+            this.keyDecoder = PrimitiveDecoder.forDatatype(((EnumDatatype) keyType).getBaseType());
+            this.nullTerminated = false;
+        } else if (keyType instanceof StringDatatype) {
+            this.keyDecoder = null;
+            this.nullTerminated = ((StringDatatype) keyType).getPaddingType() != StringDatatype.PaddingType.SPACE_PAD;
+        } else {
+            throw new IllegalArgumentException("Group keys must be fixed-point, fixed-length string or enum members: " + keyMember);
+        }
+        this.valueNames = valueMembers.clone();
+        this.valueOffsets = new int[valueMembers.length];
+        this.valueDecoders = new PrimitiveDecoder[valueMembers.length];
+        for (int i = 0; i < valueMembers.length; i++) {
+            CompoundMemberDatatype member = findMember(members, valueMembers[i]);
+            valueOffsets[i] = member.getOffset();
+            valueDecoders[i] = PrimitiveDecoder.forDatatype(member.getType());
+        }
+    }
+
+    private static CompoundMemberDatatype findMember(List<CompoundMemberDatatype> members, String name) {
+        return members.stream()
+                .filter(member -> member.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No compound member named " + name));
+    }
+
+    /**
+     * Scans the dataset and aggregates every group.
+     *
+     * @return the aggregates, one entry per group
+     * @throws IOException if an I/O error occurs
+     */
+    public Result aggregate() throws IOException {
+        List<Table> tables = blockReader.readPartitions(0, source.getElementCount(), 1,
+                (first, count) -> new Table(),
+                this::accumulate);
+        Table merged = tables.get(0);
+        for (int i = 1; i < tables.size(); i++) {
+            merged.mergeFrom(tables.get(i));
+        }
+        return merged.toResult();
+    }
+
+    /**
+     * Adds the records of one block to a partition's table.
+     */
+    private void accumulate(Table table, ByteBuffer block, long firstElement, int elementCount) {
+        int recordSize = source.getElementSize();
+        ByteBuffer keyView = keyDecoder == null ? block : view(block, keyDecoder.getByteOrder());
+        ByteBuffer[] valueViews = new ByteBuffer[valueDecoders.length];
+        for (int m = 0; m < valueDecoders.length; m++) {
+            valueViews[m] = view(block, valueDecoders[m].getByteOrder());
+        }
+        byte[] keyBytes = table.scratch;
+        for (int i = 0; i < elementCount; i++) {
+            int record = i * recordSize;
+            block.get(record + keyOffset, keyBytes);
+            long key;
+            if (keyDecoder != null) {
+                key = keyDecoder.getLong(keyView, record + keyOffset);
+            } else {
+                key = stringKey(keyBytes);
+            }
+            int group = table.group(key, keyBytes, 0);
+            table.recordCounts[group]++;
+            for (int m = 0; m < valueDecoders.length; m++) {
+                table.add(m, group, valueDecoders[m].getDouble(valueViews[m], record + valueOffsets[m]));
+            }
+        }
+    }
+
+    private static ByteBuffer view(ByteBuffer block, ByteOrder order) {
+        return block.order() == order ? block : block.duplicate().order(order);
+    }
+
+    /**
+     * Normalizes string key bytes in place and maps them to a packed key or a hash.
+     */
+    private long stringKey(byte[] bytes) {
+        if (nullTerminated) {
+            int end = 0;
+            while (end < bytes.length && bytes[end] != 0) {
+                end++;
+            }
+            Arrays.fill(bytes, end, bytes.length, (byte) 0);
+        }
+        long key = 0;
+        if (bytes.length <= 8) {
+            for (int i = 0; i < bytes.length; i++) {
+                key |= (bytes[i] & 0xFFL) << (8 * i);
+            }
+            return key;
+        }
+        // FNV-1a; equal hashes are confirmed by comparing the bytes
+        key = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            key = (key ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        return key;
+    }
+
+    /**
+     * Indicates whether keys equal as longs are equal keys, which holds unless long strings are hashed.
+     */
+    private boolean packedKeys() {
+        return keyDecoder != null || keySize <= 8;
+    }
+
+    private static int slotOf(long key, int mask) {
+        // The finalizer of MurmurHash3 spreads nearby keys over the table
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    /**
+     * The open-addressing table and aggregates of one partition.
+     */
+    private final class Table {
+        /** The group index plus one of each slot, 0 for an empty slot. */
+        private int[] slots = new int[INITIAL_SLOTS];
+        /** The packed key or hash of each group. */
+        private long[] groupKeys = new long[INITIAL_SLOTS / 2];
+        /** The normalized key bytes of each group, keySize bytes per group. */
+        private byte[] keyBytes = new byte[INITIAL_SLOTS / 2 * keySize];
+        /** The number of records of each group. */
+        private long[] recordCounts = new long[INITIAL_SLOTS / 2];
+        /** The number of values of each member and group. */
+        private final long[][] counts = new long[valueDecoders.length][INITIAL_SLOTS / 2];
+        /** The sum of each member and group. */
+        private final double[][] sums = new double[valueDecoders.length][INITIAL_SLOTS / 2];
+        /** The minimum of each member and group. */
+        private final double[][] mins = new double[valueDecoders.length][INITIAL_SLOTS / 2];
+        /** The maximum of each member and group. */
+        private final double[][] maxs = new double[valueDecoders.length][INITIAL_SLOTS / 2];
+        /** The number of groups. */
+        private int groups;
+        /** The key bytes of the current record. */
+        private final byte[] scratch = new byte[keySize];
+
+        /**
+         * Finds the group of a key, creating it if needed.
+         */
+        private int group(long key, byte[] bytes, int bytesOffset) {
+            int mask = slots.length - 1;
+            int slot = slotOf(key, mask);
+            boolean packed = packedKeys();
+            while (true) {
+                int group = slots[slot] - 1;
+                if (group < 0) {
+                    return insert(slot, key, bytes, bytesOffset);
+                }
+                if (groupKeys[group] == key && (packed || Arrays.equals(keyBytes, group * keySize, (group + 1) * keySize, bytes, bytesOffset, bytesOffset + keySize))) {
+                    return group;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private int insert(int slot, long key, byte[] bytes, int bytesOffset) {
+            int group = groups++;
+            if (group == groupKeys.length) {
+                grow();
+            }
+            groupKeys[group] = key;
+            System.arraycopy(bytes, bytesOffset, keyBytes, group * keySize, keySize);
+            for (int m = 0; m < valueDecoders.length; m++) {
+                mins[m][group] = Double.POSITIVE_INFINITY;
+                maxs[m][group] = Double.NEGATIVE_INFINITY;
+            }
+            slots[slot] = group + 1;
+            // Keep the load factor at most one half
+            if (groups * 2 > slots.length) {
+                rehash();
+            }
+            return group;
+        }
+
+        private void grow() {
+            int capacity = groupKeys.length * 2;
+            groupKeys = Arrays.copyOf(groupKeys, capacity);
+            keyBytes = Arrays.copyOf(keyBytes, capacity * keySize);
+            recordCounts = Arrays.copyOf(recordCounts, capacity);
+            for (int m = 0; m < valueDecoders.length; m++) {
+                counts[m] = Arrays.copyOf(counts[m], capacity);
+                sums[m] = Arrays.copyOf(sums[m], capacity);
+                mins[m] = Arrays.copyOf(mins[m], capacity);
+                maxs[m] = Arrays.copyOf(maxs[m], capacity);
+            }
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int group = 0; group < groups; group++) {
+                int slot = slotOf(groupKeys[group], mask);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = group + 1;
+            }
+        }
+
+        private void add(int member, int group, double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            counts[member][group]++;
+            sums[member][group] += value;
+            if (value < mins[member][group]) {
+                mins[member][group] = value;
+            }
+            if (value > maxs[member][group]) {
+                maxs[member][group] = value;
+            }
+        }
+
+        /**
+         * Merges the groups of a later partition's table into this one.
+         */
+        private void mergeFrom(Table other) {
+            for (int source = 0; source < other.groups; source++) {
+                int group = group(other.groupKeys[source], other.keyBytes, source * keySize);
+                recordCounts[group] += other.recordCounts[source];
+                for (int m = 0; m < valueDecoders.length; m++) {
+                    counts[m][group] += other.counts[m][source];
+                    sums[m][group] += other.sums[m][source];
+                    mins[m][group] = Math.min(mins[m][group], other.mins[m][source]);
+                    maxs[m][group] = Math.max(maxs[m][group], other.maxs[m][source]);
+                }
+            }
+        }
+
+        private Result toResult() {
+            int m = valueDecoders.length;
+            long[][] memberCounts = new long[m][];
+            double[][] memberSums = new double[m][];
+            double[][] memberMins = new double[m][];
+            double[][] memberMaxs = new double[m][];
+            for (int i = 0; i < m; i++) {
+                memberCounts[i] = Arrays.copyOf(counts[i], groups);
+                memberSums[i] = Arrays.copyOf(sums[i], groups);
+                memberMins[i] = Arrays.copyOf(mins[i], groups);
+                memberMaxs[i] = Arrays.copyOf(maxs[i], groups);
+                for (int group = 0; group < groups; group++) {
+                    if (memberCounts[i][group] == 0) {
+                        memberMins[i][group] = Double.NaN;
+                        memberMaxs[i][group] = Double.NaN;
+                    }
+                }
+            }
+            return new Result(keyType, keySize, Arrays.copyOf(keyBytes, groups * keySize),
+                    keyDecoder == null ? null : Arrays.copyOf(groupKeys, groups),
+                    valueNames, Arrays.copyOf(recordCounts, groups), memberCounts, memberSums, memberMins, memberMaxs);
+        }
+    }
+
+    /**
+     * The aggregates of a {@link GroupBy}, as columns with one entry per group.
+     */
+    public static class Result {
+        /** The datatype of the key member. */
+        private final HdfDatatype keyType;
+        /** The size of the key member in bytes. */
+        private final int keySize;
+        /** The key bytes of each group, keySize bytes per group. */
+        private final byte[] keyBytes;
+        /** The decoded key of each group, or null for string keys. */
+        private final long[] keyLongs;
+        /** The names of the aggregated members. */
+        private final List<String> valueNames;
+        /** The number of records of each group. */
+        private final long[] recordCounts;
+        /** The number of values of each member and group. */
+        private final long[][] counts;
+        /** The sum of each member and group. */
+        private final double[][] sums;
+        /** The minimum of each member and group. */
+        private final double[][] mins;
+        /** The maximum of each member and group. */
+        private final double[][] maxs;
+
+        private Result(HdfDatatype keyType, int keySize, byte[] keyBytes, long[] keyLongs, String[] valueNames,
+                       long[] recordCounts, long[][] counts, double[][] sums, double[][] mins, double[][] maxs) {
+            this.keyType = keyType;
+            this.keySize = keySize;
+            this.keyBytes = keyBytes;
+            this.keyLongs = keyLongs;
+            this.valueNames = List.of(valueNames);
+            this.recordCounts = recordCounts;
+            this.counts = counts;
+            this.sums = sums;
+            this.mins = mins;
+            this.maxs = maxs;
+        }
+
+        /**
+         * Retrieves the number of groups.
+         *
+         * @return the number of distinct keys
+         */
+        public int getGroupCount() {
+            return recordCounts.length;
+        }
+
+        /**
+         * Retrieves the keys as longs, for fixed-point and enum keys.
+         *
+         * @return the key of each group
+         * @throws IllegalStateException if the key is a string member
+         */
+        public long[] getKeyLongs() {
+            if (keyLongs == null) {
+                throw new IllegalStateException("String keys have no long representation");
+            }
+            return keyLongs.clone();
+        }
+
+        /**
+         * Retrieves the keys as strings, using the key datatype's conversion; enum keys are their names.
+         *
+         * @return the key of each group
+         */
+        public String[] getKeyStrings() {
+            String[] keys = new String[getGroupCount()];
+            for (int group = 0; group < keys.length; group++) {
+                keys[group] = keyType.toString(Arrays.copyOfRange(keyBytes, group * keySize, (group + 1) * keySize));
+            }
+            return keys;
+        }
+
+        /**
+         * Retrieves the number of records of each group.
+         *
+         * @return the record counts
+         */
+        public long[] getRecordCounts() {
+            return recordCounts.clone();
+        }
+
+        /**
+         * Retrieves the number of values of a member in each group, which excludes NaN values.
+         *
+         * @param member the name of an aggregated member
+         * @return the value counts
+         * @throws IllegalArgumentException if the member was not aggregated
+         */
+        public long[] getCounts(String member) {
+            return counts[memberIndex(member)].clone();
+        }
+
+        /**
+         * Retrieves the sum of a member in each group.
+         *
+         * @param member the name of an aggregated member
+         * @return the sums
+         * @throws IllegalArgumentException if the member was not aggregated
+         */
+        public double[] getSums(String member) {
+            return sums[memberIndex(member)].clone();
+        }
+
+        /**
+         * Retrieves the mean of a member in each group.
+         *
+         * @param member the name of an aggregated member
+         * @return the means, NaN for groups without values
+         * @throws IllegalArgumentException if the member was not aggregated
+         */
+        public double[] getMeans(String member) {
+            int index = memberIndex(member);
+            double[] means = new double[getGroupCount()];
+            for (int group = 0; group < means.length; group++) {
+                means[group] = counts[index][group] == 0 ? Double.NaN : sums[index][group] / counts[index][group];
+            }
+            return means;
+        }
+
+        /**
+         * Retrieves the minimum of a member in each group.
+         *
+         * @param member the name of an aggregated member
+         * @return the minimums, NaN for groups without values
+         * @throws IllegalArgumentException if the member was not aggregated
+         */
+        public double[] getMins(String member) {
+            return mins[memberIndex(member)].clone();
+        }
+
+        /**
+         * Retrieves the maximum of a member in each group.
+         *
+         * @param member the name of an aggregated member
+         * @return the maximums, NaN for groups without values
+         * @throws IllegalArgumentException if the member was not aggregated
+         */
+        public double[] getMaxs(String member) {
+            return maxs[memberIndex(member)].clone();
+        }
+
+        private int memberIndex(String member) {
+            int index = valueNames.indexOf(member);
+            if (index < 0) {
+                throw new IllegalArgumentException("Member not aggregated: " + member);
+            }
+            return index;
+        }
+
+        public List<String> getValueMembers() {
+            return valueNames;
+        }
+    }
+}
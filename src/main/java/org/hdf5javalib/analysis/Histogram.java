@@ -0,0 +1,180 @@
+package org.hdf5javalib.analysis;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of double values over fixed bins, spaced linearly or logarithmically.
+ * <p>
+ * The {@code Histogram} class counts values into {@code binCount} bins covering
+ * {@code [lower, upper]}; the upper bound itself falls into the last bin. Values outside
+ * the range are counted as underflow or overflow, and NaN values are counted separately.
+ * For logarithmic bins the lower bound must be positive, and zero or negative values are
+ * counted as underflow. Histograms merge only with histograms of the same layout; use
+ * {@link #emptyCopy()} to create the per-partition instances of a parallel scan.
+ * </p>
+ */
+public class Histogram implements DoubleAccumulator<Histogram> {
+    /** The lower bound of the first bin. */
+    private final double lower;
+    /** The upper bound of the last bin. */
+    private final double upper;
+    /** Indicates whether bins are spaced logarithmically. */
+    private final boolean logarithmic;
+    /** The bound of the first bin on the binning scale. */
+    private final double scaledLower;
+    /** The number of bins per unit on the binning scale. */
+    private final double binsPerUnit;
+    /** The count of each bin. */
+    private final long[] counts;
+    /** The number of values below the lower bound. */
+    private long underflow;
+    /** The number of values above the upper bound. */
+    private long overflow;
+    /** The number of NaN values. */
+    private long nanCount;
+
+    private Histogram(double lower, double upper, int binCount, boolean logarithmic) {
+        if (binCount <= 0) {
+            throw new IllegalArgumentException("Histogram needs at least one bin: " + binCount);
+        }
+        if (!(lower < upper) || Double.isInfinite(lower) || Double.isInfinite(upper)) {
+            throw new IllegalArgumentException("Invalid histogram range: [" + lower + ", " + upper + "]");
+        }
+        if (logarithmic && lower <= 0) {
+            throw new IllegalArgumentException("Logarithmic histogram needs a positive lower bound: " + lower);
+        }
+        this.lower = lower;
+        this.upper = upper;
+        this.logarithmic = logarithmic;
+        this.scaledLower = scale(lower);
+        this.binsPerUnit = binCount / (scale(upper) - scaledLower);
+        this.counts = new long[binCount];
+    }
+
+    /**
+     * Creates a histogram with bins of equal width.
+     *
+     * @param lower    the lower bound of the first bin
+     * @param upper    the upper bound of the last bin
+     * @param binCount the number of bins
+     * @return the empty histogram
+     * @throws IllegalArgumentException if the range is empty or not finite, or there are no bins
+     */
+    public static Histogram linear(double lower, double upper, int binCount) {
+        return new Histogram(lower, upper, binCount, false);
+    }
+
+    /**
+     * Creates a histogram whose bin bounds grow geometrically.
+     *
+     * @param lower    the lower bound of the first bin, which must be positive
+     * @param upper    the upper bound of the last bin
+     * @param binCount the number of bins
+     * @return the empty histogram
+     * @throws IllegalArgumentException if the range is empty, not finite or not positive, or there are no bins
+     */
+    public static Histogram logarithmic(double lower, double upper, int binCount) {
+        return new Histogram(lower, upper, binCount, true);
+    }
+
+    /**
+     * Creates an empty histogram with the same layout as this one.
+     *
+     * @return the empty histogram
+     */
+    public Histogram emptyCopy() {
+        return new Histogram(lower, upper, counts.length, logarithmic);
+    }
+
+    private double scale(double value) {
+        return logarithmic ? Math.log(value) : value;
+    }
+
+    @Override
+    public void accept(double value) {
+        if (Double.isNaN(value)) {
+            nanCount++;
+        } else if (value < lower) {
+            underflow++;
+        } else if (value > upper) {
+            overflow++;
+        } else {
+            int bin = (int) ((scale(value) - scaledLower) * binsPerUnit);
+            counts[Math.min(Math.max(bin, 0), counts.length - 1)]++;
+        }
+    }
+
+    @Override
+    public Histogram merge(Histogram other) {
+        if (other.lower != lower || other.upper != upper || other.logarithmic != logarithmic || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Cannot merge histograms with different bins");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        underflow += other.underflow;
+        overflow += other.overflow;
+        nanCount += other.nanCount;
+        return this;
+    }
+
+    /**
+     * Retrieves the lower bound of a bin.
+     *
+     * @param bin the bin index; {@code getBinCount()} gives the upper bound of the last bin
+     * @return the lower bound
+     */
+    public double getBinLowerBound(int bin) {
+        if (bin < 0 || bin > counts.length) {
+            throw new IndexOutOfBoundsException("Bin " + bin + " out of bounds for " + counts.length + " bins");
+        }
+        if (bin == counts.length) {
+            return upper;
+        }
+        double scaled = scaledLower + bin / binsPerUnit;
+        return logarithmic ? Math.exp(scaled) : scaled;
+    }
+
+    public long getCount(int bin) {
+        return counts[bin];
+    }
+
+    public long[] getCounts() {
+        return counts.clone();
+    }
+
+    public int getBinCount() {
+        return counts.length;
+    }
+
+    public long getUnderflow() {
+        return underflow;
+    }
+
+    public long getOverflow() {
+        return overflow;
+    }
+
+    public long getNanCount() {
+        return nanCount;
+    }
+
+    public boolean isLogarithmic() {
+        return logarithmic;
+    }
+
+    /**
+     * Retrieves the number of values that fell inside the range.
+     *
+     * @return the sum of all bin counts
+     */
+    public long getTotalCount() {
+        return Arrays.stream(counts).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram{" + (logarithmic ? "logarithmic" : "linear") + " [" + lower + ", " + upper + "], counts="
+                + Arrays.toString(counts) + ", underflow=" + underflow + ", overflow=" + overflow + ", nanCount=" + nanCount + "}";
+    }
+}
@@ -0,0 +1,309 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.PrimitiveDecoder;
+import org.hdf5javalib.datasource.TypedDataSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * Evaluates primitive predicates over a numeric dataset and returns the matching positions.
+ * <p>
+ * The {@code PredicateScan} class pushes a {@link DoublePredicate} or {@link LongPredicate}
+ * down to the block level: a {@link ParallelBlockReader} reads the dataset in parallel
+ * partitions, or only the blocks a {@link ZoneMap} selects, each block is decoded into a
+ * reused primitive array, and the predicate is tested on the primitives directly.
+ * Matches are returned either as a {@link ScanResult} of flat indexes, whose coordinates
+ * are decoded on demand, or as a bitmap built from per-partition words that never overlap.
+ * </p>
+ */
+public class PredicateScan {
+    /** The number of elements per bitmap word. */
+    private static final int WORD_BITS = 64;
+
+    /** The data source being scanned. */
+    private final TypedDataSource<?> source;
+    /** The decoder for the dataset's elements. */
+    private final PrimitiveDecoder decoder;
+    /** The block reader used for scans. */
+    private final ParallelBlockReader blockReader;
+
+    /**
+     * Constructs a PredicateScan using one partition per processor.
+     *
+     * @param source the numeric data source to scan
+     * @throws IllegalArgumentException if the dataset is not numeric
+     */
+    public PredicateScan(TypedDataSource<?> source) {
+        this(source, new ParallelBlockReader(source));
+    }
+
+    /**
+     * Constructs a PredicateScan with an explicit block reader.
+     *
+     * @param source      the numeric data source to scan
+     * @param blockReader the block reader used to scan the data source
+     * @throws IllegalArgumentException if the dataset is not numeric
+     */
+    public PredicateScan(TypedDataSource<?> source, ParallelBlockReader blockReader) {
+        this.source = source;
+        this.decoder = PrimitiveDecoder.forDatatype(source.getDatatype());
+        this.blockReader = blockReader;
+    }
+
+    /**
+     * Finds the elements whose value, as a double, matches a predicate.
+     *
+     * @param predicate the predicate to test
+     * @return the matching flat indexes
+     * @throws IOException if an I/O error occurs
+     */
+    public ScanResult find(DoublePredicate predicate) throws IOException {
+        return collect(doubleTester(predicate));
+    }
+
+    /**
+     * Finds the elements whose value, as a long, matches a predicate.
+     * <p>
+     * Floating-point values are truncated toward zero before testing.
+     * </p>
+     *
+     * @param predicate the predicate to test
+     * @return the matching flat indexes
+     * @throws IOException if an I/O error occurs
+     */
+    public ScanResult findLongs(LongPredicate predicate) throws IOException {
+        return collect(longTester(predicate));
+    }
+
+    /**
+     * Finds the elements whose value lies in a closed range. NaN values never match.
+     *
+     * @param lower the smallest matching value
+     * @param upper the largest matching value
+     * @return the matching flat indexes
+     * @throws IOException if an I/O error occurs
+     */
+    public ScanResult findInRange(double lower, double upper) throws IOException {
+        return find(value -> value >= lower && value <= upper);
+    }
+
+    /**
+     * Finds the elements whose value lies in a closed range, reading only the blocks that a
+     * zone map says may hold such values. NaN values never match.
+     *
+     * @param lower   the smallest matching value
+     * @param upper   the largest matching value
+     * @param zoneMap the zone map of the dataset
+     * @return the matching flat indexes
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the zone map does not cover the dataset
+     */
+    public ScanResult findInRange(double lower, double upper, ZoneMap zoneMap) throws IOException {
+        if (zoneMap.getElementCount() != source.getElementCount()) {
+            throw new IllegalArgumentException("Zone map covers " + zoneMap.getElementCount()
+                    + " elements but the dataset has " + source.getElementCount());
+        }
+        // Coalesce runs of adjacent candidate blocks into single ranges
+        int[] candidates = zoneMap.candidateBlocks(lower, upper);
+        long[] firstElements = new long[candidates.length];
+        long[] elementCounts = new long[candidates.length];
+        int ranges = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            long start = zoneMap.getBlockStart(candidates[i]);
+            if (ranges > 0 && firstElements[ranges - 1] + elementCounts[ranges - 1] == start) {
+                elementCounts[ranges - 1] += zoneMap.getBlockLength(candidates[i]);
+            } else {
+                firstElements[ranges] = start;
+                elementCounts[ranges++] = zoneMap.getBlockLength(candidates[i]);
+            }
+        }
+        DoublePredicate predicate = value -> value >= lower && value <= upper;
+        List<IndexList> partitions = blockReader.readRanges(Arrays.copyOf(firstElements, ranges), Arrays.copyOf(elementCounts, ranges),
+                (first, count) -> new IndexList(),
+                doubleTester(predicate)::test);
+        return toScanResult(partitions);
+    }
+
+    /**
+     * Marks the elements whose value, as a double, matches a predicate.
+     *
+     * @param predicate the predicate to test
+     * @return a bitmap indexed by flat index
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if the dataset has more elements than a {@link BitSet} can index
+     */
+    public BitSet bitmap(DoublePredicate predicate) throws IOException {
+        return bitmap(doubleTester(predicate));
+    }
+
+    /**
+     * Marks the elements whose value, as a long, matches a predicate.
+     *
+     * @param predicate the predicate to test
+     * @return a bitmap indexed by flat index
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if the dataset has more elements than a {@link BitSet} can index
+     */
+    public BitSet bitmapLongs(LongPredicate predicate) throws IOException {
+        return bitmap(longTester(predicate));
+    }
+
+    /**
+     * Counts the elements whose value, as a double, matches a predicate.
+     *
+     * @param predicate the predicate to test
+     * @return the number of matching elements
+     * @throws IOException if an I/O error occurs
+     */
+    public long count(DoublePredicate predicate) throws IOException {
+        long[] total = blockReader.read(
+                (first, count) -> new long[1],
+                (counter, block, first, count) -> {
+                    for (int i = 0; i < count; i++) {
+                        if (predicate.test(decoder.getDouble(block, i * decoder.getSize()))) counter[0]++;
+                    }
+                },
+                (a, b) -> {
+                    a[0] += b[0];
+                    return a;
+                });
+        return total[0];
+    }
+
+    private ScanResult collect(BlockTester tester) throws IOException {
+        List<IndexList> partitions = blockReader.readPartitions(0, source.getElementCount(), 1,
+                (first, count) -> new IndexList(),
+                tester::test);
+        return toScanResult(partitions);
+    }
+
+    private ScanResult toScanResult(List<IndexList> partitions) {
+        int total = 0;
+        for (IndexList matches : partitions) {
+            total = Math.addExact(total, matches.size);
+        }
+        long[] indices = new long[total];
+        int offset = 0;
+        for (IndexList matches : partitions) {
+            System.arraycopy(matches.indices, 0, indices, offset, matches.size);
+            offset += matches.size;
+        }
+        return new ScanResult(source.getShape(), indices);
+    }
+
+    private BitSet bitmap(BlockTester tester) throws IOException {
+        long elementCount = source.getElementCount();
+        if (elementCount > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Dataset too large for a bitmap: " + elementCount + " elements");
+        }
+        // Partitions start on word boundaries, so each owns whole words
+        List<Bitmap> partitions = blockReader.readPartitions(0, elementCount, WORD_BITS,
+                Bitmap::new,
+                tester::test);
+        long[] words = new long[(int) ((elementCount + WORD_BITS - 1) / WORD_BITS)];
+        for (Bitmap partition : partitions) {
+            System.arraycopy(partition.words, 0, words, (int) (partition.start / WORD_BITS), partition.words.length);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private BlockTester doubleTester(DoublePredicate predicate) {
+        return (sink, block, first, count) -> {
+            double[] values = sink.doubles(count);
+            decoder.getDoubles(block, 0, count, values, 0);
+            for (int i = 0; i < count; i++) {
+                if (predicate.test(values[i])) sink.add(first + i);
+            }
+        };
+    }
+
+    private BlockTester longTester(LongPredicate predicate) {
+        return (sink, block, first, count) -> {
+            long[] values = sink.longs(count);
+            decoder.getLongs(block, 0, count, values, 0);
+            for (int i = 0; i < count; i++) {
+                if (predicate.test(values[i])) sink.add(first + i);
+            }
+        };
+    }
+
+    /**
+     * Tests the elements of a block and records the matches in a partition's sink.
+     */
+    @FunctionalInterface
+    private interface BlockTester {
+        void test(MatchSink sink, ByteBuffer block, long first, int count);
+    }
+
+    /**
+     * Receives the matches of one partition and owns its decoding buffers.
+     */
+    private abstract static class MatchSink {
+        /** The decoded values of the current block, for double predicates. */
+        private double[] doubleScratch = new double[0];
+        /** The decoded values of the current block, for long predicates. */
+        private long[] longScratch = new long[0];
+
+        abstract void add(long index);
+
+        double[] doubles(int count) {
+            if (doubleScratch.length < count) {
+                doubleScratch = new double[count];
+            }
+            return doubleScratch;
+        }
+
+        long[] longs(int count) {
+            if (longScratch.length < count) {
+                longScratch = new long[count];
+            }
+            return longScratch;
+        }
+    }
+
+    /**
+     * A growable list of the flat indexes matched in one partition.
+     */
+    private static final class IndexList extends MatchSink {
+        /** The matching flat indexes. */
+        private long[] indices = new long[16];
+        /** The number of matches. */
+        private int size;
+
+        @Override
+        void add(long index) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+            }
+            indices[size++] = index;
+        }
+    }
+
+    /**
+     * The bitmap words of one partition, which starts on a word boundary.
+     */
+    private static final class Bitmap extends MatchSink {
+        /** The flat index of the partition's first element. */
+        private final long start;
+        /** The bitmap words covering the partition. */
+        private final long[] words;
+
+        Bitmap(long start, long count) {
+            this.start = start;
+            this.words = new long[(int) ((count + WORD_BITS - 1) / WORD_BITS)];
+        }
+
+        @Override
+        void add(long index) {
+            int bit = (int) (index - start);
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.PrimitiveDecoder;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.HdfFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds a multi-resolution pyramid of a numeric dataset in a single pass.
+ * <p>
+ * The {@code PyramidBuilder} class pools blocks of {@code factors[i]} elements along each
+ * axis into one value, level after level: level {@code k} has the dataset's shape
+ * divided by {@code factors^k}, rounded up, so edge cells pool the elements that exist.
+ * The dataset is read once, in parallel partitions aligned to whole slabs of level 1
+ * cells, so partitions fill the level 1 accumulators without merging. Coarser levels are
+ * derived in memory from the level below, keeping sums and counts so that means are exact.
+ * Memory use is about two arrays the size of level 1.
+ * </p>
+ * <p>
+ * Levels are written as double datasets named by {@link DownsamplingPyramid#levelName},
+ * next to the original dataset, which serves as level 0. NaN values are ignored; a cell
+ * with no values is NaN.
+ * </p>
+ */
+public class PyramidBuilder {
+
+    /**
+     * The pooling applied to each block of elements.
+     */
+    public enum Pooling {
+        /** The mean of the block. */
+        MEAN,
+        /** The smallest value of the block. */
+        MIN,
+        /** The largest value of the block. */
+        MAX
+    }
+
+    /** The data source to downsample. */
+    private final TypedDataSource<?> source;
+    /** The decoder for the dataset's elements. */
+    private final PrimitiveDecoder decoder;
+    /** The block reader used to scan the data source. */
+    private final ParallelBlockReader blockReader;
+    /** The shape of the dataset. */
+    private final int[] shape;
+    /** The decimation factor of each axis. */
+    private final int[] factors;
+    /** The number of levels to build, excluding level 0. */
+    private final int levels;
+    /** The pooling applied to each block. */
+    private final Pooling pooling;
+
+    /**
+     * Constructs a PyramidBuilder using one partition per processor.
+     *
+     * @param source  the numeric data source to downsample
+     * @param factors the decimation factor of each axis, at least 1
+     * @param levels  the number of levels to build
+     * @param pooling the pooling applied to each block
+     * @throws IllegalArgumentException if the dataset is not numeric or the factors or levels are invalid
+     */
+    public PyramidBuilder(TypedDataSource<?> source, int[] factors, int levels, Pooling pooling) {
+        this(source, new ParallelBlockReader(source), factors, levels, pooling);
+    }
+
+    /**
+     * Constructs a PyramidBuilder with an explicit block reader.
+     *
+     * @param source      the numeric data source to downsample
+     * @param blockReader the block reader used to scan the data source
+     * @param factors     the decimation factor of each axis, at least 1
+     * @param levels      the number of levels to build
+     * @param pooling     the pooling applied to each block
+     * @throws IllegalArgumentException if the dataset is not numeric or the factors or levels are invalid
+     */
+    public PyramidBuilder(TypedDataSource<?> source, ParallelBlockReader blockReader, int[] factors, int levels, Pooling pooling) {
+        this.source = source;
+        this.decoder = PrimitiveDecoder.forDatatype(source.getDatatype());
+        this.blockReader = blockReader;
+        this.shape = source.getShape();
+        if (shape.length == 0 || factors.length != shape.length) {
+            throw new IllegalArgumentException("Need one factor per axis of a dataset with at least one axis");
+        }
+        if (Arrays.stream(factors).anyMatch(factor -> factor < 1) || Arrays.stream(factors).allMatch(factor -> factor == 1)) {
+            throw new IllegalArgumentException("Factors must be at least 1 with one above 1: " + Arrays.toString(factors));
+        }
+        if (levels < 1) {
+            throw new IllegalArgumentException("At least one level must be built: " + levels);
+        }
+        this.factors = factors.clone();
+        this.levels = levels;
+        this.pooling = pooling;
+    }
+
+    /**
+     * Computes the shape of a level.
+     *
+     * @param level the level, 0 being the dataset itself
+     * @return the level's dimensions
+     */
+    public int[] getLevelShape(int level) {
+        int[] levelShape = shape.clone();
+        for (int l = 0; l < level; l++) {
+            levelShape = downsampledShape(levelShape);
+        }
+        return levelShape;
+    }
+
+    private int[] downsampledShape(int[] fineShape) {
+        int[] coarse = new int[fineShape.length];
+        for (int i = 0; i < fineShape.length; i++) {
+            coarse[i] = (fineShape[i] + factors[i] - 1) / factors[i];
+        }
+        return coarse;
+    }
+
+    /**
+     * Computes every level and writes it as a sibling dataset.
+     *
+     * @param file     the file to write the levels to
+     * @param baseName the name of the original dataset
+     * @return the shapes of the written levels, starting with level 1
+     * @throws IOException if an I/O error occurs
+     */
+    public List<int[]> write(HdfFile file, String baseName) throws IOException {
+        List<int[]> shapes = new ArrayList<>();
+        Level level = computeFirstLevel();
+        for (int l = 1; l <= levels; l++) {
+            if (l > 1) {
+                level = level.downsample();
+            }
+            DoubleDataSets.write(file, DownsamplingPyramid.levelName(baseName, l), level.shape, level.pooledValues());
+            shapes.add(level.shape);
+        }
+        return shapes;
+    }
+
+    /**
+     * Computes every level in memory.
+     *
+     * @return the pooled values of each level in row-major order, starting with level 1
+     * @throws IOException if an I/O error occurs
+     */
+    public List<double[]> compute() throws IOException {
+        List<double[]> result = new ArrayList<>();
+        Level level = computeFirstLevel();
+        result.add(level.pooledValues());
+        for (int l = 2; l <= levels; l++) {
+            level = level.downsample();
+            result.add(level.pooledValues());
+        }
+        return result;
+    }
+
+    /**
+     * Pools the dataset into level 1 in one parallel scan.
+     */
+    private Level computeFirstLevel() throws IOException {
+        int[] levelShape = downsampledShape(shape);
+        long cells = 1;
+        for (int dimension : levelShape) {
+            cells *= dimension;
+        }
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Level 1 too large for a single array: " + cells + " cells");
+        }
+        Level level = new Level(levelShape, (int) cells);
+        long[] levelStrides = strides(levelShape);
+        long inner = 1;
+        for (int i = 1; i < shape.length; i++) {
+            inner *= shape[i];
+        }
+        // Partitions cover whole slabs of level 1 cells along axis 0, so their cells never overlap
+        blockReader.readPartitions(0, source.getElementCount(), Math.max(1, factors[0] * inner),
+                (first, count) -> new double[1][0],
+                (scratch, block, first, count) -> {
+                    if (scratch[0].length < count) {
+                        scratch[0] = new double[count];
+                    }
+                    decoder.getDoubles(block, 0, count, scratch[0], 0);
+                    pool(level, levelStrides, scratch[0], first, count);
+                });
+        return level;
+    }
+
+    /**
+     * Adds a block of elements to their level 1 cells, stepping coordinates like an odometer.
+     */
+    private void pool(Level level, long[] levelStrides, double[] values, long firstElement, int count) {
+        int rank = shape.length;
+        int[] coordinates = new int[rank];
+        long remaining = firstElement;
+        for (int axis = rank - 1; axis >= 0; axis--) {
+            coordinates[axis] = (int) (remaining % shape[axis]);
+            remaining /= shape[axis];
+        }
+        long cell = 0;
+        for (int axis = 0; axis < rank; axis++) {
+            cell += coordinates[axis] / factors[axis] * levelStrides[axis];
+        }
+        for (int i = 0; i < count; i++) {
+            level.add((int) cell, values[i]);
+            for (int axis = rank - 1; axis >= 0; axis--) {
+                int coordinate = ++coordinates[axis];
+                if (coordinate < shape[axis]) {
+                    if (coordinate % factors[axis] == 0) {
+                        cell += levelStrides[axis];
+                    }
+                    break;
+                }
+                cell -= (coordinate - 1) / factors[axis] * levelStrides[axis];
+                coordinates[axis] = 0;
+            }
+        }
+    }
+
+    private static long[] strides(int[] dimensions) {
+        long[] strides = new long[dimensions.length];
+        long stride = 1;
+        for (int i = dimensions.length - 1; i >= 0; i--) {
+            strides[i] = stride;
+            stride *= dimensions[i];
+        }
+        return strides;
+    }
+
+    /**
+     * The pooling accumulators of one level.
+     */
+    private final class Level {
+        /** The shape of the level. */
+        private final int[] shape;
+        /** The sum, minimum or maximum of each cell. */
+        private final double[] values;
+        /** The number of values pooled into each cell. */
+        private final long[] counts;
+
+        private Level(int[] shape, int cells) {
+            this.shape = shape;
+            this.values = new double[cells];
+            this.counts = new long[cells];
+            if (pooling == Pooling.MIN) {
+                Arrays.fill(values, Double.POSITIVE_INFINITY);
+            } else if (pooling == Pooling.MAX) {
+                Arrays.fill(values, Double.NEGATIVE_INFINITY);
+            }
+        }
+
+        private void add(int cell, double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            combine(cell, value, 1);
+        }
+
+        private void combine(int cell, double value, long count) {
+            switch (pooling) {
+                case MIN:
+                    values[cell] = Math.min(values[cell], value);
+                    break;
+                case MAX:
+                    values[cell] = Math.max(values[cell], value);
+                    break;
+                default:
+                    values[cell] += value;
+            }
+            counts[cell] += count;
+        }
+
+        /**
+         * Pools this level into the next coarser one.
+         */
+        private Level downsample() {
+            int[] coarseShape = downsampledShape(shape);
+            int cells = 1;
+            for (int dimension : coarseShape) {
+                cells *= dimension;
+            }
+            Level coarse = new Level(coarseShape, cells);
+            long[] coarseStrides = strides(coarseShape);
+            int rank = shape.length;
+            int[] coordinates = new int[rank];
+            for (int cell = 0; cell < values.length; cell++) {
+                if (counts[cell] > 0) {
+                    long coarseCell = 0;
+                    for (int axis = 0; axis < rank; axis++) {
+                        coarseCell += coordinates[axis] / factors[axis] * coarseStrides[axis];
+                    }
+                    coarse.combine((int) coarseCell, values[cell], counts[cell]);
+                }
+                for (int axis = rank - 1; axis >= 0; axis--) {
+                    if (++coordinates[axis] < shape[axis]) {
+                        break;
+                    }
+                    coordinates[axis] = 0;
+                }
+            }
+            return coarse;
+        }
+
+        /**
+         * Retrieves the pooled value of each cell.
+         */
+        private double[] pooledValues() {
+            double[] pooled = new double[values.length];
+            for (int cell = 0; cell < values.length; cell++) {
+                if (counts[cell] == 0) {
+                    pooled[cell] = Double.NaN;
+                } else {
+                    pooled[cell] = pooling == Pooling.MEAN ? values[cell] / counts[cell] : values[cell];
+                }
+            }
+            return pooled;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package org.hdf5javalib.analysis;
+
+import java.util.Arrays;
+
+/**
+ * A mergeable KLL sketch for approximate quantiles of double values.
+ * <p>
+ * The {@code QuantileSketch} class implements the compactor hierarchy of Karnin, Lang and
+ * Liberty. Values enter level 0; when the sketch is full, the lowest level over its
+ * capacity is sorted and every other value, starting at a random offset, is promoted to
+ * the next level with twice the weight. Level capacities shrink geometrically towards the
+ * bottom, so the sketch holds about {@code 3k} values regardless of the input size, and
+ * the rank error of a quantile is roughly {@code 1.7 / k} of the count for the default
+ * {@code k} of 200. The exact minimum and maximum are kept separately. NaN values are
+ * ignored.
+ * </p>
+ * <p>
+ * The random offsets come from a generator with a fixed seed, so the same values accepted
+ * and merged in the same order always give the same sketch.
+ * </p>
+ */
+public class QuantileSketch implements DoubleAccumulator<QuantileSketch> {
+    /** The default accuracy parameter. */
+    public static final int DEFAULT_K = 200;
+    /** The smallest capacity of any level. */
+    private static final int MIN_CAPACITY = 8;
+    /** The ratio between the capacities of adjacent levels. */
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+
+    /** The accuracy parameter, which is the capacity of the top level. */
+    private final int k;
+    /** The retained values of each level; a value at level h has weight 2^h. */
+    private double[][] levels = new double[1][];
+    /** The number of retained values at each level. */
+    private int[] sizes = new int[1];
+    /** The number of values accepted. */
+    private long count;
+    /** The smallest value accepted. */
+    private double min = Double.POSITIVE_INFINITY;
+    /** The largest value accepted. */
+    private double max = Double.NEGATIVE_INFINITY;
+    /** The state of the generator for compaction offsets. */
+    private long randomState = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Constructs a QuantileSketch with the default accuracy.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Constructs a QuantileSketch.
+     *
+     * @param k the accuracy parameter; larger values retain more values and give smaller errors
+     * @throws IllegalArgumentException if k is less than 8
+     */
+    public QuantileSketch(int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("Sketch accuracy parameter must be at least " + MIN_CAPACITY + ": " + k);
+        }
+        this.k = k;
+        this.levels[0] = new double[k];
+    }
+
+    /**
+     * Creates an empty sketch with the same accuracy as this one.
+     *
+     * @return the empty sketch
+     */
+    public QuantileSketch emptyCopy() {
+        return new QuantileSketch(k);
+    }
+
+    @Override
+    public void accept(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        append(0, value);
+        if (sizes[0] >= capacity(0)) {
+            compress();
+        }
+    }
+
+    @Override
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return this;
+        }
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+        return this;
+    }
+
+    private void append(int level, double value) {
+        double[] items = levels[level];
+        if (sizes[level] == items.length) {
+            levels[level] = items = Arrays.copyOf(items, Math.max(MIN_CAPACITY, items.length * 2));
+        }
+        items[sizes[level]++] = value;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, depth)));
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = new double[MIN_CAPACITY];
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+    }
+
+    /**
+     * Compacts levels, lowest first, until every level is within its capacity.
+     */
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            if (sizes[level] < capacity(level)) {
+                continue;
+            }
+            if (level == levels.length - 1) {
+                // Adding a level lowers the capacity of every level below it
+                addLevel();
+            }
+            double[] items = levels[level];
+            int size = sizes[level];
+            Arrays.sort(items, 0, size);
+            // An odd value out stays behind so the total weight is preserved exactly
+            int kept = size & 1;
+            for (int i = kept + nextOffset(); i < size; i += 2) {
+                append(level + 1, items[i]);
+            }
+            sizes[level] = kept;
+        }
+    }
+
+    private int nextOffset() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState >>> 63);
+    }
+
+    /**
+     * Estimates the value at a quantile.
+     *
+     * @param quantile the quantile, from 0 to 1
+     * @return the estimated value, or NaN if the sketch is empty
+     * @throws IllegalArgumentException if the quantile is outside [0, 1]
+     */
+    public double getQuantile(double quantile) {
+        return getQuantiles(quantile)[0];
+    }
+
+    /**
+     * Estimates the values at several quantiles with one sort of the retained values.
+     *
+     * @param quantiles the quantiles, each from 0 to 1
+     * @return the estimated values, in the order of the quantiles; NaN if the sketch is empty
+     * @throws IllegalArgumentException if a quantile is outside [0, 1]
+     */
+    public double[] getQuantiles(double... quantiles) {
+        for (double quantile : quantiles) {
+            if (!(quantile >= 0 && quantile <= 1)) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+            }
+        }
+        double[] result = new double[quantiles.length];
+        if (count == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+        int retained = getRetainedCount();
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        sortRetained(values, weights);
+        long[] cumulative = new long[retained];
+        long running = 0;
+        for (int i = 0; i < retained; i++) {
+            running += weights[i];
+            cumulative[i] = running;
+        }
+        for (int q = 0; q < quantiles.length; q++) {
+            if (quantiles[q] == 0) {
+                result[q] = min;
+            } else if (quantiles[q] == 1) {
+                result[q] = max;
+            } else {
+                long rank = (long) Math.ceil(quantiles[q] * count);
+                int index = Arrays.binarySearch(cumulative, rank);
+                result[q] = values[index >= 0 ? index : Math.min(-index - 1, retained - 1)];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the fraction of values less than or equal to a value.
+     *
+     * @param value the value
+     * @return the estimated normalized rank, or NaN if the sketch is empty
+     */
+    public double getRank(double value) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long weight = 0;
+        for (int level = 0; level < levels.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                if (levels[level][i] <= value) {
+                    weight += 1L << level;
+                }
+            }
+        }
+        return (double) weight / count;
+    }
+
+    /**
+     * Collects the retained values with their weights, sorted by value, by merging the
+     * sorted levels one after another.
+     */
+    private void sortRetained(double[] values, long[] weights) {
+        double[] mergedValues = new double[values.length];
+        long[] mergedWeights = new long[values.length];
+        int n = 0;
+        for (int level = 0; level < levels.length; level++) {
+            double[] items = levels[level];
+            int size = sizes[level];
+            Arrays.sort(items, 0, size);
+            long weight = 1L << level;
+            int i = 0;
+            int j = 0;
+            int m = 0;
+            while (i < n || j < size) {
+                if (j == size || (i < n && values[i] <= items[j])) {
+                    mergedValues[m] = values[i];
+                    mergedWeights[m++] = weights[i++];
+                } else {
+                    mergedValues[m] = items[j++];
+                    mergedWeights[m++] = weight;
+                }
+            }
+            n = m;
+            System.arraycopy(mergedValues, 0, values, 0, n);
+            System.arraycopy(mergedWeights, 0, weights, 0, n);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retrieves the smallest value accepted.
+     *
+     * @return the minimum, or NaN if the sketch is empty
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * Retrieves the largest value accepted.
+     *
+     * @return the maximum, or NaN if the sketch is empty
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Retrieves the number of values held by the sketch.
+     *
+     * @return the number of retained values across all levels
+     */
+    public int getRetainedCount() {
+        int retained = 0;
+        for (int size : sizes) {
+            retained += size;
+        }
+        return retained;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{k=" + k + ", count=" + count + ", retained=" + getRetainedCount() + ", levels=" + levels.length + "}";
+    }
+}
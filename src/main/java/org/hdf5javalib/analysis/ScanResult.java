@@ -0,0 +1,113 @@
+package org.hdf5javalib.analysis;
+
+import java.util.BitSet;
+
+/**
+ * The flat indexes of the elements matched by a {@link PredicateScan}.
+ * <p>
+ * The {@code ScanResult} class keeps matches as a sorted {@code long[]} of row-major flat
+ * indexes. Coordinates are decoded only when asked for, either into a new array or into a
+ * caller-supplied one so that iterating over many matches allocates nothing.
+ * </p>
+ */
+public class ScanResult {
+    /** The shape of the scanned dataset. */
+    private final int[] shape;
+    /** The matching flat indexes, in ascending order. */
+    private final long[] indices;
+
+    /**
+     * Constructs a ScanResult.
+     *
+     * @param shape   the shape of the scanned dataset
+     * @param indices the matching flat indexes, in ascending order
+     */
+    public ScanResult(int[] shape, long[] indices) {
+        this.shape = shape.clone();
+        this.indices = indices;
+    }
+
+    /**
+     * Retrieves the number of matches.
+     *
+     * @return the number of matching elements
+     */
+    public int size() {
+        return indices.length;
+    }
+
+    /**
+     * Retrieves the flat index of a match.
+     *
+     * @param match the match number, from 0 to {@code size() - 1}
+     * @return the row-major flat index of the element
+     */
+    public long getIndex(int match) {
+        return indices[match];
+    }
+
+    /**
+     * Retrieves the flat indexes of all matches. The returned array is shared and must not be modified.
+     *
+     * @return the matching flat indexes, in ascending order
+     */
+    public long[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * Decodes the coordinates of a match.
+     *
+     * @param match the match number, from 0 to {@code size() - 1}
+     * @return the coordinates of the element, one per dimension
+     */
+    public int[] getCoordinates(int match) {
+        return getCoordinates(match, new int[shape.length]);
+    }
+
+    /**
+     * Decodes the coordinates of a match into an existing array.
+     *
+     * @param match       the match number, from 0 to {@code size() - 1}
+     * @param coordinates the array to fill, with one slot per dimension
+     * @return the filled array
+     * @throws IllegalArgumentException if the array length does not match the rank
+     */
+    public int[] getCoordinates(int match, int[] coordinates) {
+        if (coordinates.length != shape.length) {
+            throw new IllegalArgumentException("Coordinate array length " + coordinates.length + " does not match rank " + shape.length);
+        }
+        long remaining = indices[match];
+        for (int i = shape.length - 1; i >= 0; i--) {
+            coordinates[i] = (int) (remaining % shape[i]);
+            remaining /= shape[i];
+        }
+        return coordinates;
+    }
+
+    /**
+     * Converts the matches to a bitmap indexed by flat index.
+     *
+     * @return a bitmap with one set bit per match
+     * @throws IllegalStateException if a matching index does not fit in a {@link BitSet}
+     */
+    public BitSet toBitSet() {
+        BitSet bitSet = new BitSet();
+        for (long index : indices) {
+            if (index > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Index too large for a bitmap: " + index);
+            }
+            bitSet.set((int) index);
+        }
+        return bitSet;
+    }
+
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "ScanResult{shape=" + java.util.Arrays.toString(shape) + ", matches=" + indices.length + "}";
+    }
+}
@@ -0,0 +1,176 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.datasource.PrimitiveDecoder;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundMemberDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Extracts the numeric sort key of a record as a {@code long} that compares like the key.
+ * <p>
+ * The {@code SortKey} class maps every numeric key to a signed long whose natural order
+ * matches the key's order, so sorts and heaps compare primitives only. Signed integers
+ * are used as they are, unsigned 64-bit integers have their sign bit flipped, and
+ * floating-point values are mapped from their IEEE bits so that they order like
+ * {@link Double#compare}, with NaN after positive infinity. The key is either the whole
+ * element of a numeric dataset or one numeric member of a compound record.
+ * </p>
+ */
+final class SortKey {
+    /** The mapped key of NaN. */
+    private static final long NAN_KEY = fromDouble(Double.NaN);
+
+    /** The decoder of the key. */
+    private final PrimitiveDecoder decoder;
+    /** The offset of the key within its record. */
+    private final int offset;
+    /** Indicates whether the key is a floating-point value. */
+    private final boolean floatingPoint;
+    /** Indicates whether the key is an unsigned 64-bit integer. */
+    private final boolean unsigned64;
+
+    private SortKey(HdfDatatype keyType, int offset) {
+        this.decoder = PrimitiveDecoder.forDatatype(keyType);
+        this.offset = offset;
+        this.floatingPoint = decoder.isFloatingPoint();
+        this.unsigned64 = keyType instanceof FixedPointDatatype && !((FixedPointDatatype) keyType).isSigned()
+                && ((FixedPointDatatype) keyType).getBitPrecision() == 64;
+    }
+
+    /**
+     * Creates the key of a dataset's elements.
+     *
+     * @param datatype   the datatype of the elements
+     * @param memberName the name of the compound member holding the key, or null for numeric elements
+     * @return the key
+     * @throws IllegalArgumentException if the key is not numeric or the member does not exist
+     */
+    static SortKey of(HdfDatatype datatype, String memberName) {
+        if (memberName == null) {
+            return new SortKey(datatype, 0);
+        }
+        if (!(datatype instanceof CompoundDatatype)) {
+            throw new IllegalArgumentException("Member keys need a compound dataset: " + datatype.getDatatypeClass());
+        }
+        CompoundMemberDatatype member = ((CompoundDatatype) datatype).getMembers().stream()
+                .filter(candidate -> candidate.getName().equals(memberName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No compound member named " + memberName));
+        return new SortKey(member.getType(), member.getOffset());
+    }
+
+    /**
+     * Extracts the mapped key of a record.
+     *
+     * @param buffer       the buffer holding the record, in the key's byte order
+     * @param recordOffset the absolute offset of the record in the buffer
+     * @return the mapped key
+     */
+    long get(ByteBuffer buffer, int recordOffset) {
+        if (floatingPoint) {
+            return fromDouble(decoder.getDouble(buffer, recordOffset + offset));
+        }
+        long value = decoder.getLong(buffer, recordOffset + offset);
+        return unsigned64 ? value ^ Long.MIN_VALUE : value;
+    }
+
+    /**
+     * Indicates whether a mapped key is NaN.
+     *
+     * @param key the mapped key
+     * @return true if the key was decoded from a NaN
+     */
+    boolean isNaN(long key) {
+        return floatingPoint && key == NAN_KEY;
+    }
+
+    /**
+     * Converts a mapped key back to the key value as a double.
+     *
+     * @param key the mapped key
+     * @return the key value
+     */
+    double toDouble(long key) {
+        if (floatingPoint) {
+            return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+        }
+        if (unsigned64) {
+            long value = key ^ Long.MIN_VALUE;
+            return value >= 0 ? value : (double) (value >>> 1) * 2.0 + (value & 1L);
+        }
+        return key;
+    }
+
+    /**
+     * Converts a mapped key back to the key value as a long. Floating-point keys are
+     * truncated toward zero and unsigned 64-bit keys keep their bits.
+     *
+     * @param key the mapped key
+     * @return the key value
+     */
+    long toLong(long key) {
+        if (floatingPoint) {
+            return (long) toDouble(key);
+        }
+        return unsigned64 ? key ^ Long.MIN_VALUE : key;
+    }
+
+    private static long fromDouble(double value) {
+        long bits = Double.doubleToLongBits(value);
+        // Negative values have their magnitude bits inverted so that larger magnitudes sort first
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    ByteOrder getByteOrder() {
+        return decoder.getByteOrder();
+    }
+
+    /**
+     * Sorts keys in ascending order, carrying a permutation along. The sort is stable, so
+     * equal keys keep their order.
+     *
+     * @param keys  the keys, sorted in place
+     * @param order the values moved with the keys
+     * @param count the number of leading entries to sort
+     */
+    static void sort(long[] keys, int[] order, int count) {
+        long[] keyScratch = new long[count];
+        int[] orderScratch = new int[count];
+        // Bottom-up merge sort, swapping source and destination each pass
+        long[] sourceKeys = keys;
+        int[] sourceOrder = order;
+        long[] targetKeys = keyScratch;
+        int[] targetOrder = orderScratch;
+        for (int width = 1; width < count; width *= 2) {
+            for (int low = 0; low < count; low += 2 * width) {
+                int middle = Math.min(low + width, count);
+                int high = Math.min(low + 2 * width, count);
+                int left = low;
+                int right = middle;
+                for (int target = low; target < high; target++) {
+                    if (left < middle && (right >= high || sourceKeys[left] <= sourceKeys[right])) {
+                        targetKeys[target] = sourceKeys[left];
+                        targetOrder[target] = sourceOrder[left++];
+                    } else {
+                        targetKeys[target] = sourceKeys[right];
+                        targetOrder[target] = sourceOrder[right++];
+                    }
+                }
+            }
+            long[] swapKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = swapKeys;
+            int[] swapOrder = sourceOrder;
+            sourceOrder = targetOrder;
+            targetOrder = swapOrder;
+        }
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, 0, keys, 0, count);
+            System.arraycopy(sourceOrder, 0, order, 0, count);
+        }
+    }
+}
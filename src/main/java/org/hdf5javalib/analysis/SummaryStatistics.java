@@ -0,0 +1,160 @@
+package org.hdf5javalib.analysis;
+
+/**
+ * Count, extremes, sum, mean and variance of a set of double values.
+ * <p>
+ * The {@code SummaryStatistics} class keeps the sum with Kahan-Babuska (Neumaier)
+ * compensation and the mean and variance with Welford's online update. Partial results
+ * are merged with the pairwise formula of Chan et al., so summaries computed in parallel
+ * agree with a sequential pass to within rounding. NaN values are counted separately and
+ * excluded from all other statistics.
+ * </p>
+ */
+public class SummaryStatistics implements DoubleAccumulator<SummaryStatistics> {
+    /** The number of values that are not NaN. */
+    private long count;
+    /** The number of NaN values. */
+    private long nanCount;
+    /** The smallest value. */
+    private double min = Double.POSITIVE_INFINITY;
+    /** The largest value. */
+    private double max = Double.NEGATIVE_INFINITY;
+    /** The running sum. */
+    private double sum;
+    /** The compensation for low-order bits lost from the sum. */
+    private double sumCompensation;
+    /** The running mean. */
+    private double mean;
+    /** The sum of squared deviations from the mean. */
+    private double m2;
+
+    @Override
+    public void accept(double value) {
+        if (Double.isNaN(value)) {
+            nanCount++;
+            return;
+        }
+        count++;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        addToSum(value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    @Override
+    public SummaryStatistics merge(SummaryStatistics other) {
+        nanCount += other.nanCount;
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            min = other.min;
+            max = other.max;
+            sum = other.sum;
+            sumCompensation = other.sumCompensation;
+            mean = other.mean;
+            m2 = other.m2;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        addToSum(other.sum);
+        addToSum(other.sumCompensation);
+        return this;
+    }
+
+    private void addToSum(double value) {
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            sumCompensation += (sum - t) + value;
+        } else {
+            sumCompensation += (value - t) + sum;
+        }
+        sum = t;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getNanCount() {
+        return nanCount;
+    }
+
+    /**
+     * Retrieves the smallest value.
+     *
+     * @return the minimum, or NaN if no values were added
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * Retrieves the largest value.
+     *
+     * @return the maximum, or NaN if no values were added
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Retrieves the compensated sum of the values.
+     *
+     * @return the sum, or 0 if no values were added
+     */
+    public double getSum() {
+        return sum + sumCompensation;
+    }
+
+    /**
+     * Retrieves the arithmetic mean of the values.
+     *
+     * @return the mean, or NaN if no values were added
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Retrieves the population variance of the values.
+     *
+     * @return the variance, or NaN if no values were added
+     */
+    public double getVariance() {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    /**
+     * Retrieves the sample variance of the values, with Bessel's correction.
+     *
+     * @return the sample variance, or NaN if fewer than two values were added
+     */
+    public double getSampleVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /**
+     * Retrieves the population standard deviation of the values.
+     *
+     * @return the standard deviation, or NaN if no values were added
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    @Override
+    public String toString() {
+        return "SummaryStatistics{count=" + count + ", nanCount=" + nanCount + ", min=" + getMin() + ", max=" + getMax()
+                + ", sum=" + getSum() + ", mean=" + getMean() + ", stddev=" + getStandardDeviation() + "}";
+    }
+}
@@ -0,0 +1,280 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Finds the largest or smallest elements of a dataset without materializing it.
+ * <p>
+ * The {@code TopK} class scans a dataset with a {@link ParallelBlockReader}. Each partition
+ * keeps a bounded heap of its best {@code k} keys and flat indexes in two primitive
+ * arrays, so memory use is {@code O(k)} per partition regardless of the dataset size; the
+ * partition heaps are merged once the scan is done. Keys are the elements of a numeric
+ * dataset or one numeric member of a compound dataset. NaN keys are skipped, and equal
+ * keys are ranked by ascending flat index, so results are deterministic.
+ * </p>
+ */
+public class TopK {
+    /** The data source to scan. */
+    private final TypedDataSource<?> source;
+    /** The block reader used to scan the data source. */
+    private final ParallelBlockReader blockReader;
+    /** The key of each element. */
+    private final SortKey key;
+
+    /**
+     * Constructs a TopK over the elements of a numeric dataset.
+     *
+     * @param source the numeric data source to scan
+     * @throws IllegalArgumentException if the dataset is not numeric
+     */
+    public TopK(TypedDataSource<?> source) {
+        this(source, new ParallelBlockReader(source), null);
+    }
+
+    /**
+     * Constructs a TopK over one member of a compound dataset.
+     *
+     * @param source     the compound data source to scan
+     * @param memberName the name of the numeric member to rank by
+     * @throws IllegalArgumentException if the dataset is not compound or the member is not numeric
+     */
+    public TopK(TypedDataSource<?> source, String memberName) {
+        this(source, new ParallelBlockReader(source), memberName);
+    }
+
+    /**
+     * Constructs a TopK with an explicit block reader.
+     *
+     * @param source      the data source to scan
+     * @param blockReader the block reader used to scan the data source
+     * @param memberName  the name of the numeric member to rank by, or null for a numeric dataset
+     * @throws IllegalArgumentException if the key is not numeric
+     */
+    public TopK(TypedDataSource<?> source, ParallelBlockReader blockReader, String memberName) {
+        this.source = source;
+        this.blockReader = blockReader;
+        this.key = SortKey.of(source.getDatatype(), memberName);
+    }
+
+    /**
+     * Finds the elements with the largest keys.
+     *
+     * @param k the maximum number of elements to return
+     * @return the elements, largest first
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if k is negative
+     */
+    public Result largest(int k) throws IOException {
+        return find(k, false);
+    }
+
+    /**
+     * Finds the elements with the smallest keys.
+     *
+     * @param k the maximum number of elements to return
+     * @return the elements, smallest first
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if k is negative
+     */
+    public Result smallest(int k) throws IOException {
+        return find(k, true);
+    }
+
+    private Result find(int k, boolean smallest) throws IOException {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        int elementSize = source.getElementSize();
+        List<Heap> partials = blockReader.readPartitions(0, source.getElementCount(), 1,
+                (first, count) -> new Heap(k),
+                (heap, block, first, count) -> {
+                    block.order(key.getByteOrder());
+                    for (int i = 0; i < count; i++) {
+                        long elementKey = key.get(block, i * elementSize);
+                        if (!key.isNaN(elementKey)) {
+                            // Inverting the bits reverses the order, so smallest keys rank highest
+                            heap.offer(smallest ? ~elementKey : elementKey, first + i);
+                        }
+                    }
+                });
+        Heap merged = partials.get(0);
+        for (int p = 1; p < partials.size(); p++) {
+            Heap partial = partials.get(p);
+            for (int i = 0; i < partial.size; i++) {
+                merged.offer(partial.keys[i], partial.indices[i]);
+            }
+        }
+        int size = merged.size;
+        long[] keys = new long[size];
+        long[] indices = new long[size];
+        for (int i = size - 1; i >= 0; i--) {
+            indices[i] = merged.indices[0];
+            keys[i] = smallest ? ~merged.keys[0] : merged.keys[0];
+            merged.poll();
+        }
+        return new Result(source.getShape(), key, keys, indices);
+    }
+
+    /**
+     * A bounded min-heap of keys and flat indexes, whose root is the worst entry kept.
+     */
+    private static final class Heap {
+        /** The keys of the entries. */
+        private final long[] keys;
+        /** The flat indexes of the entries. */
+        private final long[] indices;
+        /** The number of entries. */
+        private int size;
+
+        private Heap(int capacity) {
+            this.keys = new long[capacity];
+            this.indices = new long[capacity];
+        }
+
+        /**
+         * Indicates whether entry a ranks below entry b: a smaller key, or an equal key at a later index.
+         */
+        private static boolean worse(long keyA, long indexA, long keyB, long indexB) {
+            return keyA < keyB || (keyA == keyB && indexA > indexB);
+        }
+
+        private void offer(long key, long index) {
+            if (size < keys.length) {
+                int child = size++;
+                while (child > 0) {
+                    int parent = (child - 1) / 2;
+                    if (!worse(key, index, keys[parent], indices[parent])) {
+                        break;
+                    }
+                    keys[child] = keys[parent];
+                    indices[child] = indices[parent];
+                    child = parent;
+                }
+                keys[child] = key;
+                indices[child] = index;
+            } else if (size > 0 && worse(keys[0], indices[0], key, index)) {
+                siftDown(key, index);
+            }
+        }
+
+        private void poll() {
+            size--;
+            if (size > 0) {
+                siftDown(keys[size], indices[size]);
+            }
+        }
+
+        /**
+         * Places an entry at the root and moves it down to its position.
+         */
+        private void siftDown(long key, long index) {
+            int parent = 0;
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && worse(keys[child + 1], indices[child + 1], keys[child], indices[child])) {
+                    child++;
+                }
+                if (!worse(keys[child], indices[child], key, index)) {
+                    break;
+                }
+                keys[parent] = keys[child];
+                indices[parent] = indices[child];
+                parent = child;
+            }
+            keys[parent] = key;
+            indices[parent] = index;
+        }
+    }
+
+    /**
+     * The elements found by a {@link TopK} search, best first.
+     */
+    public static class Result {
+        /** The shape of the scanned dataset. */
+        private final int[] shape;
+        /** The key mapping used to decode values. */
+        private final SortKey key;
+        /** The mapped keys of the elements. */
+        private final long[] keys;
+        /** The flat indexes of the elements. */
+        private final long[] indices;
+
+        private Result(int[] shape, SortKey key, long[] keys, long[] indices) {
+            this.shape = shape;
+            this.key = key;
+            this.keys = keys;
+            this.indices = indices;
+        }
+
+        /**
+         * Retrieves the number of elements found, which is less than k only for small datasets.
+         *
+         * @return the number of elements
+         */
+        public int size() {
+            return indices.length;
+        }
+
+        /**
+         * Retrieves the flat index of an element.
+         *
+         * @param rank the rank of the element, 0 being the best
+         * @return the row-major flat index
+         */
+        public long getIndex(int rank) {
+            return indices[rank];
+        }
+
+        /**
+         * Retrieves the flat indexes of all elements. The returned array is shared and must not be modified.
+         *
+         * @return the flat indexes, best first
+         */
+        public long[] getIndices() {
+            return indices;
+        }
+
+        /**
+         * Retrieves the key of an element as a double.
+         *
+         * @param rank the rank of the element, 0 being the best
+         * @return the key value
+         */
+        public double getDouble(int rank) {
+            return key.toDouble(keys[rank]);
+        }
+
+        /**
+         * Retrieves the key of an element as a long; floating-point keys are truncated toward zero.
+         *
+         * @param rank the rank of the element, 0 being the best
+         * @return the key value
+         */
+        public long getLong(int rank) {
+            return key.toLong(keys[rank]);
+        }
+
+        /**
+         * Decodes the coordinates of an element.
+         *
+         * @param rank the rank of the element, 0 being the best
+         * @return the coordinates of the element, one per dimension
+         */
+        public int[] getCoordinates(int rank) {
+            int[] coordinates = new int[shape.length];
+            long remaining = indices[rank];
+            for (int axis = shape.length - 1; axis >= 0; axis--) {
+                coordinates[axis] = (int) (remaining % shape[axis]);
+                remaining /= shape[axis];
+            }
+            return coordinates;
+        }
+    }
+}
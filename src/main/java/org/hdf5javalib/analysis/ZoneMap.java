@@ -0,0 +1,466 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.HdfDataFile;
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.PrimitiveDecoder;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.DataWriteListener;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A per-block summary of a numeric dataset used to skip blocks during scans.
+ * <p>
+ * The {@code ZoneMap} class divides a dataset's elements, in row-major order, into blocks
+ * of a fixed number of elements and records each block's minimum, maximum and number of
+ * NaN values. A range scan such as {@link PredicateScan#findInRange(double, double, ZoneMap)}
+ * reads only the blocks whose range overlaps the query. Blocks containing only NaN values
+ * have an empty range and are always skipped by range queries.
+ * </p>
+ * <p>
+ * A zone map can be built from an existing dataset with {@link #build}, or while the
+ * dataset is written by registering a {@link Builder} with
+ * {@link HdfDataSet#addWriteListener}. It can be stored inside the file as a companion
+ * dataset of shape {@code [blocks + 1, 3]}, whose first row holds the block size, the
+ * element count and the format version and whose other rows hold the minimum, maximum
+ * and NaN count of each block, or in a sidecar file.
+ * </p>
+ */
+public class ZoneMap {
+    /** The default number of elements per block. */
+    public static final int DEFAULT_BLOCK_ELEMENTS = 4096;
+    /** The suffix appended to a dataset name to name its companion zone map dataset. */
+    public static final String COMPANION_SUFFIX = "_zonemap";
+    /** The version of the stored zone map layout. */
+    private static final int FORMAT_VERSION = 1;
+    /** The magic number at the start of a sidecar file, "HJZM" in ASCII. */
+    private static final int SIDECAR_MAGIC = 0x484A5A4D;
+
+    /** The number of elements per block; the last block may be shorter. */
+    private final int blockElements;
+    /** The number of elements in the dataset. */
+    private final long elementCount;
+    /** The smallest value of each block. */
+    private final double[] mins;
+    /** The largest value of each block. */
+    private final double[] maxs;
+    /** The number of NaN values in each block. */
+    private final long[] nanCounts;
+
+    /**
+     * Constructs a ZoneMap.
+     *
+     * @param blockElements the number of elements per block
+     * @param elementCount  the number of elements in the dataset
+     * @param mins          the smallest value of each block
+     * @param maxs          the largest value of each block
+     * @param nanCounts     the number of NaN values in each block
+     * @throws IllegalArgumentException if the arrays do not have one entry per block
+     */
+    public ZoneMap(int blockElements, long elementCount, double[] mins, double[] maxs, long[] nanCounts) {
+        if (blockElements <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockElements);
+        }
+        long blocks = (elementCount + blockElements - 1) / blockElements;
+        if (mins.length != blocks || maxs.length != blocks || nanCounts.length != blocks) {
+            throw new IllegalArgumentException("Zone map needs " + blocks + " blocks for " + elementCount + " elements");
+        }
+        this.blockElements = blockElements;
+        this.elementCount = elementCount;
+        this.mins = mins;
+        this.maxs = maxs;
+        this.nanCounts = nanCounts;
+    }
+
+    /**
+     * Builds the zone map of an existing dataset in a parallel scan.
+     *
+     * @param source        the numeric data source to index
+     * @param blockElements the number of elements per block
+     * @return the zone map
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the dataset is not numeric or the block size is not positive
+     */
+    public static ZoneMap build(TypedDataSource<?> source, int blockElements) throws IOException {
+        return build(source, blockElements, new ParallelBlockReader(source));
+    }
+
+    /**
+     * Builds the zone map of an existing dataset with an explicit block reader.
+     *
+     * @param source        the numeric data source to index
+     * @param blockElements the number of elements per block
+     * @param blockReader   the block reader used to scan the data source
+     * @return the zone map
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the dataset is not numeric or the block size is not positive
+     */
+    public static ZoneMap build(TypedDataSource<?> source, int blockElements, ParallelBlockReader blockReader) throws IOException {
+        if (blockElements <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockElements);
+        }
+        PrimitiveDecoder decoder = PrimitiveDecoder.forDatatype(source.getDatatype());
+        // Partitions start on block boundaries, so each owns whole blocks
+        List<Builder> partitions = blockReader.readPartitions(0, source.getElementCount(), blockElements,
+                (first, count) -> new Builder(decoder, blockElements),
+                (builder, block, first, count) -> {
+                    for (int i = 0; i < count; i++) {
+                        builder.accept(decoder.getDouble(block, i * decoder.getSize()));
+                    }
+                });
+        Builder merged = new Builder(decoder, blockElements);
+        for (Builder partition : partitions) {
+            partition.flushBlock();
+            merged.append(partition);
+        }
+        return merged.build();
+    }
+
+    /**
+     * Indicates whether a block may hold a value in a closed range.
+     *
+     * @param block the block index
+     * @param lower the smallest value of the range
+     * @param upper the largest value of the range
+     * @return false if no value of the block lies in the range
+     */
+    public boolean mayContain(int block, double lower, double upper) {
+        return maxs[block] >= lower && mins[block] <= upper;
+    }
+
+    /**
+     * Finds the blocks that may hold a value in a closed range.
+     *
+     * @param lower the smallest value of the range
+     * @param upper the largest value of the range
+     * @return the indexes of the candidate blocks, in ascending order
+     */
+    public int[] candidateBlocks(double lower, double upper) {
+        int[] candidates = new int[mins.length];
+        int count = 0;
+        for (int block = 0; block < mins.length; block++) {
+            if (mayContain(block, lower, upper)) {
+                candidates[count++] = block;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Writes the zone map to a file as a companion dataset of doubles.
+     *
+     * @param file the file to write to
+     * @param name the name of the companion dataset, usually the indexed dataset's name plus {@link #COMPANION_SUFFIX}
+     * @return the written and closed dataset
+     * @throws IOException if an I/O error occurs
+     */
+    public HdfDataSet writeDataSet(HdfFile file, String name) throws IOException {
+        double[] values = new double[(mins.length + 1) * 3];
+        values[0] = blockElements;
+        values[1] = elementCount;
+        values[2] = FORMAT_VERSION;
+        for (int block = 0; block < mins.length; block++) {
+            values[3 + block * 3] = mins[block];
+            values[4 + block * 3] = maxs[block];
+            values[5 + block * 3] = nanCounts[block];
+        }
+        return DoubleDataSets.write(file, name, new int[]{mins.length + 1, 3}, values);
+    }
+
+    /**
+     * Reads a zone map stored as a companion dataset.
+     *
+     * @param channel     the channel of the file holding the dataset
+     * @param hdfDataFile the file holding the dataset
+     * @param dataset     the companion dataset
+     * @return the zone map
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the dataset is not a zone map
+     */
+    public static ZoneMap readDataSet(SeekableByteChannel channel, HdfDataFile hdfDataFile, HdfDataSet dataset) throws IOException {
+        TypedDataSource<Double> source = new TypedDataSource<>(channel, hdfDataFile, dataset, Double.class);
+        int[] shape = source.getShape();
+        if (shape.length != 2 || shape[0] < 1 || shape[1] != 3) {
+            throw new IllegalArgumentException("Dataset " + dataset.getDatasetName() + " is not a zone map: shape " + Arrays.toString(shape));
+        }
+        PrimitiveDecoder decoder = PrimitiveDecoder.forDatatype(source.getDatatype());
+        ByteBuffer data = ByteBuffer.allocate((int) source.getElementCount() * decoder.getSize()).order(decoder.getByteOrder());
+        source.readElements(0, data);
+        double[] values = new double[(int) source.getElementCount()];
+        decoder.getDoubles(data.flip(), 0, values.length, values, 0);
+        if (values[2] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported zone map version: " + values[2]);
+        }
+        int blocks = shape[0] - 1;
+        double[] mins = new double[blocks];
+        double[] maxs = new double[blocks];
+        long[] nanCounts = new long[blocks];
+        for (int block = 0; block < blocks; block++) {
+            mins[block] = values[3 + block * 3];
+            maxs[block] = values[4 + block * 3];
+            nanCounts[block] = (long) values[5 + block * 3];
+        }
+        return new ZoneMap((int) values[0], (long) values[1], mins, maxs, nanCounts);
+    }
+
+    /**
+     * Writes the zone map to a sidecar file.
+     *
+     * @param path the file to create or replace
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeSidecar(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(24 + mins.length * 24).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SIDECAR_MAGIC).putInt(FORMAT_VERSION).putInt(blockElements).putInt(mins.length).putLong(elementCount);
+        for (int block = 0; block < mins.length; block++) {
+            buffer.putDouble(mins[block]).putDouble(maxs[block]).putLong(nanCounts[block]);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a zone map from a sidecar file.
+     *
+     * @param path the sidecar file
+     * @return the zone map
+     * @throws IOException if an I/O error occurs or the file is not a zone map
+     */
+    public static ZoneMap readSidecar(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 24);
+            if (header.getInt() != SIDECAR_MAGIC) {
+                throw new IOException("Not a zone map file: " + path);
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported zone map version " + version + ": " + path);
+            }
+            int blockElements = header.getInt();
+            int blocks = header.getInt();
+            long elementCount = header.getLong();
+            ByteBuffer body = readFully(channel, blocks * 24);
+            double[] mins = new double[blocks];
+            double[] maxs = new double[blocks];
+            long[] nanCounts = new long[blocks];
+            for (int block = 0; block < blocks; block++) {
+                mins[block] = body.getDouble();
+                maxs[block] = body.getDouble();
+                nanCounts[block] = body.getLong();
+            }
+            return new ZoneMap(blockElements, elementCount, mins, maxs, nanCounts);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Zone map file is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    public int getBlockCount() {
+        return mins.length;
+    }
+
+    public int getBlockElements() {
+        return blockElements;
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Retrieves the index of a block's first element.
+     *
+     * @param block the block index
+     * @return the flat index of the first element
+     */
+    public long getBlockStart(int block) {
+        return (long) block * blockElements;
+    }
+
+    /**
+     * Retrieves the number of elements in a block.
+     *
+     * @param block the block index
+     * @return the block length, which is shorter than the block size only for the last block
+     */
+    public int getBlockLength(int block) {
+        return (int) Math.min(blockElements, elementCount - getBlockStart(block));
+    }
+
+    public double getMin(int block) {
+        return mins[block];
+    }
+
+    public double getMax(int block) {
+        return maxs[block];
+    }
+
+    public long getNanCount(int block) {
+        return nanCounts[block];
+    }
+
+    @Override
+    public String toString() {
+        return "ZoneMap{blockElements=" + blockElements + ", elementCount=" + elementCount + ", blocks=" + mins.length + "}";
+    }
+
+    /**
+     * Builds a zone map from the raw data written to a dataset.
+     * <p>
+     * Register a {@code Builder} with {@link HdfDataSet#addWriteListener} before writing
+     * and call {@link #build()} once all data has been written. Buffers may split
+     * elements; partial elements are carried over to the next buffer.
+     * </p>
+     */
+    public static class Builder implements DataWriteListener {
+        /** The decoder for the dataset's elements. */
+        private final PrimitiveDecoder decoder;
+        /** The number of elements per block. */
+        private final int blockElements;
+        /** The bytes of an element split across buffers. */
+        private final ByteBuffer carry;
+        /** The smallest value of each completed block. */
+        private double[] mins = new double[16];
+        /** The largest value of each completed block. */
+        private double[] maxs = new double[16];
+        /** The number of NaN values in each completed block. */
+        private long[] nanCounts = new long[16];
+        /** The number of completed blocks. */
+        private int blocks;
+        /** The number of elements accepted. */
+        private long elementCount;
+        /** The smallest value of the current block. */
+        private double blockMin = Double.POSITIVE_INFINITY;
+        /** The largest value of the current block. */
+        private double blockMax = Double.NEGATIVE_INFINITY;
+        /** The number of NaN values in the current block. */
+        private long blockNanCount;
+        /** The number of elements in the current block. */
+        private int blockCount;
+
+        /**
+         * Constructs a Builder.
+         *
+         * @param datatype      the datatype of the dataset being written
+         * @param blockElements the number of elements per block
+         * @throws IllegalArgumentException if the datatype is not numeric or the block size is not positive
+         */
+        public Builder(HdfDatatype datatype, int blockElements) {
+            this(PrimitiveDecoder.forDatatype(datatype), blockElements);
+        }
+
+        private Builder(PrimitiveDecoder decoder, int blockElements) {
+            if (blockElements <= 0) {
+                throw new IllegalArgumentException("Block size must be positive: " + blockElements);
+            }
+            this.decoder = decoder;
+            this.blockElements = blockElements;
+            this.carry = ByteBuffer.allocate(decoder.getSize()).order(decoder.getByteOrder());
+        }
+
+        @Override
+        public void dataWritten(HdfDataSet dataset, ByteBuffer data) {
+            data.order(decoder.getByteOrder());
+            int size = decoder.getSize();
+            if (carry.position() > 0) {
+                while (carry.hasRemaining() && data.hasRemaining()) {
+                    carry.put(data.get());
+                }
+                if (carry.hasRemaining()) {
+                    return;
+                }
+                accept(decoder.getDouble(carry, 0));
+                carry.clear();
+            }
+            int position = data.position();
+            int end = data.limit() - size;
+            for (; position <= end; position += size) {
+                accept(decoder.getDouble(data, position));
+            }
+            data.position(position);
+            carry.put(data);
+        }
+
+        private void accept(double value) {
+            if (Double.isNaN(value)) {
+                blockNanCount++;
+            } else {
+                if (value < blockMin) blockMin = value;
+                if (value > blockMax) blockMax = value;
+            }
+            elementCount++;
+            if (++blockCount == blockElements) {
+                flushBlock();
+            }
+        }
+
+        private void flushBlock() {
+            if (blockCount == 0) {
+                return;
+            }
+            if (blocks == mins.length) {
+                mins = Arrays.copyOf(mins, blocks * 2);
+                maxs = Arrays.copyOf(maxs, blocks * 2);
+                nanCounts = Arrays.copyOf(nanCounts, blocks * 2);
+            }
+            mins[blocks] = blockMin;
+            maxs[blocks] = blockMax;
+            nanCounts[blocks++] = blockNanCount;
+            blockMin = Double.POSITIVE_INFINITY;
+            blockMax = Double.NEGATIVE_INFINITY;
+            blockNanCount = 0;
+            blockCount = 0;
+        }
+
+        /**
+         * Appends the completed blocks of a builder whose elements follow this builder's.
+         */
+        private void append(Builder other) {
+            for (int block = 0; block < other.blocks; block++) {
+                blockMin = other.mins[block];
+                blockMax = other.maxs[block];
+                blockNanCount = other.nanCounts[block];
+                blockCount = 1;
+                flushBlock();
+            }
+            elementCount += other.elementCount;
+        }
+
+        /**
+         * Creates the zone map of the elements written so far.
+         *
+         * @return the zone map
+         * @throws IllegalStateException if the data written ends with a partial element
+         */
+        public ZoneMap build() {
+            if (carry.position() > 0) {
+                throw new IllegalStateException("Data written ends with a partial element of " + carry.position() + " bytes");
+            }
+            flushBlock();
+            return new ZoneMap(blockElements, elementCount, Arrays.copyOf(mins, blocks), Arrays.copyOf(maxs, blocks),
+                    Arrays.copyOf(nanCounts, blocks));
+        }
+    }
+}
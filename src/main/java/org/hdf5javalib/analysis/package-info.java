@@ -0,0 +1,11 @@
+/**
+ * Analytical operators over numeric HDF5 datasets.
+ * <p>
+ * The {@code org.hdf5javalib.analysis} package provides single-pass, mergeable operators
+ * built on {@link org.hdf5javalib.datasource.TypedDataSource} and
+ * {@link org.hdf5javalib.datasource.ParallelBlockReader}. Values are decoded into
+ * primitives block by block and accumulated per partition, so whole datasets can be
+ * summarized in parallel without boxing.
+ * </p>
+ */
+package org.hdf5javalib.analysis;
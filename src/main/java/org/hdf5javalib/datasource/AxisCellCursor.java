@@ -0,0 +1,141 @@
+package org.hdf5javalib.datasource;
+
+/**
+ * Tracks the output cell of each element while a partition of a dataset is scanned for a
+ * reduction along one axis.
+ * <p>
+ * The {@code AxisCellCursor} class views a dataset as {@code outer x axisLength x inner}
+ * and maps every element to the cell {@code outer index * inner + inner index}, skipping
+ * the axis index. A partition covering a range of elements touches only the cells of the
+ * slabs it overlaps; cells are numbered relative to the first of them, so per-partition
+ * results can be held in arrays of {@link #getCellCount()} entries starting at
+ * {@link #getBase()}. The cell is advanced with stride arithmetic as the scan proceeds, so
+ * no coordinate arrays are created per element.
+ * </p>
+ */
+public final class AxisCellCursor {
+    /** The number of elements between consecutive outer indexes. */
+    private final long slab;
+    /** The number of elements between consecutive axis indexes. */
+    private final long inner;
+    /** The length of the reduced axis. */
+    private final int axisLength;
+    /** The first cell touched by the partition. */
+    private final int base;
+    /** The number of cells touched by the partition. */
+    private final int cellCount;
+    /** The inner index of the current element. */
+    private int innerIndex;
+    /** The axis index of the current element. */
+    private int axisIndex;
+    /** The cell of the current element, relative to the base. */
+    private int cell;
+
+    /**
+     * Constructs an AxisCellCursor for a partition of the dataset.
+     *
+     * @param firstElement the index of the partition's first element
+     * @param elementCount the number of elements in the partition
+     * @param slab         the number of elements between consecutive outer indexes
+     * @param inner        the number of elements between consecutive axis indexes
+     */
+    public AxisCellCursor(long firstElement, long elementCount, long slab, long inner) {
+        this.slab = Math.max(1, slab);
+        this.inner = inner;
+        this.axisLength = inner == 0 ? 0 : (int) (this.slab / inner);
+        if (elementCount == 0) {
+            this.base = 0;
+            this.cellCount = 0;
+            return;
+        }
+        long firstOuter = firstElement / this.slab;
+        long lastOuter = (firstElement + elementCount - 1) / this.slab;
+        this.base = (int) (firstOuter * inner);
+        this.cellCount = (int) ((lastOuter - firstOuter + 1) * inner);
+    }
+
+    /**
+     * Positions the cursor at an element of the partition.
+     *
+     * @param element the index of the element in the dataset
+     */
+    public void seek(long element) {
+        innerIndex = (int) (element % inner);
+        axisIndex = (int) ((element / inner) % axisLength);
+        cell = (int) ((element / slab) * inner + innerIndex - base);
+    }
+
+    /**
+     * Returns the cell of the current element.
+     *
+     * @return the cell, relative to {@link #getBase()}
+     */
+    public int cell() {
+        return cell;
+    }
+
+    /**
+     * Returns how many elements, starting at the current one, share its cell.
+     * <p>
+     * Consecutive elements share a cell only when the reduced axis is the last dimension;
+     * otherwise each element has a cell of its own.
+     * </p>
+     *
+     * @param limit the maximum number of elements to count
+     * @return the number of elements sharing the current cell, at most {@code limit}
+     */
+    public int run(int limit) {
+        return inner == 1 ? Math.min(limit, axisLength - axisIndex) : Math.min(limit, 1);
+    }
+
+    /**
+     * Moves the cursor to the next element.
+     */
+    public void advance() {
+        // Advance the inner index, then the axis index, then move to the next slab's cells
+        cell++;
+        if (++innerIndex == inner) {
+            innerIndex = 0;
+            if (++axisIndex == axisLength) {
+                axisIndex = 0;
+            } else {
+                cell -= (int) inner;
+            }
+        }
+    }
+
+    /**
+     * Moves the cursor forward by a number of elements.
+     *
+     * @param count the number of elements to skip
+     */
+    public void advance(int count) {
+        if (inner == 1) {
+            long axis = axisIndex + (long) count;
+            cell += (int) (axis / axisLength);
+            axisIndex = (int) (axis % axisLength);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            advance();
+        }
+    }
+
+    /**
+     * Retrieves the first cell touched by the partition.
+     *
+     * @return the first cell touched by the partition
+     */
+    public int getBase() {
+        return base;
+    }
+
+    /**
+     * Retrieves the number of cells touched by the partition.
+     *
+     * @return the number of cells touched by the partition
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+}
@@ -0,0 +1,289 @@
+package org.hdf5javalib.datasource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reduces a numeric N-dimensional dataset along one axis into flat primitive arrays.
+ * <p>
+ * The {@code AxisReduction} class is a parallel, allocation-free counterpart of
+ * {@link org.hdf5javalib.utils.FlattenedArrayUtils#reduceAlongAxis}. Elements are read in
+ * blocks by a {@link ParallelBlockReader}, decoded with a {@link PrimitiveDecoder}, and
+ * accumulated into per-partition primitive arrays that are merged once all partitions
+ * finish. The output cell of each element is tracked with stride arithmetic as the scan
+ * advances, so no coordinate arrays are created per element. When the dimensions before
+ * the reduced axis offer enough parallelism, partitions are aligned to whole slabs and
+ * their partial results never overlap.
+ * </p>
+ * <p>
+ * Results use the dataset's dimensions with the reduced axis removed, flattened in
+ * row-major order. Values are accumulated in double precision; {@code SUM}, {@code MEAN},
+ * {@code MIN} and {@code MAX} propagate NaN, while {@code COUNT} counts the values that
+ * are not NaN.
+ * </p>
+ */
+public class AxisReduction {
+
+    /**
+     * The supported reductions.
+     */
+    public enum Reducer {
+        /** The sum of the values. */
+        SUM,
+        /** The smallest value. */
+        MIN,
+        /** The largest value. */
+        MAX,
+        /** The arithmetic mean of the values. */
+        MEAN,
+        /** The number of values that are not NaN. */
+        COUNT
+    }
+
+    /** The data source being reduced. */
+    private final TypedDataSource<?> source;
+    /** The decoder for the dataset's elements. */
+    private final PrimitiveDecoder decoder;
+    /** The block reader used for scans. */
+    private final ParallelBlockReader blockReader;
+
+    /**
+     * Constructs an AxisReduction using one partition per processor.
+     *
+     * @param source the numeric data source to reduce
+     * @throws IllegalArgumentException if the dataset is not numeric
+     */
+    public AxisReduction(TypedDataSource<?> source) {
+        this(source, new ParallelBlockReader(source));
+    }
+
+    /**
+     * Constructs an AxisReduction with an explicit block reader.
+     *
+     * @param source      the numeric data source to reduce
+     * @param blockReader the block reader used to scan the data source
+     * @throws IllegalArgumentException if the dataset is not numeric
+     */
+    public AxisReduction(TypedDataSource<?> source, ParallelBlockReader blockReader) {
+        this.source = source;
+        this.decoder = PrimitiveDecoder.forDatatype(source.getDatatype());
+        this.blockReader = blockReader;
+    }
+
+    /**
+     * Reduces all elements of the dataset to a single value.
+     *
+     * @param reducer the reduction to apply
+     * @return the reduced value
+     * @throws IOException if an I/O error occurs
+     */
+    public double reduceAll(Reducer reducer) throws IOException {
+        return reduce(1, source.getElementCount(), 1, reducer)[0];
+    }
+
+    /**
+     * Reduces the dataset along one axis.
+     *
+     * @param axis    the axis to reduce
+     * @param reducer the reduction to apply
+     * @return the reduced values and their shape
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the axis is out of range
+     */
+    public Result reduce(int axis, Reducer reducer) throws IOException {
+        int[] shape = source.getShape();
+        if (axis < 0 || axis >= shape.length) {
+            throw new IllegalArgumentException("Invalid axis for reduction: " + axis);
+        }
+        long outer = 1;
+        for (int i = 0; i < axis; i++) {
+            outer *= shape[i];
+        }
+        long inner = 1;
+        for (int i = axis + 1; i < shape.length; i++) {
+            inner *= shape[i];
+        }
+        if (outer * inner > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Reduced result too large: " + outer * inner + " cells");
+        }
+        int[] reducedShape = new int[shape.length - 1];
+        for (int i = 0, j = 0; i < shape.length; i++) {
+            if (i != axis) reducedShape[j++] = shape[i];
+        }
+        return new Result(reducedShape, reduce(outer, shape[axis], inner, reducer));
+    }
+
+    /**
+     * Reduces a dataset viewed as {@code outer x axisLength x inner} over its middle dimension.
+     */
+    private double[] reduce(long outer, long axisLength, long inner, Reducer reducer) throws IOException {
+        int cells = (int) (outer * inner);
+        long slab = axisLength * inner;
+        // Align partitions to slabs when there are enough of them to keep every core busy
+        long granularity = outer >= blockReader.getParallelism() ? Math.max(1, slab) : 1;
+        List<Partial> partials = blockReader.readPartitions(0, source.getElementCount(), granularity,
+                (first, count) -> new Partial(reducer, new AxisCellCursor(first, count, slab, inner)),
+                this::accumulate);
+
+        double[] values = new double[cells];
+        initialize(reducer, values, 0, cells);
+        long[] counts = reducer == Reducer.COUNT ? new long[cells] : null;
+        for (Partial partial : partials) {
+            partial.mergeInto(values, counts);
+        }
+        if (counts != null) {
+            for (int i = 0; i < cells; i++) {
+                values[i] = counts[i];
+            }
+        } else if (reducer == Reducer.MEAN) {
+            for (int i = 0; i < cells; i++) {
+                values[i] /= axisLength;
+            }
+        } else if (axisLength == 0 && reducer != Reducer.SUM) {
+            Arrays.fill(values, Double.NaN);
+        }
+        return values;
+    }
+
+    /**
+     * Accumulates one block into a partition's partial result.
+     */
+    private void accumulate(Partial partial, ByteBuffer block, long firstElement, int elementCount) {
+        if (partial.scratch == null || partial.scratch.length < elementCount) {
+            partial.scratch = new double[elementCount];
+        }
+        double[] scratch = partial.scratch;
+        decoder.getDoubles(block, 0, elementCount, scratch, 0);
+
+        AxisCellCursor cursor = partial.cursor;
+        cursor.seek(firstElement);
+        double[] values = partial.values;
+        long[] counts = partial.counts;
+        Reducer reducer = partial.reducer;
+        for (int i = 0; i < elementCount; i++) {
+            double value = scratch[i];
+            int cell = cursor.cell();
+            switch (reducer) {
+                case SUM:
+                case MEAN:
+                    values[cell] += value;
+                    break;
+                case MIN:
+                    values[cell] = Math.min(values[cell], value);
+                    break;
+                case MAX:
+                    values[cell] = Math.max(values[cell], value);
+                    break;
+                default:
+                    if (!Double.isNaN(value)) counts[cell]++;
+            }
+            cursor.advance();
+        }
+    }
+
+    private static void initialize(Reducer reducer, double[] values, int from, int to) {
+        if (reducer == Reducer.MIN) {
+            Arrays.fill(values, from, to, Double.POSITIVE_INFINITY);
+        } else if (reducer == Reducer.MAX) {
+            Arrays.fill(values, from, to, Double.NEGATIVE_INFINITY);
+        }
+    }
+
+    /**
+     * The partial result of one partition, covering the output cells its elements touch.
+     */
+    private static final class Partial {
+        /** The reduction being computed. */
+        private final Reducer reducer;
+        /** The output cell of the element being accumulated. */
+        private final AxisCellCursor cursor;
+        /** The partial values of the touched cells. */
+        private final double[] values;
+        /** The partial counts of the touched cells, for COUNT. */
+        private final long[] counts;
+        /** The decoded values of the current block. */
+        private double[] scratch;
+
+        private Partial(Reducer reducer, AxisCellCursor cursor) {
+            this.reducer = reducer;
+            this.cursor = cursor;
+            int length = cursor.getCellCount();
+            this.values = new double[length];
+            initialize(reducer, values, 0, length);
+            this.counts = reducer == Reducer.COUNT ? new long[length] : null;
+        }
+
+        private void mergeInto(double[] result, long[] resultCounts) {
+            int base = cursor.getBase();
+            for (int i = 0; i < values.length; i++) {
+                int cell = base + i;
+                switch (reducer) {
+                    case SUM:
+                    case MEAN:
+                        result[cell] += values[i];
+                        break;
+                    case MIN:
+                        result[cell] = Math.min(result[cell], values[i]);
+                        break;
+                    case MAX:
+                        result[cell] = Math.max(result[cell], values[i]);
+                        break;
+                    default:
+                        resultCounts[cell] += counts[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * The result of a reduction along one axis.
+     */
+    public static class Result {
+        /** The shape of the result, which is the dataset shape without the reduced axis. */
+        private final int[] shape;
+        /** The reduced values in row-major order. */
+        private final double[] values;
+
+        /**
+         * Constructs a Result.
+         *
+         * @param shape  the shape of the result
+         * @param values the reduced values in row-major order
+         */
+        public Result(int[] shape, double[] values) {
+            this.shape = shape;
+            this.values = values;
+        }
+
+        /**
+         * Retrieves the value at the given coordinates of the result.
+         *
+         * @param coordinates one index per result dimension
+         * @return the reduced value
+         * @throws IllegalArgumentException if the number of coordinates does not match the shape
+         */
+        public double getValue(int... coordinates) {
+            if (coordinates.length != shape.length) {
+                throw new IllegalArgumentException("Number of indices must match shape length");
+            }
+            int index = 0;
+            for (int i = 0; i < shape.length; i++) {
+                if (coordinates[i] < 0 || coordinates[i] >= shape[i]) {
+                    throw new IndexOutOfBoundsException("Index " + coordinates[i] + " out of bounds for dimension " + i);
+                }
+                index = index * shape[i] + coordinates[i];
+            }
+            return values[index];
+        }
+
+        public int[] getShape() {
+            return shape.clone();
+        }
+
+        public double[] getValues() {
+            return values;
+        }
+    }
+}
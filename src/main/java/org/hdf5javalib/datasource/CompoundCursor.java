@@ -0,0 +1,259 @@
+package org.hdf5javalib.datasource;
+
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundMemberDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.FloatingPointDatatype;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A reusable cursor over the records of a compound dataset.
+ * <p>
+ * The {@code CompoundCursor} class reads records in blocks into a single buffer and
+ * exposes the current record through typed accessors. Member offsets and decoders are
+ * computed once from the {@link CompoundDatatype}, so reading a numeric member is an
+ * offset addition and a single buffer read, and scanning records allocates nothing per
+ * row. Only {@link #getString} creates objects. Resolve member names once with
+ * {@link #getMemberIndex} and use the index accessors in tight loops; the name accessors
+ * perform a hash lookup per call.
+ * </p>
+ * <p>
+ * A cursor is not thread-safe. To process a dataset in parallel, give each thread a
+ * cursor over its own range of records.
+ * </p>
+ */
+public class CompoundCursor {
+    /** The default number of records read per block. */
+    public static final int DEFAULT_BLOCK_RECORDS = 4096;
+
+    /** The compound data source. */
+    private final TypedDataSource<?> source;
+    /** The members of the compound datatype. */
+    private final List<CompoundMemberDatatype> members;
+    /** The index of each member by name. */
+    private final Map<String, Integer> memberIndexes = new HashMap<>();
+    /** The byte offset of each member within a record. */
+    private final int[] offsets;
+    /** The decoder of each member, or null for non-numeric members. */
+    private final PrimitiveDecoder[] decoders;
+    /** The view of the block in each member's byte order. */
+    private final ByteBuffer[] views;
+    /** The size of a record in bytes. */
+    private final int recordSize;
+    /** The index of the first record of the cursor's range. */
+    private final long firstRecord;
+    /** The index following the last record of the cursor's range. */
+    private final long endRecord;
+    /** The block buffer, in little-endian order. */
+    private final ByteBuffer block;
+    /** The index of the first record not yet read into the block. */
+    private long nextBlockRecord;
+    /** The number of records in the block. */
+    private int blockRecords;
+    /** The position of the current record in the block, or -1 before the first call to next. */
+    private int blockIndex;
+    /** The byte offset of the current record in the block. */
+    private int recordOffset;
+
+    /**
+     * Constructs a CompoundCursor over all records.
+     *
+     * @param source the compound data source
+     * @throws IllegalArgumentException if the dataset is not compound
+     */
+    public CompoundCursor(TypedDataSource<?> source) {
+        this(source, 0, source.getElementCount(), DEFAULT_BLOCK_RECORDS);
+    }
+
+    /**
+     * Constructs a CompoundCursor over a range of records.
+     *
+     * @param source       the compound data source
+     * @param firstRecord  the index of the first record to visit
+     * @param recordCount  the number of records to visit
+     * @param blockRecords the number of records read per block
+     * @throws IllegalArgumentException if the dataset is not compound or the range is invalid
+     */
+    public CompoundCursor(TypedDataSource<?> source, long firstRecord, long recordCount, int blockRecords) {
+        if (!(source.getDatatype() instanceof CompoundDatatype)) {
+            throw new IllegalArgumentException("Dataset is not compound: " + source.getDatatype().getDatatypeClass());
+        }
+        if (firstRecord < 0 || recordCount < 0 || firstRecord + recordCount > source.getElementCount() || blockRecords <= 0) {
+            throw new IllegalArgumentException("Invalid cursor range: " + firstRecord + "+" + recordCount + " with blocks of " + blockRecords);
+        }
+        this.source = source;
+        this.members = ((CompoundDatatype) source.getDatatype()).getMembers();
+        this.recordSize = source.getElementSize();
+        this.firstRecord = firstRecord;
+        this.endRecord = firstRecord + recordCount;
+        this.block = ByteBuffer.allocate((int) Math.min(blockRecords, Math.max(1, recordCount)) * recordSize).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer bigEndianView = block.duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.offsets = new int[members.size()];
+        this.decoders = new PrimitiveDecoder[members.size()];
+        this.views = new ByteBuffer[members.size()];
+        for (int i = 0; i < members.size(); i++) {
+            CompoundMemberDatatype member = members.get(i);
+            memberIndexes.put(member.getName(), i);
+            offsets[i] = member.getOffset();
+            boolean numeric = (member.getType() instanceof FixedPointDatatype || member.getType() instanceof FloatingPointDatatype)
+                    && member.getSize() <= 8;
+            decoders[i] = numeric ? PrimitiveDecoder.forDatatype(member.getType()) : null;
+            views[i] = numeric && decoders[i].getByteOrder() == ByteOrder.BIG_ENDIAN ? bigEndianView : block;
+        }
+        rewind();
+    }
+
+    /**
+     * Moves the cursor back before the first record of its range.
+     */
+    public void rewind() {
+        nextBlockRecord = firstRecord;
+        blockRecords = 0;
+        blockIndex = -1;
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return true if the cursor is on a record, false once the range is exhausted
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean next() throws IOException {
+        if (++blockIndex < blockRecords) {
+            recordOffset += recordSize;
+            return true;
+        }
+        if (nextBlockRecord >= endRecord) {
+            blockIndex = blockRecords;
+            return false;
+        }
+        blockRecords = (int) Math.min(block.capacity() / recordSize, endRecord - nextBlockRecord);
+        block.clear().limit(blockRecords * recordSize);
+        source.readElements(nextBlockRecord, block);
+        nextBlockRecord += blockRecords;
+        blockIndex = 0;
+        recordOffset = 0;
+        return true;
+    }
+
+    /**
+     * Retrieves the index of a member.
+     *
+     * @param memberName the member name
+     * @return the member index, for use with the index accessors
+     * @throws IllegalArgumentException if the member does not exist
+     */
+    public int getMemberIndex(String memberName) {
+        Integer index = memberIndexes.get(memberName);
+        if (index == null) {
+            throw new IllegalArgumentException("No compound member named " + memberName);
+        }
+        return index;
+    }
+
+    /**
+     * Reads a numeric member of the current record as a long.
+     *
+     * @param memberIndex the member index
+     * @return the value; floating-point values are truncated toward zero
+     * @throws IllegalArgumentException if the member is not numeric
+     */
+    public long getLong(int memberIndex) {
+        return decoder(memberIndex).getLong(views[memberIndex], recordOffset + offsets[memberIndex]);
+    }
+
+    /**
+     * Reads a numeric member of the current record as a long.
+     *
+     * @param memberName the member name
+     * @return the value; floating-point values are truncated toward zero
+     * @throws IllegalArgumentException if the member does not exist or is not numeric
+     */
+    public long getLong(String memberName) {
+        return getLong(getMemberIndex(memberName));
+    }
+
+    /**
+     * Reads a numeric member of the current record as a double.
+     *
+     * @param memberIndex the member index
+     * @return the value
+     * @throws IllegalArgumentException if the member is not numeric
+     */
+    public double getDouble(int memberIndex) {
+        return decoder(memberIndex).getDouble(views[memberIndex], recordOffset + offsets[memberIndex]);
+    }
+
+    /**
+     * Reads a numeric member of the current record as a double.
+     *
+     * @param memberName the member name
+     * @return the value
+     * @throws IllegalArgumentException if the member does not exist or is not numeric
+     */
+    public double getDouble(String memberName) {
+        return getDouble(getMemberIndex(memberName));
+    }
+
+    /**
+     * Reads a member of the current record as a string, using the member's datatype conversion.
+     * <p>
+     * Variable-length members are resolved through the global heap.
+     * </p>
+     *
+     * @param memberIndex the member index
+     * @return the value as a string
+     */
+    public String getString(int memberIndex) {
+        checkOnRecord();
+        CompoundMemberDatatype member = members.get(memberIndex);
+        byte[] bytes = new byte[member.getSize()];
+        block.get(recordOffset + offsets[memberIndex], bytes);
+        return member.getInstance(String.class, bytes);
+    }
+
+    /**
+     * Reads a member of the current record as a string, using the member's datatype conversion.
+     *
+     * @param memberName the member name
+     * @return the value as a string
+     * @throws IllegalArgumentException if the member does not exist
+     */
+    public String getString(String memberName) {
+        return getString(getMemberIndex(memberName));
+    }
+
+    private PrimitiveDecoder decoder(int memberIndex) {
+        checkOnRecord();
+        PrimitiveDecoder decoder = decoders[memberIndex];
+        if (decoder == null) {
+            throw new IllegalArgumentException("Compound member " + members.get(memberIndex).getName() + " is not numeric");
+        }
+        return decoder;
+    }
+
+    private void checkOnRecord() {
+        if (blockIndex < 0 || blockIndex >= blockRecords) {
+            throw new IllegalStateException("Cursor is not on a record");
+        }
+    }
+
+    /**
+     * Retrieves the index of the current record in the dataset.
+     *
+     * @return the flat record index
+     */
+    public long getRecordIndex() {
+        return nextBlockRecord - blockRecords + blockIndex;
+    }
+
+    public int getMemberCount() {
+        return members.size();
+    }
+}
@@ -0,0 +1,290 @@
+package org.hdf5javalib.datasource;
+
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundMemberDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads selected members of a compound dataset without decoding the others.
+ * <p>
+ * The {@code CompoundProjection} class decodes only the byte ranges of the projected
+ * members of each record. Unprojected members are never converted, so variable-length
+ * members that are not projected never touch the global heap. Numeric members can be
+ * read as primitive columns in a parallel block scan; any member can be streamed row by
+ * row, with numeric members as {@link Long} or {@link Double} and other members as
+ * {@link String}.
+ * </p>
+ */
+public class CompoundProjection {
+    /** The number of records read per block when streaming. */
+    private static final int STREAM_BLOCK_RECORDS = 1024;
+
+    /** The compound data source. */
+    private final TypedDataSource<?> source;
+    /** The projected members, in projection order. */
+    private final CompoundMemberDatatype[] members;
+    /** The decoder of each projected member, or null for non-numeric members. */
+    private final PrimitiveDecoder[] decoders;
+    /** The block reader used for column reads. */
+    private final ParallelBlockReader blockReader;
+
+    /**
+     * Constructs a CompoundProjection using one partition per processor for column reads.
+     *
+     * @param source      the compound data source
+     * @param memberNames the names of the members to project
+     * @throws IllegalArgumentException if the dataset is not compound or a member does not exist
+     */
+    public CompoundProjection(TypedDataSource<?> source, String... memberNames) {
+        this(source, new ParallelBlockReader(source), memberNames);
+    }
+
+    /**
+     * Constructs a CompoundProjection with an explicit block reader.
+     *
+     * @param source      the compound data source
+     * @param blockReader the block reader used for column reads
+     * @param memberNames the names of the members to project
+     * @throws IllegalArgumentException if the dataset is not compound or a member does not exist
+     */
+    public CompoundProjection(TypedDataSource<?> source, ParallelBlockReader blockReader, String... memberNames) {
+        if (!(source.getDatatype() instanceof CompoundDatatype)) {
+            throw new IllegalArgumentException("Dataset is not compound: " + source.getDatatype().getDatatypeClass());
+        }
+        if (memberNames.length == 0) {
+            throw new IllegalArgumentException("At least one member must be projected");
+        }
+        List<CompoundMemberDatatype> compoundMembers = ((CompoundDatatype) source.getDatatype()).getMembers();
+        this.source = source;
+        this.blockReader = blockReader;
+        this.members = new CompoundMemberDatatype[memberNames.length];
+        this.decoders = new PrimitiveDecoder[memberNames.length];
+        for (int i = 0; i < memberNames.length; i++) {
+            String name = memberNames[i];
+            members[i] = compoundMembers.stream()
+                    .filter(member -> member.getName().equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("No compound member named " + name));
+            decoders[i] = isNumeric(members[i].getType()) ? PrimitiveDecoder.forDatatype(members[i].getType()) : null;
+        }
+    }
+
+    private static boolean isNumeric(HdfDatatype type) {
+        HdfDatatype.DatatypeClass datatypeClass = type.getDatatypeClass();
+        return (datatypeClass == HdfDatatype.DatatypeClass.FIXED || datatypeClass == HdfDatatype.DatatypeClass.FLOAT)
+                && type.getSize() <= 8;
+    }
+
+    /**
+     * Reads one numeric member of every record as longs.
+     * <p>
+     * Floating-point values are truncated toward zero.
+     * </p>
+     *
+     * @param memberName the name of a projected numeric member
+     * @return one value per record, in row-major order
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the member is not projected or not numeric
+     */
+    public long[] readLongs(String memberName) throws IOException {
+        int index = numericMemberIndex(memberName);
+        long[] column = new long[recordCount()];
+        int offset = members[index].getOffset();
+        PrimitiveDecoder decoder = decoders[index];
+        int recordSize = source.getElementSize();
+        // Partitions cover disjoint records, so they fill the shared column without merging
+        blockReader.readPartitions(0, column.length, 1, (first, count) -> null,
+                (ignored, block, first, count) -> {
+                    block.order(decoder.getByteOrder());
+                    for (int i = 0; i < count; i++) {
+                        column[(int) first + i] = decoder.getLong(block, i * recordSize + offset);
+                    }
+                });
+        return column;
+    }
+
+    /**
+     * Reads one numeric member of every record as doubles.
+     *
+     * @param memberName the name of a projected numeric member
+     * @return one value per record, in row-major order
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the member is not projected or not numeric
+     */
+    public double[] readDoubles(String memberName) throws IOException {
+        return readDoubleColumns(numericMemberIndex(memberName))[0];
+    }
+
+    /**
+     * Reads all projected members, which must be numeric, as double columns in a single scan.
+     *
+     * @return one column per projected member, in projection order
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if a projected member is not numeric
+     */
+    public double[][] readDoubleColumns() throws IOException {
+        int[] indexes = new int[members.length];
+        for (int i = 0; i < members.length; i++) {
+            indexes[i] = numericMemberIndex(members[i].getName());
+        }
+        return readDoubleColumns(indexes);
+    }
+
+    private double[][] readDoubleColumns(int... indexes) throws IOException {
+        int records = recordCount();
+        double[][] columns = new double[indexes.length][records];
+        int recordSize = source.getElementSize();
+        blockReader.readPartitions(0, records, 1, (first, count) -> null,
+                (ignored, block, first, count) -> {
+                    for (int c = 0; c < indexes.length; c++) {
+                        PrimitiveDecoder decoder = decoders[indexes[c]];
+                        int offset = members[indexes[c]].getOffset();
+                        double[] column = columns[c];
+                        block.order(decoder.getByteOrder());
+                        for (int i = 0; i < count; i++) {
+                            column[(int) first + i] = decoder.getDouble(block, i * recordSize + offset);
+                        }
+                    }
+                });
+        return columns;
+    }
+
+    /**
+     * Streams the projected members of every record.
+     * <p>
+     * Each row holds one value per projected member, in projection order: a {@link Long}
+     * for fixed-point members, a {@link Double} for floating-point members and a
+     * {@link String} for all others. Records are read in blocks; the stream may be made
+     * parallel.
+     * </p>
+     *
+     * @return a stream of rows, in row-major record order
+     */
+    public Stream<Object[]> streamMembers() {
+        return StreamSupport.stream(new RowSpliterator(0, source.getElementCount()), false);
+    }
+
+    private Object[] decodeRow(ByteBuffer block, int recordOffset) {
+        Object[] row = new Object[members.length];
+        for (int i = 0; i < members.length; i++) {
+            int offset = recordOffset + members[i].getOffset();
+            PrimitiveDecoder decoder = decoders[i];
+            if (decoder == null) {
+                byte[] bytes = new byte[members[i].getSize()];
+                block.get(offset, bytes);
+                row[i] = members[i].getInstance(String.class, bytes);
+            } else {
+                block.order(decoder.getByteOrder());
+                row[i] = decoder.isFloatingPoint() ? (Object) decoder.getDouble(block, offset) : (Object) decoder.getLong(block, offset);
+            }
+        }
+        return row;
+    }
+
+    private int numericMemberIndex(String memberName) {
+        for (int i = 0; i < members.length; i++) {
+            if (members[i].getName().equals(memberName)) {
+                if (decoders[i] == null) {
+                    throw new IllegalArgumentException("Compound member " + memberName + " is not numeric");
+                }
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Compound member " + memberName + " is not projected");
+    }
+
+    private int recordCount() {
+        long records = source.getElementCount();
+        if (records > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many records for a column array: " + records);
+        }
+        return (int) records;
+    }
+
+    /**
+     * Retrieves the names of the projected members.
+     *
+     * @return the member names, in projection order
+     */
+    public String[] getMemberNames() {
+        return Arrays.stream(members).map(CompoundMemberDatatype::getName).toArray(String[]::new);
+    }
+
+    /**
+     * Spliterator reading records in blocks and decoding only the projected members.
+     */
+    private class RowSpliterator implements Spliterator<Object[]> {
+        private long currentIndex;
+        private final long limit;
+        private ByteBuffer block;
+        private int blockRecords;
+        private int blockIndex;
+
+        RowSpliterator(long start, long limit) {
+            this.currentIndex = start;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object[]> action) {
+            if (blockIndex == blockRecords) {
+                if (currentIndex >= limit) {
+                    return false;
+                }
+                readBlock();
+            }
+            action.accept(decodeRow(block, blockIndex++ * source.getElementSize()));
+            return true;
+        }
+
+        private void readBlock() {
+            int recordSize = source.getElementSize();
+            blockRecords = (int) Math.min(STREAM_BLOCK_RECORDS, limit - currentIndex);
+            if (block == null) {
+                block = ByteBuffer.allocate(blockRecords * recordSize).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            block.clear().limit(blockRecords * recordSize);
+            try {
+                source.readElements(currentIndex, block);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            block.flip();
+            currentIndex += blockRecords;
+            blockIndex = 0;
+        }
+
+        @Override
+        public Spliterator<Object[]> trySplit() {
+            long remaining = limit - currentIndex;
+            if (blockIndex != blockRecords || remaining <= STREAM_BLOCK_RECORDS) {
+                return null;
+            }
+            long splitIndex = currentIndex + remaining / 2;
+            Spliterator<Object[]> prefix = new RowSpliterator(currentIndex, splitIndex);
+            currentIndex = splitIndex;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return limit - currentIndex + blockRecords - blockIndex;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | SIZED | SUBSIZED;
+        }
+    }
+}
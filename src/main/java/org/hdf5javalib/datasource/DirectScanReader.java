@@ -0,0 +1,290 @@
+package org.hdf5javalib.datasource;
+
+import com.sun.nio.file.ExtendedOpenOption;
+import org.hdf5javalib.file.DirectBufferPool;
+import org.hdf5javalib.file.HdfFileAllocation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Scans a dataset once from start to end, optionally bypassing the operating system's page cache.
+ * <p>
+ * The {@code DirectScanReader} class is meant for one-pass scans of datasets far larger
+ * than memory, where caching the file only evicts data that other processes need. In
+ * direct mode the file is opened with {@link ExtendedOpenOption#DIRECT}, which requires
+ * every read to start and end on a file system block boundary and to land in a buffer
+ * aligned to that boundary. The reader widens each read to the enclosing blocks, reads
+ * into aligned buffers from a {@link DirectBufferPool}, and hands the visitor only the
+ * requested elements, so datasets starting or ending mid-block need no special handling.
+ * Where direct I/O is not available, such as on file systems that reject it, the file is
+ * read through the page cache instead; {@link #isDirect()} reports which mode is in use.
+ * </p>
+ * <p>
+ * Reads are pipelined: up to {@code depth} blocks are read ahead on background threads
+ * while the visitor processes the current one. Blocks are delivered in element order on
+ * the calling thread, in the same form as {@link ParallelBlockReader} delivers them, so
+ * the same visitors work with both.
+ * </p>
+ */
+public class DirectScanReader implements Closeable {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DirectScanReader.class);
+    /** The default number of bytes read per block. */
+    public static final int DEFAULT_BLOCK_SIZE = 4 << 20;
+    /** The default number of blocks read ahead. */
+    public static final int DEFAULT_DEPTH = 4;
+    /** The alignment used when the file system does not report its block size. */
+    private static final int DEFAULT_ALIGNMENT = 4096;
+
+    /** The data source being scanned. */
+    private final TypedDataSource<?> source;
+    /** The channel the file is read through. */
+    private final FileChannel channel;
+    /** Indicates whether the channel bypasses the page cache. */
+    private final boolean direct;
+    /** The boundary reads and buffers are aligned to. */
+    private final int alignment;
+    /** The number of elements per block. */
+    private final int blockElements;
+    /** The maximum number of blocks read ahead. */
+    private final int depth;
+    /** The byte order applied to block buffers. */
+    private final ByteOrder byteOrder;
+    /** The pool of aligned block buffers. */
+    private final DirectBufferPool bufferPool;
+    /** The threads performing the reads. */
+    private final ExecutorService readers;
+
+    /**
+     * Constructs a DirectScanReader in direct mode with the default block size and depth.
+     *
+     * @param path   the file holding the dataset
+     * @param source the data source of the dataset
+     * @throws IOException if the file cannot be opened
+     */
+    public DirectScanReader(Path path, TypedDataSource<?> source) throws IOException {
+        this(path, source, DEFAULT_BLOCK_SIZE, DEFAULT_DEPTH, true);
+    }
+
+    /**
+     * Constructs a DirectScanReader.
+     *
+     * @param path      the file holding the dataset
+     * @param source    the data source of the dataset
+     * @param blockSize the approximate number of bytes read per block
+     * @param depth     the maximum number of blocks read ahead
+     * @param direct    true to bypass the page cache where the file system allows it
+     * @throws IOException if the file cannot be opened
+     * @throws IllegalArgumentException if the block size or depth is not positive
+     */
+    public DirectScanReader(Path path, TypedDataSource<?> source, int blockSize, int depth, boolean direct) throws IOException {
+        if (blockSize <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Block size and depth must be positive");
+        }
+        this.source = source;
+        this.blockElements = Math.max(1, blockSize / source.getElementSize());
+        this.depth = depth;
+        this.byteOrder = ParallelBlockReader.blockByteOrder(source);
+
+        FileChannel directChannel = direct ? openDirect(path) : null;
+        this.direct = directChannel != null;
+        this.channel = directChannel != null ? directChannel : FileChannel.open(path, StandardOpenOption.READ);
+        this.alignment = this.direct ? fileSystemBlockSize(path) : 1;
+
+        long blockBytes = (long) blockElements * source.getElementSize();
+        if (HdfFileAllocation.alignUp(blockBytes, alignment) + alignment > Integer.MAX_VALUE - alignment) {
+            channel.close();
+            throw new IllegalArgumentException("Block of " + blockElements + " elements is too large");
+        }
+        this.bufferPool = new DirectBufferPool((int) (HdfFileAllocation.alignUp(blockBytes, alignment) + alignment), alignment, depth + 1);
+        this.readers = Executors.newFixedThreadPool(depth, runnable -> {
+            Thread thread = new Thread(runnable, "hdf5javalib-direct-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a file for direct I/O, or returns null if the platform or file system does not allow it.
+     */
+    private static FileChannel openDirect(Path path) {
+        try {
+            return FileChannel.open(path, StandardOpenOption.READ, ExtendedOpenOption.DIRECT);
+        } catch (UnsupportedOperationException | IOException e) {
+            log.debug("Direct I/O unavailable for {}, reading through the page cache", path, e);
+            return null;
+        }
+    }
+
+    private static int fileSystemBlockSize(Path path) {
+        try {
+            long blockSize = Files.getFileStore(path).getBlockSize();
+            if (blockSize > 0 && blockSize <= 1 << 20 && Long.bitCount(blockSize) == 1) {
+                return (int) blockSize;
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("Block size of {} unavailable, assuming {}", path, DEFAULT_ALIGNMENT, e);
+        }
+        return DEFAULT_ALIGNMENT;
+    }
+
+    /**
+     * Scans every element of the dataset.
+     *
+     * @param <A>         the accumulator type
+     * @param accumulator the accumulator passed to every block
+     * @param visitor     processes each block
+     * @return the accumulator
+     * @throws IOException if an I/O error occurs
+     */
+    public <A> A scan(A accumulator, ParallelBlockReader.BlockVisitor<A> visitor) throws IOException {
+        return scan(0, source.getElementCount(), accumulator, visitor);
+    }
+
+    /**
+     * Scans a range of elements in order.
+     * <p>
+     * Datasets stored in the compact layout live in the object header rather than in a data
+     * block of their own, and are read through the data source instead.
+     * </p>
+     *
+     * @param <A>          the accumulator type
+     * @param firstElement the index of the first element to scan
+     * @param elementCount the number of elements to scan
+     * @param accumulator  the accumulator passed to every block
+     * @param visitor      processes each block
+     * @return the accumulator
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the range exceeds the dataset
+     */
+    public <A> A scan(long firstElement, long elementCount, A accumulator, ParallelBlockReader.BlockVisitor<A> visitor) throws IOException {
+        if (firstElement < 0 || elementCount < 0 || firstElement + elementCount > source.getElementCount()) {
+            throw new IllegalArgumentException("Elements " + firstElement + " to " + (firstElement + elementCount) + " exceed the dataset size " + source.getElementCount());
+        }
+        if (source.getDataAddress() < 0) {
+            return scanThroughSource(firstElement, elementCount, accumulator, visitor);
+        }
+        long end = firstElement + elementCount;
+        ArrayDeque<Future<ByteBuffer>> inFlight = new ArrayDeque<>(depth);
+        long nextRead = firstElement;
+        long element = firstElement;
+        try {
+            while (element < end) {
+                while (inFlight.size() < depth && nextRead < end) {
+                    long blockStart = nextRead;
+                    int count = (int) Math.min(blockElements, end - blockStart);
+                    inFlight.add(readers.submit(() -> readBlock(blockStart, count)));
+                    nextRead += count;
+                }
+                int count = (int) Math.min(blockElements, end - element);
+                ByteBuffer buffer = await(inFlight.poll());
+                try {
+                    visitor.visit(accumulator, buffer.slice().order(byteOrder), element, count);
+                } finally {
+                    bufferPool.release(buffer);
+                }
+                element += count;
+            }
+        } finally {
+            for (Future<ByteBuffer> pending : inFlight) {
+                pending.cancel(false);
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * Reads the aligned window enclosing a block of elements.
+     *
+     * @return a pooled buffer positioned at the block's first element, with the limit after its last
+     */
+    private ByteBuffer readBlock(long firstElement, int count) throws IOException {
+        int elementSize = source.getElementSize();
+        long start = source.getDataAddress() + firstElement * elementSize;
+        long end = start + (long) count * elementSize;
+        long alignedStart = alignDown(start, alignment);
+        int needed = (int) (end - alignedStart);
+
+        ByteBuffer buffer = bufferPool.acquire();
+        try {
+            buffer.limit((int) HdfFileAllocation.alignUp(needed, alignment));
+            while (buffer.position() < needed) {
+                int read = channel.read(buffer, alignedStart + buffer.position());
+                if (read <= 0) {
+                    throw new IOException("Unexpected end of file at " + (alignedStart + buffer.position()) + ", expected data up to " + end);
+                }
+            }
+            return buffer.limit(needed).position((int) (start - alignedStart));
+        } catch (IOException | RuntimeException e) {
+            bufferPool.release(buffer);
+            throw e;
+        }
+    }
+
+    private <A> A scanThroughSource(long firstElement, long elementCount, A accumulator, ParallelBlockReader.BlockVisitor<A> visitor) throws IOException {
+        int elementSize = source.getElementSize();
+        ByteBuffer block = ByteBuffer.allocate((int) Math.min(blockElements, elementCount) * elementSize).order(byteOrder);
+        long end = firstElement + elementCount;
+        for (long element = firstElement; element < end; ) {
+            int count = (int) Math.min(blockElements, end - element);
+            block.clear().limit(count * elementSize);
+            source.readElements(element, block);
+            visitor.visit(accumulator, block.flip(), element, count);
+            element += count;
+        }
+        return accumulator;
+    }
+
+    private static ByteBuffer await(Future<ByteBuffer> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a block read");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static long alignDown(long value, long alignment) {
+        return value & -alignment;
+    }
+
+    /**
+     * Stops the read threads and closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        readers.shutdownNow();
+        channel.close();
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public int getAlignment() {
+        return alignment;
+    }
+
+    public int getBlockElements() {
+        return blockElements;
+    }
+}
@@ -0,0 +1,240 @@
+package org.hdf5javalib.datasource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Scans the elements of a dataset in parallel, one contiguous partition per task.
+ * <p>
+ * The {@code ParallelBlockReader} class splits a range of elements into partitions, each
+ * of which is read block by block into a single reusable direct buffer and handed to a
+ * {@link BlockVisitor} together with a per-partition accumulator. Accumulators are never
+ * shared between tasks, so visitors need no synchronization; the caller merges the
+ * partial results once all partitions are done. Partitions run on the common fork-join
+ * pool, like the parallel streams of {@link TypedDataSource}.
+ * </p>
+ */
+public class ParallelBlockReader {
+    /** The default number of bytes read per block. */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /**
+     * Creates the accumulator for one partition.
+     *
+     * @param <A> the accumulator type
+     */
+    @FunctionalInterface
+    public interface PartitionFactory<A> {
+        /**
+         * Creates an accumulator for a partition.
+         *
+         * @param firstElement the index of the partition's first element
+         * @param elementCount the number of elements in the partition
+         * @return the accumulator
+         */
+        A create(long firstElement, long elementCount);
+    }
+
+    /**
+     * Consumes one block of raw elements.
+     *
+     * @param <A> the accumulator type
+     */
+    @FunctionalInterface
+    public interface BlockVisitor<A> {
+        /**
+         * Processes a block of elements.
+         *
+         * @param accumulator  the accumulator of the partition the block belongs to
+         * @param block        the raw element bytes, from position 0, in the decoder's byte order
+         * @param firstElement the index of the block's first element
+         * @param elementCount the number of elements in the block
+         */
+        void visit(A accumulator, ByteBuffer block, long firstElement, int elementCount);
+    }
+
+    /** The data source to read. */
+    private final TypedDataSource<?> source;
+    /** The byte order applied to block buffers. */
+    private final ByteOrder byteOrder;
+    /** The number of elements per block. */
+    private final int blockElements;
+    /** The maximum number of partitions. */
+    private final int parallelism;
+
+    /**
+     * Constructs a ParallelBlockReader with the default block size and one partition per processor.
+     *
+     * @param source the data source to read
+     */
+    public ParallelBlockReader(TypedDataSource<?> source) {
+        this(source, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a ParallelBlockReader.
+     *
+     * @param source      the data source to read
+     * @param blockSize   the approximate number of bytes read per block
+     * @param parallelism the maximum number of partitions processed concurrently
+     * @throws IllegalArgumentException if the block size or parallelism is not positive
+     */
+    public ParallelBlockReader(TypedDataSource<?> source, int blockSize, int parallelism) {
+        if (blockSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Block size and parallelism must be positive");
+        }
+        this.source = source;
+        this.byteOrder = blockByteOrder(source);
+        this.blockElements = Math.max(1, blockSize / source.getElementSize());
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Chooses the byte order of block buffers for a data source.
+     *
+     * @param source the data source
+     * @return the order of its numeric elements, or little-endian for other elements
+     */
+    static ByteOrder blockByteOrder(TypedDataSource<?> source) {
+        try {
+            return PrimitiveDecoder.forDatatype(source.getDatatype()).getByteOrder();
+        } catch (IllegalArgumentException e) {
+            // Non-numeric elements are decoded by the visitor, which sets its own order
+            return ByteOrder.LITTLE_ENDIAN;
+        }
+    }
+
+    /**
+     * Reads every element of the data source and merges the partition results.
+     *
+     * @param <A>      the accumulator type
+     * @param factory  creates the accumulator of each partition
+     * @param visitor  processes each block
+     * @param combiner merges two partition results, the earlier one first
+     * @return the merged result
+     * @throws IOException if an I/O error occurs
+     */
+    public <A> A read(PartitionFactory<A> factory, BlockVisitor<A> visitor, BinaryOperator<A> combiner) throws IOException {
+        List<A> partials = readPartitions(0, source.getElementCount(), 1, factory, visitor);
+        A result = partials.get(0);
+        for (int i = 1; i < partials.size(); i++) {
+            result = combiner.apply(result, partials.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Reads a range of elements and returns the partition results in element order.
+     * <p>
+     * Partition boundaries fall on multiples of {@code granularity} elements, counted from
+     * {@code firstElement}, so callers can keep units such as rows or slabs within a single
+     * partition. At least one partition is always returned, even for an empty range.
+     * </p>
+     *
+     * @param <A>          the accumulator type
+     * @param firstElement the index of the first element to read
+     * @param elementCount the number of elements to read
+     * @param granularity  the number of elements partition boundaries are aligned to
+     * @param factory      creates the accumulator of each partition
+     * @param visitor      processes each block
+     * @return the accumulators of all partitions, in element order
+     * @throws IOException if an I/O error occurs
+     */
+    public <A> List<A> readPartitions(long firstElement, long elementCount, long granularity,
+                                      PartitionFactory<A> factory, BlockVisitor<A> visitor) throws IOException {
+        if (granularity <= 0) {
+            throw new IllegalArgumentException("Granularity must be positive: " + granularity);
+        }
+        long units = (elementCount + granularity - 1) / granularity;
+        int partitions = (int) Math.max(1, Math.min(parallelism, Math.min(units, (elementCount + blockElements - 1) / blockElements)));
+        long unitsPerPartition = (units + partitions - 1) / Math.max(1, partitions);
+        try {
+            return IntStream.range(0, partitions).parallel()
+                    .mapToObj(partition -> {
+                        long start = Math.min(elementCount, partition * unitsPerPartition * granularity);
+                        long end = partition == partitions - 1 ? elementCount : Math.min(elementCount, (partition + 1) * unitsPerPartition * granularity);
+                        return readPartition(firstElement + start, end - start, factory, visitor);
+                    })
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads several disjoint ranges of elements and returns their results in range order.
+     * <p>
+     * Each range is read block by block like a partition of {@link #readPartitions}. This is
+     * how scans visit only the parts of a dataset that an index says may be relevant.
+     * </p>
+     *
+     * @param <A>           the accumulator type
+     * @param firstElements the index of the first element of each range
+     * @param elementCounts the number of elements of each range
+     * @param factory       creates the accumulator of each range
+     * @param visitor       processes each block
+     * @return the accumulators of all ranges, in the order given
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public <A> List<A> readRanges(long[] firstElements, long[] elementCounts,
+                                  PartitionFactory<A> factory, BlockVisitor<A> visitor) throws IOException {
+        if (firstElements.length != elementCounts.length) {
+            throw new IllegalArgumentException("Range starts and counts differ in length");
+        }
+        int ranges = firstElements.length;
+        int tasks = Math.max(1, Math.min(parallelism, ranges));
+        try {
+            // Each task reads a run of consecutive ranges, so at most parallelism ranges are read at once
+            return IntStream.range(0, tasks).parallel()
+                    .mapToObj(task -> IntStream.range((int) ((long) ranges * task / tasks), (int) ((long) ranges * (task + 1) / tasks))
+                            .mapToObj(range -> readPartition(firstElements[range], elementCounts[range], factory, visitor))
+                            .collect(Collectors.toList()))
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads one partition block by block into a single buffer.
+     */
+    private <A> A readPartition(long firstElement, long elementCount, PartitionFactory<A> factory, BlockVisitor<A> visitor) {
+        A accumulator = factory.create(firstElement, elementCount);
+        if (elementCount == 0) {
+            return accumulator;
+        }
+        int elementSize = source.getElementSize();
+        ByteBuffer block = ByteBuffer.allocateDirect((int) Math.min(blockElements, elementCount) * elementSize).order(byteOrder);
+        long element = firstElement;
+        long end = firstElement + elementCount;
+        try {
+            while (element < end) {
+                int count = (int) Math.min(blockElements, end - element);
+                block.clear().limit(count * elementSize);
+                source.readElements(element, block);
+                block.flip();
+                visitor.visit(accumulator, block, element, count);
+                element += count;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return accumulator;
+    }
+
+    public int getBlockElements() {
+        return blockElements;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+}
@@ -0,0 +1,248 @@
+package org.hdf5javalib.datasource;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a numeric dataset into a primitive array with its axes in any order.
+ * <p>
+ * The {@code PermutedReader} class produces a transposed matrix or a tensor with
+ * reordered axes directly from the file. The dataset is read in tiles of whole rows (runs
+ * along the last axis), in parallel partitions of a {@link ParallelBlockReader}; each
+ * tile is decoded once and scattered into the output in column blocks of
+ * {@value #TILE_COLUMNS} elements, so that both the rows read and the output lines written
+ * stay in cache. Since the permutation maps every element to its own output slot,
+ * partitions fill the shared output array without merging.
+ * </p>
+ * <p>
+ * The output is flattened in row-major order of the permuted shape: with axis order
+ * {@code {1, 0}}, a {@code [rows, cols]} matrix becomes a {@code [cols, rows]} array,
+ * which is the column-major layout of the original matrix.
+ * </p>
+ */
+public class PermutedReader {
+    /** The number of columns scattered per cache block. */
+    static final int TILE_COLUMNS = 64;
+    /** The default number of rows read per tile. */
+    public static final int DEFAULT_TILE_ROWS = 64;
+
+    /** The data source to read. */
+    private final TypedDataSource<?> source;
+    /** The decoder for the dataset's elements. */
+    private final PrimitiveDecoder decoder;
+    /** The block reader used for tiled reads. */
+    private final ParallelBlockReader blockReader;
+    /** The shape of the dataset. */
+    private final int[] shape;
+
+    /**
+     * Constructs a PermutedReader with tiles of {@value #DEFAULT_TILE_ROWS} rows and one partition per processor.
+     *
+     * @param source the numeric data source to read
+     * @throws IllegalArgumentException if the dataset is not numeric
+     */
+    public PermutedReader(TypedDataSource<?> source) {
+        this(source, DEFAULT_TILE_ROWS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a PermutedReader.
+     *
+     * @param source      the numeric data source to read
+     * @param tileRows    the number of rows read and scattered per tile
+     * @param parallelism the maximum number of tiles processed concurrently
+     * @throws IllegalArgumentException if the dataset is not numeric or the tile size or parallelism is not positive
+     */
+    public PermutedReader(TypedDataSource<?> source, int tileRows, int parallelism) {
+        if (tileRows <= 0) {
+            throw new IllegalArgumentException("Tile rows must be positive: " + tileRows);
+        }
+        this.source = source;
+        this.decoder = PrimitiveDecoder.forDatatype(source.getDatatype());
+        this.shape = source.getShape();
+        // Blocks hold whole rows, so every tile can be scattered row by row
+        long rowBytes = (long) rowLength() * decoder.getSize();
+        long blockRows = Math.max(1, Math.min(tileRows, Integer.MAX_VALUE / rowBytes));
+        int blockSize = (int) (blockRows * rowBytes);
+        this.blockReader = new ParallelBlockReader(source, blockSize, parallelism);
+    }
+
+    private int rowLength() {
+        return shape.length == 0 ? 1 : Math.max(1, shape[shape.length - 1]);
+    }
+
+    /**
+     * Computes the shape of the output for an axis order.
+     *
+     * @param axisOrder the dataset axis placed at each output position
+     * @return the permuted shape
+     * @throws IllegalArgumentException if the axis order is not a permutation of the dataset's axes
+     */
+    public int[] getPermutedShape(int... axisOrder) {
+        checkPermutation(axisOrder);
+        int[] permuted = new int[axisOrder.length];
+        for (int i = 0; i < axisOrder.length; i++) {
+            permuted[i] = shape[axisOrder[i]];
+        }
+        return permuted;
+    }
+
+    /**
+     * Reads the dataset as doubles with its axes permuted.
+     *
+     * @param axisOrder the dataset axis placed at each output position
+     * @return the values, flattened in row-major order of the permuted shape
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the axis order is not a permutation or the output is too large
+     */
+    public double[] readDoubles(int... axisOrder) throws IOException {
+        long[] strides = permutedStrides(axisOrder);
+        double[] output = new double[outputLength()];
+        blockReader.readPartitions(0, source.getElementCount(), rowLength(), (first, count) -> new double[1][0],
+                (scratch, block, first, count) -> {
+                    if (scratch[0].length < count) {
+                        scratch[0] = new double[count];
+                    }
+                    decoder.getDoubles(block, 0, count, scratch[0], 0);
+                    scatter(scratch[0], null, output, null, strides, first, count);
+                });
+        return output;
+    }
+
+    /**
+     * Reads the dataset as longs with its axes permuted.
+     *
+     * @param axisOrder the dataset axis placed at each output position
+     * @return the values, flattened in row-major order of the permuted shape; floating-point values are truncated
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the axis order is not a permutation or the output is too large
+     */
+    public long[] readLongs(int... axisOrder) throws IOException {
+        long[] strides = permutedStrides(axisOrder);
+        long[] output = new long[outputLength()];
+        blockReader.readPartitions(0, source.getElementCount(), rowLength(), (first, count) -> new long[1][0],
+                (scratch, block, first, count) -> {
+                    if (scratch[0].length < count) {
+                        scratch[0] = new long[count];
+                    }
+                    decoder.getLongs(block, 0, count, scratch[0], 0);
+                    scatter(null, scratch[0], null, output, strides, first, count);
+                });
+        return output;
+    }
+
+    /**
+     * Reads a two-dimensional dataset transposed, as one array per column.
+     *
+     * @return the columns of the matrix
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the dataset is not two-dimensional
+     */
+    public double[][] readTransposedMatrix() throws IOException {
+        if (shape.length != 2) {
+            throw new IllegalArgumentException("Dataset is not a matrix: rank " + shape.length);
+        }
+        double[] flat = readDoubles(1, 0);
+        double[][] columns = new double[shape[1]][];
+        for (int c = 0; c < shape[1]; c++) {
+            columns[c] = new double[shape[0]];
+            System.arraycopy(flat, c * shape[0], columns[c], 0, shape[0]);
+        }
+        return columns;
+    }
+
+    /**
+     * Scatters a tile of whole rows into the output in blocks of columns.
+     */
+    private void scatter(double[] doubles, long[] longs, double[] doubleOutput, long[] longOutput,
+                         long[] strides, long firstElement, int count) {
+        int rank = shape.length;
+        int rowLength = rowLength();
+        int rows = count / rowLength;
+        long columnStride = rank == 0 ? 1 : strides[rank - 1];
+
+        // Output offset of each row's first element, advancing the outer coordinates like an odometer
+        long[] rowBases = new long[rows];
+        int[] coordinates = new int[Math.max(0, rank - 1)];
+        long row = firstElement / rowLength;
+        for (int axis = rank - 2; axis >= 0; axis--) {
+            coordinates[axis] = (int) (row % shape[axis]);
+            row /= shape[axis];
+        }
+        long base = 0;
+        for (int axis = 0; axis < rank - 1; axis++) {
+            base += coordinates[axis] * strides[axis];
+        }
+        for (int r = 0; r < rows; r++) {
+            rowBases[r] = base;
+            for (int axis = rank - 2; axis >= 0; axis--) {
+                base += strides[axis];
+                if (++coordinates[axis] < shape[axis]) {
+                    break;
+                }
+                base -= coordinates[axis] * strides[axis];
+                coordinates[axis] = 0;
+            }
+        }
+
+        if (columnStride == 1) {
+            for (int r = 0; r < rows; r++) {
+                if (doubles != null) {
+                    System.arraycopy(doubles, r * rowLength, doubleOutput, (int) rowBases[r], rowLength);
+                } else {
+                    System.arraycopy(longs, r * rowLength, longOutput, (int) rowBases[r], rowLength);
+                }
+            }
+            return;
+        }
+        for (int columnStart = 0; columnStart < rowLength; columnStart += TILE_COLUMNS) {
+            int columnEnd = Math.min(rowLength, columnStart + TILE_COLUMNS);
+            for (int r = 0; r < rows; r++) {
+                int input = r * rowLength + columnStart;
+                long output = rowBases[r] + columnStart * columnStride;
+                for (int c = columnStart; c < columnEnd; c++, input++, output += columnStride) {
+                    if (doubles != null) {
+                        doubleOutput[(int) output] = doubles[input];
+                    } else {
+                        longOutput[(int) output] = longs[input];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes, for each dataset axis, the output stride of a step along that axis.
+     */
+    private long[] permutedStrides(int[] axisOrder) {
+        int[] permutedShape = getPermutedShape(axisOrder);
+        long[] strides = new long[shape.length];
+        long stride = 1;
+        for (int i = permutedShape.length - 1; i >= 0; i--) {
+            strides[axisOrder[i]] = stride;
+            stride *= permutedShape[i];
+        }
+        return strides;
+    }
+
+    private int outputLength() {
+        long elements = source.getElementCount();
+        if (elements > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Dataset too large for a single array: " + elements + " elements");
+        }
+        return (int) elements;
+    }
+
+    private void checkPermutation(int[] axisOrder) {
+        if (axisOrder.length != shape.length) {
+            throw new IllegalArgumentException("Axis order has " + axisOrder.length + " axes but the dataset has " + shape.length);
+        }
+        boolean[] seen = new boolean[shape.length];
+        for (int axis : axisOrder) {
+            if (axis < 0 || axis >= shape.length || seen[axis]) {
+                throw new IllegalArgumentException("Axis order is not a permutation: " + Arrays.toString(axisOrder));
+            }
+            seen[axis] = true;
+        }
+    }
+}
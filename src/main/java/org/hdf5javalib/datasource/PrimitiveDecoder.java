@@ -0,0 +1,270 @@
+package org.hdf5javalib.datasource;
+
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.FloatingPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Decodes numeric HDF5 elements straight into Java primitives.
+ * <p>
+ * The {@code PrimitiveDecoder} class reads fixed-point and floating-point elements from a
+ * {@link ByteBuffer} by absolute index, without copying each element into a byte array or
+ * boxing the result as {@link TypedDataSource} does. Common layouts (1, 2, 4 and 8 byte
+ * integers, IEEE 754 floats and doubles) are decoded with single buffer reads; other
+ * layouts fall back to the datatype's own conversion. Buffers passed to a decoder must use
+ * the decoder's {@linkplain #getByteOrder() byte order}.
+ * </p>
+ */
+public final class PrimitiveDecoder {
+
+    /**
+     * The element layouts with a dedicated decoding path.
+     */
+    private enum Kind {
+        INT8, UINT8, INT16, UINT16, INT32, UINT32, INT64, UINT64, FLOAT32, FLOAT64, FIXED_BITS, FLOAT_GENERIC
+    }
+
+    /** The datatype being decoded. */
+    private final HdfDatatype datatype;
+    /** The decoding path for the datatype. */
+    private final Kind kind;
+    /** The byte order of the encoded elements. */
+    private final ByteOrder byteOrder;
+    /** The size of each element in bytes. */
+    private final int size;
+    /** The bit offset of a fixed-point value with padding bits. */
+    private final int bitOffset;
+    /** The bit precision of a fixed-point value with padding bits. */
+    private final int bitPrecision;
+    /** Indicates whether fixed-point values are signed. */
+    private final boolean signed;
+
+    private PrimitiveDecoder(HdfDatatype datatype, Kind kind, ByteOrder byteOrder, int bitOffset, int bitPrecision, boolean signed) {
+        this.datatype = datatype;
+        this.kind = kind;
+        this.byteOrder = byteOrder;
+        this.size = datatype.getSize();
+        this.bitOffset = bitOffset;
+        this.bitPrecision = bitPrecision;
+        this.signed = signed;
+    }
+
+    /**
+     * Creates a decoder for a numeric datatype.
+     *
+     * @param datatype the datatype of the elements
+     * @return the decoder
+     * @throws IllegalArgumentException if the datatype is not a fixed-point or floating-point type of at most 8 bytes
+     */
+    public static PrimitiveDecoder forDatatype(HdfDatatype datatype) {
+        if (datatype instanceof FixedPointDatatype) {
+            FixedPointDatatype fixedPoint = (FixedPointDatatype) datatype;
+            int size = fixedPoint.getSize();
+            if (size < 1 || size > 8) {
+                throw new IllegalArgumentException("Fixed-point size not supported for primitive decoding: " + size);
+            }
+            ByteOrder order = fixedPoint.isBigEndian() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            boolean signed = fixedPoint.isSigned();
+            Kind kind = fixedPointKind(size, signed);
+            if (kind == null || fixedPoint.getBitOffset() != 0 || fixedPoint.getBitPrecision() != size * 8) {
+                kind = Kind.FIXED_BITS;
+            }
+            return new PrimitiveDecoder(datatype, kind, order, fixedPoint.getBitOffset(), fixedPoint.getBitPrecision(), signed);
+        }
+        if (datatype instanceof FloatingPointDatatype) {
+            FloatingPointDatatype floatingPoint = (FloatingPointDatatype) datatype;
+            if (floatingPoint.getSize() > 8) {
+                throw new IllegalArgumentException("Floating-point size not supported for primitive decoding: " + floatingPoint.getSize());
+            }
+            Kind kind = !floatingPoint.isIeee754() ? Kind.FLOAT_GENERIC : floatingPoint.getSize() == 4 ? Kind.FLOAT32 : Kind.FLOAT64;
+            return new PrimitiveDecoder(datatype, kind, floatingPoint.getByteOrder(), 0, 0, true);
+        }
+        throw new IllegalArgumentException("Datatype is not numeric: " + datatype.getDatatypeClass());
+    }
+
+    private static Kind fixedPointKind(int size, boolean signed) {
+        switch (size) {
+            case 1: return signed ? Kind.INT8 : Kind.UINT8;
+            case 2: return signed ? Kind.INT16 : Kind.UINT16;
+            case 4: return signed ? Kind.INT32 : Kind.UINT32;
+            case 8: return signed ? Kind.INT64 : Kind.UINT64;
+            default: return null;
+        }
+    }
+
+    /**
+     * Decodes an element as a double.
+     * <p>
+     * Unsigned 64-bit values above {@link Long#MAX_VALUE} are converted to their unsigned
+     * magnitude, rounded to the nearest double.
+     * </p>
+     *
+     * @param buffer     the buffer holding the element, in the decoder's byte order
+     * @param byteOffset the absolute offset of the element in the buffer
+     * @return the element value
+     */
+    public double getDouble(ByteBuffer buffer, int byteOffset) {
+        switch (kind) {
+            case FLOAT32: return buffer.getFloat(byteOffset);
+            case FLOAT64: return buffer.getDouble(byteOffset);
+            case UINT64: return unsignedToDouble(buffer.getLong(byteOffset));
+            case FLOAT_GENERIC: return ((FloatingPointDatatype) datatype).toDouble(copyElement(buffer, byteOffset));
+            default: return getLong(buffer, byteOffset);
+        }
+    }
+
+    /**
+     * Decodes an element as a long.
+     * <p>
+     * Floating-point values are truncated toward zero. Unsigned 64-bit values above
+     * {@link Long#MAX_VALUE} are returned with the same bits, as negative longs.
+     * </p>
+     *
+     * @param buffer     the buffer holding the element, in the decoder's byte order
+     * @param byteOffset the absolute offset of the element in the buffer
+     * @return the element value
+     */
+    public long getLong(ByteBuffer buffer, int byteOffset) {
+        switch (kind) {
+            case INT8: return buffer.get(byteOffset);
+            case UINT8: return buffer.get(byteOffset) & 0xFFL;
+            case INT16: return buffer.getShort(byteOffset);
+            case UINT16: return buffer.getShort(byteOffset) & 0xFFFFL;
+            case INT32: return buffer.getInt(byteOffset);
+            case UINT32: return buffer.getInt(byteOffset) & 0xFFFFFFFFL;
+            case INT64:
+            case UINT64: return buffer.getLong(byteOffset);
+            case FIXED_BITS: return decodeFixedBits(buffer, byteOffset);
+            default: return (long) getDouble(buffer, byteOffset);
+        }
+    }
+
+    /**
+     * Decodes consecutive elements into a double array.
+     *
+     * @param buffer      the buffer holding the elements, in the decoder's byte order
+     * @param byteOffset  the absolute offset of the first element in the buffer
+     * @param count       the number of elements to decode
+     * @param destination the array to decode into
+     * @param offset      the first index of the array to write
+     */
+    public void getDoubles(ByteBuffer buffer, int byteOffset, int count, double[] destination, int offset) {
+        switch (kind) {
+            case FLOAT64:
+                for (int i = 0; i < count; i++) {
+                    destination[offset + i] = buffer.getDouble(byteOffset + i * 8);
+                }
+                break;
+            case FLOAT32:
+                for (int i = 0; i < count; i++) {
+                    destination[offset + i] = buffer.getFloat(byteOffset + i * 4);
+                }
+                break;
+            case INT32:
+                for (int i = 0; i < count; i++) {
+                    destination[offset + i] = buffer.getInt(byteOffset + i * 4);
+                }
+                break;
+            case INT64:
+                for (int i = 0; i < count; i++) {
+                    destination[offset + i] = buffer.getLong(byteOffset + i * 8);
+                }
+                break;
+            default:
+                for (int i = 0; i < count; i++) {
+                    destination[offset + i] = getDouble(buffer, byteOffset + i * size);
+                }
+        }
+    }
+
+    /**
+     * Decodes consecutive elements into a long array.
+     *
+     * @param buffer      the buffer holding the elements, in the decoder's byte order
+     * @param byteOffset  the absolute offset of the first element in the buffer
+     * @param count       the number of elements to decode
+     * @param destination the array to decode into
+     * @param offset      the first index of the array to write
+     */
+    public void getLongs(ByteBuffer buffer, int byteOffset, int count, long[] destination, int offset) {
+        switch (kind) {
+            case INT64:
+            case UINT64:
+                for (int i = 0; i < count; i++) {
+                    destination[offset + i] = buffer.getLong(byteOffset + i * 8);
+                }
+                break;
+            case INT32:
+                for (int i = 0; i < count; i++) {
+                    destination[offset + i] = buffer.getInt(byteOffset + i * 4);
+                }
+                break;
+            default:
+                for (int i = 0; i < count; i++) {
+                    destination[offset + i] = getLong(buffer, byteOffset + i * size);
+                }
+        }
+    }
+
+    /**
+     * Extracts a fixed-point value stored with padding bits.
+     */
+    private long decodeFixedBits(ByteBuffer buffer, int byteOffset) {
+        long raw = 0;
+        if (byteOrder == ByteOrder.BIG_ENDIAN) {
+            for (int i = 0; i < size; i++) {
+                raw = (raw << 8) | (buffer.get(byteOffset + i) & 0xFF);
+            }
+        } else {
+            for (int i = size - 1; i >= 0; i--) {
+                raw = (raw << 8) | (buffer.get(byteOffset + i) & 0xFF);
+            }
+        }
+        raw >>>= bitOffset;
+        if (bitPrecision >= 64) {
+            return raw;
+        }
+        long value = raw & ((1L << bitPrecision) - 1);
+        if (signed && (value & (1L << (bitPrecision - 1))) != 0) {
+            value |= -1L << bitPrecision;
+        }
+        return value;
+    }
+
+    private byte[] copyElement(ByteBuffer buffer, int byteOffset) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = buffer.get(byteOffset + i);
+        }
+        return bytes;
+    }
+
+    private static double unsignedToDouble(long value) {
+        double magnitude = (double) (value >>> 1) * 2.0;
+        return value >= 0 ? value : magnitude + (value & 1L);
+    }
+
+    /**
+     * Indicates whether the elements are floating-point values.
+     *
+     * @return true for floating-point datatypes
+     */
+    public boolean isFloatingPoint() {
+        return kind == Kind.FLOAT32 || kind == Kind.FLOAT64 || kind == Kind.FLOAT_GENERIC;
+    }
+
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public HdfDatatype getDatatype() {
+        return datatype;
+    }
+}
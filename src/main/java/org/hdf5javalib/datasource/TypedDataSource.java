@@ -3,8 +3,13 @@ package org.hdf5javalib.datasource;
 import org.hdf5javalib.HdfDataFile;
 import org.hdf5javalib.dataclass.HdfFixedPoint;
 import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.dataobject.message.DataLayoutMessage;
 import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
 import org.hdf5javalib.file.dataobject.message.DatatypeMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+import org.hdf5javalib.io.IoCategory;
+import org.hdf5javalib.jfr.DatasetReadEvent;
+import org.hdf5javalib.storage.HdfStorage;
 import org.hdf5javalib.utils.FlattenedArrayUtils;
 
 import java.io.IOException;
@@ -24,7 +29,9 @@ import java.util.stream.StreamSupport;
  * The {@code TypedDataSource} class provides methods to read and stream data from an
  * HDF5 dataset, supporting scalar (0D), vector (1D), matrix (2D), and tensor (3D)
  * data structures. It uses a {@link SeekableByteChannel} to access the file and
- * interprets the data according to the dataset's datatype and dimensions.
+ * interprets the data according to the dataset's datatype and dimensions. Datasets stored
+ * with the compact layout are served from the raw data already parsed with the object
+ * header, without reading the channel.
  * </p>
  *
  * @param <T> the Java type of the data elements (e.g., {@link Integer}, {@link Double})
@@ -34,14 +41,18 @@ import java.util.stream.StreamSupport;
 public class TypedDataSource<T> {
     /** The HDF5 dataset being accessed. */
     private final HdfDataSet dataset;
-    /** The channel for reading data from the HDF5 file. */
-    private final SeekableByteChannel channel;
+    /** The storage the dataset is read from, positionally. */
+    private final HdfStorage storage;
     /** The Java class of the data elements. */
     private final Class<T> dataClass;
     /** The dimensions of the dataset. */
     private final int[] dimensions;
     /** The size of each data element in bytes. */
     private final int elementSize;
+    /** The raw data of a dataset stored with the compact layout, or null if it has a data block. */
+    private final byte[] compactData;
+    /** The file offset of the dataset's data block, resolved once rather than on every read, or -1 with the compact layout. */
+    private final long dataAddress;
 
     /**
      * Constructs a TypedDataSource for the specified dataset and data type.
@@ -57,11 +68,16 @@ public class TypedDataSource<T> {
             throw new NullPointerException("Parameters must not be null");
         }
         this.dataset = dataset;
-        this.channel = channel;
+        this.storage = channel == hdfDataFile.getSeekableByteChannel() ? hdfDataFile.getStorage() : HdfStorage.of(channel);
         this.dataClass = dataClass;
         this.elementSize = dataset.getHdfDatatype().getSize();
         this.dimensions = extractDimensions(dataset.getDataObjectHeaderPrefix()
                 .findMessageByType(DataspaceMessage.class).orElseThrow());
+        this.compactData = dataset.getDataObjectHeaderPrefix().findMessageByType(DataLayoutMessage.class)
+                .filter(DataLayoutMessage::isCompact)
+                .map(DataLayoutMessage::getCompactData)
+                .orElse(null);
+        this.dataAddress = compactData != null ? -1L : dataset.getDataAddress().getInstance(Long.class);
         dataset.getDataObjectHeaderPrefix().findMessageByType(DatatypeMessage.class).orElseThrow()
                 .getHdfDatatype().setGlobalHeap(hdfDataFile.getGlobalHeap());
     }
@@ -90,6 +106,71 @@ public class TypedDataSource<T> {
         return result;
     }
 
+    /**
+     * Retrieves the total number of elements in the dataset.
+     *
+     * @return the product of the dataset dimensions
+     */
+    public long getElementCount() {
+        long count = 1;
+        for (int dimension : dimensions) {
+            count *= dimension;
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the size of each element in bytes.
+     *
+     * @return the element size
+     */
+    public int getElementSize() {
+        return elementSize;
+    }
+
+    /**
+     * Retrieves the file offset of the dataset's data block.
+     *
+     * @return the offset of the first element, or -1 if the dataset uses the compact layout
+     */
+    public long getDataAddress() {
+        return dataAddress;
+    }
+
+    /**
+     * Retrieves the datatype of the dataset's elements.
+     *
+     * @return the {@link HdfDatatype} of the dataset
+     */
+    public HdfDatatype getDatatype() {
+        return dataset.getHdfDatatype();
+    }
+
+    /**
+     * Reads the raw bytes of consecutive elements into a caller-supplied buffer.
+     * <p>
+     * The buffer's remaining space, which must hold a whole number of elements, is filled
+     * with the elements starting at {@code firstElement}, and the buffer's position is
+     * advanced past them. This allows callers to reuse one buffer, heap or direct, for a
+     * whole scan instead of allocating a buffer per read.
+     * </p>
+     *
+     * @param firstElement the index of the first element to read, in row-major order
+     * @param destination  the buffer to fill
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the buffer does not hold whole elements or the range exceeds the dataset
+     */
+    public void readElements(long firstElement, ByteBuffer destination) throws IOException {
+        int size = destination.remaining();
+        if (size % elementSize != 0) {
+            throw new IllegalArgumentException("Buffer of " + size + " bytes does not hold whole elements of " + elementSize + " bytes");
+        }
+        if (firstElement < 0 || firstElement + size / elementSize > getElementCount()) {
+            throw new IllegalArgumentException("Elements " + firstElement + " to " + (firstElement + size / elementSize) + " exceed the dataset size " + getElementCount());
+        }
+        readFully(firstElement * elementSize, destination);
+    }
+
     /**
      * Reads a specified number of bytes from the dataset at the given offset.
      *
@@ -103,18 +184,77 @@ public class TypedDataSource<T> {
         if (size > Integer.MAX_VALUE) {
             throw new IllegalArgumentException("Size too large: " + size);
         }
+        if (compactData != null) {
+            return compactSlice(offset, (int) size);
+        }
         ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
-        synchronized (channel) {
-            channel.position(dataset.getDataAddress().getInstance(Long.class) + offset);
-            int bytesRead = channel.read(buffer);
-            if (bytesRead != size) {
-                throw new IOException("Failed to read the expected number of bytes: read " + bytesRead + ", expected " + size);
-            }
-            buffer.flip();
-            return buffer;
+        readFully(offset, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Fills a buffer with dataset bytes starting at the given offset, emitting a {@link DatasetReadEvent}.
+     *
+     * @param offset      the starting offset in the dataset
+     * @param destination the buffer to fill
+     * @throws IOException if an I/O error occurs or the end of the file is reached
+     */
+    private void readFully(long offset, ByteBuffer destination) throws IOException {
+        DatasetReadEvent event = new DatasetReadEvent();
+        event.begin();
+        int size = destination.remaining();
+        readBlock(offset, destination);
+        if (event.shouldCommit()) {
+            event.datasetName = dataset.getDatasetName();
+            event.offset = offset;
+            event.bytes = size;
+            event.elementCount = size / elementSize;
+            event.commit();
+        }
+    }
+
+    /**
+     * Fills a buffer with dataset bytes starting at the given offset.
+     * <p>
+     * The bytes are read positionally from the {@link HdfStorage} beneath the channel, so
+     * concurrent readers do not contend for the channel position unless the storage has to
+     * emulate positional reads on a plain channel.
+     * </p>
+     *
+     * @param offset      the starting offset in the dataset
+     * @param destination the buffer to fill
+     * @throws IOException if an I/O error occurs or the end of the file is reached
+     */
+    private void readBlock(long offset, ByteBuffer destination) throws IOException {
+        if (compactData != null) {
+            destination.put(compactSlice(offset, destination.remaining()));
+            return;
+        }
+        long position = dataAddress + offset;
+        IoCategory previous = IoCategory.enter(IoCategory.RAW_DATA);
+        try {
+            storage.readFully(position, destination);
+        } finally {
+            IoCategory.restore(previous);
         }
     }
 
+    /**
+     * Returns a read-only view of the raw data of a dataset stored with the compact layout.
+     *
+     * @param offset the starting offset in the dataset
+     * @param size   the number of bytes to view
+     * @return a little-endian buffer over the requested bytes
+     * @throws IOException if the requested bytes extend past the raw data
+     */
+    private ByteBuffer compactSlice(long offset, int size) throws IOException {
+        if (offset + size > compactData.length) {
+            throw new IOException("Failed to read the expected number of bytes: available " + (compactData.length - offset) + ", expected " + size);
+        }
+        return ByteBuffer.wrap(compactData, (int) offset, size).slice().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
     /**
      * Populates a single element from the ByteBuffer.
      *
@@ -383,8 +523,7 @@ public class TypedDataSource<T> {
      * @return a Stream of all elements
      */
     public Stream<T> streamFlattened() {
-        int totalElements = FlattenedArrayUtils.totalSize(dimensions);
-        return StreamSupport.stream(new FlattenedSpliterator(0, totalElements, elementSize), false);
+        return StreamSupport.stream(new FlattenedSpliterator(0, getElementCount(), elementSize), false);
     }
 
     /**
@@ -393,8 +532,19 @@ public class TypedDataSource<T> {
      * @return a parallel Stream of all elements
      */
     public Stream<T> parallelStreamFlattened() {
-        int totalElements = FlattenedArrayUtils.totalSize(dimensions);
-        return StreamSupport.stream(new FlattenedSpliterator(0, totalElements, elementSize), true);
+        return StreamSupport.stream(new FlattenedSpliterator(0, getElementCount(), elementSize), true);
+    }
+
+    /**
+     * Streams selected members of a compound dataset, decoding only those members.
+     *
+     * @param memberNames the names of the members to project
+     * @return a stream of rows holding one value per projected member
+     * @throws IllegalArgumentException if the dataset is not compound or a member does not exist
+     * @see CompoundProjection
+     */
+    public Stream<Object[]> streamMembers(String... memberNames) {
+        return new CompoundProjection(this, memberNames).streamMembers();
     }
 
     // --- Spliterators ---
@@ -0,0 +1,26 @@
+package org.hdf5javalib.file;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Observes the raw data written to a dataset.
+ * <p>
+ * A {@code DataWriteListener} registered with {@link HdfDataSet#addWriteListener} is
+ * called with every buffer written to the dataset, in write order and on the writing
+ * thread, before the data is handed to the channel or the write-behind queue. Listeners
+ * can derive summaries such as indexes or checksums without a second pass over the data.
+ * </p>
+ */
+@FunctionalInterface
+public interface DataWriteListener {
+
+    /**
+     * Receives a buffer about to be written.
+     *
+     * @param dataset the dataset being written
+     * @param data    a read-only view of the bytes written, from its position to its limit;
+     *                its byte order is big-endian, as for any new view, and should be set
+     *                by the listener as needed
+     */
+    void dataWritten(HdfDataSet dataset, ByteBuffer data);
+}
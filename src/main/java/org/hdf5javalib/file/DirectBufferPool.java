@@ -0,0 +1,118 @@
+package org.hdf5javalib.file;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of fixed-size direct {@link ByteBuffer}s.
+ * <p>
+ * The {@code DirectBufferPool} class hands out direct buffers of a single size and takes
+ * them back once the caller is finished, so that the cost of allocating (and eventually
+ * freeing) native memory is paid once per buffer rather than once per write. Buffers can
+ * optionally be aligned to a memory boundary, which is required when the buffers are
+ * handed to a channel opened for direct I/O. Buffers returned beyond the retention limit
+ * are simply dropped and left to the garbage collector.
+ * </p>
+ */
+public class DirectBufferPool {
+    /** The capacity of every buffer handed out by this pool. */
+    private final int bufferSize;
+    /** The memory alignment of every buffer handed out by this pool. */
+    private final int alignment;
+    /** The maximum number of idle buffers retained by this pool. */
+    private final int maxPooled;
+    /** The idle buffers available for reuse. */
+    private final ConcurrentLinkedDeque<ByteBuffer> idleBuffers;
+    /** The number of idle buffers currently retained. */
+    private final AtomicInteger idleCount;
+
+    /**
+     * Constructs a DirectBufferPool of unaligned buffers.
+     *
+     * @param bufferSize the capacity of each buffer in bytes
+     * @param maxPooled  the maximum number of idle buffers to retain
+     */
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        this(bufferSize, 1, maxPooled);
+    }
+
+    /**
+     * Constructs a DirectBufferPool of buffers aligned to the given boundary.
+     *
+     * @param bufferSize the capacity of each buffer in bytes
+     * @param alignment  the memory alignment of each buffer, a power of two
+     * @param maxPooled  the maximum number of idle buffers to retain
+     * @throws IllegalArgumentException if the size is not positive or the alignment is not a power of two
+     */
+    public DirectBufferPool(int bufferSize, int alignment, int maxPooled) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        if (alignment <= 0 || Integer.bitCount(alignment) != 1) {
+            throw new IllegalArgumentException("Alignment must be a power of two: " + alignment);
+        }
+        this.bufferSize = bufferSize;
+        this.alignment = alignment;
+        this.maxPooled = maxPooled;
+        this.idleBuffers = new ConcurrentLinkedDeque<>();
+        this.idleCount = new AtomicInteger();
+    }
+
+    /**
+     * Takes a cleared little-endian buffer from the pool, allocating a new one if none is idle.
+     *
+     * @return a direct buffer with position 0 and limit equal to the buffer size
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = idleBuffers.pollFirst();
+        if (buffer != null) {
+            idleCount.decrementAndGet();
+            return buffer.clear();
+        }
+        if (alignment == 1) {
+            return ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer aligned = ByteBuffer.allocateDirect(bufferSize + alignment - 1).alignedSlice(alignment);
+        return aligned.limit(bufferSize).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns a buffer to the pool.
+     * <p>
+     * Buffers that were not obtained from a pool of this size are ignored, as are
+     * buffers returned while the pool already holds its maximum number of idle buffers.
+     * </p>
+     *
+     * @param buffer the buffer to return
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) {
+            return;
+        }
+        if (idleCount.incrementAndGet() > maxPooled) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idleBuffers.offerFirst(buffer);
+    }
+
+    /**
+     * Retrieves the capacity of the buffers handed out by this pool.
+     *
+     * @return the buffer size in bytes
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Retrieves the memory alignment of the buffers handed out by this pool.
+     *
+     * @return the alignment in bytes
+     */
+    public int getAlignment() {
+        return alignment;
+    }
+}
@@ -0,0 +1,358 @@
+package org.hdf5javalib.file;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Tracks free extents of an HDF5 file and hands them out for reuse.
+ * <p>
+ * The {@code FreeSpaceManager} class keeps free extents in two ordered indexes, one by
+ * offset and one by size, so that freeing a block and coalescing it with its neighbours
+ * take O(log n) time in the number of free extents. Best-fit searches walk the size index
+ * from the requested size; lowest-address searches descend an offset-ordered tree that
+ * records the largest extent in each subtree. Without alignment both searches take
+ * O(log n) time. Allocations may request an alignment, in which case the unaligned head
+ * of the chosen extent is returned to the free list, and the searches additionally pass
+ * over extents that are large enough but cannot hold the block once it is aligned. Extents are never merged with the unallocated
+ * space at the end of the file; that space is managed by {@link HdfFileAllocation}.
+ * </p>
+ */
+public class FreeSpaceManager {
+
+    /**
+     * Defines how a free extent is chosen for an allocation.
+     */
+    public enum FitPolicy {
+        /** The smallest extent that can hold the request, which keeps large extents intact. */
+        BEST_FIT,
+        /** The lowest-addressed extent that can hold the request, which keeps the file compact. */
+        LOWEST_ADDRESS
+    }
+
+    /**
+     * A contiguous range of free bytes.
+     */
+    private static final class Extent {
+        /** The first free byte. */
+        private final long offset;
+        /** The number of free bytes. */
+        private final long size;
+
+        private Extent(long offset, long size) {
+            this.offset = offset;
+            this.size = size;
+        }
+
+        private long end() {
+            return offset + size;
+        }
+    }
+
+    /**
+     * A node of the offset-ordered tree used by lowest-address searches.
+     * <p>
+     * The tree is a treap: ordered by extent offset, and heap-ordered by a random priority
+     * so that it stays balanced in expectation.
+     * </p>
+     */
+    private static final class Node {
+        /** The extent held by the node. */
+        private final Extent extent;
+        /** The heap priority of the node. */
+        private final int priority;
+        /** The subtree of extents at lower offsets. */
+        private Node left;
+        /** The subtree of extents at higher offsets. */
+        private Node right;
+        /** The size of the largest extent in the subtree rooted at this node. */
+        private long maxSize;
+
+        private Node(Extent extent, int priority) {
+            this.extent = extent;
+            this.priority = priority;
+            this.maxSize = extent.size;
+        }
+
+        private void update() {
+            maxSize = extent.size;
+            if (left != null) maxSize = Math.max(maxSize, left.maxSize);
+            if (right != null) maxSize = Math.max(maxSize, right.maxSize);
+        }
+    }
+
+    /** Orders extents by size, then by offset, for best-fit searches. */
+    private static final Comparator<Extent> BY_SIZE = Comparator.<Extent>comparingLong(extent -> extent.size)
+            .thenComparingLong(extent -> extent.offset);
+
+    /** The policy used to choose among extents that can hold a request. */
+    private final FitPolicy fitPolicy;
+    /** Free extents keyed by offset. */
+    private final TreeMap<Long, Extent> extentsByOffset = new TreeMap<>();
+    /** Free extents ordered by size. */
+    private final NavigableSet<Extent> extentsBySize = new TreeSet<>(BY_SIZE);
+    /** The root of the offset-ordered tree, maintained only for lowest-address searches. */
+    private Node offsetTree;
+    /** The source of treap priorities, seeded so that layouts are reproducible. */
+    private final SplittableRandom priorities = new SplittableRandom(0x5EED);
+    /** The total number of free bytes. */
+    private long freeBytes;
+
+    /**
+     * Constructs an empty FreeSpaceManager using the best-fit policy.
+     */
+    public FreeSpaceManager() {
+        this(FitPolicy.BEST_FIT);
+    }
+
+    /**
+     * Constructs an empty FreeSpaceManager.
+     *
+     * @param fitPolicy the policy used to choose among extents that can hold a request
+     */
+    public FreeSpaceManager(FitPolicy fitPolicy) {
+        this.fitPolicy = fitPolicy;
+    }
+
+    /**
+     * Returns a block to the free list, coalescing it with adjacent free extents.
+     *
+     * @param offset the offset of the block
+     * @param size   the size of the block
+     * @throws IllegalArgumentException if the offset is negative
+     * @throws IllegalStateException if the block overlaps space that is already free
+     */
+    public void free(long offset, long size) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative: " + offset);
+        }
+        if (size <= 0) {
+            return;
+        }
+        long start = offset;
+        long end = offset + size;
+        Map.Entry<Long, Extent> lower = extentsByOffset.floorEntry(offset);
+        if (lower != null && lower.getValue().end() > offset) {
+            throw new IllegalStateException("Block at " + offset + " overlaps free extent at " + lower.getKey());
+        }
+        Map.Entry<Long, Extent> higher = extentsByOffset.ceilingEntry(offset);
+        if (higher != null && higher.getKey() < end) {
+            throw new IllegalStateException("Block at " + offset + " overlaps free extent at " + higher.getKey());
+        }
+        if (lower != null && lower.getValue().end() == offset) {
+            start = lower.getKey();
+            remove(lower.getValue());
+        }
+        if (higher != null && higher.getKey() == end) {
+            end = higher.getValue().end();
+            remove(higher.getValue());
+        }
+        add(new Extent(start, end - start));
+    }
+
+    /**
+     * Takes a block of the requested size from the free list.
+     *
+     * @param size      the number of bytes required
+     * @param alignment the required alignment of the block's offset, a power of two
+     * @return the offset of the block, or -1 if no free extent can hold the request
+     * @throws IllegalArgumentException if the size is not positive or the alignment is not a power of two
+     */
+    public long allocate(long size, long alignment) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        }
+        if (alignment <= 0 || Long.bitCount(alignment) != 1) {
+            throw new IllegalArgumentException("Alignment must be a power of two: " + alignment);
+        }
+        Extent chosen = fitPolicy == FitPolicy.BEST_FIT ? findBestFit(size, alignment) : findLowestAddressFit(size, alignment);
+        if (chosen == null) {
+            return -1L;
+        }
+        long blockOffset = HdfFileAllocation.alignUp(chosen.offset, alignment);
+        remove(chosen);
+        if (blockOffset > chosen.offset) {
+            add(new Extent(chosen.offset, blockOffset - chosen.offset));
+        }
+        long blockEnd = blockOffset + size;
+        if (blockEnd < chosen.end()) {
+            add(new Extent(blockEnd, chosen.end() - blockEnd));
+        }
+        return blockOffset;
+    }
+
+    /**
+     * Finds the smallest extent that can hold an aligned block.
+     * <p>
+     * Any extent of at least {@code size + alignment - 1} bytes can hold the block, so the
+     * search visits only the extents whose size lies below that bound, and stops at the
+     * first extent that fits or reaches it.
+     * </p>
+     *
+     * @param size      the block size
+     * @param alignment the block alignment
+     * @return the chosen extent, or null if none fits
+     */
+    private Extent findBestFit(long size, long alignment) {
+        long alwaysFits = size + alignment - 1;
+        for (Extent extent : extentsBySize.tailSet(new Extent(Long.MIN_VALUE, size), true)) {
+            if (extent.size >= alwaysFits || fits(extent, size, alignment)) {
+                return extent;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the lowest-addressed extent that can hold an aligned block.
+     * <p>
+     * Subtrees whose largest extent is smaller than the block are skipped, so without
+     * alignment the search descends a single path of the tree.
+     * </p>
+     *
+     * @param size      the block size
+     * @param alignment the block alignment
+     * @return the chosen extent, or null if none fits
+     */
+    private Extent findLowestAddressFit(long size, long alignment) {
+        return findLowestAddressFit(offsetTree, size, alignment);
+    }
+
+    private static Extent findLowestAddressFit(Node node, long size, long alignment) {
+        if (node == null || node.maxSize < size) {
+            return null;
+        }
+        Extent extent = findLowestAddressFit(node.left, size, alignment);
+        if (extent != null) {
+            return extent;
+        }
+        if (fits(node.extent, size, alignment)) {
+            return node.extent;
+        }
+        return findLowestAddressFit(node.right, size, alignment);
+    }
+
+    private static boolean fits(Extent extent, long size, long alignment) {
+        return HdfFileAllocation.alignUp(extent.offset, alignment) + size <= extent.end();
+    }
+
+    /**
+     * Removes all free extents.
+     */
+    public void clear() {
+        extentsByOffset.clear();
+        extentsBySize.clear();
+        offsetTree = null;
+        freeBytes = 0;
+    }
+
+    /**
+     * Retrieves the total number of free bytes.
+     *
+     * @return the free byte count
+     */
+    public long getFreeBytes() {
+        return freeBytes;
+    }
+
+    /**
+     * Retrieves the number of free extents.
+     *
+     * @return the extent count
+     */
+    public int getExtentCount() {
+        return extentsByOffset.size();
+    }
+
+    /**
+     * Retrieves the size of the largest free extent.
+     *
+     * @return the largest extent size, or 0 if there is no free space
+     */
+    public long getLargestExtentSize() {
+        return extentsBySize.isEmpty() ? 0L : extentsBySize.last().size;
+    }
+
+    /**
+     * Retrieves the free extents in offset order.
+     *
+     * @return an unmodifiable list of {offset, size} pairs
+     */
+    public List<long[]> getFreeExtents() {
+        List<long[]> extents = new ArrayList<>(extentsByOffset.size());
+        for (Extent extent : extentsByOffset.values()) {
+            extents.add(new long[]{extent.offset, extent.size});
+        }
+        return Collections.unmodifiableList(extents);
+    }
+
+    private void add(Extent extent) {
+        extentsByOffset.put(extent.offset, extent);
+        extentsBySize.add(extent);
+        if (fitPolicy == FitPolicy.LOWEST_ADDRESS) {
+            Node[] parts = split(offsetTree, extent.offset);
+            offsetTree = merge(merge(parts[0], new Node(extent, priorities.nextInt())), parts[1]);
+        }
+        freeBytes += extent.size;
+    }
+
+    private void remove(Extent extent) {
+        extentsByOffset.remove(extent.offset);
+        extentsBySize.remove(extent);
+        if (fitPolicy == FitPolicy.LOWEST_ADDRESS) {
+            Node[] lower = split(offsetTree, extent.offset);
+            Node[] upper = split(lower[1], extent.offset + 1);
+            offsetTree = merge(lower[0], upper[1]);
+        }
+        freeBytes -= extent.size;
+    }
+
+    /**
+     * Splits a tree into the nodes below an offset and the nodes at or above it.
+     *
+     * @return the two trees, lower first
+     */
+    private static Node[] split(Node node, long offset) {
+        if (node == null) {
+            return new Node[2];
+        }
+        Node[] parts;
+        if (node.extent.offset < offset) {
+            parts = split(node.right, offset);
+            node.right = parts[0];
+            parts[0] = node;
+        } else {
+            parts = split(node.left, offset);
+            node.left = parts[1];
+            parts[1] = node;
+        }
+        node.update();
+        return parts;
+    }
+
+    /**
+     * Joins two trees, every offset of the first lying below every offset of the second.
+     */
+    private static Node merge(Node lower, Node upper) {
+        if (lower == null) {
+            return upper;
+        }
+        if (upper == null) {
+            return lower;
+        }
+        if (lower.priority > upper.priority) {
+            lower.right = merge(lower.right, upper);
+            lower.update();
+            return lower;
+        }
+        upper.left = merge(lower, upper.left);
+        upper.update();
+        return upper;
+    }
+}
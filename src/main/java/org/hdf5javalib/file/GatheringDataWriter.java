@@ -0,0 +1,281 @@
+package org.hdf5javalib.file;
+
+import org.hdf5javalib.io.IoCategory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a stream of byte buffers to a channel through pooled direct buffers.
+ * <p>
+ * The {@code GatheringDataWriter} class copies caller supplied buffers, which are
+ * typically small and heap allocated, into pooled direct buffers. Full direct buffers
+ * are collected into batches and each batch is issued as a single
+ * {@link GatheringByteChannel#write(ByteBuffer[], int, int)} call when the channel
+ * supports gathering writes, or as a sequence of ordinary writes otherwise. Because the
+ * data is copied on {@link #write(ByteBuffer)}, callers may reuse their buffer as soon as
+ * the call returns.
+ * </p>
+ * <p>
+ * With double buffering enabled, a batch is written by a background thread while the
+ * caller fills the next batch, overlapping encoding with I/O. At most one batch is in
+ * flight at any time, so the bytes reach the channel in the order they were written.
+ * The channel must not be used by anyone else until the writer is closed.
+ * </p>
+ */
+public class GatheringDataWriter implements Closeable {
+    /** The default capacity of the pooled direct buffers. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    /** The default number of direct buffers gathered into one channel write. */
+    public static final int DEFAULT_GATHER_COUNT = 8;
+    /** The pool shared by writers using the default buffer size. */
+    private static final DirectBufferPool DEFAULT_BUFFER_POOL = new DirectBufferPool(DEFAULT_BUFFER_SIZE, 4 * DEFAULT_GATHER_COUNT);
+
+    /** The channel receiving the data. */
+    private final SeekableByteChannel channel;
+    /** The pool supplying the direct buffers. */
+    private final DirectBufferPool bufferPool;
+    /** The number of direct buffers gathered into one channel write. */
+    private final int gatherCount;
+    /** The background writer, or null when writes are issued by the calling thread. */
+    private final ExecutorService writerExecutor;
+    /** The batch currently being filled. */
+    private ByteBuffer[] fillingBatch;
+    /** The batch handed to the background writer, reused once that write completes. */
+    private ByteBuffer[] spareBatch;
+    /** The number of sealed buffers in the batch being filled. */
+    private int batchCount;
+    /** The direct buffer currently receiving copied data. */
+    private ByteBuffer current;
+    /** The batch write in flight on the background writer, if any. */
+    private Future<?> pendingWrite;
+    /** Indicates whether the writer is closed. */
+    private boolean closed;
+
+    /**
+     * Constructs a GatheringDataWriter using the shared default buffer pool.
+     *
+     * @param channel         the channel to write to, positioned at the start of the data
+     * @param gatherCount     the number of direct buffers gathered into one channel write
+     * @param doubleBuffering whether batches are written by a background thread
+     */
+    public GatheringDataWriter(SeekableByteChannel channel, int gatherCount, boolean doubleBuffering) {
+        this(channel, DEFAULT_BUFFER_POOL, gatherCount, doubleBuffering);
+    }
+
+    /**
+     * Constructs a GatheringDataWriter.
+     *
+     * @param channel         the channel to write to, positioned at the start of the data
+     * @param bufferPool      the pool supplying the direct buffers
+     * @param gatherCount     the number of direct buffers gathered into one channel write
+     * @param doubleBuffering whether batches are written by a background thread
+     * @throws IllegalArgumentException if the gather count is not positive
+     */
+    public GatheringDataWriter(SeekableByteChannel channel, DirectBufferPool bufferPool, int gatherCount, boolean doubleBuffering) {
+        if (gatherCount <= 0) {
+            throw new IllegalArgumentException("Gather count must be positive: " + gatherCount);
+        }
+        this.channel = channel;
+        this.bufferPool = bufferPool;
+        this.gatherCount = gatherCount;
+        this.fillingBatch = new ByteBuffer[gatherCount];
+        this.spareBatch = doubleBuffering ? new ByteBuffer[gatherCount] : null;
+        this.writerExecutor = doubleBuffering ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hdf5javalib-gathering-writer");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.closed = false;
+    }
+
+    /**
+     * Copies the remaining bytes of the buffer into the write pipeline.
+     * <p>
+     * The source buffer's position is advanced to its limit. Data may remain buffered
+     * until enough has accumulated for a batch, or until {@link #flush()} or
+     * {@link #close()} is called.
+     * </p>
+     *
+     * @param source the buffer containing the data
+     * @throws IOException if a previous batch write failed or the writer is closed
+     */
+    public void write(ByteBuffer source) throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+        while (source.hasRemaining()) {
+            if (current == null) {
+                current = bufferPool.acquire();
+            }
+            int count = Math.min(source.remaining(), current.remaining());
+            int sourceLimit = source.limit();
+            source.limit(source.position() + count);
+            current.put(source);
+            source.limit(sourceLimit);
+            if (!current.hasRemaining()) {
+                sealCurrent();
+            }
+        }
+    }
+
+    /**
+     * Writes all buffered data to the channel and waits for it to complete.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        if (current != null && current.position() > 0) {
+            sealCurrent();
+        }
+        if (batchCount > 0) {
+            submitBatch();
+        }
+        awaitPendingWrite();
+    }
+
+    /**
+     * Flushes any buffered data and releases the writer's buffers and thread.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            if (current != null) {
+                bufferPool.release(current);
+                current = null;
+            }
+            releaseBatch(fillingBatch, batchCount);
+            batchCount = 0;
+            if (writerExecutor != null) {
+                writerExecutor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Moves the current direct buffer into the batch, writing the batch once it is full.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void sealCurrent() throws IOException {
+        current.flip();
+        fillingBatch[batchCount++] = current;
+        current = null;
+        if (batchCount == gatherCount) {
+            submitBatch();
+        }
+    }
+
+    /**
+     * Writes the batch being filled, either directly or on the background writer.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void submitBatch() throws IOException {
+        ByteBuffer[] batch = fillingBatch;
+        int count = batchCount;
+        batchCount = 0;
+        if (writerExecutor == null) {
+            writeBatch(batch, count);
+            return;
+        }
+        awaitPendingWrite();
+        fillingBatch = spareBatch;
+        spareBatch = batch;
+        IoCategory category = IoCategory.current();
+        pendingWrite = writerExecutor.submit(() -> {
+            IoCategory previous = IoCategory.enter(category);
+            try {
+                writeBatch(batch, count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                IoCategory.restore(previous);
+            }
+        });
+    }
+
+    /**
+     * Waits for the batch in flight on the background writer, if any.
+     *
+     * @throws IOException if the batch write failed
+     */
+    private void awaitPendingWrite() throws IOException {
+        if (pendingWrite == null) {
+            return;
+        }
+        Future<?> write = pendingWrite;
+        pendingWrite = null;
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for write", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Batch write failed", cause);
+        }
+    }
+
+    /**
+     * Writes a batch of flipped direct buffers to the channel and returns them to the pool.
+     *
+     * @param batch the buffers to write
+     * @param count the number of buffers in the batch
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeBatch(ByteBuffer[] batch, int count) throws IOException {
+        try {
+            if (channel instanceof GatheringByteChannel) {
+                GatheringByteChannel gatheringChannel = (GatheringByteChannel) channel;
+                int first = 0;
+                while (first < count) {
+                    gatheringChannel.write(batch, first, count - first);
+                    while (first < count && !batch[first].hasRemaining()) {
+                        first++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    while (batch[i].hasRemaining()) {
+                        channel.write(batch[i]);
+                    }
+                }
+            }
+        } finally {
+            releaseBatch(batch, count);
+        }
+    }
+
+    /**
+     * Returns the buffers of a batch to the pool and clears the batch slots.
+     *
+     * @param batch the batch to release
+     * @param count the number of buffers in the batch
+     */
+    private void releaseBatch(ByteBuffer[] batch, int count) {
+        for (int i = 0; i < count; i++) {
+            bufferPool.release(batch[i]);
+            batch[i] = null;
+        }
+    }
+}
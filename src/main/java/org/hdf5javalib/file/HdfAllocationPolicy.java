@@ -0,0 +1,256 @@
+package org.hdf5javalib.file;
+
+/**
+ * Controls how {@link HdfFileAllocation} places metadata and data in a new HDF5 file.
+ * <p>
+ * The {@code HdfAllocationPolicy} class gathers the layout parameters that would otherwise be
+ * fixed: where the metadata region begins, where the data region begins, the boundary used
+ * when metadata has to move past the data region, the alignment of dataset data blocks, and
+ * whether metadata that overflows its region is aggregated into contiguous blocks, and the
+ * size below which dataset data is stored in the object header using the compact layout
+ * instead of in a data block of its own. The {@linkplain #defaultPolicy() default policy}
+ * reproduces the layout written by the HDF5 C library for the same sequence of operations.
+ * </p>
+ */
+public class HdfAllocationPolicy {
+    /** The end of the fixed root group structures, and the lowest possible metadata region start. */
+    public static final long MIN_METADATA_REGION_START = 800L;
+    /** The largest dataset size that can be stored with the compact layout. */
+    public static final int MAX_COMPACT_DATA_SIZE = 16384;
+
+    /** The default policy, matching the layout of the HDF5 C library. */
+    private static final HdfAllocationPolicy DEFAULT_POLICY = new HdfAllocationPolicy(800L, 2048L, 2048L, 1L, 1L, Long.MAX_VALUE, 0L);
+
+    /** The offset at which dataset headers and other metadata start. */
+    private final long metadataRegionStart;
+    /** The offset at which the data region starts. */
+    private final long minDataOffset;
+    /** The boundary metadata is moved to when it no longer fits before the data region. */
+    private final long metadataAlignment;
+    /** The alignment of data blocks smaller than the large data threshold. */
+    private final long smallDataAlignment;
+    /** The alignment of data blocks at or above the large data threshold. */
+    private final long largeDataAlignment;
+    /** The data block size from which the large data alignment applies. */
+    private final long largeDataThreshold;
+    /** The size of the blocks reserved for overflowing metadata, or 0 to interleave metadata with data. */
+    private final long metadataAggregationSize;
+    /** The dataset size up to which data is stored in the object header, or 0 to always allocate a data block. */
+    private final int compactDataThreshold;
+
+    /**
+     * Constructs an HdfAllocationPolicy.
+     *
+     * @param metadataRegionStart     the offset at which dataset headers and other metadata start
+     * @param minDataOffset           the offset at which the data region starts
+     * @param metadataAlignment       the boundary metadata is moved to when it no longer fits before the data region
+     * @param smallDataAlignment      the alignment of data blocks smaller than the large data threshold, a power of two
+     * @param largeDataAlignment      the alignment of data blocks at or above the large data threshold, a power of two
+     * @param largeDataThreshold      the data block size from which the large data alignment applies
+     * @param metadataAggregationSize the size of the blocks reserved for overflowing metadata, or 0 to interleave
+     *                                metadata with data as the HDF5 C library does
+     * @throws IllegalArgumentException if any parameter is out of range
+     */
+    public HdfAllocationPolicy(long metadataRegionStart, long minDataOffset, long metadataAlignment,
+                               long smallDataAlignment, long largeDataAlignment, long largeDataThreshold,
+                               long metadataAggregationSize) {
+        this(metadataRegionStart, minDataOffset, metadataAlignment, smallDataAlignment, largeDataAlignment,
+                largeDataThreshold, metadataAggregationSize, 0);
+    }
+
+    /**
+     * Constructs an HdfAllocationPolicy that stores small datasets with the compact layout.
+     *
+     * @param metadataRegionStart     the offset at which dataset headers and other metadata start
+     * @param minDataOffset           the offset at which the data region starts
+     * @param metadataAlignment       the boundary metadata is moved to when it no longer fits before the data region
+     * @param smallDataAlignment      the alignment of data blocks smaller than the large data threshold, a power of two
+     * @param largeDataAlignment      the alignment of data blocks at or above the large data threshold, a power of two
+     * @param largeDataThreshold      the data block size from which the large data alignment applies
+     * @param metadataAggregationSize the size of the blocks reserved for overflowing metadata, or 0 to interleave
+     *                                metadata with data as the HDF5 C library does
+     * @param compactDataThreshold    the dataset size in bytes up to which data is stored in the object header,
+     *                                or 0 to always allocate a data block
+     * @throws IllegalArgumentException if any parameter is out of range
+     */
+    public HdfAllocationPolicy(long metadataRegionStart, long minDataOffset, long metadataAlignment,
+                               long smallDataAlignment, long largeDataAlignment, long largeDataThreshold,
+                               long metadataAggregationSize, int compactDataThreshold) {
+        if (metadataRegionStart < MIN_METADATA_REGION_START) {
+            throw new IllegalArgumentException("Metadata region cannot start before " + MIN_METADATA_REGION_START + ": " + metadataRegionStart);
+        }
+        if (minDataOffset < metadataRegionStart) {
+            throw new IllegalArgumentException("Data region cannot start before the metadata region: " + minDataOffset);
+        }
+        if (metadataAlignment <= 0) {
+            throw new IllegalArgumentException("Metadata alignment must be positive: " + metadataAlignment);
+        }
+        if (smallDataAlignment <= 0 || Long.bitCount(smallDataAlignment) != 1) {
+            throw new IllegalArgumentException("Small data alignment must be a power of two: " + smallDataAlignment);
+        }
+        if (largeDataAlignment <= 0 || Long.bitCount(largeDataAlignment) != 1) {
+            throw new IllegalArgumentException("Large data alignment must be a power of two: " + largeDataAlignment);
+        }
+        if (largeDataThreshold < 0 || metadataAggregationSize < 0) {
+            throw new IllegalArgumentException("Threshold and aggregation size cannot be negative");
+        }
+        if (compactDataThreshold < 0 || compactDataThreshold > MAX_COMPACT_DATA_SIZE) {
+            throw new IllegalArgumentException("Compact data threshold must be between 0 and " + MAX_COMPACT_DATA_SIZE + ": " + compactDataThreshold);
+        }
+        this.metadataRegionStart = metadataRegionStart;
+        this.minDataOffset = minDataOffset;
+        this.metadataAlignment = metadataAlignment;
+        this.smallDataAlignment = smallDataAlignment;
+        this.largeDataAlignment = largeDataAlignment;
+        this.largeDataThreshold = largeDataThreshold;
+        this.metadataAggregationSize = metadataAggregationSize;
+        this.compactDataThreshold = compactDataThreshold;
+    }
+
+    /**
+     * Retrieves the default policy, which reproduces the layout of the HDF5 C library.
+     *
+     * @return the default policy
+     */
+    public static HdfAllocationPolicy defaultPolicy() {
+        return DEFAULT_POLICY;
+    }
+
+    /**
+     * Creates a policy for files holding many small datasets.
+     * <p>
+     * Metadata and data both start right after the root group structures, small data blocks
+     * are aligned to 8 bytes, blocks of at least {@code largeDataThreshold} bytes are aligned
+     * to {@code largeDataAlignment}, and metadata that overflows is aggregated into blocks of
+     * {@code metadataAggregationSize} bytes.
+     * </p>
+     *
+     * @param largeDataAlignment      the alignment of large data blocks, such as a file system page or stripe size
+     * @param largeDataThreshold      the data block size from which the large data alignment applies
+     * @param metadataAggregationSize the size of the blocks reserved for overflowing metadata
+     * @return the policy
+     */
+    public static HdfAllocationPolicy packedPolicy(long largeDataAlignment, long largeDataThreshold, long metadataAggregationSize) {
+        return new HdfAllocationPolicy(MIN_METADATA_REGION_START, MIN_METADATA_REGION_START, 8L,
+                8L, largeDataAlignment, largeDataThreshold, metadataAggregationSize);
+    }
+
+    /**
+     * Creates a copy of this policy that stores datasets of up to the given size with the compact layout.
+     *
+     * @param compactDataThreshold the dataset size in bytes up to which data is stored in the object header,
+     *                             or 0 to always allocate a data block
+     * @return the new policy
+     * @throws IllegalArgumentException if the threshold is out of range
+     */
+    public HdfAllocationPolicy withCompactDataThreshold(int compactDataThreshold) {
+        return new HdfAllocationPolicy(metadataRegionStart, minDataOffset, metadataAlignment, smallDataAlignment,
+                largeDataAlignment, largeDataThreshold, metadataAggregationSize, compactDataThreshold);
+    }
+
+    /**
+     * Determines whether a dataset of the given size is stored with the compact layout.
+     *
+     * @param dataSize the size of the dataset's data in bytes
+     * @return true if the data belongs in the object header
+     */
+    public boolean isCompact(long dataSize) {
+        return dataSize > 0 && dataSize <= compactDataThreshold;
+    }
+
+    /**
+     * Retrieves the alignment applied to a data block of the given size.
+     *
+     * @param dataSize the size of the data block
+     * @return the alignment in bytes
+     */
+    public long getDataAlignment(long dataSize) {
+        return dataSize >= largeDataThreshold ? largeDataAlignment : smallDataAlignment;
+    }
+
+    /**
+     * Retrieves the start of the metadata region.
+     *
+     * @return the offset at which dataset headers and other metadata start
+     */
+    public long getMetadataRegionStart() {
+        return metadataRegionStart;
+    }
+
+    /**
+     * Retrieves the start of the data region.
+     *
+     * @return the offset at which the data region starts
+     */
+    public long getMinDataOffset() {
+        return minDataOffset;
+    }
+
+    /**
+     * Retrieves the boundary used for metadata placed past the data region.
+     *
+     * @return the boundary metadata is moved to when it no longer fits before the data region
+     */
+    public long getMetadataAlignment() {
+        return metadataAlignment;
+    }
+
+    /**
+     * Retrieves the alignment of small data blocks.
+     *
+     * @return the alignment of data blocks smaller than the large data threshold
+     */
+    public long getSmallDataAlignment() {
+        return smallDataAlignment;
+    }
+
+    /**
+     * Retrieves the alignment of large data blocks.
+     *
+     * @return the alignment of data blocks at or above the large data threshold
+     */
+    public long getLargeDataAlignment() {
+        return largeDataAlignment;
+    }
+
+    /**
+     * Retrieves the size threshold for the large data alignment.
+     *
+     * @return the data block size from which the large data alignment applies
+     */
+    public long getLargeDataThreshold() {
+        return largeDataThreshold;
+    }
+
+    /**
+     * Retrieves the size of the metadata aggregation blocks.
+     *
+     * @return the size of the blocks reserved for overflowing metadata, or 0 if metadata is interleaved with data
+     */
+    public long getMetadataAggregationSize() {
+        return metadataAggregationSize;
+    }
+
+    /**
+     * Retrieves the threshold for the compact layout.
+     *
+     * @return the dataset size up to which data is stored in the object header, or 0 if a data block is always allocated
+     */
+    public int getCompactDataThreshold() {
+        return compactDataThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return "HdfAllocationPolicy{" +
+                "metadataRegionStart=" + metadataRegionStart +
+                ", minDataOffset=" + minDataOffset +
+                ", metadataAlignment=" + metadataAlignment +
+                ", smallDataAlignment=" + smallDataAlignment +
+                ", largeDataAlignment=" + largeDataAlignment +
+                ", largeDataThreshold=" + largeDataThreshold +
+                ", metadataAggregationSize=" + metadataAggregationSize +
+                ", compactDataThreshold=" + compactDataThreshold +
+                '}';
+    }
+}
@@ -11,6 +11,8 @@ import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
 import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
 import org.hdf5javalib.file.dataobject.message.datatype.StringDatatype;
 import org.hdf5javalib.file.dataobject.message.datatype.VariableLengthDatatype;
+import org.hdf5javalib.io.IoCategory;
+import org.hdf5javalib.jfr.DatasetWriteEvent;
 import org.hdf5javalib.utils.HdfWriteUtils;
 
 import java.io.Closeable;
@@ -24,6 +26,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 /**
@@ -50,6 +53,16 @@ public class HdfDataSet implements Closeable {
     private HdfObjectHeaderPrefixV1 dataObjectHeaderPrefix;
     /** Indicates whether the dataset is closed. */
     private boolean closed;
+    /** The listeners notified of each data write. */
+    private final List<DataWriteListener> writeListeners = new ArrayList<>();
+
+    /**
+     * A write performed on the calling thread.
+     */
+    @FunctionalInterface
+    private interface SynchronousWrite {
+        void run() throws IOException;
+    }
 
     /**
      * Constructs an HdfDataSet for creating a new dataset.
@@ -111,7 +124,7 @@ public class HdfDataSet implements Closeable {
                 0, new byte[0], (byte)1, (short)8);
         headerMessages.add(fillValueMessage);
 
-        // Add DataLayoutMessage (Contiguous Storage)
+        // Add DataLayoutMessage (Compact or Contiguous Storage)
         HdfFixedPoint[] dimensions = dataSpaceMessage.getDimensions();
         long dimensionSizes = hdfDatatype.getSize();
         for (HdfFixedPoint fixedPoint : dimensions) {
@@ -120,10 +133,19 @@ public class HdfDataSet implements Closeable {
         HdfFixedPoint[] hdfDimensionSizes = (HdfFixedPoint[]) Array.newInstance(HdfFixedPoint.class, 1);
         hdfDimensionSizes[0] = HdfWriteUtils.hdfFixedPointFromValue(dimensionSizes, hdfDataFile.getFixedPointDatatypeForOffset());
 
-        short dataLayoutMessageSize = (short) (8 + 16); // Contiguous storage
-        DataLayoutMessage dataLayoutMessage = new DataLayoutMessage(3, 1,
-                HdfWriteUtils.hdfFixedPointFromValue(0, hdfDataFile.getFixedPointDatatypeForOffset()),
-                hdfDimensionSizes, 0, null, hdfDataFile.getFixedPointDatatypeForOffset().undefined(), (byte)0, dataLayoutMessageSize);
+        boolean compact = !hdfDatatype.requiresGlobalHeap(false) && fileAllocation.getPolicy().isCompact(dimensionSizes);
+        DataLayoutMessage dataLayoutMessage;
+        if (compact) {
+            // Compact storage: version, class and size followed by the raw data itself
+            short dataLayoutMessageSize = (short) ((4 + dimensionSizes + 7) & ~7);
+            dataLayoutMessage = new DataLayoutMessage(3, 0, null, null,
+                    (int) dimensionSizes, new byte[(int) dimensionSizes], null, (byte)0, dataLayoutMessageSize);
+        } else {
+            short dataLayoutMessageSize = (short) (8 + 16); // Contiguous storage
+            dataLayoutMessage = new DataLayoutMessage(3, 1,
+                    HdfWriteUtils.hdfFixedPointFromValue(0, hdfDataFile.getFixedPointDatatypeForOffset()),
+                    hdfDimensionSizes, 0, null, hdfDataFile.getFixedPointDatatypeForOffset().undefined(), (byte)0, dataLayoutMessageSize);
+        }
         headerMessages.add(dataLayoutMessage);
 
         // Add ObjectModificationTime message
@@ -144,7 +166,7 @@ public class HdfDataSet implements Closeable {
         this.dataObjectHeaderPrefix = new HdfObjectHeaderPrefixV1(1, objectReferenceCount, Math.max(objectHeaderSize, headerSize - 16), headerMessages);
 
         // Allocate data block if needed
-        if (allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_DATA) == null) {
+        if (!compact && allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_DATA) == null) {
             boolean requiresGlobalHeap = hdfDatatype.requiresGlobalHeap(false);
             if (requiresGlobalHeap && !hdfDataFile.getFileAllocation().hasGlobalHeapAllocation()) {
                 hdfDataFile.getFileAllocation().allocateFirstGlobalHeapBlock();
@@ -369,8 +391,15 @@ public class HdfDataSet implements Closeable {
             headerMessages.add(new NilMessage((int) nilSize, (byte)0, (short)nilSize));
         }
         DataLayoutMessage dataLayoutMessage = dataObjectHeaderPrefix.findMessageByType(DataLayoutMessage.class).orElseThrow();
-        dataLayoutMessage.setDataAddress(HdfWriteUtils.hdfFixedPointFromValue(allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_DATA).getOffset(), hdfDataFile.getFixedPointDatatypeForOffset()));
-        writeToFileChannel(hdfDataFile.getSeekableByteChannel());
+        if (!dataLayoutMessage.isCompact()) {
+            dataLayoutMessage.setDataAddress(HdfWriteUtils.hdfFixedPointFromValue(allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_DATA).getOffset(), hdfDataFile.getFixedPointDatatypeForOffset()));
+        }
+        WriteBehindQueue writeBehindQueue = hdfDataFile.getWriteBehindQueue();
+        if (writeBehindQueue == null) {
+            writeToFileChannel(hdfDataFile.getSeekableByteChannel());
+        } else {
+            WriteBehindQueue.await(writeBehindQueue.submit(this::writeToFileChannel));
+        }
 
         closed = true;
     }
@@ -394,9 +423,6 @@ public class HdfDataSet implements Closeable {
             if (!(dataspaceMessage instanceof DataspaceMessage)) {
                 throw new IllegalArgumentException("Dataspace message not found: " + dataspaceMessage.getClass().getName());
             }
-            if (allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_OBJECT_HEADER).getSize() < headerSize) {
-                fileAllocation.increaseHeaderAllocation(datasetName, headerSize);
-            }
             int newContinuationSize = dataspaceMessage.getSizeMessageData() + 8 + attributeSize;
             if (allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_HEADER_CONTINUATION) == null || (allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_HEADER_CONTINUATION).getSize() < newContinuationSize)) {
                 fileAllocation.allocateAndSetContinuationBlock(datasetName, newContinuationSize);
@@ -437,39 +463,296 @@ public class HdfDataSet implements Closeable {
 
     /**
      * Writes data to the dataset using a buffer supplier.
+     * <p>
+     * The supplied buffers are copied into pooled direct buffers and written in gathered
+     * batches, so the supplier may reuse the same buffer for every call. The supplier
+     * signals the end of the data by returning an empty buffer. When the file is in
+     * write-behind mode, each supplied buffer is copied and queued instead, and this method
+     * returns once all of them have been written. For a dataset stored with the compact
+     * layout, the data is copied into the object header, which is written when the dataset
+     * is closed.
+     * </p>
      *
      * @param bufferSupplier the supplier providing ByteBuffer instances
      * @throws IOException if an I/O error occurs
      */
     public void write(Supplier<ByteBuffer> bufferSupplier) throws IOException {
+        write(bufferSupplier, GatheringDataWriter.DEFAULT_GATHER_COUNT, false);
+    }
+
+    /**
+     * Writes data to the dataset using a buffer supplier and an explicit write pipeline configuration.
+     *
+     * @param bufferSupplier  the supplier providing ByteBuffer instances
+     * @param gatherCount     the number of pooled direct buffers gathered into one channel write
+     * @param doubleBuffering whether batches are written by a background thread while the next batch is filled
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(Supplier<ByteBuffer> bufferSupplier, int gatherCount, boolean doubleBuffering) throws IOException {
+        DatasetWriteEvent event = new DatasetWriteEvent();
+        event.begin();
+        if (!event.isEnabled()) {
+            writeSupplied(bufferSupplier, gatherCount, doubleBuffering);
+            return;
+        }
+        long[] byteCount = new long[1];
+        writeSupplied(() -> {
+            ByteBuffer buffer = bufferSupplier.get();
+            byteCount[0] += buffer.remaining();
+            return buffer;
+        }, gatherCount, doubleBuffering);
+        commitWriteEvent(event, byteCount[0]);
+    }
+
+    /**
+     * Drains a buffer supplier into the dataset through the configured write pipeline.
+     *
+     * @param bufferSupplier  the supplier providing ByteBuffer instances
+     * @param gatherCount     the number of pooled direct buffers gathered into one channel write
+     * @param doubleBuffering whether batches are written by a background thread while the next batch is filled
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeSupplied(Supplier<ByteBuffer> bufferSupplier, int gatherCount, boolean doubleBuffering) throws IOException {
+        byte[] compactData = getCompactData();
+        if (compactData != null) {
+            int position = 0;
+            ByteBuffer buffer;
+            while ((buffer = bufferSupplier.get()).hasRemaining()) {
+                notifyWriteListeners(buffer);
+                position = writeCompactData(compactData, position, buffer);
+            }
+            return;
+        }
+        if (hdfDataFile.getWriteBehindQueue() != null) {
+            WriteBehindQueue.await(writeAsync(bufferSupplier));
+            return;
+        }
         Map<HdfFileAllocation.AllocationType, HdfFileAllocation.AllocationRecord> allocationInfo = hdfDataFile.getFileAllocation().getDatasetAllocationInfo(datasetName);
-        hdfDataFile.getSeekableByteChannel().position(allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_DATA).getOffset());
-        ByteBuffer buffer;
-        while ((buffer = bufferSupplier.get()).hasRemaining()) {
-            while (buffer.hasRemaining()) {
-                hdfDataFile.getSeekableByteChannel().write(buffer);
+        SeekableByteChannel channel = hdfDataFile.getSeekableByteChannel();
+        IoCategory previous = IoCategory.enter(IoCategory.RAW_DATA);
+        try {
+            channel.position(allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_DATA).getOffset());
+            try (GatheringDataWriter writer = new GatheringDataWriter(channel, gatherCount, doubleBuffering)) {
+                ByteBuffer buffer;
+                while ((buffer = bufferSupplier.get()).hasRemaining()) {
+                    notifyWriteListeners(buffer);
+                    writer.write(buffer);
+                }
             }
+        } finally {
+            IoCategory.restore(previous);
         }
     }
 
+    /**
+     * Writes data to the dataset without waiting for it to reach the file, using a buffer supplier.
+     * <p>
+     * The supplier is drained on the calling thread and each supplied buffer is copied and
+     * queued on the file's write-behind queue, so the supplier may reuse its buffer. The
+     * caller blocks only while the queue is full. When the file writes synchronously, the
+     * data is written before this method returns.
+     * </p>
+     *
+     * @param bufferSupplier the supplier providing ByteBuffer instances
+     * @return a future completed once all supplied data has been written
+     */
+    public CompletableFuture<Void> writeAsync(Supplier<ByteBuffer> bufferSupplier) {
+        WriteBehindQueue writeBehindQueue = hdfDataFile.getWriteBehindQueue();
+        if (writeBehindQueue == null || getCompactData() != null) {
+            return completeSynchronously(() -> write(bufferSupplier));
+        }
+        long position = getDataAllocationOffset();
+        CompletableFuture<Void> lastWrite = CompletableFuture.completedFuture(null);
+        IoCategory previous = IoCategory.enter(IoCategory.RAW_DATA);
+        try {
+            ByteBuffer buffer;
+            while ((buffer = bufferSupplier.get()).hasRemaining()) {
+                notifyWriteListeners(buffer);
+                ByteBuffer copy = ByteBuffer.allocate(buffer.remaining()).order(buffer.order());
+                copy.put(buffer).flip();
+                int length = copy.remaining();
+                lastWrite = writeBehindQueue.write(position, copy);
+                position += length;
+            }
+        } finally {
+            IoCategory.restore(previous);
+        }
+        // Writes complete in order, so the last one completes after all others
+        return lastWrite;
+    }
+
     /**
      * Writes data to the dataset from a single ByteBuffer.
+     * <p>
+     * When the file is in write-behind mode, the write is queued and this method returns
+     * once it has been applied, so the buffer may be reused afterwards.
+     * </p>
      *
      * @param buffer the ByteBuffer containing the data
      * @throws IOException if an I/O error occurs
      */
     public void write(ByteBuffer buffer) throws IOException {
-        Map<HdfFileAllocation.AllocationType, HdfFileAllocation.AllocationRecord> allocationInfo = hdfDataFile.getFileAllocation().getDatasetAllocationInfo(datasetName);
-        hdfDataFile.getSeekableByteChannel().position(allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_DATA).getOffset());
-        while (buffer.hasRemaining()) {
-            hdfDataFile.getSeekableByteChannel().write(buffer);
+        DatasetWriteEvent event = new DatasetWriteEvent();
+        event.begin();
+        long byteCount = buffer.remaining();
+        writeBuffer(buffer);
+        commitWriteEvent(event, byteCount);
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer to the start of the dataset.
+     *
+     * @param buffer the ByteBuffer containing the data
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        notifyWriteListeners(buffer);
+        byte[] compactData = getCompactData();
+        if (compactData != null) {
+            writeCompactData(compactData, 0, buffer);
+            return;
+        }
+        WriteBehindQueue writeBehindQueue = hdfDataFile.getWriteBehindQueue();
+        IoCategory previous = IoCategory.enter(IoCategory.RAW_DATA);
+        try {
+            if (writeBehindQueue != null) {
+                WriteBehindQueue.await(writeBehindQueue.write(getDataAllocationOffset(), buffer));
+                return;
+            }
+            hdfDataFile.getSeekableByteChannel().position(getDataAllocationOffset());
+            while (buffer.hasRemaining()) {
+                hdfDataFile.getSeekableByteChannel().write(buffer);
+            }
+        } finally {
+            IoCategory.restore(previous);
+        }
+    }
+
+    /**
+     * Writes data to the dataset from a single ByteBuffer without waiting for it to reach the file.
+     * <p>
+     * The buffer is written in place by the writer thread, so its contents must not be
+     * modified until the returned future completes. When the file writes synchronously,
+     * the data is written before this method returns.
+     * </p>
+     *
+     * @param buffer the ByteBuffer containing the data
+     * @return a future completed once the data has been written
+     */
+    public CompletableFuture<Void> writeAsync(ByteBuffer buffer) {
+        WriteBehindQueue writeBehindQueue = hdfDataFile.getWriteBehindQueue();
+        if (writeBehindQueue == null || getCompactData() != null) {
+            return completeSynchronously(() -> write(buffer));
+        }
+        notifyWriteListeners(buffer);
+        IoCategory previous = IoCategory.enter(IoCategory.RAW_DATA);
+        try {
+            return writeBehindQueue.write(getDataAllocationOffset(), buffer);
+        } finally {
+            IoCategory.restore(previous);
+        }
+    }
+
+    /**
+     * Registers a listener notified of every buffer subsequently written to the dataset.
+     *
+     * @param listener the listener to add
+     */
+    public void addWriteListener(DataWriteListener listener) {
+        writeListeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered write listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeWriteListener(DataWriteListener listener) {
+        writeListeners.remove(listener);
+    }
+
+    /**
+     * Passes a read-only view of a buffer about to be written to each write listener.
+     *
+     * @param buffer the buffer about to be written
+     */
+    private void notifyWriteListeners(ByteBuffer buffer) {
+        for (DataWriteListener listener : writeListeners) {
+            listener.dataWritten(this, buffer.asReadOnlyBuffer());
+        }
+    }
+
+    /**
+     * Commits a write event if it is enabled and passes its threshold.
+     *
+     * @param event     the event begun when the write started
+     * @param byteCount the number of bytes written
+     */
+    private void commitWriteEvent(DatasetWriteEvent event, long byteCount) {
+        if (event.shouldCommit()) {
+            event.datasetName = datasetName;
+            event.bytes = byteCount;
+            event.elementCount = byteCount / hdfDatatype.getSize();
+            event.commit();
+        }
+    }
+
+    /**
+     * Runs a synchronous write and reports its outcome as a completed future.
+     *
+     * @param write the write to perform
+     * @return a future completed normally, or exceptionally if the write failed
+     */
+    private static CompletableFuture<Void> completeSynchronously(SynchronousWrite write) {
+        try {
+            write.run();
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
+    /**
+     * Retrieves the raw data storage of a dataset stored with the compact layout.
+     *
+     * @return the compact data array, or null if the dataset has a data block
+     */
+    private byte[] getCompactData() {
+        DataLayoutMessage dataLayoutMessage = dataObjectHeaderPrefix.findMessageByType(DataLayoutMessage.class).orElseThrow();
+        return dataLayoutMessage.isCompact() ? dataLayoutMessage.getCompactData() : null;
+    }
+
+    /**
+     * Copies the remaining bytes of a buffer into compact data storage.
+     *
+     * @param compactData the compact data array
+     * @param position    the position in the array to copy to
+     * @param buffer      the data to copy
+     * @return the position following the copied data
+     * @throws IllegalArgumentException if the data does not fit in the dataset
+     */
+    private int writeCompactData(byte[] compactData, int position, ByteBuffer buffer) {
+        int length = buffer.remaining();
+        if (length > compactData.length - position) {
+            throw new IllegalArgumentException("Data exceeds the " + compactData.length + " bytes of dataset '" + datasetName + "'");
+        }
+        buffer.get(compactData, position, length);
+        return position + length;
+    }
+
+    /**
+     * Retrieves the file offset of the dataset's data block.
+     *
+     * @return the data block offset
+     */
+    private long getDataAllocationOffset() {
+        return hdfDataFile.getFileAllocation().getDatasetAllocationInfo(datasetName).get(HdfFileAllocation.AllocationType.DATASET_DATA).getOffset();
+    }
+
     /**
      * Retrieves the data address of the dataset.
      *
-     * @return the {@link HdfFixedPoint} representing the data address
+     * @return the {@link HdfFixedPoint} representing the data address, or null for a dataset stored with the compact layout
      */
     public HdfFixedPoint getDataAddress() {
         return dataObjectHeaderPrefix.findMessageByType(DataLayoutMessage.class).orElseThrow().getDataAddress();
@@ -497,20 +780,25 @@ public class HdfDataSet implements Closeable {
         dataObjectHeaderPrefix.writeInitialMessageBlockToBuffer(buffer);
         buffer.rewind();
 
-        fileChannel.position(allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_OBJECT_HEADER).getOffset());
-        while (buffer.hasRemaining()) {
-            fileChannel.write(buffer);
-        }
-
-        if (allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_HEADER_CONTINUATION) != null) {
-            buffer = ByteBuffer.allocate((int)allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_HEADER_CONTINUATION).getSize()).order(ByteOrder.LITTLE_ENDIAN);
-            dataObjectHeaderPrefix.writeContinuationMessageBlockToBuffer((int)allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_OBJECT_HEADER).getSize(), buffer);
-            buffer.flip();
-
-            fileChannel.position(allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_HEADER_CONTINUATION).getOffset());
+        IoCategory previous = IoCategory.enter(IoCategory.OBJECT_HEADER);
+        try {
+            fileChannel.position(allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_OBJECT_HEADER).getOffset());
             while (buffer.hasRemaining()) {
                 fileChannel.write(buffer);
             }
+
+            if (allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_HEADER_CONTINUATION) != null) {
+                buffer = ByteBuffer.allocate((int)allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_HEADER_CONTINUATION).getSize()).order(ByteOrder.LITTLE_ENDIAN);
+                dataObjectHeaderPrefix.writeContinuationMessageBlockToBuffer((int)allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_OBJECT_HEADER).getSize(), buffer);
+                buffer.flip();
+
+                fileChannel.position(allocationInfo.get(HdfFileAllocation.AllocationType.DATASET_HEADER_CONTINUATION).getOffset());
+                while (buffer.hasRemaining()) {
+                    fileChannel.write(buffer);
+                }
+            }
+        } finally {
+            IoCategory.restore(previous);
         }
     }
 
@@ -7,11 +7,16 @@ import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
 import org.hdf5javalib.file.infrastructure.HdfGlobalHeap;
 import org.hdf5javalib.file.infrastructure.HdfSymbolTableEntry;
 import org.hdf5javalib.file.metadata.HdfSuperblock;
+import org.hdf5javalib.io.IoCategory;
+import org.hdf5javalib.jfr.FileCloseEvent;
+import org.hdf5javalib.storage.HdfStorage;
+import org.hdf5javalib.storage.StorageChannel;
 import org.hdf5javalib.utils.HdfWriteUtils;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents an HDF5 file and provides methods for creating and managing datasets.
@@ -22,6 +27,12 @@ import java.nio.channels.SeekableByteChannel;
  * structure to a {@link SeekableByteChannel}. This class serves as the main entry point
  * for interacting with an HDF5 file.
  * </p>
+ * <p>
+ * An {@code HdfFile} can optionally be created in write-behind mode, in which every write
+ * to the channel is handed to a {@link WriteBehindQueue} and performed by a dedicated writer
+ * thread. Producers then only block when the queue is full, and can use
+ * {@link HdfDataSet#writeAsync(java.nio.ByteBuffer)} to overlap encoding with I/O.
+ * </p>
  */
 public class HdfFile implements Closeable, HdfDataFile {
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(HdfFile.class);
@@ -35,8 +46,12 @@ public class HdfFile implements Closeable, HdfDataFile {
     private final HdfFileAllocation fileAllocation;
     /** The seekable byte channel for reading and writing the file. */
     private final SeekableByteChannel seekableByteChannel;
-    /** Indicates whether the file is closed. */
-    private boolean closed;
+    /** The storage beneath the channel. */
+    private final HdfStorage storage;
+    /** The write-behind queue, or null when writes are performed synchronously. */
+    private final WriteBehindQueue writeBehindQueue;
+    /** The completion of the closing writes, or null until closing has started or after it failed synchronously. */
+    private CompletableFuture<Void> closing;
 
     /**
      * Constructs a new HDF5 file.
@@ -49,9 +64,55 @@ public class HdfFile implements Closeable, HdfDataFile {
      * @param seekableByteChannel the seekable byte channel for file I/O
      */
     public HdfFile(SeekableByteChannel seekableByteChannel) {
-        closed = false;
+        this(seekableByteChannel, HdfAllocationPolicy.defaultPolicy(), 0);
+    }
+
+    /**
+     * Constructs a new HDF5 file written to a storage.
+     *
+     * @param storage the storage to write the file to, such as an off-heap image
+     */
+    public HdfFile(HdfStorage storage) {
+        this(new StorageChannel(storage), HdfAllocationPolicy.defaultPolicy(), 0);
+    }
+
+    /**
+     * Constructs a new HDF5 file laid out according to an allocation policy.
+     *
+     * @param seekableByteChannel the seekable byte channel for file I/O
+     * @param allocationPolicy    the policy controlling data alignment and metadata placement
+     */
+    public HdfFile(SeekableByteChannel seekableByteChannel, HdfAllocationPolicy allocationPolicy) {
+        this(seekableByteChannel, allocationPolicy, 0);
+    }
+
+    /**
+     * Constructs a new HDF5 file, optionally in write-behind mode.
+     * <p>
+     * With a positive queue capacity, all writes to the channel, including those made by
+     * {@link #close()}, are performed by a dedicated writer thread, and producers block
+     * once {@code writeBehindCapacity} writes are pending.
+     * </p>
+     *
+     * @param seekableByteChannel the seekable byte channel for file I/O
+     * @param writeBehindCapacity the write-behind queue capacity, or 0 for synchronous writes
+     */
+    public HdfFile(SeekableByteChannel seekableByteChannel, int writeBehindCapacity) {
+        this(seekableByteChannel, HdfAllocationPolicy.defaultPolicy(), writeBehindCapacity);
+    }
+
+    /**
+     * Constructs a new HDF5 file with an allocation policy, optionally in write-behind mode.
+     *
+     * @param seekableByteChannel the seekable byte channel for file I/O
+     * @param allocationPolicy    the policy controlling data alignment and metadata placement
+     * @param writeBehindCapacity the write-behind queue capacity, or 0 for synchronous writes
+     */
+    public HdfFile(SeekableByteChannel seekableByteChannel, HdfAllocationPolicy allocationPolicy, int writeBehindCapacity) {
         this.seekableByteChannel = seekableByteChannel;
-        this.fileAllocation = new HdfFileAllocation();
+        this.storage = HdfStorage.of(seekableByteChannel);
+        this.fileAllocation = new HdfFileAllocation(allocationPolicy);
+        this.writeBehindQueue = writeBehindCapacity > 0 ? new WriteBehindQueue(seekableByteChannel, writeBehindCapacity) : null;
         this.globalHeap = new HdfGlobalHeap(this);
         FixedPointDatatype fixedPointDatatypeForOffset = new FixedPointDatatype(
                 FixedPointDatatype.createClassAndVersion(),
@@ -91,33 +152,115 @@ public class HdfFile implements Closeable, HdfDataFile {
         return rootGroup.createDataSet(this, datasetName, hdfDatatype, dataSpaceMessage);
     }
 
+    /**
+     * Waits until all writes issued so far have reached the channel.
+     * <p>
+     * In synchronous mode every write has already completed when it returns, so this
+     * method returns immediately.
+     * </p>
+     *
+     * @throws IOException if a pending write failed
+     */
+    public void flush() throws IOException {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.flush();
+        }
+    }
+
     /**
      * Closes the HDF5 file, writing all necessary data to the file channel.
+     * <p>
+     * In synchronous mode a failed close leaves the file open, so closing can be retried.
+     * In write-behind mode the writer thread stops regardless, and later calls report the
+     * same failure.
+     * </p>
      *
      * @throws IOException if an I/O error occurs
      */
     @Override
     public void close() throws IOException {
-        if (closed) {
+        if (closing != null) {
+            WriteBehindQueue.await(closing);
             return;
         }
+        if (writeBehindQueue == null) {
+            writeFileStructure(seekableByteChannel);
+            closing = CompletableFuture.completedFuture(null);
+        } else {
+            closing = writeBehindQueue.submit(this::writeFileStructure);
+            try {
+                WriteBehindQueue.await(closing);
+            } finally {
+                writeBehindQueue.close();
+            }
+        }
+    }
+
+    /**
+     * Closes the HDF5 file without waiting for the file structure to be written.
+     * <p>
+     * In write-behind mode the closing writes are queued behind all pending writes and
+     * the writer thread stops once they complete. In synchronous mode the file is closed
+     * before this method returns. Later calls, and {@link #close()}, return the outcome of
+     * the first close that started the closing writes.
+     * </p>
+     *
+     * @return a future completed once the file has been fully written
+     */
+    public CompletableFuture<Void> closeAsync() {
+        if (closing != null) {
+            return closing;
+        }
+        if (writeBehindQueue == null) {
+            try {
+                writeFileStructure(seekableByteChannel);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            closing = CompletableFuture.completedFuture(null);
+            return closing;
+        }
+        closing = writeBehindQueue.submit(this::writeFileStructure);
+        writeBehindQueue.shutdown();
+        return closing;
+    }
+
+    /**
+     * Writes the datasets, superblock, root group, and global heap to the channel.
+     *
+     * @param seekableByteChannel the channel to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeFileStructure(SeekableByteChannel seekableByteChannel) throws IOException {
+        FileCloseEvent event = new FileCloseEvent();
+        event.begin();
         rootGroup.close();
         long endOfFileAddress = fileAllocation.getEndOfFileOffset();
         superblock.setEndOfFileAddress(
                 HdfWriteUtils.hdfFixedPointFromValue(endOfFileAddress, getFixedPointDatatypeForOffset()));
 
-        // Write superblock
-        log.debug("{}", superblock);
-        superblock.writeToFileChannel(seekableByteChannel);
+        IoCategory previous = IoCategory.enter(IoCategory.SUPERBLOCK);
+        try {
+            // Write superblock
+            log.debug("{}", superblock);
+            superblock.writeToFileChannel(seekableByteChannel);
 
-        // Write root group and associated datasets
-        log.debug("{}", rootGroup);
-        rootGroup.writeToFileChannel(seekableByteChannel);
+            // Write root group and associated datasets
+            log.debug("{}", rootGroup);
+            rootGroup.writeToFileChannel(seekableByteChannel);
 
-        // Write global heap
-        getGlobalHeap().writeToFileChannel(seekableByteChannel);
+            // Write global heap
+            IoCategory.enter(IoCategory.GLOBAL_HEAP);
+            getGlobalHeap().writeToFileChannel(seekableByteChannel);
+        } finally {
+            IoCategory.restore(previous);
+        }
 
-        closed = true;
+        if (event.shouldCommit()) {
+            event.fileSize = endOfFileAddress;
+            event.datasetCount = rootGroup.getDataSets().size();
+            event.commit();
+        }
     }
 
     /**
@@ -150,6 +293,16 @@ public class HdfFile implements Closeable, HdfDataFile {
         return seekableByteChannel;
     }
 
+    @Override
+    public HdfStorage getStorage() {
+        return storage;
+    }
+
+    @Override
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
+    }
+
     @Override
     public HdfGlobalHeap getGlobalHeap() {
         return globalHeap;
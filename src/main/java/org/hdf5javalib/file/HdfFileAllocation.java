@@ -11,6 +11,18 @@ import java.util.*;
  * (2048+) regions, ensuring no overlaps and maintaining alignment boundaries. Each allocation method
  * checks for overlaps, updates next available offsets, and supports dynamic resizing of heaps.
  * </p>
+ * <p>
+ * Allocated blocks are indexed by offset so that overlap checks take O(log n) time. Blocks that
+ * are released, such as a dataset header that had to move when it grew, are handed to a
+ * {@link FreeSpaceManager} and reused by later header, continuation, local heap, and data
+ * allocations before the end of the file is extended.
+ * </p>
+ * <p>
+ * The region boundaries, data alignment, and metadata aggregation are taken from an
+ * {@link HdfAllocationPolicy}. When metadata aggregation is enabled, metadata that no longer
+ * fits in the initial metadata region is placed in contiguous blocks reserved at the end of
+ * the file, rather than interleaved one object at a time with the data blocks.
+ * </p>
  */
 public class HdfFileAllocation {
 
@@ -82,10 +94,11 @@ public class HdfFileAllocation {
     private static final long DEFAULT_SNOD_ENTRY_COUNT = 10L;
     private static final long GLOBAL_HEAP_BLOCK_SIZE = 4096L;
     private static final long DEFAULT_DATASET_HEADER_SIZE = DATA_OBJECT_HEADER_MESSAGE_SIZE + 256L;
-    private static final long MIN_DATA_OFFSET_THRESHOLD = 2048L;
-    private static final long METADATA_REGION_START = 800L;
     private static final long SNOD_STORAGE_SIZE = SNOD_V1_HEADER_SIZE + (DEFAULT_SNOD_ENTRY_COUNT * SNOD_V1_ENTRY_SIZE);
-    private static final long ALIGNMENT_BOUNDARY = 2048L;
+
+    // --- Policy ---
+    /** The policy controlling region boundaries, alignment, and metadata aggregation. */
+    private final HdfAllocationPolicy policy;
 
     // --- Storage ---
     /** Maps dataset names to their allocation records by type. */
@@ -98,6 +111,18 @@ public class HdfFileAllocation {
     private final List<AllocationRecord> allocationRecords = new ArrayList<>();
     /** List of local heap allocation records (active and abandoned). */
     private final List<AllocationRecord> localHeapRecords = new ArrayList<>();
+    /** Non-empty allocation records keyed by offset, used for overlap checks. */
+    private final NavigableMap<Long, AllocationRecord> recordsByOffset = new TreeMap<>();
+    /** Data region records that move together when metadata pushes the data region back. */
+    private final List<AllocationRecord> relocatableDataRecords = new ArrayList<>();
+    /** Free extents available for reuse. */
+    private final FreeSpaceManager freeSpaceManager = new FreeSpaceManager();
+    /** Unused space in the blocks reserved for aggregated metadata. */
+    private final FreeSpaceManager metadataAggregate = new FreeSpaceManager(FreeSpaceManager.FitPolicy.LOWEST_ADDRESS);
+    /** The number of dataset data blocks allocated. */
+    private int dataBlockCount;
+    /** The largest alignment of any relocatable data record. */
+    private long maxDataAlignment = 1L;
 
     // --- Fixed Allocations ---
     private final AllocationRecord superblockRecord;
@@ -121,8 +146,18 @@ public class HdfFileAllocation {
      * </p>
      */
     public HdfFileAllocation() {
-        this.metadataNextAvailableOffset = METADATA_REGION_START;
-        this.dataNextAvailableOffset = MIN_DATA_OFFSET_THRESHOLD;
+        this(HdfAllocationPolicy.defaultPolicy());
+    }
+
+    /**
+     * Initializes a new HDF5 file allocation manager with the given allocation policy.
+     *
+     * @param policy the policy controlling region boundaries, alignment, and metadata aggregation
+     */
+    public HdfFileAllocation(HdfAllocationPolicy policy) {
+        this.policy = Objects.requireNonNull(policy, "Allocation policy cannot be null");
+        this.metadataNextAvailableOffset = policy.getMetadataRegionStart();
+        this.dataNextAvailableOffset = policy.getMinDataOffset();
 
         // Initialize fixed structures
         superblockRecord = new AllocationRecord(AllocationType.SUPERBLOCK, "Superblock", SUPERBLOCK_OFFSET, SUPERBLOCK_SIZE);
@@ -135,11 +170,11 @@ public class HdfFileAllocation {
         localHeapRecords.add(initialLocalHeapRecord);
 
         // Add fixed structures to allocationRecords
-        allocationRecords.add(superblockRecord);
-        allocationRecords.add(objectHeaderPrefixRecord);
-        allocationRecords.add(btreeRecord);
-        allocationRecords.add(localHeapHeaderRecord);
-        allocationRecords.add(initialLocalHeapRecord);
+        addRecord(superblockRecord);
+        addRecord(objectHeaderPrefixRecord);
+        addRecord(btreeRecord);
+        addRecord(localHeapHeaderRecord);
+        addRecord(initialLocalHeapRecord);
     }
 
     // --- Allocation Methods ---
@@ -159,21 +194,21 @@ public class HdfFileAllocation {
         }
 
         long headerSize = DEFAULT_DATASET_HEADER_SIZE;
-        if (checkForOverlap(metadataNextAvailableOffset, headerSize)) {
-            moveMetadataNextAvailableOffset(metadataNextAvailableOffset, headerSize);
-        }
-
-        long headerOffset = metadataNextAvailableOffset;
+        long headerOffset = allocateMetadataBlock(headerSize);
         AllocationRecord record = new AllocationRecord(AllocationType.DATASET_OBJECT_HEADER, "Dataset Header (" + datasetName + ")", headerOffset, headerSize);
         datasetRecordsByName.computeIfAbsent(datasetName, k -> new HashMap<>()).put(AllocationType.DATASET_OBJECT_HEADER, record);
-        allocationRecords.add(record);
-        metadataNextAvailableOffset += headerSize;
-        updateMetadataOffset(metadataNextAvailableOffset);
+        addRecord(record);
         return headerOffset;
     }
 
     /**
      * Increases the size of a dataset's object header allocation.
+     * <p>
+     * The header grows in place when only the most recent SNOD is in the way, in which case
+     * the SNOD is moved past it. If any other block follows the header, the header is moved
+     * to a new block and its old block is released for reuse, so callers must read the
+     * header offset again after calling this method.
+     * </p>
      *
      * @param datasetName      the name of the dataset
      * @param newTotalHeaderSize the new size of the header
@@ -193,8 +228,21 @@ public class HdfFileAllocation {
             throw new IllegalArgumentException("New size must be greater than current size");
         }
 
+        AllocationRecord latestSnod = snodRecords.isEmpty() ? null : snodRecords.get(snodRecords.size() - 1);
+        if (findOverlap(record.getOffset() + oldSize, newTotalHeaderSize - oldSize, latestSnod) != null) {
+            // Another block follows the header, so move the header instead of growing it
+            unindexRecord(record);
+            freeSpaceManager.free(record.getOffset(), oldSize);
+            record.setOffset(allocateMetadataBlock(newTotalHeaderSize));
+            record.setSize(newTotalHeaderSize);
+            indexRecord(record);
+            return;
+        }
+
         // Update size in shared AllocationRecord
+        unindexRecord(record);
         record.setSize(newTotalHeaderSize);
+        indexRecord(record);
 
         // Check and move SNOD if overlapped
         moveSnodIfOverlapped(record.getOffset(), newTotalHeaderSize);
@@ -210,6 +258,13 @@ public class HdfFileAllocation {
      * @return the offset of the allocated SNOD
      */
     public long allocateNextSnodStorage() {
+        long reusedOffset = allocateReusedMetadata(SNOD_STORAGE_SIZE);
+        if (reusedOffset >= 0) {
+            AllocationRecord record = new AllocationRecord(AllocationType.SNOD, "SNOD Block " + (snodRecords.size() + 1), reusedOffset, SNOD_STORAGE_SIZE);
+            snodRecords.add(record);
+            addRecord(record);
+            return reusedOffset;
+        }
         if (checkForOverlap(metadataNextAvailableOffset, SNOD_STORAGE_SIZE)) {
             if (snodRecords.isEmpty()) {
                 // special case: first SNOD is allocated at the end of the metadata region
@@ -224,7 +279,7 @@ public class HdfFileAllocation {
         long offset = metadataNextAvailableOffset;
         AllocationRecord record = new AllocationRecord(AllocationType.SNOD, "SNOD Block " + (snodRecords.size() + 1), offset, SNOD_STORAGE_SIZE);
         snodRecords.add(record);
-        allocationRecords.add(record);
+        addRecord(record);
         metadataNextAvailableOffset += SNOD_STORAGE_SIZE;
         updateMetadataOffset(metadataNextAvailableOffset);
         return offset;
@@ -250,12 +305,27 @@ public class HdfFileAllocation {
             throw new IllegalStateException("Data block for '" + datasetName + "' already allocated");
         }
 
-        long dataOffset = dataNextAvailableOffset;
+        long alignment = policy.getDataAlignment(dataSize);
+        long dataOffset = dataSize > 0 ? freeSpaceManager.allocate(dataSize, alignment) : -1L;
+        boolean fromFreeSpace = dataOffset >= 0;
+        if (!fromFreeSpace) {
+            dataOffset = alignUp(dataNextAvailableOffset, alignment);
+            // Metadata that spilled into the data region may lie ahead of the next data offset
+            AllocationRecord overlap;
+            while ((overlap = findOverlap(dataOffset, dataSize, null)) != null) {
+                dataOffset = alignUp(overlap.getOffset() + overlap.getSize(), alignment);
+            }
+            maxDataAlignment = Math.max(maxDataAlignment, alignment);
+        }
         AllocationRecord record = new AllocationRecord(AllocationType.DATASET_DATA, "Data Block (" + datasetName + ")", dataOffset, dataSize);
         datasetRecordsByName.computeIfAbsent(datasetName, k -> new HashMap<>()).put(AllocationType.DATASET_DATA, record);
-        allocationRecords.add(record);
-        dataNextAvailableOffset += dataSize;
-        updateDataOffset(dataNextAvailableOffset);
+        addRecord(record);
+        dataBlockCount++;
+        if (!fromFreeSpace) {
+            relocatableDataRecords.add(record);
+            dataNextAvailableOffset = dataOffset + dataSize;
+            updateDataOffset(dataNextAvailableOffset);
+        }
         return dataOffset;
     }
 
@@ -279,16 +349,18 @@ public class HdfFileAllocation {
             throw new IllegalStateException("Continuation block for '" + datasetName + "' already allocated");
         }
 
-        if (checkForOverlap(metadataNextAvailableOffset, continuationSize)) {
-            moveDataNextAvailableOffset(metadataNextAvailableOffset + continuationSize);
+        long continuationOffset = allocateReusedMetadata(continuationSize);
+        if (continuationOffset < 0) {
+            if (checkForOverlap(metadataNextAvailableOffset, continuationSize)) {
+                moveDataNextAvailableOffset(metadataNextAvailableOffset + continuationSize);
+            }
+            continuationOffset = metadataNextAvailableOffset;
+            metadataNextAvailableOffset += continuationSize;
+            updateMetadataOffset(metadataNextAvailableOffset);
         }
-
-        long continuationOffset = metadataNextAvailableOffset;
         AllocationRecord record = new AllocationRecord(AllocationType.DATASET_HEADER_CONTINUATION, "Continuation (" + datasetName + ")", continuationOffset, continuationSize);
         datasetRecordsByName.computeIfAbsent(datasetName, k -> new HashMap<>()).put(AllocationType.DATASET_HEADER_CONTINUATION, record);
-        allocationRecords.add(record);
-        metadataNextAvailableOffset += continuationSize;
-        updateMetadataOffset(metadataNextAvailableOffset);
+        addRecord(record);
         return continuationOffset;
     }
 
@@ -304,11 +376,12 @@ public class HdfFileAllocation {
         }
 
         long size = GLOBAL_HEAP_BLOCK_SIZE;
-        long offset = dataNextAvailableOffset;
+        long offset = nextFreeDataOffset(size);
         AllocationRecord record = new AllocationRecord(AllocationType.GLOBAL_HEAP_1, "Global Heap Block 1", offset, size);
         globalHeapBlocks.put(AllocationType.GLOBAL_HEAP_1, record);
-        allocationRecords.add(record);
-        dataNextAvailableOffset += size;
+        addRecord(record);
+        relocatableDataRecords.add(record);
+        dataNextAvailableOffset = offset + size;
         updateDataOffset(dataNextAvailableOffset);
         return offset;
     }
@@ -325,11 +398,11 @@ public class HdfFileAllocation {
         }
 
         long size = GLOBAL_HEAP_BLOCK_SIZE;
-        long offset = dataNextAvailableOffset;
+        long offset = nextFreeDataOffset(size);
         AllocationRecord record = new AllocationRecord(AllocationType.GLOBAL_HEAP_2, "Global Heap Block 2", offset, size);
         globalHeapBlocks.put(AllocationType.GLOBAL_HEAP_2, record);
-        allocationRecords.add(record);
-        dataNextAvailableOffset += size;
+        addRecord(record);
+        dataNextAvailableOffset = offset + size;
         updateDataOffset(dataNextAvailableOffset);
         return offset;
     }
@@ -348,7 +421,9 @@ public class HdfFileAllocation {
         long oldSize = record.getSize();
         long newSize = oldSize * 2;
 
+        unindexRecord(record);
         record.setSize(newSize);
+        indexRecord(record);
         dataNextAvailableOffset = record.getOffset() + newSize;
         updateDataOffset(dataNextAvailableOffset);
         return record.getOffset();
@@ -366,11 +441,7 @@ public class HdfFileAllocation {
         if (oldSize <= 0) throw new IllegalStateException("Cannot expand heap with non-positive current tracked size: " + oldSize);
         long newSize = oldSize * 2;
 
-        if (checkForOverlap(metadataNextAvailableOffset, newSize)) {
-            moveMetadataNextAvailableOffset(metadataNextAvailableOffset, newSize);
-        }
-
-        long newOffset = metadataNextAvailableOffset;
+        long newOffset = allocateMetadataBlock(newSize);
 
         // Update existing LOCAL_HEAP record to indicate abandonment
         activeRecord.setType(AllocationType.LOCAL_HEAP_ABANDONED);
@@ -379,13 +450,36 @@ public class HdfFileAllocation {
         // Add new record
         AllocationRecord newRecord = new AllocationRecord(AllocationType.LOCAL_HEAP, "Expanded Local Heap Contents", newOffset, newSize);
         localHeapRecords.add(newRecord);
-        allocationRecords.add(newRecord);
-
-        metadataNextAvailableOffset += newSize;
-        updateMetadataOffset(metadataNextAvailableOffset);
+        addRecord(newRecord);
         return newSize;
     }
 
+    /**
+     * Releases the blocks of all abandoned local heap contents for reuse.
+     * <p>
+     * Abandoned local heap contents are kept in the file by default, matching the layout
+     * produced by the HDF5 C library. Releasing them lets later allocations fill the gaps
+     * they leave behind, producing a more compact file.
+     * </p>
+     *
+     * @return the number of bytes released
+     */
+    public long releaseAbandonedLocalHeaps() {
+        long released = 0;
+        Iterator<AllocationRecord> iterator = localHeapRecords.iterator();
+        while (iterator.hasNext()) {
+            AllocationRecord record = iterator.next();
+            if (record.getType() == AllocationType.LOCAL_HEAP_ABANDONED) {
+                iterator.remove();
+                unindexRecord(record);
+                allocationRecords.remove(record);
+                freeSpaceManager.free(record.getOffset(), record.getSize());
+                released += record.getSize();
+            }
+        }
+        return released;
+    }
+
     /**
      * Resets the allocation manager to its initial state.
      * <p>
@@ -398,19 +492,25 @@ public class HdfFileAllocation {
         globalHeapBlocks.clear();
         allocationRecords.clear();
         localHeapRecords.clear();
-        metadataNextAvailableOffset = METADATA_REGION_START;
-        dataNextAvailableOffset = MIN_DATA_OFFSET_THRESHOLD;
+        recordsByOffset.clear();
+        relocatableDataRecords.clear();
+        freeSpaceManager.clear();
+        metadataAggregate.clear();
+        dataBlockCount = 0;
+        maxDataAlignment = 1L;
+        metadataNextAvailableOffset = policy.getMetadataRegionStart();
+        dataNextAvailableOffset = policy.getMinDataOffset();
 
         // Reinitialize fixed structures
-        allocationRecords.add(superblockRecord);
-        allocationRecords.add(objectHeaderPrefixRecord);
-        allocationRecords.add(btreeRecord);
-        allocationRecords.add(localHeapHeaderRecord);
+        addRecord(superblockRecord);
+        addRecord(objectHeaderPrefixRecord);
+        addRecord(btreeRecord);
+        addRecord(localHeapHeaderRecord);
 
         // Reinitialize local heap
         AllocationRecord initialLocalHeapRecord = new AllocationRecord(AllocationType.LOCAL_HEAP, "Initial Local Heap Contents", localHeapHeaderRecord.getOffset() + LOCAL_HEAP_HEADER_SIZE, INITIAL_LOCAL_HEAP_CONTENTS_SIZE);
         localHeapRecords.add(initialLocalHeapRecord);
-        allocationRecords.add(initialLocalHeapRecord);
+        addRecord(initialLocalHeapRecord);
     }
 
     // --- Global Heap Methods ---
@@ -461,12 +561,31 @@ public class HdfFileAllocation {
      */
     private void updateDataOffset(long newOffset) {
         dataNextAvailableOffset = newOffset;
-        if (metadataNextAvailableOffset >= MIN_DATA_OFFSET_THRESHOLD &&
+        if (metadataNextAvailableOffset >= policy.getMinDataOffset() &&
                 metadataNextAvailableOffset < dataNextAvailableOffset) {
             metadataNextAvailableOffset = dataNextAvailableOffset;
         }
     }
 
+    /**
+     * Finds the first offset at or after the data next available offset where a block fits.
+     * <p>
+     * Dataset headers that no longer fit in the metadata region spill into the data region,
+     * so they may lie at or ahead of the data next available offset.
+     * </p>
+     *
+     * @param size the size of the block
+     * @return the offset of the block
+     */
+    private long nextFreeDataOffset(long size) {
+        long offset = dataNextAvailableOffset;
+        AllocationRecord overlap;
+        while ((overlap = findOverlap(offset, size, null)) != null) {
+            offset = overlap.getOffset() + overlap.getSize();
+        }
+        return offset;
+    }
+
     /**
      * Checks if a proposed allocation overlaps with existing allocations.
      *
@@ -475,14 +594,138 @@ public class HdfFileAllocation {
      * @return true if an overlap is detected, false otherwise
      */
     private boolean checkForOverlap(long offset, long size) {
-        long end = offset + size - 1;
-        for (AllocationRecord record : allocationRecords) {
-            long recordEnd = record.getOffset() + record.getSize() - 1;
-            if (offset <= recordEnd && end >= record.getOffset()) {
-                return true; // Overlap detected
+        return findOverlap(offset, size, null) != null;
+    }
+
+    /**
+     * Finds an existing allocation overlapping a proposed allocation.
+     * <p>
+     * Allocated blocks never overlap each other, so only the block starting at or before the
+     * proposed offset and the blocks starting inside the proposed range can overlap it.
+     * </p>
+     *
+     * @param offset  the start offset of the proposed allocation
+     * @param size    the size of the proposed allocation
+     * @param ignored a record to disregard, or null
+     * @return an overlapping record, or null if there is none
+     */
+    private AllocationRecord findOverlap(long offset, long size, AllocationRecord ignored) {
+        if (size <= 0) {
+            return null;
+        }
+        Long firstKey = recordsByOffset.floorKey(offset);
+        for (AllocationRecord record : recordsByOffset.subMap(firstKey != null ? firstKey : offset, true, offset + size, false).values()) {
+            if (record != ignored && record.getOffset() + record.getSize() > offset) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Allocates a metadata block, reusing free space when possible.
+     *
+     * @param size the size of the block
+     * @return the offset of the block
+     */
+    private long allocateMetadataBlock(long size) {
+        long offset = allocateReusedMetadata(size);
+        if (offset >= 0) {
+            return offset;
+        }
+        if (checkForOverlap(metadataNextAvailableOffset, size)) {
+            moveMetadataNextAvailableOffset(metadataNextAvailableOffset, size);
+        }
+        offset = metadataNextAvailableOffset;
+        metadataNextAvailableOffset += size;
+        updateMetadataOffset(metadataNextAvailableOffset);
+        return offset;
+    }
+
+    /**
+     * Allocates a metadata block from aggregated metadata blocks or free space.
+     * <p>
+     * With metadata aggregation enabled, a metadata block that would extend past the start
+     * of the data region is placed in an aggregation block, reserving a new one at the end
+     * of the file when the current one is full.
+     * </p>
+     *
+     * @param size the size of the block
+     * @return the offset of the block, or -1 if the regular metadata placement applies
+     */
+    private long allocateReusedMetadata(long size) {
+        boolean aggregating = policy.getMetadataAggregationSize() > 0;
+        if (aggregating) {
+            long offset = metadataAggregate.allocate(size, 1);
+            if (offset >= 0) {
+                return offset;
             }
         }
-        return false; // No overlap
+        long offset = freeSpaceManager.allocate(size, 1);
+        if (offset >= 0) {
+            return offset;
+        }
+        if (aggregating && metadataNextAvailableOffset + size > policy.getMinDataOffset()) {
+            long blockSize = Math.max(size, policy.getMetadataAggregationSize());
+            long blockOffset = roundUpToBoundary(getEndOfFileOffset(), policy.getMetadataAlignment());
+            metadataAggregate.free(blockOffset, blockSize);
+            dataNextAvailableOffset = Math.max(dataNextAvailableOffset, blockOffset + blockSize);
+            metadataNextAvailableOffset = Math.max(metadataNextAvailableOffset, blockOffset + blockSize);
+            return metadataAggregate.allocate(size, 1);
+        }
+        return -1L;
+    }
+
+    /**
+     * Rounds an offset up to a power-of-two alignment.
+     *
+     * @param offset    the offset
+     * @param alignment the alignment, a power of two
+     * @return the aligned offset
+     */
+    public static long alignUp(long offset, long alignment) {
+        return (offset + alignment - 1) & -alignment;
+    }
+
+    /**
+     * Rounds an offset up to a multiple of a boundary.
+     *
+     * @param offset   the offset
+     * @param boundary the boundary, which need not be a power of two
+     * @return the rounded offset
+     */
+    private static long roundUpToBoundary(long offset, long boundary) {
+        return ((offset + boundary - 1) / boundary) * boundary;
+    }
+
+    /**
+     * Adds a new record to the list of all records and to the offset index.
+     *
+     * @param record the record to add
+     */
+    private void addRecord(AllocationRecord record) {
+        allocationRecords.add(record);
+        indexRecord(record);
+    }
+
+    /**
+     * Adds a record to the offset index, after its offset or size has changed.
+     *
+     * @param record the record to index
+     */
+    private void indexRecord(AllocationRecord record) {
+        if (record.getSize() > 0) {
+            recordsByOffset.put(record.getOffset(), record);
+        }
+    }
+
+    /**
+     * Removes a record from the offset index, before its offset or size changes.
+     *
+     * @param record the record to remove
+     */
+    private void unindexRecord(AllocationRecord record) {
+        recordsByOffset.remove(record.getOffset(), record);
     }
 
     /**
@@ -493,9 +736,9 @@ public class HdfFileAllocation {
      */
     private void moveMetadataNextAvailableOffset(long currentOffset, long size) {
         long newOffset = Math.max(currentOffset, dataNextAvailableOffset);
-        newOffset = ((newOffset + ALIGNMENT_BOUNDARY - 1) / ALIGNMENT_BOUNDARY) * ALIGNMENT_BOUNDARY; // Next 2048-byte boundary
+        newOffset = roundUpToBoundary(newOffset, policy.getMetadataAlignment()); // Next metadata boundary
         while (checkForOverlap(newOffset, size)) {
-            newOffset += ALIGNMENT_BOUNDARY; // Try next boundary
+            newOffset += policy.getMetadataAlignment(); // Try next boundary
         }
         metadataNextAvailableOffset = newOffset;
     }
@@ -506,14 +749,17 @@ public class HdfFileAllocation {
      * @param newMetadataOffset the new metadata offset
      */
     private void moveDataNextAvailableOffset(long newMetadataOffset) {
-        int diff = 0;
-        for (AllocationRecord record: allocationRecords) {
-            if (record.getType() == AllocationType.DATASET_DATA || record.getType() == AllocationType.GLOBAL_HEAP_1) {
-                if (diff == 0) {
-                    diff = (int) (newMetadataOffset - record.getOffset());
-                }
-                record.setOffset(record.getOffset() + diff);
-            }
+        if (relocatableDataRecords.isEmpty()) {
+            return;
+        }
+        // Shift by a multiple of the largest data alignment so every block stays aligned
+        long diff = alignUp(newMetadataOffset - relocatableDataRecords.get(0).getOffset(), maxDataAlignment);
+        for (AllocationRecord record : relocatableDataRecords) {
+            unindexRecord(record);
+        }
+        for (AllocationRecord record : relocatableDataRecords) {
+            record.setOffset(record.getOffset() + diff);
+            indexRecord(record);
         }
         dataNextAvailableOffset += diff;
     }
@@ -545,7 +791,9 @@ public class HdfFileAllocation {
             }
 
             // Update SNOD record
+            unindexRecord(snodRecord);
             snodRecord.setOffset(newSnodOffset);
+            indexRecord(snodRecord);
 
             // Update metadataNextAvailableOffset
             metadataNextAvailableOffset = Math.max(metadataNextAvailableOffset, newSnodOffset + SNOD_STORAGE_SIZE);
@@ -725,8 +973,7 @@ public class HdfFileAllocation {
      * @return true if at least one data block is allocated, false otherwise
      */
     public boolean isDataBlocksAllocated() {
-        return datasetRecordsByName.values().stream()
-                .anyMatch(datasetAllocs -> datasetAllocs.containsKey(AllocationType.DATASET_DATA));
+        return dataBlockCount > 0;
     }
 
     /**
@@ -797,6 +1044,51 @@ public class HdfFileAllocation {
         return Collections.unmodifiableMap(datasetRecordsByName);
     }
 
+    /**
+     * Retrieves the allocation policy.
+     *
+     * @return the {@link HdfAllocationPolicy}
+     */
+    public HdfAllocationPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Computes how much of the file is taken up by padding between allocated blocks.
+     *
+     * @return a {@link PaddingReport} describing the gaps in the current layout
+     */
+    public PaddingReport getPaddingReport() {
+        long endOfFile = getEndOfFileOffset();
+        long allocatedBytes = 0;
+        long gapCount = 0;
+        long largestGap = 0;
+        long lastEnd = 0;
+        for (AllocationRecord record : recordsByOffset.values()) {
+            long gap = record.getOffset() - lastEnd;
+            if (gap > 0) {
+                gapCount++;
+                largestGap = Math.max(largestGap, gap);
+            }
+            allocatedBytes += record.getSize();
+            lastEnd = Math.max(lastEnd, record.getOffset() + record.getSize());
+        }
+        if (endOfFile > lastEnd) {
+            gapCount++;
+            largestGap = Math.max(largestGap, endOfFile - lastEnd);
+        }
+        return new PaddingReport(endOfFile, allocatedBytes, gapCount, largestGap, freeSpaceManager.getFreeBytes() + metadataAggregate.getFreeBytes());
+    }
+
+    /**
+     * Retrieves the manager of free space available for reuse.
+     *
+     * @return the {@link FreeSpaceManager}
+     */
+    public FreeSpaceManager getFreeSpaceManager() {
+        return freeSpaceManager;
+    }
+
     /**
      * Retrieves all allocation records.
      *
@@ -807,6 +1099,91 @@ public class HdfFileAllocation {
     }
 
     // --- Helper Classes ---
+    /**
+     * Summarizes the space in a file layout not occupied by allocated blocks.
+     */
+    public static class PaddingReport {
+        private final long fileSize;
+        private final long allocatedBytes;
+        private final long gapCount;
+        private final long largestGap;
+        private final long reusableBytes;
+
+        /**
+         * Constructs a padding report.
+         *
+         * @param fileSize       the end-of-file offset
+         * @param allocatedBytes the number of bytes in allocated blocks
+         * @param gapCount       the number of gaps between blocks, including before the end of file
+         * @param largestGap     the size of the largest gap
+         * @param reusableBytes  the number of gap bytes available for reuse by later allocations
+         */
+        public PaddingReport(long fileSize, long allocatedBytes, long gapCount, long largestGap, long reusableBytes) {
+            this.fileSize = fileSize;
+            this.allocatedBytes = allocatedBytes;
+            this.gapCount = gapCount;
+            this.largestGap = largestGap;
+            this.reusableBytes = reusableBytes;
+        }
+
+        /**
+         * Retrieves the size of the file.
+         *
+         * @return the end-of-file offset
+         */
+        public long getFileSize() { return fileSize; }
+
+        /**
+         * Retrieves the number of allocated bytes.
+         *
+         * @return the number of bytes in allocated blocks
+         */
+        public long getAllocatedBytes() { return allocatedBytes; }
+
+        /**
+         * Retrieves the number of padding bytes.
+         *
+         * @return the number of bytes not in any allocated block
+         */
+        public long getPaddingBytes() { return fileSize - allocatedBytes; }
+
+        /**
+         * Retrieves the number of gaps in the layout.
+         *
+         * @return the number of gaps between blocks, including before the end of file
+         */
+        public long getGapCount() { return gapCount; }
+
+        /**
+         * Retrieves the size of the largest gap.
+         *
+         * @return the size of the largest gap
+         */
+        public long getLargestGap() { return largestGap; }
+
+        /**
+         * Retrieves the number of reusable gap bytes.
+         *
+         * @return the number of gap bytes available for reuse by later allocations
+         */
+        public long getReusableBytes() { return reusableBytes; }
+
+        /**
+         * Retrieves the fraction of the file taken up by padding.
+         *
+         * @return the padding ratio between 0 and 1
+         */
+        public double getPaddingRatio() {
+            return fileSize == 0 ? 0.0 : (double) getPaddingBytes() / fileSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PaddingReport{fileSize=%d, allocated=%d, padding=%d (%.1f%%), gaps=%d, largestGap=%d, reusable=%d}",
+                    fileSize, allocatedBytes, getPaddingBytes(), 100.0 * getPaddingRatio(), gapCount, largestGap, reusableBytes);
+        }
+    }
+
     /**
      * Represents a single allocation record with type, name, offset, and size.
      */
@@ -10,6 +10,7 @@ import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
 import org.hdf5javalib.file.dataobject.message.datatype.StringDatatype;
 import org.hdf5javalib.file.infrastructure.HdfBTreeV1;
 import org.hdf5javalib.file.infrastructure.HdfLocalHeap;
+import org.hdf5javalib.io.IoCategory;
 import org.hdf5javalib.utils.HdfWriteUtils;
 
 import java.io.Closeable;
@@ -200,6 +201,8 @@ public class HdfGroup implements Closeable {
         }
 
         HdfDataSet newDataSet = new HdfDataSet(hdfDataFile, datasetName, hdfDatatype, dataSpaceMessage);
+        // The header may have moved if it had to grow for the initial messages
+        allocationInfo = fileAllocation.getDatasetAllocationInfo(datasetName).get(HdfFileAllocation.AllocationType.DATASET_OBJECT_HEADER).getOffset();
 
         DataSetInfo dataSetInfo = new DataSetInfo(
                 newDataSet,
@@ -235,9 +238,16 @@ public class HdfGroup implements Closeable {
      */
     public void writeToFileChannel(SeekableByteChannel seekableByteChannel) throws IOException {
         HdfFileAllocation fileAllocation = hdfFile.getFileAllocation();
-        objectHeader.writeAsGroupToByteChannel(seekableByteChannel, fileAllocation);
-        bTree.writeToByteChannel(seekableByteChannel, fileAllocation);
-        localHeap.writeToByteChannel(seekableByteChannel, fileAllocation);
+        IoCategory previous = IoCategory.enter(IoCategory.OBJECT_HEADER);
+        try {
+            objectHeader.writeAsGroupToByteChannel(seekableByteChannel, fileAllocation);
+            IoCategory.enter(IoCategory.BTREE);
+            bTree.writeToByteChannel(seekableByteChannel, fileAllocation);
+            IoCategory.enter(IoCategory.LOCAL_HEAP);
+            localHeap.writeToByteChannel(seekableByteChannel, fileAllocation);
+        } finally {
+            IoCategory.restore(previous);
+        }
     }
 
     /**
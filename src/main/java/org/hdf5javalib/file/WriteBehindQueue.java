@@ -0,0 +1,319 @@
+package org.hdf5javalib.file;
+
+import org.hdf5javalib.io.IoCategory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A bounded write-behind queue drained by a dedicated writer thread.
+ * <p>
+ * The {@code WriteBehindQueue} class takes ownership of a {@link SeekableByteChannel} and
+ * performs every operation on it from a single writer thread, in submission order. Each
+ * submitted operation is paired with a {@link CompletableFuture} that completes once the
+ * operation has been applied to the channel. When the queue is full, submitting blocks
+ * the producer until the writer thread catches up, bounding the memory held by pending
+ * writes.
+ * </p>
+ * <p>
+ * Operations submitted from the writer thread itself run immediately, which allows a
+ * queued operation to call code that would otherwise enqueue and wait. Once an operation
+ * fails, all later operations fail with the same cause, since the file contents can no
+ * longer be trusted. This includes errors such as {@link OutOfMemoryError}, which leave
+ * the writer thread running so that no pending operation is left waiting. Each operation runs under the {@link IoCategory} marked on the thread
+ * that submitted it.
+ * </p>
+ */
+public class WriteBehindQueue implements Closeable {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    /**
+     * An operation applied to the channel by the writer thread.
+     */
+    @FunctionalInterface
+    public interface ChannelAction {
+        /**
+         * Applies the operation to the channel.
+         *
+         * @param channel the channel owned by the writer thread
+         * @throws IOException if an I/O error occurs
+         */
+        void run(SeekableByteChannel channel) throws IOException;
+    }
+
+    /**
+     * A queued operation and its completion.
+     */
+    private static final class WriteTask {
+        /** The operation to apply, or null for the shutdown marker. */
+        private final ChannelAction action;
+        /** The future completed once the operation has been applied. */
+        private final CompletableFuture<Void> completion;
+        /** The I/O category marked on the submitting thread. */
+        private final IoCategory category;
+
+        private WriteTask(ChannelAction action, CompletableFuture<Void> completion) {
+            this.action = action;
+            this.completion = completion;
+            this.category = IoCategory.current();
+        }
+    }
+
+    /** The channel owned by the writer thread. */
+    private final SeekableByteChannel channel;
+    /** The pending operations, followed by the shutdown marker once the queue is shut down. */
+    private final BlockingQueue<WriteTask> queue;
+    /** The free slots for pending operations; the shutdown marker needs none, so it never blocks. */
+    private final Semaphore slots;
+    /** The thread draining the queue. */
+    private final Thread writerThread;
+    /** The first failure seen by the writer thread, if any. */
+    private volatile Throwable failure;
+    /** Indicates whether the queue no longer accepts operations. */
+    private volatile boolean shutdown;
+
+    /**
+     * Constructs a WriteBehindQueue and starts its writer thread.
+     *
+     * @param channel  the channel to write to
+     * @param capacity the maximum number of pending operations before producers block
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public WriteBehindQueue(SeekableByteChannel channel, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Write-behind capacity must be positive: " + capacity);
+        }
+        this.channel = channel;
+        this.queue = new LinkedBlockingQueue<>();
+        this.slots = new Semaphore(capacity);
+        this.writerThread = new Thread(this::drain, "hdf5javalib-write-behind");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Enqueues an operation on the channel, blocking while the queue is full.
+     * <p>
+     * An operation that races with {@link #shutdown()} and lands behind the shutdown marker
+     * is failed once the writer thread has stopped, so every returned future completes.
+     * </p>
+     *
+     * @param action the operation to apply
+     * @return a future completed once the operation has been applied
+     */
+    public CompletableFuture<Void> submit(ChannelAction action) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        if (Thread.currentThread() == writerThread) {
+            apply(new WriteTask(action, completion));
+            return completion;
+        }
+        if (shutdown) {
+            completion.completeExceptionally(new IOException("Write-behind queue is closed"));
+            return completion;
+        }
+        if (failure != null) {
+            completion.completeExceptionally(failure);
+            return completion;
+        }
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completion.completeExceptionally(new IOException("Interrupted while enqueuing write", e));
+            return completion;
+        }
+        queue.add(new WriteTask(action, completion));
+        if (shutdown || !writerThread.isAlive()) {
+            // The writer may already have taken the marker; once it has stopped, nothing is left to drain
+            awaitWriterExit();
+            failPending(new IOException("Write-behind queue is closed"));
+        }
+        return completion;
+    }
+
+    /**
+     * Enqueues a positional write of the buffer's remaining bytes.
+     * <p>
+     * The buffer is written as-is when the operation runs, so its contents must not be
+     * modified until the returned future completes.
+     * </p>
+     *
+     * @param position the file position to write at
+     * @param buffer   the data to write
+     * @return a future completed once the data has been written
+     */
+    public CompletableFuture<Void> write(long position, ByteBuffer buffer) {
+        return submit(seekableByteChannel -> {
+            seekableByteChannel.position(position);
+            while (buffer.hasRemaining()) {
+                seekableByteChannel.write(buffer);
+            }
+        });
+    }
+
+    /**
+     * Waits until every operation submitted before this call has been applied.
+     *
+     * @throws IOException if any of those operations failed
+     */
+    public void flush() throws IOException {
+        await(submit(seekableByteChannel -> { }));
+    }
+
+    /**
+     * Stops accepting operations without waiting for pending ones.
+     * <p>
+     * Operations already queued are still applied. The writer thread exits when it reaches
+     * the shutdown marker queued behind them, even when this method is called from the
+     * writer thread itself.
+     * </p>
+     */
+    public synchronized void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        queue.add(new WriteTask(null, null));
+    }
+
+    /**
+     * Applies all pending operations and stops the writer thread.
+     *
+     * @throws IOException if a pending operation failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (shutdown) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            shutdown();
+            if (Thread.currentThread() != writerThread) {
+                try {
+                    writerThread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the writer thread to stop, unless called from the writer thread.
+     */
+    private void awaitWriterExit() {
+        if (Thread.currentThread() == writerThread) {
+            return;
+        }
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for a future returned by this queue, unwrapping I/O failures.
+     *
+     * @param completion the future to wait for
+     * @throws IOException if the operation failed
+     */
+    public static void await(CompletableFuture<Void> completion) throws IOException {
+        try {
+            completion.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Write-behind operation failed", cause);
+        }
+    }
+
+    /**
+     * Drains the queue until the shutdown marker is taken.
+     */
+    private void drain() {
+        while (true) {
+            WriteTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                log.warn("Write-behind thread interrupted with {} pending operations", queue.size());
+                failPending(new IOException("Write-behind thread interrupted", e));
+                return;
+            }
+            if (task.action == null) {
+                failPending(new IOException("Write-behind queue is closed"));
+                return;
+            }
+            try {
+                apply(task);
+            } finally {
+                slots.release();
+            }
+        }
+    }
+
+    /**
+     * Applies one operation, or fails it if an earlier operation failed.
+     *
+     * @param task the operation to apply
+     */
+    private void apply(WriteTask task) {
+        if (failure != null) {
+            task.completion.completeExceptionally(failure);
+            return;
+        }
+        IoCategory previous = IoCategory.enter(task.category);
+        try {
+            task.action.run(channel);
+            task.completion.complete(null);
+        } catch (Throwable e) {
+            if (e instanceof Error) {
+                log.error("Write-behind operation failed, failing all later operations", e);
+            }
+            failure = e;
+            task.completion.completeExceptionally(e);
+        } finally {
+            IoCategory.restore(previous);
+        }
+    }
+
+    /**
+     * Fails every operation still in the queue.
+     *
+     * @param cause the failure to report
+     */
+    private void failPending(Throwable cause) {
+        WriteTask task;
+        while ((task = queue.poll()) != null) {
+            if (task.completion != null) {
+                task.completion.completeExceptionally(cause);
+                slots.release();
+            }
+        }
+    }
+}
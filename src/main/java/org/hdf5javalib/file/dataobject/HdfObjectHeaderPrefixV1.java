@@ -4,6 +4,7 @@ import org.hdf5javalib.HdfDataFile;
 import org.hdf5javalib.file.HdfFileAllocation;
 import org.hdf5javalib.file.dataobject.message.HdfMessage;
 import org.hdf5javalib.file.dataobject.message.ObjectHeaderContinuationMessage;
+import org.hdf5javalib.jfr.ObjectHeaderParseEvent;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -70,6 +71,9 @@ public class HdfObjectHeaderPrefixV1 {
             SeekableByteChannel fileChannel,
             HdfDataFile hdfDataFile
     ) throws IOException {
+        ObjectHeaderParseEvent event = new ObjectHeaderParseEvent();
+        event.begin();
+        long offset = event.isEnabled() ? fileChannel.position() : 0;
         ByteBuffer buffer = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN); // Buffer for the fixed-size header
         fileChannel.read(buffer);
         buffer.flip();
@@ -105,6 +109,13 @@ public class HdfObjectHeaderPrefixV1 {
             }
         }
 
+        if (event.shouldCommit()) {
+            event.offset = offset;
+            event.headerSize = Short.toUnsignedLong(objectHeaderSize);
+            event.messageCount = dataObjectHeaderMessages.size();
+            event.commit();
+        }
+
         // Create the instance
         return new HdfObjectHeaderPrefixV1(version, objectReferenceCount, objectHeaderSize, dataObjectHeaderMessages);
     }
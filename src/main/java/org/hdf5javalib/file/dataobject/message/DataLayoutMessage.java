@@ -25,11 +25,11 @@ import static org.hdf5javalib.utils.HdfWriteUtils.writeFixedPointToBuffer;
  *   <li><b>Version (1 byte)</b>: The version of the data layout message format.</li>
  *   <li><b>Layout Class (1 byte)</b>: The storage method:
  *       <ul>
- *         <li><b>Contiguous (0)</b>: Data stored in a single continuous block.</li>
- *         <li><b>Chunked (1)</b>: Data divided into fixed-size chunks, allowing
- *             partial I/O and compression.</li>
- *         <li><b>Compact (2)</b>: Small datasets stored directly within the
+ *         <li><b>Compact (0)</b>: Small datasets stored directly within the
  *             object header.</li>
+ *         <li><b>Contiguous (1)</b>: Data stored in a single continuous block.</li>
+ *         <li><b>Chunked (2)</b>: Data divided into fixed-size chunks, allowing
+ *             partial I/O and compression.</li>
  *       </ul>
  *   </li>
  *   <li><b>Storage Properties</b>: Varies by layout class:
@@ -54,7 +54,7 @@ import static org.hdf5javalib.utils.HdfWriteUtils.writeFixedPointToBuffer;
 public class DataLayoutMessage extends HdfMessage {
     /** The version of the data layout message format. */
     private final int version;
-    /** The layout class (0: Contiguous, 1: Chunked, 2: Compact). */
+    /** The layout class (0: Compact, 1: Contiguous, 2: Chunked). */
     private final int layoutClass;
     /** The file address where data begins (for Contiguous or Chunked). */
     private HdfFixedPoint dataAddress;
@@ -71,7 +71,7 @@ public class DataLayoutMessage extends HdfMessage {
      * Constructs a DataLayoutMessage with the specified components.
      *
      * @param version             the version of the data layout message format
-     * @param layoutClass         the layout class (0: Contiguous, 1: Chunked, 2: Compact)
+     * @param layoutClass         the layout class (0: Compact, 1: Contiguous, 2: Chunked)
      * @param dataAddress         the file address for data (Contiguous or Chunked)
      * @param dimensionSizes      the dimensions of the dataset or chunks (Contiguous or Chunked)
      * @param compactDataSize     the size of compact data (Compact)
@@ -237,6 +237,32 @@ public class DataLayoutMessage extends HdfMessage {
         return dimensionSizes;
     }
 
+    public int getLayoutClass() {
+        return layoutClass;
+    }
+
+    /**
+     * Indicates whether the raw data is stored in this message rather than in a data block.
+     *
+     * @return true for the compact layout class
+     */
+    public boolean isCompact() {
+        return layoutClass == 0;
+    }
+
+    /**
+     * Retrieves the raw data stored in this message.
+     * <p>
+     * The returned array is the message's own storage, so writers fill it in place before
+     * the object header is written.
+     * </p>
+     *
+     * @return the compact data, or null if the layout is not compact
+     */
+    public byte[] getCompactData() {
+        return compactData;
+    }
+
     /**
      * Represents chunked storage properties for a dataset.
      */
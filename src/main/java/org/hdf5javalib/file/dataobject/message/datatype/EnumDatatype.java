@@ -339,4 +339,13 @@ public class EnumDatatype implements HdfDatatype {
     public int getSize() {
         return size;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the base integer datatype of the enumeration values.
+     *
+     * @return the base datatype
+     */
+    public HdfDatatype getBaseType() {
+        return baseType;
+    }
+}
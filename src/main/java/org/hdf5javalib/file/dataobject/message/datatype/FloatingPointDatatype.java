@@ -573,4 +573,50 @@ public class FloatingPointDatatype implements HdfDatatype {
     public BitSet getClassBitField() {
         return classBitField;
     }
+
+    public short getBitOffset() {
+        return bitOffset;
+    }
+
+    public short getBitPrecision() {
+        return bitPrecision;
+    }
+
+    public byte getExponentLocation() {
+        return exponentLocation;
+    }
+
+    public byte getExponentSize() {
+        return exponentSize;
+    }
+
+    public byte getMantissaLocation() {
+        return mantissaLocation;
+    }
+
+    public byte getMantissaSize() {
+        return mantissaSize;
+    }
+
+    public int getExponentBias() {
+        return exponentBias;
+    }
+
+    /**
+     * Checks if this datatype is an IEEE 754 single or double precision layout.
+     *
+     * @return true if values can be decoded with {@link Float#intBitsToFloat} or {@link Double#longBitsToDouble}
+     */
+    public boolean isIeee754() {
+        if (bitOffset != 0 || getSignLocation() != size * 8 - 1) {
+            return false;
+        }
+        if (size == 4) {
+            return exponentLocation == 23 && exponentSize == 8 && mantissaLocation == 0 && mantissaSize == 23 && exponentBias == 127;
+        }
+        if (size == 8) {
+            return exponentLocation == 52 && exponentSize == 11 && mantissaLocation == 0 && mantissaSize == 52 && exponentBias == 1023;
+        }
+        return false;
+    }
 }
\ No newline at end of file
@@ -3,15 +3,16 @@ package org.hdf5javalib.file.infrastructure;
 import org.hdf5javalib.HdfDataFile;
 import org.hdf5javalib.dataclass.HdfFixedPoint;
 import org.hdf5javalib.file.HdfFileAllocation;
+import org.hdf5javalib.jfr.GlobalHeapLoadEvent;
 import org.hdf5javalib.utils.HdfReadUtils;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages HDF5 global heap collections as defined in the HDF5 specification.
@@ -21,6 +22,11 @@ import java.util.Map;
  * and managing object IDs and sizes. Each heap collection is identified by its file offset
  * and contains objects with unique IDs and associated data.
  * </p>
+ * <p>
+ * Reading is thread-safe: collections loaded lazily through the initializer are loaded
+ * once, even when parallel streams request objects from the same collection concurrently.
+ * Adding objects and writing the heap are not thread-safe.
+ * </p>
  *
  * @see org.hdf5javalib.HdfDataFile
  * @see org.hdf5javalib.dataclass.HdfFixedPoint
@@ -52,9 +58,9 @@ public class HdfGlobalHeap {
     public HdfGlobalHeap(GlobalHeapInitialize initialize, HdfDataFile dataFile) {
         this.initialize = initialize;
         this.dataFile = dataFile;
-        this.heapCollections = new HashMap<>();
-        this.collectionSizes = new HashMap<>();
-        this.nextObjectIds = new HashMap<>();
+        this.heapCollections = new ConcurrentHashMap<>();
+        this.collectionSizes = new ConcurrentHashMap<>();
+        this.nextObjectIds = new ConcurrentHashMap<>();
         this.currentWriteHeapOffset = -1L;
     }
 
@@ -66,9 +72,9 @@ public class HdfGlobalHeap {
     public HdfGlobalHeap(HdfDataFile dataFile) {
         this.dataFile = dataFile;
         this.initialize = null;
-        this.heapCollections = new HashMap<>();
-        this.collectionSizes = new HashMap<>();
-        this.nextObjectIds = new HashMap<>();
+        this.heapCollections = new ConcurrentHashMap<>();
+        this.collectionSizes = new ConcurrentHashMap<>();
+        this.nextObjectIds = new ConcurrentHashMap<>();
         this.currentWriteHeapOffset = -1L;
     }
 
@@ -88,8 +94,14 @@ public class HdfGlobalHeap {
         LinkedHashMap<Integer, GlobalHeapObject> specificHeapObjects = heapCollections.get(heapOffset);
         if (specificHeapObjects == null) {
             if (initialize != null) {
-                initialize.initializeCallback(heapOffset);
-                specificHeapObjects = heapCollections.get(heapOffset);
+                // Parallel readers may miss the same collection; only one of them loads it
+                synchronized (this) {
+                    specificHeapObjects = heapCollections.get(heapOffset);
+                    if (specificHeapObjects == null) {
+                        initialize.initializeCallback(heapOffset);
+                        specificHeapObjects = heapCollections.get(heapOffset);
+                    }
+                }
                 if (specificHeapObjects == null) {
                     throw new IllegalStateException("Heap not found or loaded for offset: " + heapOffset + " even after initialization callback.");
                 }
@@ -115,6 +127,8 @@ public class HdfGlobalHeap {
      * @throws IOException if an I/O error occurs or the heap data is invalid
      */
     public void readFromFileChannel(SeekableByteChannel fileChannel, HdfDataFile hdfDataFile) throws IOException {
+        GlobalHeapLoadEvent event = new GlobalHeapLoadEvent();
+        event.begin();
         long startOffset = fileChannel.position();
         ByteBuffer headerBuffer = ByteBuffer.allocate(16);
         headerBuffer.order(ByteOrder.LITTLE_ENDIAN);
@@ -199,6 +213,14 @@ public class HdfGlobalHeap {
         this.heapCollections.put(startOffset, localObjects);
         this.collectionSizes.put(startOffset, localCollectionSize);
         this.nextObjectIds.put(startOffset, localNextObjectId);
+
+        if (event.shouldCommit()) {
+            event.offset = startOffset;
+            event.collectionSize = declaredSize;
+            // Object 0 marks the free space at the end of the collection
+            event.objectCount = localObjects.size() - (localObjects.containsKey(0) ? 1 : 0);
+            event.commit();
+        }
     }
 
     /**
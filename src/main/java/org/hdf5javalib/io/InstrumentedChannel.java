@@ -0,0 +1,312 @@
+package org.hdf5javalib.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A channel decorator that records every read, write and position call in {@link IoStatistics}.
+ * <p>
+ * The {@code InstrumentedChannel} class wraps any {@link SeekableByteChannel} and can be
+ * passed wherever the library takes a channel, including {@code HdfFileReader},
+ * {@code HdfFile} and {@code TypedDataSource}. Each call is timed and attributed to the
+ * {@link IoCategory} marked on the calling thread, so the statistics show how many calls
+ * and bytes each kind of file structure cost.
+ * </p>
+ * <p>
+ * The decorator is itself a {@link FileChannel}, so the library keeps using positional
+ * reads and gathering writes through it. When the wrapped channel is a {@code FileChannel},
+ * every operation is delegated to it; otherwise positional reads and writes are emulated by
+ * moving the position while holding this channel's lock, and mapping and locking are not
+ * supported. Calls that only query the position or size are not recorded.
+ * </p>
+ */
+public class InstrumentedChannel extends FileChannel {
+    /** The number of bytes copied per step when emulating transfers. */
+    private static final int TRANSFER_BUFFER_SIZE = 65536;
+
+    /** The wrapped channel. */
+    private final SeekableByteChannel delegate;
+    /** The wrapped channel as a file channel, or null if it is not one. */
+    private final FileChannel fileDelegate;
+    /** The statistics the calls are recorded in. */
+    private final IoStatistics statistics;
+
+    /**
+     * Constructs an InstrumentedChannel recording into new statistics.
+     *
+     * @param delegate the channel to wrap
+     */
+    public InstrumentedChannel(SeekableByteChannel delegate) {
+        this(delegate, new IoStatistics());
+    }
+
+    /**
+     * Constructs an InstrumentedChannel recording into existing statistics.
+     *
+     * @param delegate   the channel to wrap
+     * @param statistics the statistics to record into, possibly shared with other channels
+     */
+    public InstrumentedChannel(SeekableByteChannel delegate, IoStatistics statistics) {
+        this.delegate = delegate;
+        this.fileDelegate = delegate instanceof FileChannel ? (FileChannel) delegate : null;
+        this.statistics = statistics;
+    }
+
+    private void record(IoStatistics.Operation operation, long byteCount, long start) {
+        statistics.record(IoCategory.current(), operation, byteCount, System.nanoTime() - start);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        long start = System.nanoTime();
+        int count = delegate.read(dst);
+        record(IoStatistics.Operation.READ, count, start);
+        return count;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        long start = System.nanoTime();
+        long count;
+        if (delegate instanceof ScatteringByteChannel) {
+            count = ((ScatteringByteChannel) delegate).read(dsts, offset, length);
+        } else {
+            count = 0;
+            for (int i = offset; i < offset + length; i++) {
+                int read = delegate.read(dsts[i]);
+                if (read < 0) {
+                    count = count == 0 ? -1 : count;
+                    break;
+                }
+                count += read;
+                if (dsts[i].hasRemaining()) {
+                    break;
+                }
+            }
+        }
+        record(IoStatistics.Operation.READ, count, start);
+        return count;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        long start = System.nanoTime();
+        int count;
+        if (fileDelegate != null) {
+            count = fileDelegate.read(dst, position);
+        } else {
+            synchronized (this) {
+                long saved = delegate.position();
+                delegate.position(position);
+                try {
+                    count = delegate.read(dst);
+                } finally {
+                    delegate.position(saved);
+                }
+            }
+        }
+        record(IoStatistics.Operation.READ, count, start);
+        return count;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        long start = System.nanoTime();
+        int count = delegate.write(src);
+        record(IoStatistics.Operation.WRITE, count, start);
+        return count;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        long start = System.nanoTime();
+        long count;
+        if (delegate instanceof GatheringByteChannel) {
+            count = ((GatheringByteChannel) delegate).write(srcs, offset, length);
+        } else {
+            count = 0;
+            for (int i = offset; i < offset + length; i++) {
+                count += delegate.write(srcs[i]);
+                if (srcs[i].hasRemaining()) {
+                    break;
+                }
+            }
+        }
+        record(IoStatistics.Operation.WRITE, count, start);
+        return count;
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+        long start = System.nanoTime();
+        int count;
+        if (fileDelegate != null) {
+            count = fileDelegate.write(src, position);
+        } else {
+            synchronized (this) {
+                long saved = delegate.position();
+                delegate.position(position);
+                try {
+                    count = delegate.write(src);
+                } finally {
+                    delegate.position(saved);
+                }
+            }
+        }
+        record(IoStatistics.Operation.WRITE, count, start);
+        return count;
+    }
+
+    @Override
+    public long position() throws IOException {
+        return delegate.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+        long start = System.nanoTime();
+        delegate.position(newPosition);
+        record(IoStatistics.Operation.POSITION, 0, start);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return delegate.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+        delegate.truncate(size);
+        return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        if (fileDelegate != null) {
+            fileDelegate.force(metaData);
+        }
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        long start = System.nanoTime();
+        long transferred;
+        if (fileDelegate != null) {
+            transferred = fileDelegate.transferTo(position, count, target);
+        } else {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(TRANSFER_BUFFER_SIZE, Math.max(1, count)));
+            transferred = 0;
+            synchronized (this) {
+                long saved = delegate.position();
+                try {
+                    delegate.position(position);
+                    while (transferred < count) {
+                        buffer.clear().limit((int) Math.min(buffer.capacity(), count - transferred));
+                        if (delegate.read(buffer) <= 0) {
+                            break;
+                        }
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            transferred += target.write(buffer);
+                        }
+                    }
+                } finally {
+                    delegate.position(saved);
+                }
+            }
+        }
+        record(IoStatistics.Operation.READ, transferred, start);
+        return transferred;
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        long start = System.nanoTime();
+        long transferred;
+        if (fileDelegate != null) {
+            transferred = fileDelegate.transferFrom(src, position, count);
+        } else {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(TRANSFER_BUFFER_SIZE, Math.max(1, count)));
+            transferred = 0;
+            synchronized (this) {
+                long saved = delegate.position();
+                try {
+                    delegate.position(position);
+                    while (transferred < count) {
+                        buffer.clear().limit((int) Math.min(buffer.capacity(), count - transferred));
+                        if (src.read(buffer) <= 0) {
+                            break;
+                        }
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            transferred += delegate.write(buffer);
+                        }
+                    }
+                } finally {
+                    delegate.position(saved);
+                }
+            }
+        }
+        record(IoStatistics.Operation.WRITE, transferred, start);
+        return transferred;
+    }
+
+    /**
+     * Maps a region of the wrapped file channel into memory; accesses to the mapping are not recorded.
+     *
+     * @throws UnsupportedOperationException if the wrapped channel is not a file channel
+     */
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+        return requireFileDelegate().map(mode, position, size);
+    }
+
+    /**
+     * Locks a region of the wrapped file channel.
+     *
+     * @throws UnsupportedOperationException if the wrapped channel is not a file channel
+     */
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+        return requireFileDelegate().lock(position, size, shared);
+    }
+
+    /**
+     * Tries to lock a region of the wrapped file channel.
+     *
+     * @throws UnsupportedOperationException if the wrapped channel is not a file channel
+     */
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        return requireFileDelegate().tryLock(position, size, shared);
+    }
+
+    private FileChannel requireFileDelegate() {
+        if (fileDelegate == null) {
+            throw new UnsupportedOperationException("Wrapped channel is not a FileChannel: " + delegate.getClass().getName());
+        }
+        return fileDelegate;
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        delegate.close();
+    }
+
+    public SeekableByteChannel getDelegate() {
+        return delegate;
+    }
+
+    public IoStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,62 @@
+package org.hdf5javalib.io;
+
+/**
+ * The file structures that channel I/O is attributed to.
+ * <p>
+ * The library marks the structure it is reading or writing on the current thread with
+ * {@link #enter(IoCategory)}, and restores the previous mark with {@link #restore(IoCategory)}
+ * once done. An {@link InstrumentedChannel} reads the mark of the calling thread to
+ * attribute each operation. Work handed to another thread, such as write-behind or
+ * double-buffered writes, carries the mark of the thread that submitted it. I/O issued
+ * outside any marked section is attributed to {@link #OTHER}.
+ * </p>
+ */
+public enum IoCategory {
+    /** The superblock. */
+    SUPERBLOCK,
+    /** Object headers of groups and datasets, including continuation blocks. */
+    OBJECT_HEADER,
+    /** Group B-tree nodes and their symbol table nodes. */
+    BTREE,
+    /** Local heaps holding link names. */
+    LOCAL_HEAP,
+    /** Global heap collections holding variable-length data. */
+    GLOBAL_HEAP,
+    /** Dataset raw data. */
+    RAW_DATA,
+    /** Any I/O issued outside a marked section. */
+    OTHER;
+
+    /** The category marked on each thread. */
+    private static final ThreadLocal<IoCategory> CURRENT = ThreadLocal.withInitial(() -> OTHER);
+
+    /**
+     * Marks the I/O issued by the current thread as belonging to a category.
+     *
+     * @param category the category of the following I/O
+     * @return the previous category, to pass to {@link #restore(IoCategory)}
+     */
+    public static IoCategory enter(IoCategory category) {
+        IoCategory previous = CURRENT.get();
+        CURRENT.set(category);
+        return previous;
+    }
+
+    /**
+     * Restores the category that was marked before a call to {@link #enter(IoCategory)}.
+     *
+     * @param previous the category returned by {@code enter}
+     */
+    public static void restore(IoCategory previous) {
+        CURRENT.set(previous);
+    }
+
+    /**
+     * Retrieves the category marked on the current thread.
+     *
+     * @return the current category
+     */
+    public static IoCategory current() {
+        return CURRENT.get();
+    }
+}
@@ -0,0 +1,372 @@
+package org.hdf5javalib.io;
+
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe counters and latency histograms of channel I/O.
+ * <p>
+ * The {@code IoStatistics} class records, for every {@link IoCategory} and
+ * {@link Operation}, the number of calls, the number of bytes transferred, and a histogram
+ * of call latencies with power-of-two buckets. It is filled by one or more
+ * {@link InstrumentedChannel}s; sharing one instance between channels aggregates them.
+ * Recording never blocks, so concurrent readers do not contend on the statistics.
+ * </p>
+ * <p>
+ * {@link #snapshot()} captures the current values, and the difference of two snapshots
+ * gives the cost of the work done in between, such as a single query. The statistics can
+ * also be registered as an MXBean, exposing the totals and per-category counters through
+ * JMX.
+ * </p>
+ */
+public class IoStatistics implements IoStatisticsMXBean {
+    /** The number of latency buckets; bucket {@code b} counts latencies below 2<sup>b</sup> nanoseconds. */
+    public static final int LATENCY_BUCKETS = 48;
+
+    /**
+     * The recorded channel operations.
+     */
+    public enum Operation {
+        /** A read, including positional, scattering and transfer reads. */
+        READ,
+        /** A write, including positional, gathering and transfer writes. */
+        WRITE,
+        /** A call that sets the channel position. */
+        POSITION
+    }
+
+    /** The number of recorded operations. */
+    private static final int OPERATIONS = Operation.values().length;
+    /** The number of counter cells, one per category and operation. */
+    private static final int CELLS = IoCategory.values().length * OPERATIONS;
+
+    /** The number of calls per cell. */
+    private final LongAdder[] calls = new LongAdder[CELLS];
+    /** The number of bytes per cell. */
+    private final LongAdder[] bytes = new LongAdder[CELLS];
+    /** The latency histograms, {@value #LATENCY_BUCKETS} buckets per cell. */
+    private final AtomicLongArray latencies = new AtomicLongArray(CELLS * LATENCY_BUCKETS);
+
+    /**
+     * Constructs an empty IoStatistics.
+     */
+    public IoStatistics() {
+        for (int i = 0; i < CELLS; i++) {
+            calls[i] = new LongAdder();
+            bytes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one call.
+     *
+     * @param category  the category the call is attributed to
+     * @param operation the operation performed
+     * @param byteCount the number of bytes transferred
+     * @param nanos     the latency of the call in nanoseconds
+     */
+    public void record(IoCategory category, Operation operation, long byteCount, long nanos) {
+        int cell = cell(category, operation);
+        calls[cell].increment();
+        if (byteCount > 0) {
+            bytes[cell].add(byteCount);
+        }
+        latencies.incrementAndGet(cell * LATENCY_BUCKETS + bucket(nanos));
+    }
+
+    private static int cell(IoCategory category, Operation operation) {
+        return category.ordinal() * OPERATIONS + operation.ordinal();
+    }
+
+    private static int bucket(long nanos) {
+        return Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+    }
+
+    /**
+     * Captures the current counters and histograms.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] callCounts = new long[CELLS];
+        long[] byteCounts = new long[CELLS];
+        long[] histograms = new long[CELLS * LATENCY_BUCKETS];
+        for (int i = 0; i < CELLS; i++) {
+            callCounts[i] = calls[i].sum();
+            byteCounts[i] = bytes[i].sum();
+        }
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = latencies.get(i);
+        }
+        return new Snapshot(callCounts, byteCounts, histograms);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < CELLS; i++) {
+            calls[i].reset();
+            bytes[i].reset();
+        }
+        for (int i = 0; i < latencies.length(); i++) {
+            latencies.set(i, 0);
+        }
+    }
+
+    /**
+     * Registers these statistics with the platform MBean server.
+     *
+     * @param name the object name to register under, such as {@code org.hdf5javalib:type=IoStatistics,name=reader}
+     * @return the registered object name
+     * @throws IllegalArgumentException if the name is malformed
+     * @throws IllegalStateException if the registration fails, for example because the name is taken
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid MBean name: " + name, e);
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register MBean " + name, e);
+        }
+    }
+
+    /**
+     * Unregisters an MBean registered by {@link #registerMBean(String)}.
+     *
+     * @param objectName the registered object name
+     * @throws IllegalStateException if the name is not registered
+     */
+    public void unregisterMBean(ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to unregister MBean " + objectName, e);
+        }
+    }
+
+    @Override
+    public long getReadCalls() {
+        return snapshot().getCalls(Operation.READ);
+    }
+
+    @Override
+    public long getReadBytes() {
+        return snapshot().getBytes(Operation.READ);
+    }
+
+    @Override
+    public long getWriteCalls() {
+        return snapshot().getCalls(Operation.WRITE);
+    }
+
+    @Override
+    public long getWriteBytes() {
+        return snapshot().getBytes(Operation.WRITE);
+    }
+
+    @Override
+    public long getPositionCalls() {
+        return snapshot().getCalls(Operation.POSITION);
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        return snapshot().getCounters();
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * An immutable copy of the counters and histograms at one point in time.
+     */
+    public static final class Snapshot {
+        /** The number of calls per cell. */
+        private final long[] calls;
+        /** The number of bytes per cell. */
+        private final long[] bytes;
+        /** The latency histograms, {@value #LATENCY_BUCKETS} buckets per cell. */
+        private final long[] latencies;
+
+        private Snapshot(long[] calls, long[] bytes, long[] latencies) {
+            this.calls = calls;
+            this.bytes = bytes;
+            this.latencies = latencies;
+        }
+
+        /**
+         * Computes the activity recorded between an earlier snapshot and this one.
+         *
+         * @param earlier a snapshot of the same statistics taken before this one
+         * @return the difference of the two snapshots
+         */
+        public Snapshot since(Snapshot earlier) {
+            long[] callCounts = new long[CELLS];
+            long[] byteCounts = new long[CELLS];
+            long[] histograms = new long[latencies.length];
+            for (int i = 0; i < CELLS; i++) {
+                callCounts[i] = calls[i] - earlier.calls[i];
+                byteCounts[i] = bytes[i] - earlier.bytes[i];
+            }
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = latencies[i] - earlier.latencies[i];
+            }
+            return new Snapshot(callCounts, byteCounts, histograms);
+        }
+
+        /**
+         * Retrieves the number of calls of an operation attributed to a category.
+         *
+         * @param category  the category
+         * @param operation the operation
+         * @return the number of calls
+         */
+        public long getCalls(IoCategory category, Operation operation) {
+            return calls[cell(category, operation)];
+        }
+
+        /**
+         * Retrieves the number of calls of an operation over all categories.
+         *
+         * @param operation the operation
+         * @return the number of calls
+         */
+        public long getCalls(Operation operation) {
+            long total = 0;
+            for (IoCategory category : IoCategory.values()) {
+                total += getCalls(category, operation);
+            }
+            return total;
+        }
+
+        /**
+         * Retrieves the number of bytes transferred by an operation attributed to a category.
+         *
+         * @param category  the category
+         * @param operation the operation
+         * @return the number of bytes
+         */
+        public long getBytes(IoCategory category, Operation operation) {
+            return bytes[cell(category, operation)];
+        }
+
+        /**
+         * Retrieves the number of bytes transferred by an operation over all categories.
+         *
+         * @param operation the operation
+         * @return the number of bytes
+         */
+        public long getBytes(Operation operation) {
+            long total = 0;
+            for (IoCategory category : IoCategory.values()) {
+                total += getBytes(category, operation);
+            }
+            return total;
+        }
+
+        /**
+         * Retrieves the latency histogram of an operation attributed to a category.
+         *
+         * @param category  the category
+         * @param operation the operation
+         * @return the call count of each bucket; bucket {@code b} counts latencies below 2<sup>b</sup> nanoseconds
+         *         and, except for bucket 0, at least 2<sup>b-1</sup> nanoseconds
+         */
+        public long[] getLatencyHistogram(IoCategory category, Operation operation) {
+            long[] histogram = new long[LATENCY_BUCKETS];
+            System.arraycopy(latencies, cell(category, operation) * LATENCY_BUCKETS, histogram, 0, LATENCY_BUCKETS);
+            return histogram;
+        }
+
+        /**
+         * Estimates a latency percentile of an operation attributed to a category.
+         *
+         * @param category   the category
+         * @param operation  the operation
+         * @param percentile the percentile, between 0 and 100
+         * @return the upper bound in nanoseconds of the bucket holding the percentile, or 0 if there were no calls
+         * @throws IllegalArgumentException if the percentile is out of range
+         */
+        public long getLatencyPercentile(IoCategory category, Operation operation, double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+            }
+            long total = getCalls(category, operation);
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+            int base = cell(category, operation) * LATENCY_BUCKETS;
+            long seen = 0;
+            for (int b = 0; b < LATENCY_BUCKETS; b++) {
+                seen += latencies[base + b];
+                if (seen >= rank) {
+                    return 1L << b;
+                }
+            }
+            return 1L << (LATENCY_BUCKETS - 1);
+        }
+
+        /**
+         * Retrieves the call and byte counts of every category and operation with at least one call.
+         *
+         * @return the counters, keyed as described in {@link IoStatisticsMXBean}
+         */
+        public Map<String, Long> getCounters() {
+            Map<String, Long> counters = new LinkedHashMap<>();
+            for (IoCategory category : IoCategory.values()) {
+                for (Operation operation : Operation.values()) {
+                    long callCount = getCalls(category, operation);
+                    if (callCount == 0) {
+                        continue;
+                    }
+                    String prefix = (category.name() + "." + operation.name()).toLowerCase(Locale.ROOT);
+                    counters.put(prefix + ".calls", callCount);
+                    if (operation != Operation.POSITION) {
+                        counters.put(prefix + ".bytes", getBytes(category, operation));
+                    }
+                }
+            }
+            return counters;
+        }
+
+        /**
+         * Returns a string representation of the snapshot.
+         *
+         * @return the non-zero counters with their median and 99th percentile latencies
+         */
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("IoStatistics{");
+            String separator = "";
+            for (IoCategory category : IoCategory.values()) {
+                for (Operation operation : Operation.values()) {
+                    long callCount = getCalls(category, operation);
+                    if (callCount == 0) {
+                        continue;
+                    }
+                    builder.append(separator).append(category).append(' ').append(operation)
+                            .append(": calls=").append(callCount);
+                    if (operation != Operation.POSITION) {
+                        builder.append(" bytes=").append(getBytes(category, operation));
+                    }
+                    builder.append(" p50<").append(getLatencyPercentile(category, operation, 50)).append("ns")
+                            .append(" p99<").append(getLatencyPercentile(category, operation, 99)).append("ns");
+                    separator = ", ";
+                }
+            }
+            return builder.append('}').toString();
+        }
+    }
+}
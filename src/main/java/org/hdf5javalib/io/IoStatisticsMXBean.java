@@ -0,0 +1,60 @@
+package org.hdf5javalib.io;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link IoStatistics}, for export through JMX.
+ * <p>
+ * Totals are summed over all {@link IoCategory categories}; {@link #getCounters()} breaks
+ * them down, keyed as {@code category.operation.calls} and {@code category.operation.bytes}
+ * in lower case, for example {@code raw_data.read.bytes}.
+ * </p>
+ */
+public interface IoStatisticsMXBean {
+    /**
+     * Retrieves the number of read calls.
+     *
+     * @return the number of read calls
+     */
+    long getReadCalls();
+
+    /**
+     * Retrieves the number of bytes read.
+     *
+     * @return the number of bytes read
+     */
+    long getReadBytes();
+
+    /**
+     * Retrieves the number of write calls.
+     *
+     * @return the number of write calls
+     */
+    long getWriteCalls();
+
+    /**
+     * Retrieves the number of bytes written.
+     *
+     * @return the number of bytes written
+     */
+    long getWriteBytes();
+
+    /**
+     * Retrieves the number of calls that set the channel position.
+     *
+     * @return the number of position calls
+     */
+    long getPositionCalls();
+
+    /**
+     * Retrieves the call and byte counts of every category and operation.
+     *
+     * @return the counters by name
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Clears all counters and histograms.
+     */
+    void reset();
+}
@@ -0,0 +1,9 @@
+/**
+ * Channel implementations for HDF5 file I/O.
+ * <p>
+ * The {@code org.hdf5javalib.io} package provides {@link java.nio.channels.SeekableByteChannel}
+ * implementations that HDF5 files can be written to and read from, such as an in-memory
+ * channel for tests, benchmarks and files that never touch the disk.
+ * </p>
+ */
+package org.hdf5javalib.io;
@@ -0,0 +1,42 @@
+package org.hdf5javalib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a {@code TypedDataSource} reads a block of dataset bytes.
+ * <p>
+ * Whole-dataset reads produce one event, while streams and cursors produce one event per
+ * block they fetch, so the event count shows how a scan was split into reads.
+ * </p>
+ */
+@Name("org.hdf5javalib.DatasetRead")
+@Label("HDF5 Dataset Read")
+@Category({"HDF5", "Dataset"})
+@Description("Read of a block of raw dataset bytes")
+@Enabled(false)
+@StackTrace(false)
+public final class DatasetReadEvent extends Event {
+    /** The name of the dataset. */
+    @Label("Dataset")
+    public String datasetName;
+
+    /** The offset of the block within the dataset's data. */
+    @Label("Offset")
+    public long offset;
+
+    /** The number of bytes read. */
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    /** The number of elements read. */
+    @Label("Element Count")
+    public long elementCount;
+}
@@ -0,0 +1,36 @@
+package org.hdf5javalib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when {@code HdfDataSet.write} writes data to a dataset.
+ * <p>
+ * The event spans the whole call, including draining a buffer supplier and, in
+ * write-behind mode, waiting for the writer thread.
+ * </p>
+ */
+@Name("org.hdf5javalib.DatasetWrite")
+@Label("HDF5 Dataset Write")
+@Category({"HDF5", "Dataset"})
+@Description("Write of data to a dataset")
+@Enabled(false)
+public final class DatasetWriteEvent extends Event {
+    /** The name of the dataset. */
+    @Label("Dataset")
+    public String datasetName;
+
+    /** The number of bytes written. */
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    /** The number of elements written. */
+    @Label("Element Count")
+    public long elementCount;
+}
@@ -0,0 +1,32 @@
+package org.hdf5javalib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when {@code HdfFile} writes its file structure on close.
+ * <p>
+ * The event spans writing the dataset headers, superblock, root group and global heap.
+ * In write-behind mode it is emitted by the writer thread.
+ * </p>
+ */
+@Name("org.hdf5javalib.FileClose")
+@Label("HDF5 File Close")
+@Category({"HDF5", "File"})
+@Description("Writing of the metadata of an HDF5 file on close")
+@Enabled(false)
+public final class FileCloseEvent extends Event {
+    /** The size of the file. */
+    @Label("File Size")
+    @DataAmount
+    public long fileSize;
+
+    /** The number of datasets in the root group. */
+    @Label("Dataset Count")
+    public int datasetCount;
+}
@@ -0,0 +1,32 @@
+package org.hdf5javalib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when {@code HdfFileReader.readFile} parses the metadata of a file.
+ * <p>
+ * The event spans reading the superblock, the root group and the object header of every
+ * dataset.
+ * </p>
+ */
+@Name("org.hdf5javalib.FileOpen")
+@Label("HDF5 File Open")
+@Category({"HDF5", "File"})
+@Description("Parsing of the superblock, root group and dataset headers of an HDF5 file")
+@Enabled(false)
+public final class FileOpenEvent extends Event {
+    /** The size of the file. */
+    @Label("File Size")
+    @DataAmount
+    public long fileSize;
+
+    /** The number of datasets found in the root group. */
+    @Label("Dataset Count")
+    public int datasetCount;
+}
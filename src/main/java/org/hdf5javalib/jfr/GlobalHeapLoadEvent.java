@@ -0,0 +1,36 @@
+package org.hdf5javalib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when a global heap collection is read from the file.
+ * <p>
+ * Collections are loaded lazily, on the first access to a variable-length value stored in
+ * them, so the event's stack trace shows which read triggered the load.
+ * </p>
+ */
+@Name("org.hdf5javalib.GlobalHeapLoad")
+@Label("HDF5 Global Heap Load")
+@Category({"HDF5", "Metadata"})
+@Description("Loading of a global heap collection holding variable-length data")
+@Enabled(false)
+public final class GlobalHeapLoadEvent extends Event {
+    /** The file offset of the collection. */
+    @Label("Offset")
+    public long offset;
+
+    /** The size of the collection, including its header. */
+    @Label("Collection Size")
+    @DataAmount
+    public long collectionSize;
+
+    /** The number of heap objects in the collection. */
+    @Label("Object Count")
+    public int objectCount;
+}
@@ -0,0 +1,34 @@
+package org.hdf5javalib.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a version 1 object header, including its continuation blocks, is parsed.
+ */
+@Name("org.hdf5javalib.ObjectHeaderParse")
+@Label("HDF5 Object Header Parse")
+@Category({"HDF5", "Metadata"})
+@Description("Parsing of an object header and its continuation blocks")
+@Enabled(false)
+@StackTrace(false)
+public final class ObjectHeaderParseEvent extends Event {
+    /** The file offset of the object header. */
+    @Label("Offset")
+    public long offset;
+
+    /** The size of the first header block, excluding the prefix. */
+    @Label("Header Size")
+    @DataAmount
+    public long headerSize;
+
+    /** The number of messages parsed, including those in continuation blocks. */
+    @Label("Message Count")
+    public int messageCount;
+}
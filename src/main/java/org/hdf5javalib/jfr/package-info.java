@@ -0,0 +1,11 @@
+/**
+ * Java Flight Recorder events for HDF5 file I/O.
+ * <p>
+ * The {@code org.hdf5javalib.jfr} package defines the events the library emits when it
+ * opens a file, parses an object header, loads a global heap collection, reads a block of
+ * dataset elements, writes a dataset and closes a file. All events are disabled by
+ * default, so they cost a disabled check unless a recording enables them, for example with
+ * {@code jfr configure} or {@code Recording.enable("org.hdf5javalib.DatasetRead")}.
+ * </p>
+ */
+package org.hdf5javalib.jfr;
@@ -0,0 +1,59 @@
+package org.hdf5javalib.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * A storage adapting any {@link SeekableByteChannel}.
+ * <p>
+ * The {@code ChannelStorage} class emulates positional access by moving the channel's
+ * position and reading or writing while holding the channel's lock. Code that positions
+ * the same channel directly must hold the lock too, as {@code HdfFileReader} does when it
+ * loads the global heap. Reads through this adapter are therefore serialized; use
+ * {@link FileChannelStorage} or {@link MappedFileStorage} for concurrent reads of a file.
+ * </p>
+ */
+public class ChannelStorage implements HdfStorage {
+    /** The adapted channel. */
+    private final SeekableByteChannel channel;
+
+    /**
+     * Constructs a ChannelStorage over an open channel.
+     *
+     * @param channel the channel, which the storage closes when it is closed
+     */
+    public ChannelStorage(SeekableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public int read(long position, ByteBuffer destination) throws IOException {
+        synchronized (channel) {
+            channel.position(position);
+            return channel.read(destination);
+        }
+    }
+
+    @Override
+    public int write(long position, ByteBuffer source) throws IOException {
+        synchronized (channel) {
+            channel.position(position);
+            return channel.write(source);
+        }
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public SeekableByteChannel getChannel() {
+        return channel;
+    }
+}
@@ -0,0 +1,102 @@
+package org.hdf5javalib.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+
+/**
+ * A storage backed by a {@link FileChannel}.
+ * <p>
+ * The {@code FileChannelStorage} class delegates to the channel's positional reads and
+ * writes, which never touch the channel position, so concurrent reads go straight to the
+ * operating system. Regions are mapped read-only.
+ * </p>
+ */
+public class FileChannelStorage implements HdfStorage {
+    /** The channel holding the file. */
+    private final FileChannel channel;
+
+    /**
+     * Constructs a FileChannelStorage over an open channel.
+     *
+     * @param channel the channel, which the storage closes when it is closed
+     */
+    public FileChannelStorage(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a file as a storage.
+     *
+     * @param path    the file to open
+     * @param options the options to open it with, as for {@link FileChannel#open(Path, OpenOption...)}
+     * @return the storage
+     * @throws IOException if the file cannot be opened
+     */
+    public static FileChannelStorage open(Path path, OpenOption... options) throws IOException {
+        return new FileChannelStorage(FileChannel.open(path, options));
+    }
+
+    @Override
+    public int read(long position, ByteBuffer destination) throws IOException {
+        return channel.read(destination, position);
+    }
+
+    @Override
+    public int write(long position, ByteBuffer source) throws IOException {
+        return channel.write(source, position);
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public boolean isMappable() {
+        return true;
+    }
+
+    @Override
+    public ByteBuffer map(long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * Writes a region of the file to a channel.
+     * <p>
+     * {@link FileChannel#transferTo} may stop short, for example when the target accepts
+     * only part of a write, so it is called until the region is written, the end of the
+     * file is reached, or the target accepts nothing more.
+     * </p>
+     */
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long written = channel.transferTo(position + transferred, count - transferred, target);
+            if (written <= 0) {
+                break;
+            }
+            transferred += written;
+        }
+        return transferred;
+    }
+
+    @Override
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public FileChannel getChannel() {
+        return channel;
+    }
+}
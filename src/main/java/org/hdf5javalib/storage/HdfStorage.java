@@ -0,0 +1,168 @@
+package org.hdf5javalib.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Positional access to the bytes of an HDF5 file.
+ * <p>
+ * The {@code HdfStorage} interface is the layer beneath {@link org.hdf5javalib.HdfDataFile}.
+ * Unlike a {@link SeekableByteChannel}, it has no shared position: every read and write
+ * names its own offset, so any number of threads can read concurrently without
+ * coordinating. Implementations are provided for a {@link FileChannel}
+ * ({@link FileChannelStorage}), a memory-mapped file ({@link MappedFileStorage}), an
+ * off-heap in-memory image of any size ({@link OffHeapStorage}) and any other channel
+ * ({@link ChannelStorage}). {@link StorageChannel} presents a storage as a channel, so it can
+ * be passed wherever the library takes one.
+ * </p>
+ * <p>
+ * Mapping is optional. Storages that can expose their contents as a buffer without copying
+ * report {@link #isMappable()}; the others throw {@link UnsupportedOperationException} from
+ * {@link #map(long, long)}.
+ * </p>
+ */
+public interface HdfStorage extends Closeable {
+    /**
+     * Reads bytes starting at a position into a buffer.
+     *
+     * @param position    the offset in the storage to read from
+     * @param destination the buffer to fill, from its position up to its limit
+     * @return the number of bytes read, possibly zero, or -1 if the position is at or past the end
+     * @throws IOException if an I/O error occurs
+     */
+    int read(long position, ByteBuffer destination) throws IOException;
+
+    /**
+     * Writes bytes from a buffer starting at a position, growing the storage if needed.
+     *
+     * @param position the offset in the storage to write to
+     * @param source   the buffer to write, from its position up to its limit
+     * @return the number of bytes written
+     * @throws IOException if an I/O error occurs
+     * @throws java.nio.channels.NonWritableChannelException if the storage is read-only
+     */
+    int write(long position, ByteBuffer source) throws IOException;
+
+    /**
+     * Retrieves the size of the storage.
+     *
+     * @return the number of bytes in the storage
+     * @throws IOException if an I/O error occurs
+     */
+    long size() throws IOException;
+
+    /**
+     * Indicates whether {@link #map(long, long)} is supported.
+     *
+     * @return true if regions of the storage can be mapped
+     */
+    default boolean isMappable() {
+        return false;
+    }
+
+    /**
+     * Exposes a region of the storage as a buffer without copying it.
+     *
+     * @param position the offset of the region
+     * @param size     the size of the region, at most {@link Integer#MAX_VALUE}
+     * @return a buffer over the region, positioned at 0
+     * @throws IOException if an I/O error occurs
+     * @throws UnsupportedOperationException if the storage cannot be mapped
+     */
+    default ByteBuffer map(long position, long size) throws IOException {
+        throw new UnsupportedOperationException("Storage cannot be mapped: " + getClass().getName());
+    }
+
+    /**
+     * Forces written bytes to the underlying device, where there is one.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    default void force() throws IOException {
+    }
+
+    /**
+     * Fills a buffer with the bytes starting at a position.
+     *
+     * @param position    the offset in the storage to read from
+     * @param destination the buffer to fill
+     * @throws IOException if an I/O error occurs or the end of the storage is reached first
+     */
+    default void readFully(long position, ByteBuffer destination) throws IOException {
+        int size = destination.remaining();
+        while (destination.hasRemaining()) {
+            int bytesRead = read(position, destination);
+            if (bytesRead < 0) {
+                throw new IOException("Failed to read the expected number of bytes: read " + (size - destination.remaining()) + ", expected " + size);
+            }
+            position += bytesRead;
+        }
+    }
+
+    /**
+     * Writes all the remaining bytes of a buffer starting at a position.
+     *
+     * @param position the offset in the storage to write to
+     * @param source   the buffer to write
+     * @throws IOException if an I/O error occurs
+     */
+    default void writeFully(long position, ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            position += write(position, source);
+        }
+    }
+
+    /**
+     * Writes a region of the storage to a channel.
+     * <p>
+     * The default copies through a heap buffer; storages that can hand their bytes to the
+     * channel directly override it.
+     * </p>
+     *
+     * @param position the offset of the region
+     * @param count    the size of the region in bytes
+     * @param target   the channel to write to
+     * @return the number of bytes written, less than {@code count} if the region passes the end of the storage
+     * @throws IOException if an I/O error occurs
+     */
+    default long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(65536, Math.max(1, count)));
+        long transferred = 0;
+        while (transferred < count) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), count - transferred));
+            if (read(position + transferred, buffer) <= 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                transferred += target.write(buffer);
+            }
+        }
+        return transferred;
+    }
+
+    /**
+     * Returns the storage behind a channel, adapting the channel if it has none.
+     * <p>
+     * A {@link StorageChannel} yields the storage it presents, a {@link FileChannel} is
+     * read and written positionally, and any other channel is adapted by moving its
+     * position while holding its lock. Closing the returned storage closes the channel.
+     * </p>
+     *
+     * @param channel the channel
+     * @return the storage
+     */
+    static HdfStorage of(SeekableByteChannel channel) {
+        if (channel instanceof StorageChannel) {
+            return ((StorageChannel) channel).getStorage();
+        }
+        if (channel instanceof FileChannel) {
+            return new FileChannelStorage((FileChannel) channel);
+        }
+        return new ChannelStorage(channel);
+    }
+}
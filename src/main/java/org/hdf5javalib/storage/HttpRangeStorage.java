@@ -0,0 +1,308 @@
+package org.hdf5javalib.storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A read-only storage over a file served by HTTP, read with range requests.
+ * <p>
+ * The {@code HttpRangeStorage} class lets {@code HdfFileReader} and {@code TypedDataSource}
+ * read a file in object storage or behind any server that honours {@code Range} headers,
+ * without downloading it. The file is divided into fixed-size blocks, and the most recently
+ * used blocks are kept in a cache, so the many small metadata reads made while opening a
+ * file cost a handful of requests.
+ * </p>
+ * <p>
+ * A read fetches only the blocks that are neither cached nor already being fetched.
+ * Adjacent missing blocks are coalesced into one request of up to {@code maxRequestBlocks}
+ * blocks; larger runs are split into several requests that are sent in parallel. A reader
+ * that needs a block another reader is already fetching waits for that request instead of
+ * sending its own.
+ * </p>
+ */
+public class HttpRangeStorage implements HdfStorage {
+    /** The default block size in bytes. */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    /** The default number of cached blocks. */
+    public static final int DEFAULT_CACHE_BLOCKS = 256;
+    /** The default maximum number of blocks per request. */
+    public static final int DEFAULT_MAX_REQUEST_BLOCKS = 16;
+    /** The timeout for each request. */
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    /** The client sending the requests. */
+    private final HttpClient client;
+    /** The location of the file. */
+    private final URI uri;
+    /** The size of each block in bytes. */
+    private final int blockSize;
+    /** The maximum number of blocks fetched by one request. */
+    private final int maxRequestBlocks;
+    /** The size of the file, learned from the first response. */
+    private final long size;
+    /** The cached blocks by index, in least recently used order; guarded by itself. */
+    private final LinkedHashMap<Long, ByteBuffer> cache;
+    /** The blocks being fetched by index; guarded by {@link #cache}. */
+    private final Map<Long, CompletableFuture<ByteBuffer>> pending = new HashMap<>();
+    /** The number of requests sent. */
+    private final AtomicLong requestCount = new AtomicLong();
+    /** The number of bytes received. */
+    private final AtomicLong bytesFetched = new AtomicLong();
+
+    /**
+     * Constructs an HttpRangeStorage with a new client and the default block and cache sizes.
+     *
+     * @param uri the location of the file
+     * @throws IOException if the file cannot be reached or the server does not support range requests
+     */
+    public HttpRangeStorage(URI uri) throws IOException {
+        this(HttpClient.newHttpClient(), uri, DEFAULT_BLOCK_SIZE, DEFAULT_CACHE_BLOCKS, DEFAULT_MAX_REQUEST_BLOCKS);
+    }
+
+    /**
+     * Constructs an HttpRangeStorage.
+     * <p>
+     * The first block is fetched immediately, which reveals the size of the file and
+     * caches the superblock.
+     * </p>
+     *
+     * @param client           the client to send requests with
+     * @param uri              the location of the file
+     * @param blockSize        the size of each block in bytes
+     * @param cacheBlocks      the number of blocks to cache
+     * @param maxRequestBlocks the maximum number of blocks fetched by one request
+     * @throws IOException if the file cannot be reached or the server does not support range requests
+     * @throws IllegalArgumentException if a size or count is not positive
+     */
+    public HttpRangeStorage(HttpClient client, URI uri, int blockSize, int cacheBlocks, int maxRequestBlocks) throws IOException {
+        if (blockSize <= 0 || cacheBlocks <= 0 || maxRequestBlocks <= 0) {
+            throw new IllegalArgumentException("Block size, cache blocks and request blocks must be positive");
+        }
+        this.client = client;
+        this.uri = uri;
+        this.blockSize = blockSize;
+        this.maxRequestBlocks = maxRequestBlocks;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ByteBuffer> eldest) {
+                return size() > cacheBlocks;
+            }
+        };
+
+        HttpResponse<byte[]> response = await(send(0, blockSize));
+        this.size = totalSize(response);
+        if (size > 0) {
+            byte[] body = checkResponse(response, 0, Math.min(blockSize, size));
+            synchronized (cache) {
+                cache.put(0L, ByteBuffer.wrap(body).asReadOnlyBuffer());
+            }
+        }
+    }
+
+    @Override
+    public int read(long position, ByteBuffer destination) throws IOException {
+        if (position >= size) {
+            return -1;
+        }
+        int length = (int) Math.min(destination.remaining(), size - position);
+        if (length == 0) {
+            return 0;
+        }
+        long firstBlock = position / blockSize;
+        long lastBlock = (position + length - 1) / blockSize;
+        List<CompletableFuture<ByteBuffer>> blocks = acquireBlocks(firstBlock, lastBlock);
+
+        long blockIndex = firstBlock;
+        for (CompletableFuture<ByteBuffer> future : blocks) {
+            ByteBuffer block = await(future);
+            long blockStart = blockIndex * blockSize;
+            int from = (int) Math.max(0, position - blockStart);
+            int to = (int) Math.min(block.capacity(), position + length - blockStart);
+            destination.put(destination.position(), block, from, to - from);
+            destination.position(destination.position() + to - from);
+            blockIndex++;
+        }
+        return length;
+    }
+
+    /**
+     * Finds or starts the fetch of every block in a range.
+     *
+     * @param firstBlock the index of the first block
+     * @param lastBlock  the index of the last block, inclusive
+     * @return one future per block, in order
+     */
+    private List<CompletableFuture<ByteBuffer>> acquireBlocks(long firstBlock, long lastBlock) {
+        List<CompletableFuture<ByteBuffer>> blocks = new ArrayList<>((int) (lastBlock - firstBlock + 1));
+        List<List<CompletableFuture<ByteBuffer>>> runs = new ArrayList<>();
+        List<Long> runStarts = new ArrayList<>();
+        synchronized (cache) {
+            List<CompletableFuture<ByteBuffer>> run = null;
+            for (long index = firstBlock; index <= lastBlock; index++) {
+                ByteBuffer cached = cache.get(index);
+                CompletableFuture<ByteBuffer> future = cached != null ? CompletableFuture.completedFuture(cached) : pending.get(index);
+                if (future != null) {
+                    run = null;
+                } else {
+                    future = new CompletableFuture<>();
+                    pending.put(index, future);
+                    if (run == null || run.size() == maxRequestBlocks) {
+                        run = new ArrayList<>();
+                        runs.add(run);
+                        runStarts.add(index);
+                    }
+                    run.add(future);
+                }
+                blocks.add(future);
+            }
+        }
+        for (int i = 0; i < runs.size(); i++) {
+            fetch(runStarts.get(i), runs.get(i));
+        }
+        return blocks;
+    }
+
+    /**
+     * Fetches a run of adjacent blocks with one asynchronous request.
+     *
+     * @param firstBlock the index of the first block
+     * @param futures    the futures of the blocks, completed when the response arrives
+     */
+    private void fetch(long firstBlock, List<CompletableFuture<ByteBuffer>> futures) {
+        long start = firstBlock * blockSize;
+        long length = Math.min((long) futures.size() * blockSize, size - start);
+        send(start, length).whenComplete((response, failure) -> {
+            try {
+                if (failure != null) {
+                    throw new IOException("Range request for " + uri + " failed", failure);
+                }
+                byte[] body = checkResponse(response, start, length);
+                synchronized (cache) {
+                    for (int i = 0; i < futures.size(); i++) {
+                        int from = i * blockSize;
+                        ByteBuffer block = ByteBuffer.wrap(body, from, Math.min(blockSize, body.length - from)).slice().asReadOnlyBuffer();
+                        cache.put(firstBlock + i, block);
+                        pending.remove(firstBlock + i);
+                        futures.get(i).complete(block);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                synchronized (cache) {
+                    for (int i = 0; i < futures.size(); i++) {
+                        pending.remove(firstBlock + i);
+                        futures.get(i).completeExceptionally(e);
+                    }
+                }
+            }
+        });
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(long start, long length) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Range", "bytes=" + start + "-" + (start + length - 1))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        requestCount.incrementAndGet();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private byte[] checkResponse(HttpResponse<byte[]> response, long start, long length) throws IOException {
+        if (response.statusCode() != 206) {
+            throw new IOException("Expected a partial response from " + uri + " for bytes " + start + "-" + (start + length - 1)
+                    + ", got status " + response.statusCode());
+        }
+        byte[] body = response.body();
+        if (body.length != length) {
+            throw new IOException("Expected " + length + " bytes from " + uri + " at " + start + ", got " + body.length);
+        }
+        bytesFetched.addAndGet(body.length);
+        return body;
+    }
+
+    /**
+     * Reads the size of the file from the {@code Content-Range} header of a response.
+     */
+    private long totalSize(HttpResponse<byte[]> response) throws IOException {
+        HttpHeaders headers = response.headers();
+        String contentRange = headers.firstValue("Content-Range").orElse(null);
+        if (response.statusCode() == 416 && contentRange != null && contentRange.endsWith("/0")) {
+            return 0;
+        }
+        if (response.statusCode() != 206 || contentRange == null || contentRange.indexOf('/') < 0) {
+            throw new IOException("Server for " + uri + " does not support range requests, status " + response.statusCode());
+        }
+        try {
+            return Long.parseLong(contentRange.substring(contentRange.indexOf('/') + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Unknown file size in Content-Range: " + contentRange, e);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a range request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Rejects writes, since the file is read-only.
+     *
+     * @throws NonWritableChannelException always
+     */
+    @Override
+    public int write(long position, ByteBuffer source) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Empties the block cache.
+     */
+    @Override
+    public void close() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getBytesFetched() {
+        return bytesFetched.get();
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+}
@@ -0,0 +1,109 @@
+package org.hdf5javalib.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only storage over a memory-mapped file.
+ * <p>
+ * The {@code MappedFileStorage} class maps the whole file when it is opened, in segments
+ * of {@link #SEGMENT_SIZE} bytes since a single mapping cannot exceed 2 GB. Reads copy
+ * straight from the mapping without a system call, and regions within one segment can be
+ * mapped without copying. The mapping stays valid until the storage is garbage collected;
+ * the file must not be truncated while it is in use.
+ * </p>
+ */
+public class MappedFileStorage implements HdfStorage {
+    /** The size of each mapped segment in bytes. */
+    public static final int SEGMENT_SIZE = 1 << 30;
+
+    /** The mapped segments, each {@link #SEGMENT_SIZE} bytes except the last. */
+    private final MappedByteBuffer[] segments;
+    /** The size of the file when it was mapped. */
+    private final long size;
+
+    /**
+     * Constructs a MappedFileStorage by mapping a file.
+     *
+     * @param path the file to map
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedFileStorage(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.size = channel.size();
+            this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long offset = (long) i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, size - offset));
+            }
+        }
+    }
+
+    @Override
+    public int read(long position, ByteBuffer destination) throws IOException {
+        if (position >= size) {
+            return -1;
+        }
+        int total = (int) Math.min(destination.remaining(), size - position);
+        int copied = 0;
+        while (copied < total) {
+            MappedByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)];
+            int offset = (int) (position % SEGMENT_SIZE);
+            int length = Math.min(total - copied, segment.capacity() - offset);
+            destination.put(destination.position(), segment, offset, length);
+            destination.position(destination.position() + length);
+            position += length;
+            copied += length;
+        }
+        return total;
+    }
+
+    /**
+     * Rejects writes, since the file is mapped read-only.
+     *
+     * @throws NonWritableChannelException always
+     */
+    @Override
+    public int write(long position, ByteBuffer source) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public boolean isMappable() {
+        return true;
+    }
+
+    /**
+     * Returns a read-only view of a region of the mapping.
+     *
+     * @throws IllegalArgumentException if the region is outside the file or spans two segments
+     */
+    @Override
+    public ByteBuffer map(long position, long size) {
+        if (position < 0 || size < 0 || position + size > this.size) {
+            throw new IllegalArgumentException("Region " + position + "+" + size + " is outside the file of " + this.size + " bytes");
+        }
+        int offset = (int) (position % SEGMENT_SIZE);
+        if (offset + size > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Region " + position + "+" + size + " spans two mapped segments");
+        }
+        return segments[(int) (position / SEGMENT_SIZE)].slice(offset, (int) size).asReadOnlyBuffer();
+    }
+
+    /**
+     * Releases the storage; the mapping itself is released when it is garbage collected.
+     */
+    @Override
+    public void close() {
+    }
+}
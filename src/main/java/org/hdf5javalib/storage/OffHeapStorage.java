@@ -0,0 +1,197 @@
+package org.hdf5javalib.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * An in-memory storage held outside the Java heap.
+ * <p>
+ * The {@code OffHeapStorage} class keeps the file image in fixed-size direct
+ * {@link ByteBuffer} segments, so building a file in memory adds nothing to the heap and
+ * causes no garbage collection work. A segment is allocated the first time a write
+ * reaches it, and growing the image never copies the bytes already written, so an image
+ * can exceed 2 GB. Ranges that were never written read as zeros. Reads may run
+ * concurrently with each other and with writes; writes are serialized.
+ * </p>
+ * <p>
+ * A finished image can be sent to a socket or file with
+ * {@link #transferTo(long, long, WritableByteChannel)}, which writes straight from the
+ * segments without staging the bytes in a heap array.
+ * </p>
+ */
+public class OffHeapStorage implements HdfStorage {
+    /** The default size of each segment in bytes. */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+    /** The zeros written for ranges that have no segment. */
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(8192).asReadOnlyBuffer();
+
+    /** The size of each segment in bytes. */
+    private final int segmentSize;
+    /** The segments by index, null where nothing has been written; replaced, never changed, when a segment is added. */
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+    /** The size of the image, the end of the furthest write. */
+    private volatile long size;
+
+    /**
+     * Constructs an empty OffHeapStorage with the default segment size.
+     */
+    public OffHeapStorage() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs an empty OffHeapStorage.
+     *
+     * @param segmentSize the size of each segment in bytes
+     * @throws IllegalArgumentException if the segment size is not positive
+     */
+    public OffHeapStorage(int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public int read(long position, ByteBuffer destination) {
+        long end = size;
+        if (position >= end) {
+            return -1;
+        }
+        ByteBuffer[] current = segments;
+        int total = (int) Math.min(destination.remaining(), end - position);
+        int copied = 0;
+        while (copied < total) {
+            int index = (int) (position / segmentSize);
+            int offset = (int) (position % segmentSize);
+            int length = Math.min(total - copied, segmentSize - offset);
+            ByteBuffer segment = index < current.length ? current[index] : null;
+            if (segment != null) {
+                destination.put(destination.position(), segment, offset, length);
+                destination.position(destination.position() + length);
+            } else {
+                for (int filled = 0; filled < length; filled += Math.min(ZEROS.capacity(), length - filled)) {
+                    destination.put(ZEROS.slice(0, Math.min(ZEROS.capacity(), length - filled)));
+                }
+            }
+            position += length;
+            copied += length;
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized int write(long position, ByteBuffer source) throws IOException {
+        int length = source.remaining();
+        long end = position + length;
+        if ((end - 1) / segmentSize >= Integer.MAX_VALUE - 8) {
+            throw new IOException("Write to " + end + " exceeds the in-memory limit of " + ((long) (Integer.MAX_VALUE - 8) * segmentSize) + " bytes");
+        }
+        int written = 0;
+        while (written < length) {
+            int offset = (int) (position % segmentSize);
+            int count = Math.min(length - written, segmentSize - offset);
+            segment((int) (position / segmentSize)).put(offset, source, source.position() + written, count);
+            position += count;
+            written += count;
+        }
+        source.position(source.limit());
+        if (end > size) {
+            size = end;
+        }
+        return length;
+    }
+
+    /**
+     * Returns a segment, allocating it and publishing a new segment table if it is missing.
+     */
+    private ByteBuffer segment(int index) {
+        ByteBuffer[] current = segments;
+        if (index < current.length && current[index] != null) {
+            return current[index];
+        }
+        ByteBuffer[] grown = Arrays.copyOf(current, Math.max(current.length, index + 1));
+        grown[index] = ByteBuffer.allocateDirect(segmentSize);
+        segments = grown;
+        return grown[index];
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public boolean isMappable() {
+        return true;
+    }
+
+    /**
+     * Returns a read-only view of a region of the image.
+     *
+     * @throws IllegalArgumentException if the region is outside the image or spans two segments
+     */
+    @Override
+    public ByteBuffer map(long position, long size) {
+        if (position < 0 || size < 0 || position + size > this.size) {
+            throw new IllegalArgumentException("Region " + position + "+" + size + " is outside the image of " + this.size + " bytes");
+        }
+        int offset = (int) (position % segmentSize);
+        if (offset + size > segmentSize) {
+            throw new IllegalArgumentException("Region " + position + "+" + size + " spans two segments");
+        }
+        ByteBuffer[] current = segments;
+        int index = (int) (position / segmentSize);
+        ByteBuffer segment = index < current.length ? current[index] : null;
+        if (segment == null) {
+            return ByteBuffer.allocate((int) size).asReadOnlyBuffer();
+        }
+        return segment.slice(offset, (int) size).asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes a region of the image to a channel directly from the segments.
+     * <p>
+     * Like {@link java.nio.channels.FileChannel#transferTo}, fewer bytes than requested are
+     * transferred if the region passes the end of the image, or if the target is a
+     * non-blocking channel that accepts no more bytes for now.
+     * </p>
+     */
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        long end = Math.min(size, position + count);
+        ByteBuffer[] current = segments;
+        long transferred = 0;
+        while (position + transferred < end) {
+            long at = position + transferred;
+            int index = (int) (at / segmentSize);
+            int offset = (int) (at % segmentSize);
+            int length = (int) Math.min(end - at, segmentSize - offset);
+            ByteBuffer segment = index < current.length ? current[index] : null;
+            ByteBuffer view = segment != null ? segment.slice(offset, length) : ZEROS.slice(0, Math.min(ZEROS.capacity(), length));
+            while (view.hasRemaining()) {
+                int written = target.write(view);
+                if (written == 0) {
+                    return transferred;
+                }
+                transferred += written;
+            }
+        }
+        return transferred;
+    }
+
+    /**
+     * Releases the image; its memory is freed when the segments are garbage collected.
+     */
+    @Override
+    public synchronized void close() {
+        segments = new ByteBuffer[0];
+        size = 0;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+}
@@ -0,0 +1,191 @@
+package org.hdf5javalib.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Presents an {@link HdfStorage} as a channel.
+ * <p>
+ * The {@code StorageChannel} class lets a storage be passed wherever the library takes a
+ * channel, such as {@code HdfFile}, {@code HdfFileReader} and {@code TypedDataSource}. Like
+ * {@code InstrumentedChannel}, it is a {@link FileChannel}, so the library uses its
+ * positional reads, which go straight to the storage and need no lock. Relative reads and
+ * writes use a position kept by this channel. Mapping and locking are not supported; use
+ * {@link HdfStorage#map(long, long)} on the storage instead.
+ * </p>
+ */
+public class StorageChannel extends FileChannel {
+    /** The number of bytes copied per step in transfers. */
+    private static final int TRANSFER_BUFFER_SIZE = 65536;
+
+    /** The storage being presented. */
+    private final HdfStorage storage;
+    /** The position for relative reads and writes. */
+    private long position;
+
+    /**
+     * Constructs a StorageChannel over a storage.
+     *
+     * @param storage the storage, which the channel closes when it is closed
+     */
+    public StorageChannel(HdfStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        int count = storage.read(position, dst);
+        if (count > 0) {
+            position += count;
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        long count = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int read = read(dsts[i]);
+            if (read < 0) {
+                return count == 0 ? -1 : count;
+            }
+            count += read;
+            if (dsts[i].hasRemaining()) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        return storage.read(position, dst);
+    }
+
+    @Override
+    public synchronized int write(ByteBuffer src) throws IOException {
+        int count = storage.write(position, src);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public synchronized long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        long count = 0;
+        for (int i = offset; i < offset + length; i++) {
+            count += write(srcs[i]);
+            if (srcs[i].hasRemaining()) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+        return storage.write(position, src);
+    }
+
+    @Override
+    public synchronized long position() {
+        return position;
+    }
+
+    @Override
+    public synchronized FileChannel position(long newPosition) {
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return storage.size();
+    }
+
+    /**
+     * Truncation is only supported when the storage is already no larger than the given size.
+     *
+     * @throws UnsupportedOperationException if the storage is larger than {@code size}
+     */
+    @Override
+    public synchronized FileChannel truncate(long size) throws IOException {
+        if (size < storage.size()) {
+            throw new UnsupportedOperationException("Storage cannot be truncated: " + storage.getClass().getName());
+        }
+        position = Math.min(position, size);
+        return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        storage.force();
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        return storage.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(TRANSFER_BUFFER_SIZE, Math.max(1, count)));
+        long transferred = 0;
+        while (transferred < count) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), count - transferred));
+            if (src.read(buffer) <= 0) {
+                break;
+            }
+            buffer.flip();
+            storage.writeFully(position + transferred, buffer);
+            transferred += buffer.limit();
+        }
+        return transferred;
+    }
+
+    /**
+     * Mapping through the channel is not supported.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) {
+        throw new UnsupportedOperationException("Map the storage with HdfStorage.map instead");
+    }
+
+    /**
+     * Locking is not supported.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public FileLock lock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("Storage cannot be locked");
+    }
+
+    /**
+     * Locking is not supported.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("Storage cannot be locked");
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        storage.close();
+    }
+
+    public HdfStorage getStorage() {
+        return storage;
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Storage backends beneath HDF5 files.
+ * <p>
+ * The {@code org.hdf5javalib.storage} package defines {@link org.hdf5javalib.storage.HdfStorage},
+ * positional access to the bytes of a file, with implementations for file channels,
+ * memory-mapped files, off-heap in-memory images and arbitrary channels, and a channel view
+ * that lets any storage be used wherever the library takes a channel.
+ * </p>
+ */
+package org.hdf5javalib.storage;
@@ -186,6 +186,11 @@ public class FlattenedArrayUtils {
 
     /**
      * Reduces a multi-dimensional array along a specified axis using a binary operator.
+     * <p>
+     * The stream is consumed sequentially, since elements are mapped to coordinates in
+     * encounter order. For numeric datasets, {@link org.hdf5javalib.datasource.AxisReduction} computes
+     * the common reductions in parallel without boxing.
+     * </p>
      *
      * @param <T>     the type of elements in the stream and the resulting array
      * @param stream  the input stream of flattened values
@@ -221,7 +226,7 @@ public class FlattenedArrayUtils {
         int[] strides = computeStrides(shape);
         AtomicInteger index = new AtomicInteger(0);
 
-        stream.limit(totalSize).forEach(value -> {
+        stream.sequential().limit(totalSize).forEach(value -> {
             int flat = index.getAndIncrement();
             int[] coord = unflattenIndex(flat, strides, shape);
 
@@ -411,7 +416,8 @@ public class FlattenedArrayUtils {
      * Filters a flattened stream and writes non-null or non-zero values directly into a new
      * N-dimensional array.
      * <p>
-     * Only values matching the predicate are included; unmatched positions are null.
+     * Only values matching the predicate are included; unmatched positions are null. The
+     * stream is consumed sequentially, since flat indexes follow encounter order.
      * </p>
      *
      * @param <T>    the type of elements in the stream and the resulting array
@@ -428,7 +434,7 @@ public class FlattenedArrayUtils {
         int[] strides = computeStrides(shape);
         AtomicInteger index = new AtomicInteger(0);
 
-        stream.forEach(value -> {
+        stream.sequential().forEach(value -> {
             int flat = index.getAndIncrement();
             if (filter.test(value)) {
                 int[] coord = unflattenIndex(flat, strides, shape);
@@ -441,6 +447,11 @@ public class FlattenedArrayUtils {
 
     /**
      * Scans a flattened stream and collects matching values into a list of coordinate/value/flatIndex records.
+     * <p>
+     * The stream is consumed sequentially, since flat indexes follow encounter order. For
+     * numeric datasets, {@link org.hdf5javalib.analysis.PredicateScan} evaluates primitive
+     * predicates in parallel and returns the matching flat indexes without boxing.
+     * </p>
      *
      * @param <T>     the type of elements in the stream
      * @param stream  the input stream of values
@@ -455,7 +466,7 @@ public class FlattenedArrayUtils {
         AtomicInteger index = new AtomicInteger(0);
         List<MatchingEntry<T>> result = new ArrayList<>();
 
-        stream.forEach(value -> {
+        stream.sequential().forEach(value -> {
             int flat = index.getAndIncrement();
             if (filter.test(value)) {
                 int[] coord = unflattenIndex(flat, strides, shape);
@@ -0,0 +1,186 @@
+package org.hdf5javalib.allocation;
+
+import ch.qos.logback.classic.Level;
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.datasource.PrimitiveDecoder;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.examples.write.HdfFixedPointWrite;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.hdf5javalib.utils.HdfWriteUtils;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the hot paths stay within fixed heap allocation budgets.
+ * <p>
+ * A change that starts boxing elements, copying them into byte arrays or re-reading
+ * metadata per call shows up here as a failed build rather than as a slow benchmark
+ * nobody runs. The budgets are a few times the current figures, so JIT and JDK
+ * differences do not trip them, while an allocation per element or per byte does.
+ * </p>
+ */
+public class AllocationBudgetTest {
+    private static final Logger logger = LoggerFactory.getLogger(AllocationBudgetTest.class);
+
+    /** The number of doubles streamed through the primitive path. */
+    private static final int STREAMED_DOUBLES = 1 << 20;
+    /** The number of elements per block read on the primitive path. */
+    private static final int BLOCK_ELEMENTS = 8192;
+    /** The budget for streaming all the doubles, in bytes; the elements alone take 8 MiB. */
+    private static final long STREAM_BUDGET_BYTES = 32 * 1024;
+    /** The number of values decoded per fixed-point decoding run. */
+    private static final int DECODED_VALUES = 4096;
+    /** The number of datasets in the file opened by the open budget test. */
+    private static final int OPENED_DATASETS = 64;
+    /**
+     * The budget for opening a file, in bytes, before the per-dataset allowance. Opening the
+     * 64-dataset file measures about 300 KiB warm with debug logging off, against a budget of 800 KiB.
+     */
+    private static final long OPEN_BASE_BUDGET_BYTES = 32 * 1024;
+    /** The budget for opening a file, in bytes per dataset. */
+    private static final long OPEN_DATASET_BUDGET_BYTES = 12 * 1024;
+
+    /** Keeps decoded values alive so the decoding is not optimized away. */
+    private static long sink;
+
+    @Test
+    void testStreamingDoublesThroughPrimitivePath() throws IOException {
+        assumeTrue(AllocationMeter.isSupported(), "Thread allocation counting is not supported");
+        double[] values = new double[STREAMED_DOUBLES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 0.5;
+        }
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeDoubles(new int[]{STREAMED_DOUBLES}, values);
+        TypedDataSource<Double> source = HdfTestDataUtils.openDataSource(channel, Double.class);
+        PrimitiveDecoder decoder = PrimitiveDecoder.forDatatype(source.getDatatype());
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_ELEMENTS * decoder.getSize()).order(decoder.getByteOrder());
+        double[] decoded = new double[BLOCK_ELEMENTS];
+        double[] sum = new double[1];
+
+        long allocated = AllocationMeter.measure(() -> {
+            sum[0] = 0;
+            for (long first = 0; first < STREAMED_DOUBLES; first += BLOCK_ELEMENTS) {
+                block.clear();
+                source.readElements(first, block);
+                decoder.getDoubles(block, 0, BLOCK_ELEMENTS, decoded, 0);
+                for (double value : decoded) {
+                    sum[0] += value;
+                }
+            }
+        });
+        logger.info("Streaming {} doubles allocated {} bytes", STREAMED_DOUBLES, allocated);
+
+        assertEquals(0.5 * STREAMED_DOUBLES * (STREAMED_DOUBLES - 1L) / 2, sum[0]);
+        assertTrue(allocated <= STREAM_BUDGET_BYTES,
+                "Streaming " + STREAMED_DOUBLES + " doubles allocated " + allocated + " bytes, budget " + STREAM_BUDGET_BYTES);
+    }
+
+    @Test
+    void testFixedPointDecodingDoesNotAllocate() throws IOException {
+        assumeTrue(AllocationMeter.isSupported(), "Thread allocation counting is not supported");
+        Random random = new Random(17);
+        ByteBuffer encoded = ByteBuffer.allocate(DECODED_VALUES * 8).order(ByteOrder.LITTLE_ENDIAN);
+        while (encoded.hasRemaining()) {
+            encoded.put((byte) random.nextInt());
+        }
+        long[] decoded = new long[DECODED_VALUES];
+        FixedPointDatatype[] datatypes = {
+                HdfTestDataUtils.intType(1), HdfTestDataUtils.intType(2), HdfTestDataUtils.intType(4), HdfTestDataUtils.intType(8),
+                new FixedPointDatatype(FixedPointDatatype.createClassAndVersion(),
+                        FixedPointDatatype.createClassBitField(false, false, false, false), 4, (short) 3, (short) 20)
+        };
+
+        for (FixedPointDatatype datatype : datatypes) {
+            PrimitiveDecoder decoder = PrimitiveDecoder.forDatatype(datatype);
+            int size = datatype.getSize();
+            int count = encoded.capacity() / size;
+            byte[] element = new byte[size];
+
+            long perElement = AllocationMeter.measure(() -> {
+                long total = 0;
+                for (int i = 0; i < count; i++) {
+                    total += decoder.getLong(encoded, i * size);
+                }
+                sink += total;
+            });
+            assertEquals(0, perElement, "PrimitiveDecoder.getLong allocated for " + datatype);
+
+            long bulk = AllocationMeter.measure(() -> {
+                for (int first = 0; first < count; first += decoded.length) {
+                    decoder.getLongs(encoded, first * size, Math.min(decoded.length, count - first), decoded, 0);
+                }
+                sink += decoded[0];
+            });
+            assertEquals(0, bulk, "PrimitiveDecoder.getLongs allocated for " + datatype);
+
+            if (datatype.getBitOffset() == 0) {
+                long fromBytes = AllocationMeter.measure(() -> {
+                    long total = 0;
+                    for (int i = 0; i < count; i++) {
+                        encoded.get(i * size, element);
+                        total += datatype.toLong(element);
+                    }
+                    sink += total;
+                });
+                assertEquals(0, fromBytes, "FixedPointDatatype.toLong allocated for " + datatype);
+            }
+        }
+    }
+
+    @Test
+    void testOpeningFileStaysWithinBudget() throws IOException {
+        assumeTrue(AllocationMeter.isSupported(), "Thread allocation counting is not supported");
+        MemorySeekableByteChannel channel = writeDatasets(OPENED_DATASETS);
+        HdfFileReader[] reader = new HdfFileReader[1];
+
+        // Debug logging formats every parsed message, which would dwarf the reader's own allocation
+        ch.qos.logback.classic.Logger libraryLogger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger("org.hdf5javalib");
+        Level previous = libraryLogger.getLevel();
+        libraryLogger.setLevel(Level.INFO);
+        long allocated;
+        try {
+            allocated = AllocationMeter.measure(() -> {
+                channel.position(0);
+                reader[0] = new HdfFileReader(channel).readFile();
+            });
+        } finally {
+            libraryLogger.setLevel(previous);
+        }
+        logger.info("Opening a file with {} datasets allocated {} bytes", OPENED_DATASETS, allocated);
+
+        assertEquals(OPENED_DATASETS, reader[0].getRootGroup().getDataSets().size());
+        long budget = OPEN_BASE_BUDGET_BYTES + OPENED_DATASETS * OPEN_DATASET_BUDGET_BYTES;
+        assertTrue(allocated <= budget,
+                "Opening " + OPENED_DATASETS + " datasets allocated " + allocated + " bytes, budget " + budget);
+    }
+
+    private static MemorySeekableByteChannel writeDatasets(int count) throws IOException {
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(65536 + count * 1024);
+        HdfFile file = new HdfFile(channel);
+        HdfFixedPoint[] hdfDimensions = {HdfWriteUtils.hdfFixedPointFromValue(16, file.getFixedPointDatatypeForLength())};
+        for (int i = 0; i < count; i++) {
+            DataspaceMessage dataSpaceMessage = new DataspaceMessage(1, 1, DataspaceMessage.buildFlagSet(true, false),
+                    hdfDimensions, hdfDimensions, false, (byte) 0, HdfFixedPointWrite.computeDataSpaceMessageSize(hdfDimensions));
+            HdfDataSet dataset = file.createDataSet(String.format("dataset_%03d", i), HdfTestDataUtils.intType(8), dataSpaceMessage);
+            dataset.write(ByteBuffer.allocate(16 * 8));
+            dataset.close();
+        }
+        file.close();
+        return channel;
+    }
+}
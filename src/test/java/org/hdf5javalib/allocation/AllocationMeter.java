@@ -0,0 +1,81 @@
+package org.hdf5javalib.allocation;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the heap memory allocated by the current thread while running an operation.
+ * <p>
+ * The {@code AllocationMeter} class reads the per-thread allocation counter of the HotSpot
+ * {@link com.sun.management.ThreadMXBean}. Each operation is first run a few times so
+ * that class loading, lazy initialization and JIT compilation are not charged to it, and
+ * the smallest count of several measured runs is reported, which filters out the odd
+ * allocation made by the runtime on the same thread.
+ * </p>
+ */
+public class AllocationMeter {
+    /** The number of unmeasured runs before measuring. */
+    private static final int WARMUP_RUNS = 5;
+    /** The number of measured runs. */
+    private static final int MEASURED_RUNS = 5;
+
+    /**
+     * An operation whose allocation is measured.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        /**
+         * Runs the operation.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * Indicates whether the running JVM counts the memory allocated by each thread.
+     *
+     * @return true if allocations can be measured
+     */
+    public static boolean isSupported() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        com.sun.management.ThreadMXBean hotSpotMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!hotSpotMXBean.isThreadAllocatedMemorySupported()) {
+            return false;
+        }
+        if (!hotSpotMXBean.isThreadAllocatedMemoryEnabled()) {
+            hotSpotMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return true;
+    }
+
+    /**
+     * Measures the bytes allocated by one run of an operation.
+     *
+     * @param operation the operation to measure
+     * @return the smallest number of bytes allocated by a measured run
+     * @throws IOException if the operation fails
+     * @throws IllegalStateException if allocations cannot be measured
+     */
+    public static long measure(Operation operation) throws IOException {
+        if (!isSupported()) {
+            throw new IllegalStateException("Thread allocation counting is not supported by this JVM");
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            operation.run();
+        }
+        long smallest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long before = threadMXBean.getCurrentThreadAllocatedBytes();
+            operation.run();
+            long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+            smallest = Math.min(smallest, allocated);
+        }
+        return smallest;
+    }
+}
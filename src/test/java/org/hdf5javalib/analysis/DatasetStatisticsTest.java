@@ -0,0 +1,154 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetStatisticsTest {
+    private static final int[] SHAPE = {6, 50, 4};
+
+    private static double[] randomValues(int count, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextGaussian() * 10 + 1000;
+        }
+        return values;
+    }
+
+    private static DatasetStatistics statistics(double[] values, int[] shape) throws IOException {
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeDoubles(shape, values);
+        TypedDataSource<Double> source = HdfTestDataUtils.openDataSource(channel, Double.class);
+        return new DatasetStatistics(source, new ParallelBlockReader(source, 64, 4));
+    }
+
+    private static void assertSummary(double[] values, SummaryStatistics summary) {
+        double mean = Arrays.stream(values).average().orElse(Double.NaN);
+        double variance = Arrays.stream(values).map(v -> (v - mean) * (v - mean)).sum() / values.length;
+        assertEquals(values.length, summary.getCount());
+        assertEquals(Arrays.stream(values).min().getAsDouble(), summary.getMin());
+        assertEquals(Arrays.stream(values).max().getAsDouble(), summary.getMax());
+        assertEquals(Arrays.stream(values).sum(), summary.getSum(), 1e-6);
+        assertEquals(mean, summary.getMean(), 1e-9);
+        assertEquals(variance, summary.getVariance(), 1e-6);
+    }
+
+    @Test
+    void testSummaryMatchesNaive() throws IOException {
+        double[] values = randomValues(6 * 50 * 4, 7);
+        assertSummary(values, statistics(values, SHAPE).summarize());
+    }
+
+    @Test
+    void testSummaryAlongEachAxisMatchesNaive() throws IOException {
+        double[] values = randomValues(6 * 50 * 4, 11);
+        DatasetStatistics statistics = statistics(values, SHAPE);
+        for (int axis = 0; axis < SHAPE.length; axis++) {
+            int outer = 1;
+            for (int i = 0; i < axis; i++) outer *= SHAPE[i];
+            int inner = 1;
+            for (int i = axis + 1; i < SHAPE.length; i++) inner *= SHAPE[i];
+            List<SummaryStatistics> summaries = statistics.summarizeAlongAxis(axis);
+            assertEquals(outer * inner, summaries.size());
+            for (int o = 0; o < outer; o++) {
+                for (int in = 0; in < inner; in++) {
+                    double[] slice = new double[SHAPE[axis]];
+                    for (int a = 0; a < SHAPE[axis]; a++) {
+                        slice[a] = values[(o * SHAPE[axis] + a) * inner + in];
+                    }
+                    assertSummary(slice, summaries.get(o * inner + in));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testKahanSumAndNaNs() {
+        SummaryStatistics summary = new SummaryStatistics();
+        summary.accept(1e16);
+        for (int i = 0; i < 1000; i++) {
+            summary.accept(1.0);
+        }
+        summary.accept(-1e16);
+        summary.accept(Double.NaN);
+        assertEquals(1000.0, summary.getSum());
+        assertEquals(1002, summary.getCount());
+        assertEquals(1, summary.getNanCount());
+        assertTrue(Double.isNaN(new SummaryStatistics().getMean()));
+    }
+
+    @Test
+    void testMergeMatchesSequential() {
+        double[] values = randomValues(1000, 3);
+        SummaryStatistics sequential = new SummaryStatistics();
+        sequential.accept(values, 0, values.length);
+        SummaryStatistics left = new SummaryStatistics();
+        left.accept(values, 0, 337);
+        SummaryStatistics right = new SummaryStatistics();
+        right.accept(values, 337, values.length);
+        left.merge(right).merge(new SummaryStatistics());
+        assertEquals(sequential.getCount(), left.getCount());
+        assertEquals(sequential.getMean(), left.getMean(), 1e-9);
+        assertEquals(sequential.getVariance(), left.getVariance(), 1e-9);
+        assertEquals(sequential.getSum(), left.getSum(), 1e-9);
+    }
+
+    @Test
+    void testHistograms() throws IOException {
+        double[] values = new double[200];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        DatasetStatistics statistics = statistics(values, new int[]{values.length});
+
+        Histogram linear = statistics.histogram(Histogram.linear(0, 100, 10));
+        for (int bin = 0; bin < 9; bin++) {
+            assertEquals(10, linear.getCount(bin));
+        }
+        // 100 lands in the last bin, 101..199 overflow
+        assertEquals(11, linear.getCount(9));
+        assertEquals(99, linear.getOverflow());
+        assertEquals(0, linear.getUnderflow());
+
+        Histogram log = statistics.histogram(Histogram.logarithmic(1, 1000, 3));
+        assertEquals(1, log.getUnderflow());
+        assertArrayEquals(new long[]{9, 90, 100}, log.getCounts());
+        assertEquals(10.0, log.getBinLowerBound(1), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> Histogram.logarithmic(0, 10, 2));
+        assertThrows(IllegalArgumentException.class, () -> linear.merge(Histogram.linear(0, 100, 5)));
+    }
+
+    @Test
+    void testQuantileSketchAccuracy() throws IOException {
+        int n = 100_000;
+        double[] values = new double[n];
+        Random random = new Random(5);
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextDouble();
+        }
+        QuantileSketch sketch = statistics(values, new int[]{n}).quantileSketch(QuantileSketch.DEFAULT_K);
+        assertEquals(n, sketch.getCount());
+        assertTrue(sketch.getRetainedCount() < 1000, () -> "retained " + sketch.getRetainedCount());
+
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double[] quantiles = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99};
+        double[] estimates = sketch.getQuantiles(quantiles);
+        for (int i = 0; i < quantiles.length; i++) {
+            int rank = Math.abs(Arrays.binarySearch(sorted, estimates[i]));
+            assertEquals(quantiles[i], (double) rank / n, 0.02, "quantile " + quantiles[i]);
+        }
+        assertEquals(sorted[0], sketch.getQuantile(0));
+        assertEquals(sorted[n - 1], sketch.getQuantile(1));
+        assertEquals(0.5, sketch.getRank(sketch.getQuantile(0.5)), 0.02);
+    }
+}
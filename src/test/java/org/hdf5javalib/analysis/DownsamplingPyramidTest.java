@@ -0,0 +1,135 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DownsamplingPyramidTest {
+    private static final int[] SHAPE = {13, 10};
+    private static final int[] FACTORS = {2, 3};
+    private static final String NAME = "image";
+
+    private static double[] values() {
+        double[] values = new double[SHAPE[0] * SHAPE[1]];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i == 17 ? Double.NaN : (i * 37 % 101) - 50;
+        }
+        return values;
+    }
+
+    /** Pools a row-major grid the straightforward way, ignoring NaN. */
+    private static double[] naivePool(double[] values, int[] shape, PyramidBuilder.Pooling pooling) {
+        int rows = (shape[0] + FACTORS[0] - 1) / FACTORS[0];
+        int columns = (shape[1] + FACTORS[1] - 1) / FACTORS[1];
+        double[] pooled = new double[rows * columns];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                double sum = 0;
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                int count = 0;
+                for (int i = r * FACTORS[0]; i < Math.min(shape[0], (r + 1) * FACTORS[0]); i++) {
+                    for (int j = c * FACTORS[1]; j < Math.min(shape[1], (c + 1) * FACTORS[1]); j++) {
+                        double value = values[i * shape[1] + j];
+                        if (!Double.isNaN(value)) {
+                            sum += value;
+                            min = Math.min(min, value);
+                            max = Math.max(max, value);
+                            count++;
+                        }
+                    }
+                }
+                pooled[r * columns + c] = count == 0 ? Double.NaN
+                        : pooling == PyramidBuilder.Pooling.MEAN ? sum / count
+                        : pooling == PyramidBuilder.Pooling.MIN ? min : max;
+            }
+        }
+        return pooled;
+    }
+
+    private static TypedDataSource<Double> source() throws IOException {
+        return HdfTestDataUtils.openDataSource(HdfTestDataUtils.writeDoubles(SHAPE, values()), Double.class);
+    }
+
+    @Test
+    void testLevelsMatchNaivePooling() throws IOException {
+        for (PyramidBuilder.Pooling pooling : PyramidBuilder.Pooling.values()) {
+            // Small blocks and several partitions, so partitions split the first level's cells by slab
+            TypedDataSource<Double> source = source();
+            List<double[]> levels = new PyramidBuilder(source, new ParallelBlockReader(source, 40, 3), FACTORS, 2, pooling).compute();
+            double[] level1 = naivePool(values(), SHAPE, pooling);
+            // Pooling level 1 by the naive rule is exact for MIN and MAX; MEAN weighs cells by their counts
+            assertArrayEquals(level1, levels.get(0), 1e-12);
+            if (pooling != PyramidBuilder.Pooling.MEAN) {
+                assertArrayEquals(naivePool(level1, new int[]{7, 4}, pooling), levels.get(1), 0.0);
+            }
+        }
+    }
+
+    @Test
+    void testMeanOfCoarserLevelsIsExact() throws IOException {
+        double[] values = values();
+        double expected = 0;
+        int count = 0;
+        for (int i = 0; i < 4 * 9; i++) {
+            double value = values[(i / 9) * SHAPE[1] + i % 9];
+            if (!Double.isNaN(value)) {
+                expected += value;
+                count++;
+            }
+        }
+        List<double[]> levels = new PyramidBuilder(source(), FACTORS, 2, PyramidBuilder.Pooling.MEAN).compute();
+        assertEquals(expected / count, levels.get(1)[0], 1e-12);
+    }
+
+    @Test
+    void testWriteAndSelectLevels() throws IOException {
+        TypedDataSource<Double> source = source();
+        PyramidBuilder builder = new PyramidBuilder(source, FACTORS, 3, PyramidBuilder.Pooling.MAX);
+        assertArrayEquals(new int[]{2, 1}, builder.getLevelShape(3));
+
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(32768);
+        HdfFile file = new HdfFile(channel);
+        DoubleDataSets.write(file, NAME, SHAPE, values());
+        List<int[]> shapes = builder.write(file, NAME);
+        file.close();
+        assertEquals(3, shapes.size());
+
+        channel.position(0);
+        HdfFileReader reader = new HdfFileReader(channel).readFile();
+        DownsamplingPyramid pyramid = new DownsamplingPyramid(channel, reader, reader.getRootGroup(), NAME);
+        assertEquals(4, pyramid.getLevelCount());
+        assertArrayEquals(SHAPE, pyramid.getShape(0));
+        assertArrayEquals(new int[]{7, 4}, pyramid.getShape(1));
+        assertArrayEquals(new int[]{4, 2}, pyramid.getShape(2));
+        assertEquals("image_level2", pyramid.getDataSet(2).getDatasetName());
+
+        assertArrayEquals(naivePool(values(), SHAPE, PyramidBuilder.Pooling.MAX), pyramid.readLevel(1), 0.0);
+        assertArrayEquals(values(), pyramid.readLevel(0), 0.0);
+
+        assertEquals(3, pyramid.selectLevel(1, 1));
+        assertEquals(2, pyramid.selectLevel(3, 2));
+        assertEquals(1, pyramid.selectLevel(5, 3));
+        assertEquals(0, pyramid.selectLevel(8, 1));
+        assertThrows(IllegalArgumentException.class, () -> pyramid.selectLevel(1));
+        assertThrows(IllegalArgumentException.class, () -> new DownsamplingPyramid(channel, reader, reader.getRootGroup(), "missing"));
+    }
+
+    @Test
+    void testInvalidFactorsRejected() throws IOException {
+        TypedDataSource<Double> source = source();
+        assertThrows(IllegalArgumentException.class, () -> new PyramidBuilder(source, new int[]{1, 1}, 1, PyramidBuilder.Pooling.MEAN));
+        assertThrows(IllegalArgumentException.class, () -> new PyramidBuilder(source, new int[]{2}, 1, PyramidBuilder.Pooling.MEAN));
+        assertThrows(IllegalArgumentException.class, () -> new PyramidBuilder(source, new int[]{2, 0}, 1, PyramidBuilder.Pooling.MEAN));
+        assertThrows(IllegalArgumentException.class, () -> new PyramidBuilder(source, FACTORS, 0, PyramidBuilder.Pooling.MEAN));
+    }
+}
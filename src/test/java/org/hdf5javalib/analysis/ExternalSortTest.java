@@ -0,0 +1,112 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundMemberDatatype;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalSortTest {
+    private static final String SORTED = "sorted";
+
+    /** Sorts a source into a new in-memory file and returns the sorted dataset's raw bytes. */
+    private static ByteBuffer sortAndRead(ExternalSort sort, int bytes) throws IOException {
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(16384 + bytes);
+        HdfFile file = new HdfFile(channel);
+        sort.sort(file, SORTED);
+        file.close();
+        channel.position(0);
+        HdfFileReader reader = new HdfFileReader(channel).readFile();
+        TypedDataSource<Object> sorted = new TypedDataSource<>(channel, reader, reader.getRootGroup().findDataset(SORTED), Object.class);
+        assertEquals(1, sorted.getShape().length);
+        ByteBuffer data = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        sorted.readElements(0, data);
+        return data.flip();
+    }
+
+    @Test
+    void testLongsSortedAcrossManyRuns() throws IOException {
+        long[] values = IntStream.range(0, 1000).mapToLong(i -> (i * 7919L % 1009) - 500 + (i == 3 ? Long.MIN_VALUE : 0)).toArray();
+        TypedDataSource<Long> source = HdfTestDataUtils.openDataSource(HdfTestDataUtils.writeLongs(new int[]{20, 50}, values), Long.class);
+        ExternalSort sort = new ExternalSort(source, null, 37, null);
+        assertEquals(28, sort.getRunCount());
+
+        long[] sorted = new long[values.length];
+        sortAndRead(sort, values.length * 8).asLongBuffer().get(sorted);
+        long[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, sorted);
+    }
+
+    @Test
+    void testMoreRunsThanOneScratchFileHoldsMergeInPasses() throws IOException {
+        // 200 runs span several scratch files; 4500 runs need a second intermediate pass
+        for (int count : new int[]{800, 4500}) {
+            long[] values = IntStream.range(0, count).mapToLong(i -> (i * 7919L) % 4999 - 2500).toArray();
+            TypedDataSource<Long> source = HdfTestDataUtils.openDataSource(HdfTestDataUtils.writeLongs(new int[]{count}, values), Long.class);
+            int runRecords = count == 800 ? 4 : 1;
+            ExternalSort sort = new ExternalSort(source, null, runRecords, null);
+            assertEquals(count / runRecords, sort.getRunCount());
+            assertTrue(sort.getRunCount() > 2 * ExternalSort.MAX_MERGE_RUNS);
+
+            long[] sorted = new long[count];
+            sortAndRead(sort, count * 8).asLongBuffer().get(sorted);
+            long[] expected = values.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, sorted, "Records: " + count);
+        }
+    }
+
+    @Test
+    void testDoublesSortLikeDoubleCompare() throws IOException {
+        double[] values = {3.5, Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, -2.25, 1e300, Double.POSITIVE_INFINITY, -1e-300, 3.5, -7};
+        TypedDataSource<Double> source = HdfTestDataUtils.openDataSource(HdfTestDataUtils.writeDoubles(new int[]{values.length}, values), Double.class);
+        for (int runRecords : new int[]{3, values.length}) {
+            double[] sorted = new double[values.length];
+            sortAndRead(new ExternalSort(source, null, runRecords, null), values.length * 8).asDoubleBuffer().get(sorted);
+            double[] expected = values.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, sorted);
+        }
+    }
+
+    @Test
+    void testCompoundRecordsSortedStablyByMember() throws IOException {
+        CompoundDatatype datatype = new CompoundDatatype(CompoundDatatype.createClassAndVersion(), CompoundDatatype.createClassBitField((short) 2), 16, List.of(
+                new CompoundMemberDatatype("key", 0, 0, 0, new int[4], HdfTestDataUtils.intType(4)),
+                new CompoundMemberDatatype("id", 8, 0, 0, new int[4], HdfTestDataUtils.intType(8))));
+        int records = 500;
+        ByteBuffer data = ByteBuffer.allocate(records * 16).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < records; i++) {
+            data.putInt(i * 16, (i * 31) % 17 - 8).putLong(i * 16 + 8, i);
+        }
+        TypedDataSource<Object> source = HdfTestDataUtils.openDataSource(HdfTestDataUtils.writeDataset(datatype, new int[]{records}, data), Object.class);
+
+        ByteBuffer sorted = sortAndRead(new ExternalSort(source, "key", 64, null), records * 16);
+        boolean[] seen = new boolean[records];
+        for (int i = 0; i < records; i++) {
+            int key = sorted.getInt(i * 16);
+            long id = sorted.getLong(i * 16 + 8);
+            assertEquals((id * 31) % 17 - 8, key);
+            seen[(int) id] = true;
+            if (i > 0) {
+                int previousKey = sorted.getInt((i - 1) * 16);
+                assertTrue(previousKey < key || (previousKey == key && sorted.getLong((i - 1) * 16 + 8) < id));
+            }
+        }
+        assertTrue(IntStream.range(0, records).allMatch(i -> seen[i]));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort(source, "missing"));
+    }
+}
@@ -0,0 +1,135 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.examples.ResourceLoader;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundMemberDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.StringDatatype;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupByTest {
+    private static final int RECORDS = 2000;
+    private static final int RECORD_SIZE = 40;
+    private static final int STATIONS = 13;
+
+    private static StringDatatype stringType(int size, StringDatatype.PaddingType padding) {
+        return new StringDatatype(StringDatatype.createClassAndVersion(),
+                StringDatatype.createClassBitField(padding, StringDatatype.CharacterSet.ASCII), size);
+    }
+
+    private static int station(int record) {
+        return record * 7 % STATIONS;
+    }
+
+    private static double temperature(int record) {
+        return record % 50 == 0 ? Double.NaN : station(record) * 10 + record % 5;
+    }
+
+    /**
+     * Writes a table of station readings. Long station names carry stale bytes after their
+     * terminator in odd records, which must not split groups.
+     */
+    private static TypedDataSource<Object> readings() throws IOException {
+        CompoundDatatype datatype = new CompoundDatatype(CompoundDatatype.createClassAndVersion(), CompoundDatatype.createClassBitField((short) 5), RECORD_SIZE, List.of(
+                new CompoundMemberDatatype("station", 0, 0, 0, new int[4], HdfTestDataUtils.intType(4)),
+                new CompoundMemberDatatype("name", 4, 0, 0, new int[4], stringType(12, StringDatatype.PaddingType.NULL_TERMINATE)),
+                new CompoundMemberDatatype("code", 16, 0, 0, new int[4], stringType(4, StringDatatype.PaddingType.NULL_PAD)),
+                new CompoundMemberDatatype("temperature", 24, 0, 0, new int[4], HdfTestDataUtils.doubleType()),
+                new CompoundMemberDatatype("humidity", 32, 0, 0, new int[4], HdfTestDataUtils.intType(2))));
+        ByteBuffer data = ByteBuffer.allocate(RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < RECORDS; i++) {
+            int record = i * RECORD_SIZE;
+            data.putInt(record, station(i));
+            byte[] name = ("Station-" + station(i)).getBytes(StandardCharsets.US_ASCII);
+            data.put(record + 4, name);
+            if (i % 2 == 1) {
+                data.put(record + 4 + name.length + 1, (byte) 'x');
+            }
+            data.put(record + 16, ("S" + station(i)).getBytes(StandardCharsets.US_ASCII));
+            data.putDouble(record + 24, temperature(i));
+            data.putShort(record + 32, (short) (i % 100));
+        }
+        return HdfTestDataUtils.openDataSource(HdfTestDataUtils.writeDataset(datatype, new int[]{RECORDS}, data), Object.class);
+    }
+
+    @Test
+    void testGroupsMatchNaiveAggregation() throws IOException {
+        Map<Integer, double[]> expected = new LinkedHashMap<>();
+        for (int i = 0; i < RECORDS; i++) {
+            // records, temperature count, temperature sum, humidity minimum, humidity maximum
+            double[] group = expected.computeIfAbsent(station(i), s -> new double[]{0, 0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY});
+            group[0]++;
+            if (!Double.isNaN(temperature(i))) {
+                group[1]++;
+                group[2] += temperature(i);
+            }
+            group[3] = Math.min(group[3], i % 100);
+            group[4] = Math.max(group[4], i % 100);
+        }
+        TypedDataSource<Object> source = readings();
+        // Small blocks and several partitions, so partial tables are merged
+        ParallelBlockReader blockReader = new ParallelBlockReader(source, RECORD_SIZE * 64, 4);
+        for (String key : new String[]{"station", "name", "code"}) {
+            GroupBy.Result result = new GroupBy(source, blockReader, key, "temperature", "humidity").aggregate();
+            assertEquals(STATIONS, result.getGroupCount(), key);
+            String[] keys = result.getKeyStrings();
+            long[] records = result.getRecordCounts();
+            long[] temperatureCounts = result.getCounts("temperature");
+            double[] means = result.getMeans("temperature");
+            double[] mins = result.getMins("humidity");
+            double[] maxs = result.getMaxs("humidity");
+            int group = 0;
+            for (Map.Entry<Integer, double[]> entry : expected.entrySet()) {
+                int station = entry.getKey();
+                double[] values = entry.getValue();
+                String expectedKey = key.equals("station") ? String.valueOf(station) : key.equals("name") ? "Station-" + station : "S" + station;
+                assertEquals(expectedKey, keys[group]);
+                assertEquals((long) values[0], records[group]);
+                assertEquals((long) values[1], temperatureCounts[group]);
+                assertEquals(values[2] / values[1], means[group], 1e-9);
+                assertEquals(values[3], mins[group], 0.0);
+                assertEquals(values[4], maxs[group], 0.0);
+                group++;
+            }
+        }
+        assertArrayEquals(new long[]{0, 7, 1, 8}, Arrays.copyOf(new GroupBy(source, "station").aggregate().getKeyLongs(), 4));
+        assertThrows(IllegalStateException.class, () -> new GroupBy(source, "code").aggregate().getKeyLongs());
+        assertThrows(IllegalArgumentException.class, () -> new GroupBy(source, "temperature", "humidity"));
+        assertThrows(IllegalArgumentException.class, () -> new GroupBy(source, "station", "name"));
+    }
+
+    @Test
+    void testGroupByFixtureMember() throws IOException {
+        try (SeekableByteChannel channel = ResourceLoader.loadResourceAsChannel("compound_example.h5")) {
+            HdfFileReader reader = new HdfFileReader(channel).readFile();
+            TypedDataSource<Object> source = new TypedDataSource<>(channel, reader, reader.getRootGroup().findDataset("CompoundData"), Object.class);
+            GroupBy.Result result = new GroupBy(source, "int8_Val", "recordId").aggregate();
+            long total = 0;
+            for (long count : result.getRecordCounts()) {
+                total += count;
+            }
+            assertEquals(1000, total);
+            double sum = 0;
+            for (double value : result.getSums("recordId")) {
+                sum += value;
+            }
+            assertEquals(1000 * (1000 + 1999) / 2.0, sum, 0.0);
+            assertThrows(IllegalArgumentException.class, () -> result.getMeans("int8_Val"));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PredicateScanTest {
+    private static final int[] SHAPE = {10, 13, 7};
+    private static final int COUNT = 10 * 13 * 7;
+
+    private static long[] values() {
+        Random random = new Random(33);
+        long[] values = new long[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = random.nextInt(1000);
+        }
+        return values;
+    }
+
+    private static PredicateScan scan(long[] values) throws IOException {
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeLongs(SHAPE, values);
+        TypedDataSource<Long> source = HdfTestDataUtils.openDataSource(channel, Long.class);
+        return new PredicateScan(source, new ParallelBlockReader(source, 96, 4));
+    }
+
+    private static long[] naive(long[] values, LongPredicate predicate) {
+        return IntStream.range(0, values.length).filter(i -> predicate.test(values[i])).asLongStream().toArray();
+    }
+
+    @Test
+    void testFindMatchesNaive() throws IOException {
+        long[] values = values();
+        PredicateScan scan = scan(values);
+        assertArrayEquals(naive(values, v -> v % 7 == 0), scan.findLongs(v -> v % 7 == 0).getIndices());
+        assertArrayEquals(naive(values, v -> v > 900), scan.find(v -> v > 900).getIndices());
+        assertArrayEquals(naive(values, v -> v >= 100 && v <= 200), scan.findInRange(100, 200).getIndices());
+        assertEquals(naive(values, v -> v < 10).length, scan.count(v -> v < 10));
+        assertEquals(0, scan.find(v -> v < 0).size());
+    }
+
+    @Test
+    void testLazyCoordinates() throws IOException {
+        long[] values = values();
+        values[2 * 13 * 7 + 5 * 7 + 3] = -1;
+        ScanResult result = scan(values).findLongs(v -> v == -1);
+        assertEquals(1, result.size());
+        assertArrayEquals(new int[]{2, 5, 3}, result.getCoordinates(0));
+        int[] reused = new int[3];
+        assertSame(reused, result.getCoordinates(0, reused));
+        assertThrows(IllegalArgumentException.class, () -> result.getCoordinates(0, new int[2]));
+    }
+
+    @Test
+    void testBitmapMatchesIndices() throws IOException {
+        long[] values = values();
+        PredicateScan scan = scan(values);
+        BitSet bitmap = scan.bitmapLongs(v -> v % 3 == 1);
+        BitSet expected = new BitSet();
+        for (long index : naive(values, v -> v % 3 == 1)) {
+            expected.set((int) index);
+        }
+        assertEquals(expected, bitmap);
+        assertEquals(expected, scan.findLongs(v -> v % 3 == 1).toBitSet());
+        assertEquals(expected, scan.bitmap(v -> v % 3 == 1));
+    }
+}
@@ -0,0 +1,81 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.examples.ResourceLoader;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopKTest {
+    private static final int[] SHAPE = {40, 25};
+
+    /** Values with many ties and a few NaNs. */
+    private static double[] values() {
+        return IntStream.range(0, SHAPE[0] * SHAPE[1])
+                .mapToDouble(i -> i % 97 == 5 ? Double.NaN : (i * 7919 % 1000) / 10 - 50.0)
+                .toArray();
+    }
+
+    /** Ranks the indexes of the non-NaN values by value, ties by ascending index. */
+    private static int[] naiveRanking(double[] values, boolean smallest) {
+        Comparator<Integer> byValue = Comparator.comparingDouble(i -> values[i]);
+        return IntStream.range(0, values.length)
+                .filter(i -> !Double.isNaN(values[i]))
+                .boxed()
+                .sorted((smallest ? byValue : byValue.reversed()).thenComparing(Comparator.naturalOrder()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    @Test
+    void testLargestAndSmallestMatchFullSort() throws IOException {
+        double[] values = values();
+        TypedDataSource<Double> source = HdfTestDataUtils.openDataSource(HdfTestDataUtils.writeDoubles(SHAPE, values), Double.class);
+        // Small blocks and several partitions, so partition heaps are merged
+        TopK topK = new TopK(source, new ParallelBlockReader(source, 256, 4), null);
+        for (boolean smallest : new boolean[]{false, true}) {
+            int[] expected = naiveRanking(values, smallest);
+            TopK.Result result = smallest ? topK.smallest(50) : topK.largest(50);
+            assertEquals(50, result.size());
+            for (int rank = 0; rank < 50; rank++) {
+                assertEquals(expected[rank], result.getIndex(rank));
+                assertEquals(values[expected[rank]], result.getDouble(rank), 0.0);
+            }
+            assertArrayEquals(new int[]{expected[3] / SHAPE[1], expected[3] % SHAPE[1]}, result.getCoordinates(3));
+        }
+    }
+
+    @Test
+    void testKLargerThanDataset() throws IOException {
+        long[] values = {5, -3, 9, Long.MIN_VALUE, 9};
+        TypedDataSource<Long> source = HdfTestDataUtils.openDataSource(HdfTestDataUtils.writeLongs(new int[]{values.length}, values), Long.class);
+        TopK.Result result = new TopK(source).largest(10);
+        assertArrayEquals(new long[]{2, 4, 0, 1, 3}, result.getIndices());
+        assertEquals(Long.MIN_VALUE, result.getLong(4));
+        assertEquals(0, new TopK(source).smallest(0).size());
+        assertThrows(IllegalArgumentException.class, () -> new TopK(source).smallest(-1));
+    }
+
+    @Test
+    void testCompoundMemberKey() throws IOException {
+        try (SeekableByteChannel channel = ResourceLoader.loadResourceAsChannel("compound_example.h5")) {
+            HdfFileReader reader = new HdfFileReader(channel).readFile();
+            TypedDataSource<Object> source = new TypedDataSource<>(channel, reader, reader.getRootGroup().findDataset("CompoundData"), Object.class);
+            TopK.Result largest = new TopK(source, "recordId").largest(3);
+            assertArrayEquals(new long[]{999, 998, 997}, largest.getIndices());
+            assertEquals(1999L, largest.getLong(0));
+            TopK.Result smallest = new TopK(source, "recordId").smallest(2);
+            assertEquals(1000.0, smallest.getDouble(0), 0.0);
+            assertThrows(IllegalArgumentException.class, () -> new TopK(source, "missing"));
+            assertThrows(IllegalArgumentException.class, () -> new TopK(source, "fixedStr"));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.hdf5javalib.analysis;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.datasource.ParallelBlockReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.hdf5javalib.utils.HdfWriteUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZoneMapTest {
+    private static final int ROWS = 100;
+    private static final int COLUMNS = 10;
+    private static final int BLOCK_ELEMENTS = 50;
+
+    /** A slowly rising signal with a NaN, so that most blocks can be skipped by narrow ranges. */
+    private static double value(int index) {
+        return index == 123 ? Double.NaN : index / 10.0 + (index % 7);
+    }
+
+    /**
+     * Writes the dataset in 12-byte pieces, splitting elements, with a zone map built on write
+     * and stored as a companion dataset.
+     */
+    private static MemorySeekableByteChannel writeFile() throws IOException {
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(32768);
+        HdfFile file = new HdfFile(channel);
+        HdfFixedPoint[] hdfDimensions = {
+                HdfWriteUtils.hdfFixedPointFromValue(ROWS, file.getFixedPointDatatypeForLength()),
+                HdfWriteUtils.hdfFixedPointFromValue(COLUMNS, file.getFixedPointDatatypeForLength())
+        };
+        DataspaceMessage dataspace = new DataspaceMessage(1, 2, DataspaceMessage.buildFlagSet(true, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, (short) 40);
+        HdfDataSet dataset = file.createDataSet(HdfTestDataUtils.DATASET_NAME, HdfTestDataUtils.doubleType(), dataspace);
+        ZoneMap.Builder builder = new ZoneMap.Builder(dataset.getHdfDatatype(), BLOCK_ELEMENTS);
+        dataset.addWriteListener(builder);
+
+        ByteBuffer data = ByteBuffer.allocate(ROWS * COLUMNS * 8).order(ByteOrder.LITTLE_ENDIAN);
+        IntStream.range(0, ROWS * COLUMNS).forEach(i -> data.putDouble(value(i)));
+        data.flip();
+        dataset.write(() -> {
+            ByteBuffer piece = data.slice().limit(Math.min(12, data.remaining()));
+            data.position(data.position() + piece.remaining());
+            return piece;
+        });
+        dataset.close();
+        builder.build().writeDataSet(file, HdfTestDataUtils.DATASET_NAME + ZoneMap.COMPANION_SUFFIX);
+        file.close();
+        return channel;
+    }
+
+    private static void assertSameZones(ZoneMap expected, ZoneMap actual) {
+        assertEquals(expected.getBlockElements(), actual.getBlockElements());
+        assertEquals(expected.getElementCount(), actual.getElementCount());
+        assertEquals(expected.getBlockCount(), actual.getBlockCount());
+        for (int block = 0; block < expected.getBlockCount(); block++) {
+            assertEquals(expected.getMin(block), actual.getMin(block));
+            assertEquals(expected.getMax(block), actual.getMax(block));
+            assertEquals(expected.getNanCount(block), actual.getNanCount(block));
+        }
+    }
+
+    @Test
+    void testZoneMapBuiltOnWriteMatchesScan() throws IOException {
+        MemorySeekableByteChannel channel = writeFile();
+        channel.position(0);
+        HdfFileReader reader = new HdfFileReader(channel).readFile();
+        ZoneMap stored = ZoneMap.readDataSet(channel, reader,
+                reader.getRootGroup().findDataset(HdfTestDataUtils.DATASET_NAME + ZoneMap.COMPANION_SUFFIX));
+        TypedDataSource<Double> source = new TypedDataSource<>(channel, reader,
+                reader.getRootGroup().findDataset(HdfTestDataUtils.DATASET_NAME), Double.class);
+        ZoneMap scanned = ZoneMap.build(source, BLOCK_ELEMENTS, new ParallelBlockReader(source, 128, 3));
+
+        assertEquals(ROWS * COLUMNS / BLOCK_ELEMENTS, stored.getBlockCount());
+        assertEquals(1, stored.getNanCount(2));
+        assertEquals(0.0, stored.getMin(0));
+        assertSameZones(scanned, stored);
+    }
+
+    @Test
+    void testRangeScanSkipsBlocks() throws IOException {
+        MemorySeekableByteChannel channel = writeFile();
+        channel.position(0);
+        HdfFileReader reader = new HdfFileReader(channel).readFile();
+        ZoneMap zoneMap = ZoneMap.readDataSet(channel, reader,
+                reader.getRootGroup().findDataset(HdfTestDataUtils.DATASET_NAME + ZoneMap.COMPANION_SUFFIX));
+        TypedDataSource<Double> source = new TypedDataSource<>(channel, reader,
+                reader.getRootGroup().findDataset(HdfTestDataUtils.DATASET_NAME), Double.class);
+        PredicateScan scan = new PredicateScan(source, new ParallelBlockReader(source, 64, 4));
+
+        assertTrue(zoneMap.candidateBlocks(40, 45).length < zoneMap.getBlockCount() / 2);
+        assertArrayEquals(scan.findInRange(40, 45).getIndices(), scan.findInRange(40, 45, zoneMap).getIndices());
+        assertArrayEquals(scan.findInRange(90, 1000).getIndices(), scan.findInRange(90, 1000, zoneMap).getIndices());
+        assertEquals(0, scan.findInRange(-10, -1, zoneMap).size());
+        assertEquals(0, zoneMap.candidateBlocks(-10, -1).length);
+
+        ZoneMap other = new ZoneMap(BLOCK_ELEMENTS, 50, new double[1], new double[1], new long[1]);
+        assertThrows(IllegalArgumentException.class, () -> scan.findInRange(0, 1, other));
+    }
+
+    @Test
+    void testSidecarRoundTrip() throws IOException {
+        double[] values = IntStream.range(0, 1000).mapToDouble(ZoneMapTest::value).toArray();
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeDoubles(new int[]{values.length}, values);
+        ZoneMap zoneMap = ZoneMap.build(HdfTestDataUtils.openDataSource(channel, Double.class), 64);
+        assertEquals(16, zoneMap.getBlockCount());
+        assertEquals(1000 - 15 * 64, zoneMap.getBlockLength(15));
+
+        Path sidecar = Files.createTempFile("zonemap", ".bin");
+        try {
+            zoneMap.writeSidecar(sidecar);
+            assertSameZones(zoneMap, ZoneMap.readSidecar(sidecar));
+            Files.write(sidecar, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24});
+            assertThrows(IOException.class, () -> ZoneMap.readSidecar(sidecar));
+        } finally {
+            Files.deleteIfExists(sidecar);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.hdf5javalib.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AxisCellCursorTest {
+    private static final int[] SHAPE = {5, 7, 3};
+
+    private static int expectedCell(long element, int axis) {
+        long inner = 1;
+        for (int i = axis + 1; i < SHAPE.length; i++) inner *= SHAPE[i];
+        return (int) (element / (inner * SHAPE[axis]) * inner + element % inner);
+    }
+
+    @Test
+    void testCellsMatchCoordinatesForEveryPartition() {
+        int total = SHAPE[0] * SHAPE[1] * SHAPE[2];
+        for (int axis = 0; axis < SHAPE.length; axis++) {
+            long inner = 1;
+            for (int i = axis + 1; i < SHAPE.length; i++) inner *= SHAPE[i];
+            long slab = SHAPE[axis] * inner;
+            for (int first = 0; first < total; first += 4) {
+                for (int count = 1; first + count <= total; count += 9) {
+                    AxisCellCursor cursor = new AxisCellCursor(first, count, slab, inner);
+                    assertEquals(first / slab * inner, cursor.getBase());
+                    assertTrue(expectedCell(first + count - 1, axis) < cursor.getBase() + cursor.getCellCount());
+
+                    cursor.seek(first);
+                    for (long element = first; element < first + count; element++) {
+                        assertEquals(expectedCell(element, axis), cursor.getBase() + cursor.cell(), "element " + element + " axis " + axis);
+                        cursor.advance();
+                    }
+
+                    cursor.seek(first);
+                    for (long element = first; element < first + count; ) {
+                        int run = cursor.run((int) (first + count - element));
+                        for (int i = 0; i < run; i++) {
+                            assertEquals(expectedCell(element + i, axis), cursor.getBase() + cursor.cell());
+                        }
+                        cursor.advance(run);
+                        element += run;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testEmptyPartitionTouchesNoCells() {
+        AxisCellCursor cursor = new AxisCellCursor(42, 0, 21, 3);
+        assertEquals(0, cursor.getBase());
+        assertEquals(0, cursor.getCellCount());
+    }
+}
@@ -0,0 +1,116 @@
+package org.hdf5javalib.datasource;
+
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AxisReductionTest {
+    private static final int[] SHAPE = {5, 7, 3};
+
+    private static double[] naiveReduce(double[] values, int[] shape, int axis, AxisReduction.Reducer reducer) {
+        int outer = 1;
+        for (int i = 0; i < axis; i++) outer *= shape[i];
+        int inner = 1;
+        for (int i = axis + 1; i < shape.length; i++) inner *= shape[i];
+        double[] result = new double[outer * inner];
+        for (int o = 0; o < outer; o++) {
+            for (int in = 0; in < inner; in++) {
+                double sum = 0;
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                int count = 0;
+                for (int a = 0; a < shape[axis]; a++) {
+                    double value = values[(o * shape[axis] + a) * inner + in];
+                    sum += value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                    if (!Double.isNaN(value)) count++;
+                }
+                switch (reducer) {
+                    case SUM: result[o * inner + in] = sum; break;
+                    case MIN: result[o * inner + in] = min; break;
+                    case MAX: result[o * inner + in] = max; break;
+                    case MEAN: result[o * inner + in] = sum / shape[axis]; break;
+                    default: result[o * inner + in] = count;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void assertReductions(TypedDataSource<?> source, double[] values) throws IOException {
+        // Tiny blocks and several partitions so that blocks and partitions split rows and slabs
+        AxisReduction reduction = new AxisReduction(source, new ParallelBlockReader(source, 40, 4));
+        for (AxisReduction.Reducer reducer : AxisReduction.Reducer.values()) {
+            for (int axis = 0; axis < SHAPE.length; axis++) {
+                double[] expected = naiveReduce(values, SHAPE, axis, reducer);
+                double[] actual = reduction.reduce(axis, reducer).getValues();
+                assertEquals(expected.length, actual.length);
+                for (int i = 0; i < expected.length; i++) {
+                    assertEquals(expected[i], actual[i], 1e-9, reducer + " axis " + axis + " cell " + i);
+                }
+            }
+            double expectedAll = naiveReduce(values, new int[]{values.length}, 0, reducer)[0];
+            assertEquals(expectedAll, reduction.reduceAll(reducer), 1e-9, reducer + " all");
+        }
+    }
+
+    @Test
+    void testDoubleReductionsMatchNaive() throws IOException {
+        double[] values = new double[5 * 7 * 3];
+        Random random = new Random(31);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 200 - 100;
+        }
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeDoubles(SHAPE, values);
+        assertReductions(HdfTestDataUtils.openDataSource(channel, Double.class), values);
+    }
+
+    @Test
+    void testIntegerReductionsMatchNaive() throws IOException {
+        int[] ints = new int[5 * 7 * 3];
+        double[] values = new double[ints.length];
+        Random random = new Random(17);
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = random.nextInt(2001) - 1000;
+            values[i] = ints[i];
+        }
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeInts(SHAPE, ints);
+        assertReductions(HdfTestDataUtils.openDataSource(channel, Integer.class), values);
+    }
+
+    @Test
+    void testNaNHandling() throws IOException {
+        double[] values = new double[5 * 7 * 3];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        values[8] = Double.NaN;
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeDoubles(SHAPE, values);
+        TypedDataSource<Double> source = HdfTestDataUtils.openDataSource(channel, Double.class);
+        AxisReduction reduction = new AxisReduction(source, new ParallelBlockReader(source, 40, 4));
+
+        // Element 8 is (0, 2, 2): it poisons cell (0, 2) of an axis-1 SUM and is skipped by COUNT
+        AxisReduction.Result sum = reduction.reduce(1, AxisReduction.Reducer.SUM);
+        assertArrayEquals(new int[]{5, 3}, sum.getShape());
+        assertTrue(Double.isNaN(sum.getValue(0, 2)));
+        assertFalse(Double.isNaN(sum.getValue(0, 1)));
+        assertEquals(6.0, reduction.reduce(1, AxisReduction.Reducer.COUNT).getValue(0, 2));
+        assertEquals(values.length - 1, reduction.reduceAll(AxisReduction.Reducer.COUNT));
+        assertTrue(Double.isNaN(reduction.reduceAll(AxisReduction.Reducer.MAX)));
+    }
+
+    @Test
+    void testInvalidAxisRejected() throws IOException {
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeLongs(new int[]{4}, new long[]{1, 2, 3, 4});
+        TypedDataSource<Long> source = HdfTestDataUtils.openDataSource(channel, Long.class);
+        AxisReduction reduction = new AxisReduction(source);
+        assertEquals(10.0, reduction.reduceAll(AxisReduction.Reducer.SUM));
+        assertThrows(IllegalArgumentException.class, () -> reduction.reduce(1, AxisReduction.Reducer.SUM));
+    }
+}
@@ -0,0 +1,62 @@
+package org.hdf5javalib.datasource;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.examples.ResourceLoader;
+import org.hdf5javalib.examples.read.HdfCompoundReadTest;
+import org.hdf5javalib.file.HdfDataSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompoundCursorTest {
+
+    @Test
+    void testCursorMatchesPojoRead() throws IOException {
+        try (SeekableByteChannel channel = ResourceLoader.loadResourceAsChannel("compound_example.h5")) {
+            HdfFileReader reader = new HdfFileReader(channel).readFile();
+            HdfDataSet dataSet = reader.getRootGroup().findDataset("CompoundData");
+            TypedDataSource<HdfCompoundReadTest.CompoundExample> source =
+                    new TypedDataSource<>(channel, reader, dataSet, HdfCompoundReadTest.CompoundExample.class);
+            HdfCompoundReadTest.CompoundExample[] records = source.readVector();
+
+            // A block size that does not divide the record count
+            CompoundCursor cursor = new CompoundCursor(source, 0, records.length, 64);
+            int recordId = cursor.getMemberIndex("recordId");
+            int int32 = cursor.getMemberIndex("int32_Val");
+            int uint16 = cursor.getMemberIndex("uint16_Val");
+            assertThrows(IllegalStateException.class, () -> cursor.getLong(recordId));
+            int count = 0;
+            while (cursor.next()) {
+                HdfCompoundReadTest.CompoundExample record = records[count];
+                assertEquals(count, cursor.getRecordIndex());
+                assertEquals(record.getRecordId().longValue(), cursor.getLong(recordId));
+                assertEquals(record.getInt32_Val().longValue(), cursor.getLong(int32));
+                assertEquals(record.getUint16_Val().longValue(), cursor.getLong(uint16));
+                assertEquals(record.getInt8_Val().longValue(), cursor.getLong("int8_Val"));
+                if (count > 0) {
+                    assertEquals(record.getDoubleVal(), cursor.getDouble("doubleVal"));
+                }
+                if (count % 100 == 0) {
+                    assertEquals(record.getFixedStr(), cursor.getString("fixedStr"));
+                    assertEquals(record.getVarStr(), cursor.getString("varStr"));
+                }
+                count++;
+            }
+            assertEquals(records.length, count);
+            assertFalse(cursor.next());
+            assertThrows(IllegalArgumentException.class, () -> cursor.getMemberIndex("missing"));
+
+            // A cursor over a sub-range, rewound and read again
+            CompoundCursor range = new CompoundCursor(source, 500, 10, CompoundCursor.DEFAULT_BLOCK_RECORDS);
+            range.next();
+            range.next();
+            range.rewind();
+            assertTrue(range.next());
+            assertEquals(1500L, range.getLong("recordId"));
+            assertThrows(IllegalArgumentException.class, () -> range.getDouble("fixedStr"));
+        }
+    }
+}
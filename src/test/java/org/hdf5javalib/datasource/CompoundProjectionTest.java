@@ -0,0 +1,77 @@
+package org.hdf5javalib.datasource;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.examples.ResourceLoader;
+import org.hdf5javalib.examples.read.HdfCompoundReadTest;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundMemberDatatype;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompoundProjectionTest {
+
+    @Test
+    void testColumnsMatchPojoRead() throws IOException {
+        try (SeekableByteChannel channel = ResourceLoader.loadResourceAsChannel("compound_example.h5")) {
+            HdfFileReader reader = new HdfFileReader(channel).readFile();
+            HdfDataSet dataSet = reader.getRootGroup().findDataset("CompoundData");
+            TypedDataSource<HdfCompoundReadTest.CompoundExample> pojoSource =
+                    new TypedDataSource<>(channel, reader, dataSet, HdfCompoundReadTest.CompoundExample.class);
+            HdfCompoundReadTest.CompoundExample[] records = pojoSource.readVector();
+
+            TypedDataSource<HdfCompoundReadTest.CompoundExample> source =
+                    new TypedDataSource<>(channel, reader, dataSet, HdfCompoundReadTest.CompoundExample.class);
+            CompoundProjection projection = new CompoundProjection(source, new ParallelBlockReader(source, 4096, 4),
+                    "recordId", "doubleVal", "int16_Val", "floatVal");
+            long[] recordIds = projection.readLongs("recordId");
+            double[] doubles = projection.readDoubles("doubleVal");
+            double[][] columns = projection.readDoubleColumns();
+            assertEquals(records.length, recordIds.length);
+            // The first record stores zeros, which the POJO converters report as 2^-1023 and 2^-127
+            assertEquals(0.0, doubles[0]);
+            assertEquals(0.0, columns[3][0]);
+            assertEquals(records[0].getInt16_Val().doubleValue(), columns[2][0]);
+            for (int i = 1; i < records.length; i++) {
+                assertEquals(records[i].getRecordId().longValue(), recordIds[i]);
+                assertEquals(records[i].getDoubleVal(), doubles[i]);
+                assertEquals(records[i].getDoubleVal(), columns[1][i]);
+                assertEquals(records[i].getInt16_Val().doubleValue(), columns[2][i]);
+                assertEquals(records[i].getFloatVal().doubleValue(), columns[3][i]);
+            }
+            assertThrows(IllegalArgumentException.class, () -> projection.readLongs("int8_Val"));
+            assertThrows(IllegalArgumentException.class, () -> new CompoundProjection(source, "noSuchMember"));
+        }
+    }
+
+    @Test
+    void testStreamMembersDecodesOnlyProjection() throws IOException {
+        try (SeekableByteChannel channel = ResourceLoader.loadResourceAsChannel("compound_example.h5")) {
+            HdfFileReader reader = new HdfFileReader(channel).readFile();
+            HdfDataSet dataSet = reader.getRootGroup().findDataset("CompoundData");
+            TypedDataSource<HdfCompoundReadTest.CompoundExample> source =
+                    new TypedDataSource<>(channel, reader, dataSet, HdfCompoundReadTest.CompoundExample.class);
+
+            List<Object[]> rows = source.streamMembers("recordId", "fixedStr", "varStr").collect(Collectors.toList());
+            assertEquals(1000, rows.size());
+            assertEquals(1000L, rows.get(0)[0]);
+            assertEquals("FixedData", rows.get(0)[1]);
+            assertEquals("varStr:1", rows.get(0)[2]);
+            assertEquals(1999L, rows.get(999)[0]);
+
+            // Without a global heap, the variable-length member cannot be decoded, but an
+            // unprojected one is never looked at
+            CompoundMemberDatatype varStr = ((CompoundDatatype) source.getDatatype()).getMembers().stream()
+                    .filter(member -> member.getName().equals("varStr")).findFirst().orElseThrow();
+            varStr.setGlobalHeap(null);
+            long sum = source.streamMembers("recordId", "doubleVal").parallel().mapToLong(row -> (Long) row[0]).sum();
+            assertEquals(1000L * 1000 + 999L * 1000 / 2, sum);
+        }
+    }
+}
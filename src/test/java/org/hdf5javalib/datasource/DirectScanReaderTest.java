@@ -0,0 +1,139 @@
+package org.hdf5javalib.datasource;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectScanReaderTest {
+    private static final int NUM_RECORDS = 100_003;
+
+    /**
+     * Sums three-byte unsigned elements and checks that blocks arrive contiguously.
+     */
+    private static class Sum {
+        long total;
+        long nextElement;
+        int blocks;
+
+        Sum(long firstElement) {
+            this.nextElement = firstElement;
+        }
+
+        void visit(ByteBuffer block, long firstElement, int elementCount) {
+            assertEquals(nextElement, firstElement);
+            assertEquals(0, block.position());
+            assertEquals(elementCount * 3, block.remaining());
+            for (int i = 0; i < elementCount; i++) {
+                total += (block.get(i * 3) & 0xFF) | (block.get(i * 3 + 1) & 0xFF) << 8 | (block.get(i * 3 + 2) & 0xFF) << 16;
+            }
+            nextElement += elementCount;
+            blocks++;
+        }
+    }
+
+    private static long value(long index) {
+        return (index * 31) & 0xFFFFFF;
+    }
+
+    private static Path writeThreeByteFile() throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(NUM_RECORDS * 3).order(ByteOrder.LITTLE_ENDIAN);
+        for (long i = 0; i < NUM_RECORDS; i++) {
+            long value = value(i);
+            data.put((byte) value).put((byte) (value >> 8)).put((byte) (value >> 16));
+        }
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeDataset(HdfTestDataUtils.intType(3), new int[]{NUM_RECORDS}, data.flip());
+        ByteBuffer image = ByteBuffer.allocate((int) channel.size());
+        channel.read(image);
+        Path path = Files.createTempFile("direct-scan-", ".h5");
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            file.write(image.flip());
+        }
+        return path;
+    }
+
+    private static long expectedSum(long firstElement, long elementCount) {
+        long sum = 0;
+        for (long i = firstElement; i < firstElement + elementCount; i++) {
+            sum += value(i);
+        }
+        return sum;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"direct", "buffered"})
+    void testScanMatchesDataSource(String mode) throws IOException {
+        Path path = writeThreeByteFile();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            TypedDataSource<Object> source = HdfTestDataUtils.openDataSource(channel, Object.class);
+            assertEquals(3, source.getElementSize());
+            assertTrue(source.getDataAddress() > 0);
+            try (DirectScanReader reader = new DirectScanReader(path, source, 10_000, 3, mode.equals("direct"))) {
+                if (!reader.isDirect()) {
+                    assertEquals(1, reader.getAlignment());
+                } else {
+                    assertTrue(reader.getAlignment() >= 512);
+                }
+                Sum sum = reader.scan(new Sum(0), Sum::visit);
+                assertEquals(NUM_RECORDS, sum.nextElement);
+                assertEquals((NUM_RECORDS + reader.getBlockElements() - 1) / reader.getBlockElements(), sum.blocks);
+                assertEquals(expectedSum(0, NUM_RECORDS), sum.total);
+
+                long first = 4097;
+                long count = 55_555;
+                Sum range = reader.scan(first, count, new Sum(first), Sum::visit);
+                assertEquals(first + count, range.nextElement);
+                assertEquals(expectedSum(first, count), range.total);
+
+                assertEquals(0, reader.scan(NUM_RECORDS, 0, new Sum(NUM_RECORDS), Sum::visit).blocks);
+                assertThrows(IllegalArgumentException.class, () -> reader.scan(1, NUM_RECORDS, new Sum(1), Sum::visit));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testVisitorsAreSharedWithParallelBlockReader() throws IOException {
+        long[] values = new long[50_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 7L - 1000;
+        }
+        MemorySeekableByteChannel memory = HdfTestDataUtils.writeLongs(new int[]{values.length}, values);
+        ByteBuffer image = ByteBuffer.allocate((int) memory.size());
+        memory.read(image);
+        Path path = Files.createTempFile("direct-scan-", ".h5");
+        try {
+            Files.write(path, image.array());
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                HdfFileReader fileReader = new HdfFileReader(channel).readFile();
+                TypedDataSource<Long> source = new TypedDataSource<>(channel, fileReader,
+                        fileReader.getRootGroup().findDataset(HdfTestDataUtils.DATASET_NAME), Long.class);
+                ParallelBlockReader.BlockVisitor<long[]> visitor = (total, block, firstElement, elementCount) -> {
+                    for (int i = 0; i < elementCount; i++) {
+                        total[0] += block.getLong(i * 8);
+                    }
+                };
+                long parallel = new ParallelBlockReader(source).read((first, count) -> new long[1], visitor, (a, b) -> new long[]{a[0] + b[0]})[0];
+                try (DirectScanReader reader = new DirectScanReader(path, source)) {
+                    assertEquals(parallel, reader.scan(new long[1], visitor)[0]);
+                }
+                assertEquals(7L * values.length * (values.length - 1) / 2 - 1000L * values.length, parallel);
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
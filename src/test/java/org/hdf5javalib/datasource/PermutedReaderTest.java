@@ -0,0 +1,64 @@
+package org.hdf5javalib.datasource;
+
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PermutedReaderTest {
+
+    @Test
+    void testTransposeMatchesNaive() throws IOException {
+        int rows = 37;
+        int cols = 150;
+        double[] values = new double[rows * cols];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 0.5;
+        }
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeDoubles(new int[]{rows, cols}, values);
+        PermutedReader reader = new PermutedReader(HdfTestDataUtils.openDataSource(channel, Double.class), 3, 4);
+
+        assertArrayEquals(new int[]{cols, rows}, reader.getPermutedShape(1, 0));
+        double[] transposed = reader.readDoubles(1, 0);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                assertEquals(values[r * cols + c], transposed[c * rows + r]);
+            }
+        }
+        assertArrayEquals(values, reader.readDoubles(0, 1));
+        double[][] columns = reader.readTransposedMatrix();
+        assertEquals(cols, columns.length);
+        assertEquals(values[5 * cols + 70], columns[70][5]);
+    }
+
+    @Test
+    void testAllTensorPermutationsMatchNaive() throws IOException {
+        int[] shape = {4, 5, 6};
+        long[] values = new long[4 * 5 * 6];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeLongs(shape, values);
+        PermutedReader reader = new PermutedReader(HdfTestDataUtils.openDataSource(channel, Long.class), 2, 4);
+
+        int[][] orders = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        for (int[] order : orders) {
+            int[] permuted = reader.getPermutedShape(order);
+            long[] result = reader.readLongs(order);
+            int[] coordinates = new int[3];
+            for (int i = 0; i < values.length; i++) {
+                coordinates[0] = i / 30;
+                coordinates[1] = i / 6 % 5;
+                coordinates[2] = i % 6;
+                int output = (coordinates[order[0]] * permuted[1] + coordinates[order[1]]) * permuted[2] + coordinates[order[2]];
+                assertEquals(values[i], result[output]);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> reader.readLongs(0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> reader.readLongs(0, 1));
+        assertThrows(IllegalArgumentException.class, reader::readTransposedMatrix);
+    }
+}
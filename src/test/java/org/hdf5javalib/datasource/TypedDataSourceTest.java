@@ -0,0 +1,40 @@
+package org.hdf5javalib.datasource;
+
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.examples.write.HdfFixedPointWrite;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.hdf5javalib.utils.HdfWriteUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TypedDataSourceTest {
+
+    @Test
+    void testFlattenedStreamsCoverMoreThanTwoBillionElements() throws IOException {
+        // The element count overflows an int; nothing is read, so the data block is never written
+        int[] shape = {65536, 65537};
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(16384);
+        HdfFile file = new HdfFile(channel);
+        HdfFixedPoint[] hdfDimensions = {
+                HdfWriteUtils.hdfFixedPointFromValue(shape[0], file.getFixedPointDatatypeForLength()),
+                HdfWriteUtils.hdfFixedPointFromValue(shape[1], file.getFixedPointDatatypeForLength())};
+        DataspaceMessage dataSpaceMessage = new DataspaceMessage(1, 2, DataspaceMessage.buildFlagSet(true, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, HdfFixedPointWrite.computeDataSpaceMessageSize(hdfDimensions));
+        HdfDataSet dataset = file.createDataSet(HdfTestDataUtils.DATASET_NAME, HdfTestDataUtils.intType(1), dataSpaceMessage);
+        dataset.close();
+        file.close();
+
+        TypedDataSource<Byte> source = HdfTestDataUtils.openDataSource(channel, Byte.class);
+        long expected = 65536L * 65537L;
+        assertEquals(expected, source.getElementCount());
+        assertEquals(expected, source.streamFlattened().spliterator().getExactSizeIfKnown());
+        assertEquals(expected, source.parallelStreamFlattened().spliterator().getExactSizeIfKnown());
+    }
+}
@@ -1,5 +1,7 @@
 package org.hdf5javalib.examples;
 
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
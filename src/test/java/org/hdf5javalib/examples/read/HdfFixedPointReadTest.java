@@ -17,6 +17,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -193,6 +194,17 @@ public class HdfFixedPointReadTest {
                     .map(bd -> bd.setScale(2, RoundingMode.HALF_UP))
                     .toArray(BigDecimal[]::new);
             assertArrayEquals(WEATHER_MAX_EXPECTED, actualReduced);
+
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try {
+                for (int round = 0; round < 20; round++) {
+                    BigDecimal[] parallelReduced = (BigDecimal[]) pool.submit(() -> FlattenedArrayUtils.reduceAlongAxis(
+                            dataSource.parallelStreamFlattened(), dataSource.getShape(), 0, BigDecimal::max, BigDecimal.class)).join();
+                    assertArrayEquals(reduced, parallelReduced);
+                }
+            } finally {
+                pool.shutdown();
+            }
         }
     }
 
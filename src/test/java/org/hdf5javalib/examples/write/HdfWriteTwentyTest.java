@@ -1,12 +1,12 @@
 package org.hdf5javalib.examples.write;
 
 import org.hdf5javalib.dataclass.HdfFixedPoint;
-import org.hdf5javalib.examples.MemorySeekableByteChannel;
 import org.hdf5javalib.examples.ResourceLoader;
 import org.hdf5javalib.file.HdfDataSet;
 import org.hdf5javalib.file.HdfFile;
 import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
 import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
 import org.hdf5javalib.utils.HdfTestWriteUtils;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -2,12 +2,12 @@ package org.hdf5javalib.examples.write;
 
 import org.hdf5javalib.HdfDataFile;
 import org.hdf5javalib.dataclass.HdfFixedPoint;
-import org.hdf5javalib.examples.MemorySeekableByteChannel;
 import org.hdf5javalib.examples.ResourceLoader;
 import org.hdf5javalib.file.HdfDataSet;
 import org.hdf5javalib.file.HdfFile;
 import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
 import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
 import org.hdf5javalib.utils.CsvReader;
 import org.hdf5javalib.utils.HdfDisplayUtils;
 import org.hdf5javalib.utils.HdfTestWriteUtils;
@@ -0,0 +1,112 @@
+package org.hdf5javalib.file;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FreeSpaceManagerTest {
+
+    @Test
+    void testFreeCoalescesNeighbours() {
+        FreeSpaceManager manager = new FreeSpaceManager();
+        manager.free(100, 50);
+        manager.free(200, 50);
+        assertEquals(2, manager.getExtentCount());
+        manager.free(150, 50);
+        assertEquals(1, manager.getExtentCount());
+        assertEquals(150, manager.getFreeBytes());
+        List<long[]> extents = manager.getFreeExtents();
+        assertArrayEquals(new long[]{100, 150}, extents.get(0));
+    }
+
+    @Test
+    void testDoubleFreeRejected() {
+        FreeSpaceManager manager = new FreeSpaceManager();
+        manager.free(100, 50);
+        assertThrows(IllegalStateException.class, () -> manager.free(120, 10));
+        assertThrows(IllegalStateException.class, () -> manager.free(90, 20));
+    }
+
+    @Test
+    void testBestFitChoosesSmallestExtent() {
+        FreeSpaceManager manager = new FreeSpaceManager();
+        manager.free(0, 1000);
+        manager.free(2000, 100);
+        manager.free(3000, 300);
+        assertEquals(3000, manager.allocate(200, 1));
+        assertEquals(2000, manager.allocate(100, 1));
+        assertEquals(0, manager.allocate(500, 1));
+        assertEquals(3200, manager.allocate(100, 1));
+        assertEquals(-1, manager.allocate(600, 1));
+        assertEquals(500, manager.getFreeBytes());
+    }
+
+    @Test
+    void testLowestAddressFit() {
+        FreeSpaceManager manager = new FreeSpaceManager(FreeSpaceManager.FitPolicy.LOWEST_ADDRESS);
+        manager.free(5000, 100);
+        manager.free(1000, 1000);
+        assertEquals(1000, manager.allocate(50, 1));
+        assertEquals(1050, manager.allocate(50, 1));
+    }
+
+    @Test
+    void testAlignedFitReturnsHeadToFreeList() {
+        FreeSpaceManager manager = new FreeSpaceManager();
+        manager.free(100, 100);
+        manager.free(1000, 5000);
+        // Only the larger extent holds 64 bytes at a 4096 boundary
+        assertEquals(4096, manager.allocate(64, 4096));
+        assertEquals(3, manager.getExtentCount());
+        assertEquals(5100 - 64, manager.getFreeBytes());
+        // The remaining head and tail still coalesce when the block comes back
+        manager.free(4096, 64);
+        assertEquals(2, manager.getExtentCount());
+        assertEquals(5000, manager.getLargestExtentSize());
+    }
+
+    private static long expectedFit(List<long[]> extents, long size, long alignment, FreeSpaceManager.FitPolicy fitPolicy) {
+        long[] chosen = null;
+        for (long[] extent : extents) {
+            long aligned = HdfFileAllocation.alignUp(extent[0], alignment);
+            if (aligned + size > extent[0] + extent[1]) {
+                continue;
+            }
+            if (chosen == null || (fitPolicy == FreeSpaceManager.FitPolicy.BEST_FIT && extent[1] < chosen[1])) {
+                chosen = extent;
+            }
+        }
+        return chosen == null ? -1 : HdfFileAllocation.alignUp(chosen[0], alignment);
+    }
+
+    @Test
+    void testSearchesMatchExhaustiveScan() {
+        for (FreeSpaceManager.FitPolicy fitPolicy : FreeSpaceManager.FitPolicy.values()) {
+            Random random = new Random(11);
+            FreeSpaceManager manager = new FreeSpaceManager(fitPolicy);
+            List<long[]> allocated = new ArrayList<>();
+            for (long offset = 0; offset < 2_000_000; offset += 1000) {
+                manager.free(offset, 1 + random.nextInt(900));
+            }
+            for (int i = 0; i < 5000; i++) {
+                if (!allocated.isEmpty() && random.nextInt(3) == 0) {
+                    long[] block = allocated.remove(random.nextInt(allocated.size()));
+                    manager.free(block[0], block[1]);
+                    continue;
+                }
+                long size = 1 + random.nextInt(1200);
+                long alignment = 1L << random.nextInt(9);
+                long expected = expectedFit(manager.getFreeExtents(), size, alignment, fitPolicy);
+                long offset = manager.allocate(size, alignment);
+                assertEquals(expected, offset, fitPolicy + " allocation of " + size + " aligned to " + alignment);
+                if (offset >= 0) {
+                    allocated.add(new long[]{offset, size});
+                }
+            }
+        }
+    }
+}
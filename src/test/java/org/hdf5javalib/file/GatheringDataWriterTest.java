@@ -0,0 +1,97 @@
+package org.hdf5javalib.file;
+
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GatheringDataWriterTest {
+    private static final int DATA_SIZE = 100_003;
+
+    private static byte[] expectedData() {
+        byte[] data = new byte[DATA_SIZE];
+        for (int i = 0; i < DATA_SIZE; i++) {
+            data[i] = (byte) (i * 31 + 7);
+        }
+        return data;
+    }
+
+    private static void writeInChunks(GatheringDataWriter writer, byte[] data) throws IOException {
+        // Reuse one heap buffer the way the example suppliers do
+        ByteBuffer chunk = ByteBuffer.allocate(1000);
+        int offset = 0;
+        while (offset < data.length) {
+            int count = Math.min(chunk.capacity(), data.length - offset);
+            chunk.clear();
+            chunk.put(data, offset, count).flip();
+            writer.write(chunk);
+            assertFalse(chunk.hasRemaining());
+            offset += count;
+        }
+    }
+
+    private static byte[] writeToFile(boolean doubleBuffering) throws IOException {
+        Path file = Files.createTempFile("gathering", ".bin");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.position(16);
+                try (GatheringDataWriter writer = new GatheringDataWriter(channel, new DirectBufferPool(4096, 4), 3, doubleBuffering)) {
+                    writeInChunks(writer, expectedData());
+                }
+            }
+            byte[] written = Files.readAllBytes(file);
+            byte[] data = new byte[written.length - 16];
+            System.arraycopy(written, 16, data, 0, data.length);
+            return data;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testGatheringChannel() throws IOException {
+        assertArrayEquals(expectedData(), writeToFile(false));
+    }
+
+    @Test
+    void testGatheringChannelDoubleBuffered() throws IOException {
+        assertArrayEquals(expectedData(), writeToFile(true));
+    }
+
+    @Test
+    void testPlainChannelDoubleBuffered() throws IOException {
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(DATA_SIZE);
+        try (GatheringDataWriter writer = new GatheringDataWriter(channel, new DirectBufferPool(4096, 4), 2, true)) {
+            writeInChunks(writer, expectedData());
+            writer.flush();
+            assertEquals(DATA_SIZE, channel.position());
+        }
+        assertArrayEquals(expectedData(), channel.toByteArray());
+    }
+
+    @Test
+    void testClosedWriterRejectsWrites() throws IOException {
+        SeekableByteChannel channel = new MemorySeekableByteChannel(16);
+        GatheringDataWriter writer = new GatheringDataWriter(channel, 1, false);
+        writer.close();
+        assertThrows(IOException.class, () -> writer.write(ByteBuffer.allocate(1)));
+    }
+
+    @Test
+    void testPoolReusesAlignedBuffers() {
+        DirectBufferPool pool = new DirectBufferPool(4096, 512, 1);
+        ByteBuffer buffer = pool.acquire();
+        assertTrue(buffer.isDirect());
+        assertEquals(4096, buffer.capacity());
+        pool.release(buffer);
+        assertSame(buffer, pool.acquire());
+    }
+}
@@ -0,0 +1,105 @@
+package org.hdf5javalib.file;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HdfAllocationPolicyTest {
+    private static final int DATASET_COUNT = 40;
+
+    private static HdfFileAllocation allocateDatasets(HdfAllocationPolicy policy) {
+        HdfFileAllocation allocation = new HdfFileAllocation(policy);
+        for (int i = 0; i < DATASET_COUNT; i++) {
+            String name = "dataset_" + i;
+            allocation.allocateDatasetStorage(name);
+            if (i % 8 == 0) {
+                allocation.allocateNextSnodStorage();
+            }
+            allocation.allocateAndSetDataBlock(name, i % 10 == 9 ? 10_000 : 12);
+        }
+        return allocation;
+    }
+
+    private static void assertNoOverlaps(HdfFileAllocation allocation) {
+        List<HdfFileAllocation.AllocationRecord> records = new ArrayList<>(allocation.getAllAllocationRecords());
+        records.removeIf(record -> record.getSize() == 0);
+        records.sort(Comparator.comparingLong(HdfFileAllocation.AllocationRecord::getOffset));
+        for (int i = 1; i < records.size(); i++) {
+            HdfFileAllocation.AllocationRecord previous = records.get(i - 1);
+            assertTrue(previous.getOffset() + previous.getSize() <= records.get(i).getOffset(),
+                    previous.getName() + " overlaps " + records.get(i).getName());
+        }
+        HdfFileAllocation.AllocationRecord last = records.get(records.size() - 1);
+        assertTrue(last.getOffset() + last.getSize() <= allocation.getEndOfFileOffset());
+    }
+
+    private static int countDataRuns(HdfFileAllocation allocation) {
+        List<HdfFileAllocation.AllocationRecord> records = new ArrayList<>(allocation.getAllAllocationRecords());
+        records.removeIf(record -> record.getSize() == 0);
+        records.sort(Comparator.comparingLong(HdfFileAllocation.AllocationRecord::getOffset));
+        int runs = 0;
+        boolean inData = false;
+        for (HdfFileAllocation.AllocationRecord record : records) {
+            boolean isData = record.getType() == HdfFileAllocation.AllocationType.DATASET_DATA;
+            if (isData && !inData) {
+                runs++;
+            }
+            inData = isData;
+        }
+        return runs;
+    }
+
+    @Test
+    void testDefaultPolicyKeepsReferenceLayout() {
+        HdfFileAllocation allocation = new HdfFileAllocation(HdfAllocationPolicy.defaultPolicy());
+        allocation.allocateDatasetStorage("byte");
+        allocation.allocateNextSnodStorage();
+        allocation.allocateAndSetDataBlock("byte", 1);
+        allocation.allocateDatasetStorage("short");
+        allocation.allocateAndSetDataBlock("short", 2);
+        allocation.allocateDatasetStorage("integer");
+        allocation.allocateAndSetDataBlock("integer", 4);
+        allocation.allocateDatasetStorage("long");
+        allocation.allocateAndSetDataBlock("long", 8);
+        assertEquals(4368, allocation.getEndOfFileOffset());
+
+        HdfFileAllocation.PaddingReport report = allocation.getPaddingReport();
+        assertEquals(4368, report.getFileSize());
+        assertEquals(report.getFileSize() - report.getAllocatedBytes(), report.getPaddingBytes());
+        assertTrue(report.getGapCount() > 0);
+    }
+
+    @Test
+    void testPackedPolicyAlignsDataAndGroupsMetadata() {
+        HdfAllocationPolicy packed = HdfAllocationPolicy.packedPolicy(4096, 8192, 4096);
+        HdfFileAllocation allocation = allocateDatasets(packed);
+        assertNoOverlaps(allocation);
+        for (int i = 0; i < DATASET_COUNT; i++) {
+            HdfFileAllocation.AllocationRecord data = allocation.getDatasetAllocationInfo("dataset_" + i)
+                    .get(HdfFileAllocation.AllocationType.DATASET_DATA);
+            long alignment = packed.getDataAlignment(data.getSize());
+            assertEquals(0, data.getOffset() % alignment, "dataset_" + i + " at " + data.getOffset());
+        }
+
+        HdfFileAllocation reference = allocateDatasets(HdfAllocationPolicy.defaultPolicy());
+        assertNoOverlaps(reference);
+        assertTrue(countDataRuns(allocation) < countDataRuns(reference),
+                countDataRuns(allocation) + " vs " + countDataRuns(reference));
+
+        HdfFileAllocation.PaddingReport report = allocation.getPaddingReport();
+        assertEquals(reference.getPaddingReport().getAllocatedBytes(), report.getAllocatedBytes());
+        assertEquals(report.getFileSize() - report.getAllocatedBytes(), report.getPaddingBytes());
+        assertTrue(report.getReusableBytes() > 0 && report.getReusableBytes() < packed.getMetadataAggregationSize(), report.toString());
+    }
+
+    @Test
+    void testInvalidPolicyRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HdfAllocationPolicy(400, 2048, 2048, 1, 1, Long.MAX_VALUE, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HdfAllocationPolicy(800, 700, 2048, 1, 1, Long.MAX_VALUE, 0));
+        assertThrows(IllegalArgumentException.class, () -> HdfAllocationPolicy.packedPolicy(3000, 8192, 4096));
+    }
+}
@@ -0,0 +1,127 @@
+package org.hdf5javalib.file;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.dataobject.message.DataLayoutMessage;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfDisplayUtils;
+import org.hdf5javalib.utils.HdfWriteUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HdfCompactLayoutTest {
+    private static final int SCALAR_COUNT = 20;
+    private static final int SMALL_VECTOR_LENGTH = 6;
+    private static final int LARGE_VECTOR_LENGTH = 100;
+
+    private static FixedPointDatatype longDatatype() {
+        return new FixedPointDatatype(
+                FixedPointDatatype.createClassAndVersion(),
+                FixedPointDatatype.createClassBitField(false, false, false, true),
+                (short) 8, (short) 0, (short) 64);
+    }
+
+    private static DataspaceMessage vectorDataspace(HdfFile file, int length) {
+        HdfFixedPoint[] hdfDimensions = {HdfWriteUtils.hdfFixedPointFromValue(length, file.getFixedPointDatatypeForLength())};
+        return new DataspaceMessage(1, 1, DataspaceMessage.buildFlagSet(true, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, (short) 24);
+    }
+
+    private static MemorySeekableByteChannel writeFile() throws IOException {
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(16384);
+        HdfFile file = new HdfFile(channel, HdfAllocationPolicy.defaultPolicy().withCompactDataThreshold(64));
+
+        HdfFixedPoint[] scalarDimensions = {};
+        DataspaceMessage scalarDataspace = new DataspaceMessage(1, 0, DataspaceMessage.buildFlagSet(false, false),
+                scalarDimensions, scalarDimensions, false, (byte) 0, (short) 8);
+        for (int i = 0; i < SCALAR_COUNT; i++) {
+            HdfDataSet dataset = file.createDataSet("scalar_" + i, longDatatype(), scalarDataspace);
+            dataset.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(i * 1000L).flip());
+            dataset.close();
+        }
+
+        HdfDataSet small = file.createDataSet("small", longDatatype(), vectorDataspace(file, SMALL_VECTOR_LENGTH));
+        HdfDisplayUtils.writeVersionAttribute(file, small);
+        AtomicInteger counter = new AtomicInteger();
+        small.write(() -> {
+            int count = counter.getAndIncrement();
+            return count < SMALL_VECTOR_LENGTH
+                    ? ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(-count).flip()
+                    : ByteBuffer.allocate(0);
+        });
+        small.close();
+
+        HdfDataSet large = file.createDataSet("large", longDatatype(), vectorDataspace(file, LARGE_VECTOR_LENGTH));
+        ByteBuffer largeData = ByteBuffer.allocate(LARGE_VECTOR_LENGTH * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < LARGE_VECTOR_LENGTH; i++) {
+            largeData.putLong(i * 3L);
+        }
+        large.write(largeData.flip());
+        large.close();
+
+        HdfFileAllocation allocation = file.getFileAllocation();
+        assertNull(allocation.getDatasetAllocationInfo("scalar_0").get(HdfFileAllocation.AllocationType.DATASET_DATA));
+        assertNull(allocation.getDatasetAllocationInfo("small").get(HdfFileAllocation.AllocationType.DATASET_DATA));
+        assertNotNull(allocation.getDatasetAllocationInfo("large").get(HdfFileAllocation.AllocationType.DATASET_DATA));
+        file.close();
+        return channel;
+    }
+
+    @Test
+    void testCompactDatasetsRoundTrip() throws IOException {
+        MemorySeekableByteChannel channel = writeFile();
+        channel.position(0);
+        HdfFileReader reader = new HdfFileReader(channel).readFile();
+
+        for (int i = 0; i < SCALAR_COUNT; i++) {
+            HdfDataSet dataset = reader.getRootGroup().findDataset("scalar_" + i);
+            assertTrue(dataset.getDataObjectHeaderPrefix().findMessageByType(DataLayoutMessage.class).orElseThrow().isCompact());
+            assertEquals(i * 1000L, new TypedDataSource<>(channel, reader, dataset, Long.class).readScalar());
+        }
+        Long[] small = new TypedDataSource<>(channel, reader, reader.getRootGroup().findDataset("small"), Long.class).readVector();
+        for (int i = 0; i < SMALL_VECTOR_LENGTH; i++) {
+            assertEquals(-i, small[i].longValue());
+        }
+        TypedDataSource<Long> smallSource = new TypedDataSource<>(channel, reader, reader.getRootGroup().findDataset("small"), Long.class);
+        ByteBuffer block = ByteBuffer.allocateDirect((SMALL_VECTOR_LENGTH - 1) * 8).order(ByteOrder.LITTLE_ENDIAN);
+        smallSource.readElements(1, block);
+        for (int i = 1; i < SMALL_VECTOR_LENGTH; i++) {
+            assertEquals(-i, block.getLong((i - 1) * 8));
+        }
+        assertThrows(IllegalArgumentException.class, () -> smallSource.readElements(1, ByteBuffer.allocate(SMALL_VECTOR_LENGTH * 8)));
+
+        HdfDataSet largeDataSet = reader.getRootGroup().findDataset("large");
+        assertFalse(largeDataSet.getDataObjectHeaderPrefix().findMessageByType(DataLayoutMessage.class).orElseThrow().isCompact());
+        Long[] large = new TypedDataSource<>(channel, reader, largeDataSet, Long.class).readVector();
+        assertEquals(LARGE_VECTOR_LENGTH, large.length);
+        assertEquals(297L, large[LARGE_VECTOR_LENGTH - 1].longValue());
+    }
+
+    @Test
+    void testCompactReadsDoNotTouchChannel() throws IOException {
+        MemorySeekableByteChannel channel = writeFile();
+        channel.position(0);
+        HdfFileReader reader = new HdfFileReader(channel).readFile();
+        HdfDataSet dataset = reader.getRootGroup().findDataset("scalar_7");
+        TypedDataSource<Long> source = new TypedDataSource<>(channel, reader, dataset, Long.class);
+        channel.close();
+        assertEquals(7000L, source.readScalar());
+    }
+
+    @Test
+    void testCompactOverflowRejected() throws IOException {
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(8192);
+        HdfFile file = new HdfFile(channel, HdfAllocationPolicy.defaultPolicy().withCompactDataThreshold(64));
+        HdfDataSet dataset = file.createDataSet("small", longDatatype(), vectorDataspace(file, 2));
+        assertThrows(IllegalArgumentException.class, () -> dataset.write(ByteBuffer.allocate(24)));
+    }
+}
@@ -386,6 +386,69 @@ public class HdfFileAllocationTest {
         }
     }
 
+    @Test
+    void testHeaderGrowthRelocatesAndReusesFreedBlock() {
+        allocation.allocateDatasetStorage("first");
+        allocation.allocateDatasetStorage("second");
+        HdfFileAllocation.AllocationRecord firstHeader = allocation.getDatasetAllocationInfo("first").get(HdfFileAllocation.AllocationType.DATASET_OBJECT_HEADER);
+        HdfFileAllocation.AllocationRecord secondHeader = allocation.getDatasetAllocationInfo("second").get(HdfFileAllocation.AllocationType.DATASET_OBJECT_HEADER);
+        assertEquals(800, firstHeader.getOffset());
+        assertEquals(1072, secondHeader.getOffset());
+
+        // "second" follows "first", so "first" has to move to grow
+        allocation.increaseHeaderAllocation("first", 400);
+        assertNotEquals(800, firstHeader.getOffset());
+        assertEquals(400, firstHeader.getSize());
+        assertTrue(firstHeader.getOffset() >= secondHeader.getOffset() + secondHeader.getSize());
+        assertEquals(272, allocation.getFreeSpaceManager().getFreeBytes());
+
+        // The vacated block is reused by the next header of the same size
+        allocation.allocateDatasetStorage("third");
+        assertEquals(800, allocation.getDatasetAllocationInfo("third").get(HdfFileAllocation.AllocationType.DATASET_OBJECT_HEADER).getOffset());
+        assertEquals(0, allocation.getFreeSpaceManager().getFreeBytes());
+    }
+
+    @Test
+    void testReleaseAbandonedLocalHeaps() {
+        allocation.allocateDatasetStorage("test");
+        allocation.expandLocalHeapContents();
+        assertEquals(88, allocation.releaseAbandonedLocalHeaps());
+        assertEquals(0, allocation.releaseAbandonedLocalHeaps());
+        assertTrue(allocation.getAllAllocationRecords().stream()
+                .noneMatch(r -> r.getType() == HdfFileAllocation.AllocationType.LOCAL_HEAP_ABANDONED));
+
+        // A small data block fits in the released local heap contents
+        allocation.allocateAndSetDataBlock("test", 64);
+        assertEquals(712, allocation.getDatasetAllocationInfo("test").get(HdfFileAllocation.AllocationType.DATASET_DATA).getOffset());
+        assertEquals(24, allocation.getFreeSpaceManager().getFreeBytes());
+    }
+
+    @Test
+    void testGlobalHeapSkipsSpilledDatasetHeader() {
+        for (int i = 0; i < 3; i++) {
+            allocation.allocateDatasetStorage("data" + i);
+            allocation.allocateAndSetDataBlock("data" + i, 1 << 20);
+        }
+        // Headers added once the metadata region is full spill past the data blocks
+        long dataEnd = allocation.getDatasetAllocationInfo("data2").get(HdfFileAllocation.AllocationType.DATASET_DATA).getOffset() + (1 << 20);
+        assertEquals(1616, allocation.allocateDatasetStorage("header3"));
+        assertEquals(dataEnd, allocation.allocateDatasetStorage("header4"));
+        allocation.allocateDatasetStorage("header5");
+
+        long heapOffset = allocation.allocateFirstGlobalHeapBlock();
+        long heapEnd = heapOffset + allocation.getGlobalHeapBlockSize(heapOffset);
+        for (HdfFileAllocation.AllocationRecord record : allocation.getAllAllocationRecords()) {
+            if (record.getType() != HdfFileAllocation.AllocationType.GLOBAL_HEAP_1) {
+                assertTrue(record.getOffset() + record.getSize() <= heapOffset || record.getOffset() >= heapEnd,
+                        "Global heap overlaps " + record.getName());
+            }
+        }
+        assertEquals(heapEnd, allocation.getEndOfFileOffset());
+
+        long secondHeap = allocation.allocateNextGlobalHeapBlock();
+        assertEquals(heapEnd, secondHeap);
+    }
+
     private void assertRecord(HdfFileAllocation.AllocationRecord record, HdfFileAllocation.AllocationType expectedType, String expectedName, long expectedOffset, long expectedSize) {
         assertEquals(expectedType, record.getType(), "Record type mismatch for " + expectedName);
         assertEquals(expectedName, record.getName(), "Record name mismatch at offset " + expectedOffset);
@@ -0,0 +1,238 @@
+package org.hdf5javalib.file;
+
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.examples.ResourceLoader;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfDisplayUtils;
+import org.hdf5javalib.utils.HdfTestWriteUtils;
+import org.hdf5javalib.utils.HdfWriteUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HdfFileWriteBehindTest {
+    private static final int NUM_RECORDS = 1000;
+
+    /**
+     * An in-memory channel whose writes fail while armed.
+     */
+    private static class FailingChannel extends MemorySeekableByteChannel {
+        final AtomicBoolean failing = new AtomicBoolean();
+
+        FailingChannel(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failing.get()) {
+                throw new IOException("Injected write failure");
+            }
+            return super.write(src);
+        }
+    }
+
+    private static void writeVector(HdfDataSet dataset) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(NUM_RECORDS * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < NUM_RECORDS; i++) {
+            byteBuffer.putLong(i + 1);
+        }
+        dataset.write(byteBuffer.flip());
+    }
+
+    private static HdfDataSet createVectorDataSet(HdfFile file) {
+        FixedPointDatatype datatype = new FixedPointDatatype(
+                FixedPointDatatype.createClassAndVersion(),
+                FixedPointDatatype.createClassBitField(false, false, false, true),
+                (short) 8, (short) 0, (short) 64);
+        HdfFixedPoint[] hdfDimensions = {HdfWriteUtils.hdfFixedPointFromValue(NUM_RECORDS, file.getFixedPointDatatypeForLength())};
+        DataspaceMessage dataSpaceMessage = new DataspaceMessage(
+                1, (byte) 1, DataspaceMessage.buildFlagSet(true, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, (short) 24);
+        HdfDataSet dataset = file.createDataSet("vector", datatype, dataSpaceMessage);
+        HdfDisplayUtils.writeVersionAttribute(file, dataset);
+        return dataset;
+    }
+
+    private static void assertMatchesReference(MemorySeekableByteChannel channel) throws IOException {
+        byte[] cppBytes;
+        try (InputStream inputStream = ResourceLoader.class.getClassLoader().getResourceAsStream("vector.h5")) {
+            assertNotNull(inputStream);
+            cppBytes = inputStream.readAllBytes();
+        }
+        HdfTestWriteUtils.compareByteArraysWithTimestampExclusion(channel.toByteArray(), cppBytes, new int[]{932});
+    }
+
+    @Test
+    void testWriteAsyncSupplierMatchesCpp() throws IOException {
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(2048 + NUM_RECORDS * 8);
+        HdfFile file = new HdfFile(channel, 4);
+        HdfDataSet dataset = createVectorDataSet(file);
+        AtomicInteger countHolder = new AtomicInteger(0);
+        ByteBuffer byteBuffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        CompletableFuture<Void> written = dataset.writeAsync(() -> {
+            int count = countHolder.getAndIncrement();
+            if (count >= NUM_RECORDS) return ByteBuffer.allocate(0);
+            byteBuffer.clear();
+            byteBuffer.putLong(count + 1).flip();
+            return byteBuffer;
+        });
+        file.flush();
+        assertTrue(written.isDone());
+        dataset.close();
+        file.close();
+        assertMatchesReference(channel);
+    }
+
+    @Test
+    void testWriteAsyncBuffersAndCloseAsyncMatchesCpp() throws IOException {
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(2048 + NUM_RECORDS * 8);
+        HdfFile file = new HdfFile(channel, 2);
+        HdfDataSet dataset = createVectorDataSet(file);
+        ByteBuffer byteBuffer = ByteBuffer.allocate(NUM_RECORDS * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < NUM_RECORDS; i++) {
+            byteBuffer.putLong(i + 1);
+        }
+        byteBuffer.flip();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        writes.add(dataset.writeAsync(byteBuffer));
+        writes.add(file.closeAsync());
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        assertMatchesReference(channel);
+    }
+
+    @Test
+    void testWriteFailurePropagates() throws IOException {
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(2048 + 8);
+        HdfFile file = new HdfFile(channel, 2);
+        HdfDataSet dataset = createVectorDataSet(file);
+        CompletableFuture<Void> written = dataset.writeAsync(ByteBuffer.allocate(NUM_RECORDS * 8));
+        assertThrows(IOException.class, file::flush);
+        assertTrue(written.isCompletedExceptionally());
+        assertThrows(IOException.class, file::close);
+    }
+
+    @Test
+    void testFailedSynchronousCloseCanBeRetried() throws IOException {
+        FailingChannel channel = new FailingChannel(2048 + NUM_RECORDS * 8);
+        HdfFile file = new HdfFile(channel);
+        HdfDataSet dataset = createVectorDataSet(file);
+        writeVector(dataset);
+        dataset.close();
+        channel.failing.set(true);
+        assertThrows(IOException.class, file::close);
+        assertTrue(file.closeAsync().isCompletedExceptionally());
+        channel.failing.set(false);
+        file.close();
+        assertTrue(file.closeAsync().isDone());
+        assertMatchesReference(channel);
+    }
+
+    @Test
+    void testFailedAsyncCloseIsReportedAgain() throws IOException {
+        FailingChannel channel = new FailingChannel(2048 + NUM_RECORDS * 8);
+        HdfFile file = new HdfFile(channel, 2);
+        HdfDataSet dataset = createVectorDataSet(file);
+        writeVector(dataset);
+        dataset.close();
+        file.flush();
+        channel.failing.set(true);
+        CompletableFuture<Void> closing = file.closeAsync();
+        assertThrows(IOException.class, () -> WriteBehindQueue.await(closing));
+        assertSame(closing, file.closeAsync());
+        assertThrows(IOException.class, file::close);
+    }
+
+    @Test
+    void testSubmitsRacingShutdownAllComplete() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            WriteBehindQueue queue = new WriteBehindQueue(new MemorySeekableByteChannel(64), 2);
+            List<CompletableFuture<Void>> submitted = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                Thread producer = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 20; i++) {
+                        submitted.add(queue.submit(channel -> Thread.yield()));
+                    }
+                });
+                producer.start();
+                producers.add(producer);
+            }
+            start.countDown();
+            Thread.yield();
+            queue.shutdown();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            for (CompletableFuture<Void> future : submitted) {
+                assertDoesNotThrow(() -> future.handle((v, e) -> null).get(10, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    void testShutdownFromWriterThreadStopsAfterQueuedWrites() throws InterruptedException {
+        WriteBehindQueue queue = new WriteBehindQueue(new MemorySeekableByteChannel(64), 4);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> first = queue.submit(channel -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CompletableFuture<Void> second = queue.submit(channel -> queue.shutdown());
+        CompletableFuture<Void> third = queue.submit(channel -> channel.write(ByteBuffer.allocate(8)));
+        release.countDown();
+        assertDoesNotThrow(() -> first.get(10, TimeUnit.SECONDS));
+        assertDoesNotThrow(() -> second.get(10, TimeUnit.SECONDS));
+        assertDoesNotThrow(() -> third.get(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> late = queue.submit(channel -> channel.write(ByteBuffer.allocate(8)));
+        assertTrue(late.isCompletedExceptionally());
+    }
+
+    @Test
+    void testErrorInWriteFailsPendingAndLaterOperations() {
+        WriteBehindQueue queue = new WriteBehindQueue(new MemorySeekableByteChannel(64), 4);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> failing = queue.submit(channel -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new OutOfMemoryError("Injected error");
+        });
+        CompletableFuture<Void> pending = queue.submit(channel -> channel.write(ByteBuffer.allocate(8)));
+        release.countDown();
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+        assertTrue(failed.getCause() instanceof OutOfMemoryError);
+        ExecutionException pendingFailed = assertThrows(ExecutionException.class, () -> pending.get(10, TimeUnit.SECONDS));
+        assertTrue(pendingFailed.getCause() instanceof OutOfMemoryError);
+        IOException flushFailed = assertThrows(IOException.class, queue::flush);
+        assertTrue(flushFailed.getCause() instanceof OutOfMemoryError);
+        assertThrows(IOException.class, queue::close);
+    }
+}
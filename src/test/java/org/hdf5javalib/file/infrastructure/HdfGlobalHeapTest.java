@@ -0,0 +1,97 @@
+package org.hdf5javalib.file.infrastructure;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.examples.write.HdfFixedPointWrite;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.VariableLengthDatatype;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.hdf5javalib.utils.HdfWriteUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HdfGlobalHeapTest {
+    private static final int NUM_STRINGS = 2000;
+
+    /**
+     * An in-memory channel whose reads are slow, so that unsynchronized use of its shared
+     * position by concurrent readers shows up as corrupt data.
+     */
+    private static class SlowChannel extends MemorySeekableByteChannel {
+        SlowChannel(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            long position = position();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            position(position);
+            return super.read(dst);
+        }
+    }
+
+    private static String value(int index) {
+        return "string-" + index + "-" + Integer.toHexString(index * 0x9E3779B1);
+    }
+
+    private static SlowChannel writeStrings() throws IOException {
+        SlowChannel channel = new SlowChannel(1 << 20);
+        HdfFile file = new HdfFile(channel);
+        HdfFixedPoint[] hdfDimensions = {HdfWriteUtils.hdfFixedPointFromValue(NUM_STRINGS, file.getFixedPointDatatypeForLength())};
+        DataspaceMessage dataSpaceMessage = new DataspaceMessage(1, 1, DataspaceMessage.buildFlagSet(true, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, HdfFixedPointWrite.computeDataSpaceMessageSize(hdfDimensions));
+        VariableLengthDatatype datatype = new VariableLengthDatatype(VariableLengthDatatype.createClassAndVersion(),
+                VariableLengthDatatype.createClassBitField(VariableLengthDatatype.Type.STRING,
+                        VariableLengthDatatype.PaddingType.NULL_TERMINATE, VariableLengthDatatype.CharacterSet.ASCII),
+                16, HdfTestDataUtils.intType(1));
+        HdfDataSet dataset = file.createDataSet(HdfTestDataUtils.DATASET_NAME, datatype, dataSpaceMessage);
+        ByteBuffer data = ByteBuffer.allocate(NUM_STRINGS * 16);
+        for (int i = 0; i < NUM_STRINGS; i++) {
+            data.put(datatype.getGlobalHeap().addToHeap(value(i).getBytes(StandardCharsets.US_ASCII)));
+        }
+        dataset.write(data.flip());
+        dataset.close();
+        file.close();
+        return channel;
+    }
+
+    @Test
+    void testParallelReadersLoadCollectionsSafely() throws Exception {
+        SlowChannel channel = writeStrings();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < NUM_STRINGS; i++) {
+            expected.add(value(i));
+        }
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            for (int round = 0; round < 5; round++) {
+                // A new reader starts with no collections loaded, so the parallel readers race to load them
+                TypedDataSource<String> source = HdfTestDataUtils.openDataSource(channel, String.class);
+                List<String> actual = pool.submit(() -> source.parallelStreamFlattened().collect(Collectors.toList())).get();
+                assertEquals(expected, actual, "Round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
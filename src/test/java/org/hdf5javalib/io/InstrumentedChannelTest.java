@@ -0,0 +1,104 @@
+package org.hdf5javalib.io;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.examples.ResourceLoader;
+import org.hdf5javalib.examples.read.HdfCompoundReadTest;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.utils.HdfWriteUtils;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentedChannelTest {
+    private static final int NUM_RECORDS = 1000;
+
+    @Test
+    void testReadIsAttributedToStructures() throws IOException {
+        try (InstrumentedChannel channel = new InstrumentedChannel(ResourceLoader.loadResourceAsChannel("compound_example.h5"))) {
+            IoStatistics statistics = channel.getStatistics();
+            HdfFileReader reader = new HdfFileReader(channel).readFile();
+            IoStatistics.Snapshot opened = statistics.snapshot();
+            for (IoCategory category : new IoCategory[]{IoCategory.SUPERBLOCK, IoCategory.OBJECT_HEADER, IoCategory.BTREE, IoCategory.LOCAL_HEAP}) {
+                assertTrue(opened.getCalls(category, IoStatistics.Operation.READ) > 0, category.name());
+            }
+            assertEquals(0, opened.getCalls(IoCategory.RAW_DATA, IoStatistics.Operation.READ));
+
+            HdfDataSet dataSet = reader.getRootGroup().findDataset("CompoundData");
+            TypedDataSource<HdfCompoundReadTest.CompoundExample> source =
+                    new TypedDataSource<>(channel, reader, dataSet, HdfCompoundReadTest.CompoundExample.class);
+            source.readVector();
+            IoStatistics.Snapshot query = statistics.snapshot().since(opened);
+            assertEquals(source.getElementCount() * source.getElementSize(), query.getBytes(IoCategory.RAW_DATA, IoStatistics.Operation.READ));
+            assertTrue(query.getCalls(IoCategory.GLOBAL_HEAP, IoStatistics.Operation.READ) > 0);
+            assertEquals(0, query.getCalls(IoCategory.SUPERBLOCK, IoStatistics.Operation.READ));
+            assertEquals(0, query.getCalls(IoCategory.OTHER, IoStatistics.Operation.READ));
+
+            long[] histogram = query.getLatencyHistogram(IoCategory.RAW_DATA, IoStatistics.Operation.READ);
+            assertEquals(query.getCalls(IoCategory.RAW_DATA, IoStatistics.Operation.READ), Arrays.stream(histogram).sum());
+            assertTrue(query.getLatencyPercentile(IoCategory.RAW_DATA, IoStatistics.Operation.READ, 99) > 0);
+            assertThrows(IllegalArgumentException.class,
+                    () -> query.getLatencyPercentile(IoCategory.RAW_DATA, IoStatistics.Operation.READ, 101));
+            assertEquals(query.getBytes(IoCategory.RAW_DATA, IoStatistics.Operation.READ), query.getCounters().get("raw_data.read.bytes"));
+        }
+    }
+
+    @Test
+    void testWriteIsAttributedToStructures() throws IOException {
+        InstrumentedChannel channel = new InstrumentedChannel(new MemorySeekableByteChannel(2048 + NUM_RECORDS * 8));
+        HdfFile file = new HdfFile(channel);
+        FixedPointDatatype datatype = new FixedPointDatatype(
+                FixedPointDatatype.createClassAndVersion(),
+                FixedPointDatatype.createClassBitField(false, false, false, true),
+                (short) 8, (short) 0, (short) 64);
+        HdfFixedPoint[] hdfDimensions = {HdfWriteUtils.hdfFixedPointFromValue(NUM_RECORDS, file.getFixedPointDatatypeForLength())};
+        DataspaceMessage dataSpaceMessage = new DataspaceMessage(
+                1, (byte) 1, DataspaceMessage.buildFlagSet(true, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, (short) 24);
+        HdfDataSet dataset = file.createDataSet("vector", datatype, dataSpaceMessage);
+        ByteBuffer values = ByteBuffer.allocate(NUM_RECORDS * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < NUM_RECORDS; i++) {
+            values.putLong(i);
+        }
+        dataset.write(values.flip());
+        dataset.close();
+        file.close();
+
+        IoStatistics.Snapshot snapshot = channel.getStatistics().snapshot();
+        assertEquals(NUM_RECORDS * 8L, snapshot.getBytes(IoCategory.RAW_DATA, IoStatistics.Operation.WRITE));
+        for (IoCategory category : new IoCategory[]{IoCategory.SUPERBLOCK, IoCategory.OBJECT_HEADER, IoCategory.BTREE, IoCategory.LOCAL_HEAP}) {
+            assertTrue(snapshot.getBytes(category, IoStatistics.Operation.WRITE) > 0, category.name());
+        }
+        assertEquals(snapshot.getBytes(IoStatistics.Operation.WRITE), channel.getStatistics().getWriteBytes());
+        assertEquals(IoCategory.OTHER, IoCategory.current());
+
+        channel.getStatistics().reset();
+        assertEquals(0, channel.getStatistics().getWriteCalls());
+    }
+
+    @Test
+    void testRegisterMBean() throws Exception {
+        IoStatistics statistics = new IoStatistics();
+        statistics.record(IoCategory.RAW_DATA, IoStatistics.Operation.READ, 4096, 1000);
+        ObjectName name = statistics.registerMBean("org.hdf5javalib:type=IoStatistics,name=test");
+        try {
+            assertEquals(4096L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ReadBytes"));
+            assertThrows(IllegalStateException.class, () -> statistics.registerMBean(name.toString()));
+        } finally {
+            statistics.unregisterMBean(name);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        assertThrows(IllegalArgumentException.class, () -> statistics.registerMBean("not a name"));
+    }
+}
@@ -0,0 +1,143 @@
+package org.hdf5javalib.jfr;
+
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.examples.ResourceLoader;
+import org.hdf5javalib.examples.read.HdfCompoundReadTest;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfWriteUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HdfEventsTest {
+    private static final int NUM_RECORDS = 1000;
+
+    private static final List<Class<? extends jdk.jfr.Event>> EVENTS = List.of(
+            FileOpenEvent.class, ObjectHeaderParseEvent.class, GlobalHeapLoadEvent.class,
+            DatasetReadEvent.class, DatasetWriteEvent.class, FileCloseEvent.class);
+
+    private interface RecordedWork {
+        void run() throws IOException;
+    }
+
+    private static List<RecordedEvent> record(RecordedWork work) throws IOException {
+        Path dump = Files.createTempFile("hdf5javalib", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (Class<? extends jdk.jfr.Event> eventClass : EVENTS) {
+                recording.enable(eventClass);
+            }
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(dump);
+            return RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    @Test
+    void testEventsAreDisabledByDefault() {
+        for (Class<? extends jdk.jfr.Event> eventClass : EVENTS) {
+            assertFalse(EventType.getEventType(eventClass).isEnabled(), eventClass.getSimpleName());
+        }
+    }
+
+    @Test
+    void testReadEvents() throws IOException {
+        long[] expectedBytes = new long[1];
+        List<RecordedEvent> events = record(() -> {
+            try (SeekableByteChannel channel = ResourceLoader.loadResourceAsChannel("compound_example.h5")) {
+                HdfFileReader reader = new HdfFileReader(channel).readFile();
+                HdfDataSet dataSet = reader.getRootGroup().findDataset("CompoundData");
+                TypedDataSource<HdfCompoundReadTest.CompoundExample> source =
+                        new TypedDataSource<>(channel, reader, dataSet, HdfCompoundReadTest.CompoundExample.class);
+                source.readVector();
+                expectedBytes[0] = source.getElementCount() * source.getElementSize();
+            }
+        });
+
+        List<RecordedEvent> opens = ofType(events, "org.hdf5javalib.FileOpen");
+        assertEquals(1, opens.size());
+        assertEquals(1, opens.get(0).getInt("datasetCount"));
+        assertTrue(opens.get(0).getLong("fileSize") > expectedBytes[0]);
+
+        // The root group header and the dataset header
+        List<RecordedEvent> headers = ofType(events, "org.hdf5javalib.ObjectHeaderParse");
+        assertEquals(2, headers.size());
+        assertTrue(headers.stream().allMatch(e -> e.getInt("messageCount") > 0));
+
+        List<RecordedEvent> heaps = ofType(events, "org.hdf5javalib.GlobalHeapLoad");
+        assertFalse(heaps.isEmpty());
+        assertTrue(heaps.get(0).getInt("objectCount") > 0);
+
+        List<RecordedEvent> reads = ofType(events, "org.hdf5javalib.DatasetRead");
+        assertEquals(1, reads.size());
+        assertEquals("CompoundData", reads.get(0).getString("datasetName"));
+        assertEquals(expectedBytes[0], reads.get(0).getLong("bytes"));
+        assertEquals(1000L, reads.get(0).getLong("elementCount"));
+    }
+
+    @Test
+    void testWriteEvents() throws IOException {
+        List<RecordedEvent> events = record(() -> {
+            MemorySeekableByteChannel channel = new MemorySeekableByteChannel(2048 + NUM_RECORDS * 8);
+            HdfFile file = new HdfFile(channel);
+            FixedPointDatatype datatype = new FixedPointDatatype(
+                    FixedPointDatatype.createClassAndVersion(),
+                    FixedPointDatatype.createClassBitField(false, false, false, true),
+                    (short) 8, (short) 0, (short) 64);
+            HdfFixedPoint[] hdfDimensions = {HdfWriteUtils.hdfFixedPointFromValue(NUM_RECORDS, file.getFixedPointDatatypeForLength())};
+            DataspaceMessage dataSpaceMessage = new DataspaceMessage(
+                    1, (byte) 1, DataspaceMessage.buildFlagSet(true, false),
+                    hdfDimensions, hdfDimensions, false, (byte) 0, (short) 24);
+            HdfDataSet dataset = file.createDataSet("vector", datatype, dataSpaceMessage);
+            AtomicInteger countHolder = new AtomicInteger(0);
+            ByteBuffer byteBuffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            dataset.write(() -> {
+                int count = countHolder.getAndIncrement();
+                if (count >= NUM_RECORDS) return ByteBuffer.allocate(0);
+                byteBuffer.clear();
+                byteBuffer.putLong(count + 1).flip();
+                return byteBuffer;
+            });
+            dataset.close();
+            file.close();
+        });
+
+        List<RecordedEvent> writes = ofType(events, "org.hdf5javalib.DatasetWrite");
+        assertEquals(1, writes.size());
+        assertEquals("vector", writes.get(0).getString("datasetName"));
+        assertEquals(NUM_RECORDS * 8L, writes.get(0).getLong("bytes"));
+        assertEquals(NUM_RECORDS, writes.get(0).getLong("elementCount"));
+
+        List<RecordedEvent> closes = ofType(events, "org.hdf5javalib.FileClose");
+        assertEquals(1, closes.size());
+        assertEquals(1, closes.get(0).getInt("datasetCount"));
+        assertTrue(closes.get(0).getLong("fileSize") > NUM_RECORDS * 8L);
+    }
+}
@@ -0,0 +1,128 @@
+package org.hdf5javalib.soak;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks garbage collection pauses and the peak resident set size of a soak run.
+ * <p>
+ * The {@code SoakMonitor} class listens for the collection notifications of every
+ * garbage collector while it is open, recording the number of collections, their total
+ * duration and the longest one. The peak resident set size is read from
+ * {@code /proc/self/status}; on Linux the peak is reset when the monitor opens, so it
+ * covers only the monitored run. Elsewhere the peak is unavailable and reported as -1.
+ * </p>
+ */
+public class SoakMonitor implements AutoCloseable {
+    /** The Linux file holding the process memory counters. */
+    private static final Path STATUS = Paths.get("/proc/self/status");
+    /** The Linux file that resets the peak resident set size when "5" is written to it. */
+    private static final Path CLEAR_REFS = Paths.get("/proc/self/clear_refs");
+
+    /** The garbage collectors being listened to, paired with {@link #listener}. */
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    /** The listener recording collections. */
+    private final NotificationListener listener = this::handleNotification;
+    /** The number of collections seen. */
+    private final AtomicLong collections = new AtomicLong();
+    /** The total duration of the collections seen, in milliseconds. */
+    private final AtomicLong totalPauseMillis = new AtomicLong();
+    /** The longest collection seen, in milliseconds. */
+    private final AtomicLong maxPauseMillis = new AtomicLong();
+
+    /**
+     * Constructs a SoakMonitor and starts listening.
+     */
+    public SoakMonitor() {
+        try {
+            Files.write(CLEAR_REFS, "5".getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            // Not Linux, or not permitted; the peak then covers the whole process
+        }
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) collector;
+                emitter.addNotificationListener(listener, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    private void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        // Concurrent cycles, such as "G1 Concurrent GC" or "ZGC Cycles", run alongside the application
+        if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles")) {
+            return;
+        }
+        long duration = info.getGcInfo().getDuration();
+        collections.incrementAndGet();
+        totalPauseMillis.addAndGet(duration);
+        maxPauseMillis.accumulateAndGet(duration, Math::max);
+    }
+
+    /**
+     * Retrieves the peak resident set size of the process.
+     *
+     * @return the peak in bytes, or -1 if it is unavailable
+     */
+    public long getPeakRssBytes() {
+        try {
+            for (String line : Files.readAllLines(STATUS, StandardCharsets.US_ASCII)) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring(6).trim().split("\\s+")[0]) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Fall through to unavailable
+        }
+        return -1;
+    }
+
+    public long getCollections() {
+        return collections.get();
+    }
+
+    public long getTotalPauseMillis() {
+        return totalPauseMillis.get();
+    }
+
+    public long getMaxPauseMillis() {
+        return maxPauseMillis.get();
+    }
+
+    @Override
+    public void close() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                // Already removed
+            }
+        }
+        emitters.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "SoakMonitor{peakRss=" + getPeakRssBytes() / (1024 * 1024) + "MB, collections=" + getCollections()
+                + ", totalPause=" + getTotalPauseMillis() + "ms, maxPause=" + getMaxPauseMillis() + "ms}";
+    }
+}
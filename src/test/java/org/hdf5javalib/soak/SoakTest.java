@@ -0,0 +1,113 @@
+package org.hdf5javalib.soak;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.HdfDataSet;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes a synthetic file and verifies every dataset read back through parallel streams.
+ * <p>
+ * By default the file is a few megabytes, so the test runs with the rest of the
+ * suite. System properties scale it into a soak run and set its limits:
+ * {@code hdf5javalib.soak.datasets} (fixed-size datasets, default 6),
+ * {@code hdf5javalib.soak.bytesPerDataset} (default 1 MiB),
+ * {@code hdf5javalib.soak.vlenElements} (default 10000),
+ * {@code hdf5javalib.soak.seed}, {@code hdf5javalib.soak.dir} (default the temporary directory),
+ * {@code hdf5javalib.soak.maxRssMb} and {@code hdf5javalib.soak.maxGcPauseMs} (default unbounded).
+ * For example, {@code -Dhdf5javalib.soak.datasets=12 -Dhdf5javalib.soak.bytesPerDataset=4000000000}
+ * writes and verifies a 48 GB file.
+ * </p>
+ */
+public class SoakTest {
+    private static final Logger logger = LoggerFactory.getLogger(SoakTest.class);
+
+    @Test
+    void testGeneratedFileReadsBackWithMatchingChecksums() throws IOException {
+        int datasets = Integer.getInteger("hdf5javalib.soak.datasets", 6);
+        long bytesPerDataset = Long.getLong("hdf5javalib.soak.bytesPerDataset", 1L << 20);
+        int vlenElements = Integer.getInteger("hdf5javalib.soak.vlenElements", 10000);
+        long seed = Long.getLong("hdf5javalib.soak.seed", 42L);
+        long maxRssMb = Long.getLong("hdf5javalib.soak.maxRssMb", Long.MAX_VALUE);
+        long maxGcPauseMs = Long.getLong("hdf5javalib.soak.maxGcPauseMs", Long.MAX_VALUE);
+        Path directory = Path.of(System.getProperty("hdf5javalib.soak.dir", System.getProperty("java.io.tmpdir")));
+
+        List<SyntheticFileGenerator.DatasetSpec> specs = SyntheticFileGenerator.mixedLayout(datasets, bytesPerDataset, vlenElements);
+        Path path = Files.createTempFile(directory, "soak-", ".h5");
+        try (SoakMonitor monitor = new SoakMonitor()) {
+            long start = System.nanoTime();
+            Map<String, Long> expected = new SyntheticFileGenerator(seed).generate(path, specs);
+            long written = System.nanoTime();
+            logger.info("Wrote {} datasets, {} bytes in {} ms", specs.size(), Files.size(path), (written - start) / 1_000_000);
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                HdfFileReader reader = new HdfFileReader(channel).readFile();
+                for (SyntheticFileGenerator.DatasetSpec spec : specs) {
+                    HdfDataSet dataSet = reader.getRootGroup().findDataset(spec.getName());
+                    assertNotNull(dataSet, spec.getName());
+                    TypedDataSource<?> source = new TypedDataSource<>(channel, reader, dataSet, spec.getKind().getJavaClass());
+                    assertEquals(spec.getElementCount(), source.getElementCount(), spec.getName());
+                    long checksum = source.parallelStreamFlattened()
+                            .mapToLong(element -> SyntheticFileGenerator.mix(SyntheticFileGenerator.hash(spec.getKind(), element)))
+                            .sum();
+                    assertEquals(expected.get(spec.getName()), checksum, spec.getName());
+                }
+            }
+            logger.info("Verified in {} ms, {}", (System.nanoTime() - written) / 1_000_000, monitor);
+
+            long peakRss = monitor.getPeakRssBytes();
+            if (peakRss >= 0) {
+                assertTrue(peakRss / (1024 * 1024) <= maxRssMb, "Peak RSS " + peakRss + " exceeds " + maxRssMb + " MB");
+            }
+            assertTrue(monitor.getMaxPauseMillis() <= maxGcPauseMs,
+                    "GC pause " + monitor.getMaxPauseMillis() + " ms exceeds " + maxGcPauseMs + " ms");
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testVariableLengthDatasetAfterSpilledHeader() throws IOException {
+        // The fourth dataset header no longer fits before the data region, so it lands where the global heap would
+        List<SyntheticFileGenerator.DatasetSpec> specs = SyntheticFileGenerator.mixedLayout(3, 1L << 20, 1000);
+        Path path = Files.createTempFile("soak-", ".h5");
+        try {
+            Map<String, Long> expected = new SyntheticFileGenerator(7L).generate(path, specs);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                HdfFileReader reader = new HdfFileReader(channel).readFile();
+                for (SyntheticFileGenerator.DatasetSpec spec : specs) {
+                    HdfDataSet dataSet = reader.getRootGroup().findDataset(spec.getName());
+                    TypedDataSource<?> source = new TypedDataSource<>(channel, reader, dataSet, spec.getKind().getJavaClass());
+                    long checksum = source.streamFlattened()
+                            .mapToLong(element -> SyntheticFileGenerator.mix(SyntheticFileGenerator.hash(spec.getKind(), element)))
+                            .sum();
+                    assertEquals(expected.get(spec.getName()), checksum, spec.getName());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testLayoutLimits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SyntheticFileGenerator.mixedLayout(SyntheticFileGenerator.MAX_DATASETS + 1, 1 << 20, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> SyntheticFileGenerator.mixedLayout(1, 1024, SyntheticFileGenerator.MAX_VLEN_ELEMENTS + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SyntheticFileGenerator.DatasetSpec("huge", SyntheticFileGenerator.ElementKind.DOUBLE, 1L << 31));
+    }
+}
@@ -0,0 +1,426 @@
+package org.hdf5javalib.soak;
+
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.CompoundMemberDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.FloatingPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.StringDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.VariableLengthDatatype;
+import org.hdf5javalib.utils.HdfWriteUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates large HDF5 files with deterministic contents.
+ * <p>
+ * The {@code SyntheticFileGenerator} class writes a file with {@link HdfFile} from a list of
+ * {@link DatasetSpec}s. Every element is a function of the seed, the dataset's position in
+ * the list and the element's index, so a file can be regenerated or verified without
+ * storing it. Elements are encoded into one reusable block buffer and handed to
+ * {@link HdfDataSet#write(java.util.function.Supplier)}, so memory use does not depend on
+ * the size of the file and datasets may hold tens of gigabytes.
+ * </p>
+ * <p>
+ * Each dataset's checksum is the wrapping sum of {@link #mix(long)} applied to each
+ * element's hash. The sum does not depend on the order elements are visited in, so it can
+ * be recomputed from a parallel stream. The writer limits the layouts: a file holds at most
+ * {@value #MAX_DATASETS} datasets, and the global heap holds at most
+ * {@value #MAX_VLEN_ELEMENTS} strings, which must belong to the last dataset because
+ * the heap grows in place at the end of the file.
+ * </p>
+ */
+public class SyntheticFileGenerator {
+    /** The largest number of datasets the root group can be written with. */
+    public static final int MAX_DATASETS = 128;
+    /** The largest number of variable-length strings per file. */
+    public static final int MAX_VLEN_ELEMENTS = 60000;
+    /** The size of the block buffer elements are encoded into, in bytes. */
+    private static final int BLOCK_BYTES = 1 << 20;
+    /** The length of the fixed string member of compound records, in bytes. */
+    private static final int LABEL_LENGTH = 8;
+
+    /**
+     * The element types a dataset can be generated with.
+     */
+    public enum ElementKind {
+        /** Signed 64-bit integers, read as {@link Long}. */
+        INT64(Long.class, 8),
+        /** IEEE 754 double-precision values, read as {@link Double}. */
+        DOUBLE(Double.class, 8),
+        /** Records of an int64 id, a double value, a fixed string label and an int16 count, read as {@link SoakRecord}. */
+        COMPOUND(SoakRecord.class, 32),
+        /** Variable-length ASCII strings stored in the global heap, read as {@link String}. */
+        VLEN_STRING(String.class, 16);
+
+        /** The class elements are read as. */
+        private final Class<?> javaClass;
+        /** The size of each element in the dataset, in bytes. */
+        private final int size;
+
+        ElementKind(Class<?> javaClass, int size) {
+            this.javaClass = javaClass;
+            this.size = size;
+        }
+
+        public Class<?> getJavaClass() {
+            return javaClass;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * The compound record elements are read into.
+     */
+    public static class SoakRecord {
+        private Long id;
+        private Double value;
+        private String label;
+        private Short count;
+
+        public Long getId() {
+            return id;
+        }
+
+        public Double getValue() {
+            return value;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Short getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * The name, element type and shape of a generated dataset.
+     */
+    public static final class DatasetSpec {
+        /** The name of the dataset. */
+        private final String name;
+        /** The element type. */
+        private final ElementKind kind;
+        /** The dimensions of the dataset. */
+        private final long[] shape;
+
+        /**
+         * Constructs a DatasetSpec.
+         *
+         * @param name  the name of the dataset
+         * @param kind  the element type
+         * @param shape the dimensions, each positive and below 2<sup>31</sup>
+         * @throws IllegalArgumentException if a dimension is out of range
+         */
+        public DatasetSpec(String name, ElementKind kind, long... shape) {
+            for (long dimension : shape) {
+                if (dimension <= 0 || dimension > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Dimension out of range for " + name + ": " + dimension);
+                }
+            }
+            this.name = name;
+            this.kind = kind;
+            this.shape = shape.clone();
+        }
+
+        /**
+         * Retrieves the number of elements in the dataset.
+         *
+         * @return the product of the dimensions
+         */
+        public long getElementCount() {
+            long count = 1;
+            for (long dimension : shape) {
+                count *= dimension;
+            }
+            return count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ElementKind getKind() {
+            return kind;
+        }
+
+        public long[] getShape() {
+            return shape.clone();
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + kind + " " + Arrays.toString(shape);
+        }
+    }
+
+    /** The seed all element values are derived from. */
+    private final long seed;
+
+    /**
+     * Constructs a SyntheticFileGenerator.
+     *
+     * @param seed the seed all element values are derived from
+     */
+    public SyntheticFileGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Builds a layout that cycles through the fixed-size element kinds and through one, two
+     * and three dimensions, optionally followed by a variable-length string dataset.
+     *
+     * @param datasetCount    the number of fixed-size datasets
+     * @param bytesPerDataset the approximate size of each fixed-size dataset, in bytes
+     * @param vlenElements    the number of strings in the trailing variable-length dataset, or 0 for none
+     * @return the dataset specs
+     * @throws IllegalArgumentException if the counts exceed the writer's limits or a dataset would be empty
+     */
+    public static List<DatasetSpec> mixedLayout(int datasetCount, long bytesPerDataset, int vlenElements) {
+        ElementKind[] kinds = {ElementKind.INT64, ElementKind.DOUBLE, ElementKind.COMPOUND};
+        List<DatasetSpec> specs = new ArrayList<>();
+        for (int i = 0; i < datasetCount; i++) {
+            ElementKind kind = kinds[i % kinds.length];
+            long elements = bytesPerDataset / kind.getSize();
+            String name = String.format("%s_%03d", kind.name().toLowerCase(), i);
+            switch (i % 3) {
+                case 0 -> specs.add(new DatasetSpec(name, kind, elements));
+                case 1 -> specs.add(new DatasetSpec(name, kind, elements / 1024, 1024));
+                default -> specs.add(new DatasetSpec(name, kind, elements / (64 * 64), 64, 64));
+            }
+        }
+        if (vlenElements > 0) {
+            specs.add(new DatasetSpec("vlen_string", ElementKind.VLEN_STRING, vlenElements));
+        }
+        validate(specs);
+        return specs;
+    }
+
+    private static void validate(List<DatasetSpec> specs) {
+        if (specs.size() > MAX_DATASETS) {
+            throw new IllegalArgumentException("At most " + MAX_DATASETS + " datasets are supported: " + specs.size());
+        }
+        for (int i = 0; i < specs.size(); i++) {
+            DatasetSpec spec = specs.get(i);
+            if (spec.getKind() != ElementKind.VLEN_STRING) {
+                continue;
+            }
+            if (i != specs.size() - 1) {
+                throw new IllegalArgumentException("Only the last dataset may hold variable-length strings: " + spec);
+            }
+            if (spec.getElementCount() > MAX_VLEN_ELEMENTS) {
+                throw new IllegalArgumentException("At most " + MAX_VLEN_ELEMENTS + " variable-length strings are supported: " + spec);
+            }
+        }
+    }
+
+    /**
+     * Writes a file holding the given datasets.
+     *
+     * @param path  the file to create or overwrite
+     * @param specs the datasets to write, in order
+     * @return the checksum of each dataset, by name
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the layout exceeds the writer's limits
+     */
+    public Map<String, Long> generate(Path path, List<DatasetSpec> specs) throws IOException {
+        validate(specs);
+        Map<String, Long> checksums = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            HdfFile file = new HdfFile(channel);
+            for (int i = 0; i < specs.size(); i++) {
+                checksums.put(specs.get(i).getName(), writeDataSet(file, i, specs.get(i)));
+            }
+            file.close();
+        }
+        return checksums;
+    }
+
+    private long writeDataSet(HdfFile file, int datasetIndex, DatasetSpec spec) throws IOException {
+        HdfDatatype datatype = datatype(spec.getKind());
+        HdfDataSet dataset = file.createDataSet(spec.getName(), datatype, dataspace(file, spec.getShape()));
+        long base = mix(seed + datasetIndex * 0x9E3779B97F4A7C15L);
+        int size = spec.getKind().getSize();
+        int blockElements = BLOCK_BYTES / size;
+        long total = spec.getElementCount();
+        ByteBuffer buffer = ByteBuffer.allocate(blockElements * size).order(ByteOrder.LITTLE_ENDIAN);
+        long[] next = {0};
+        long[] checksum = {0};
+        dataset.write(() -> {
+            buffer.clear();
+            int count = (int) Math.min(blockElements, total - next[0]);
+            for (int i = 0; i < count; i++) {
+                checksum[0] += mix(encode(spec.getKind(), datatype, base, next[0] + i, buffer, i * size));
+            }
+            next[0] += count;
+            return buffer.limit(count * size);
+        });
+        dataset.close();
+        return checksum[0];
+    }
+
+    /**
+     * Encodes one element at an absolute buffer offset.
+     *
+     * @return the hash of the element, as {@link #hash(ElementKind, Object)} computes it from the decoded value
+     */
+    private static long encode(ElementKind kind, HdfDatatype datatype, long base, long index, ByteBuffer buffer, int offset) {
+        long random = mix(base + index);
+        switch (kind) {
+            case INT64 -> {
+                buffer.putLong(offset, random);
+                return random;
+            }
+            case DOUBLE -> {
+                double value = doubleValue(random);
+                buffer.putDouble(offset, value);
+                return Double.doubleToLongBits(value);
+            }
+            case COMPOUND -> {
+                double value = doubleValue(random);
+                String label = "r" + Long.toString(random >>> 40, 36);
+                short count = (short) random;
+                buffer.putLong(offset, index);
+                buffer.putDouble(offset + 8, value);
+                byte[] labelBytes = label.getBytes(StandardCharsets.US_ASCII);
+                for (int i = 0; i < LABEL_LENGTH; i++) {
+                    buffer.put(offset + 16 + i, i < labelBytes.length ? labelBytes[i] : 0);
+                }
+                buffer.putShort(offset + 24, count);
+                buffer.putShort(offset + 26, (short) 0);
+                buffer.putInt(offset + 28, 0);
+                return recordHash(index, value, label, count);
+            }
+            case VLEN_STRING -> {
+                String value = "v" + index + "-" + Long.toHexString(random & 0xFFFFFFL);
+                // The heap returns the 16-byte reference stored in the dataset
+                byte[] reference = ((VariableLengthDatatype) datatype).getGlobalHeap().addToHeap(value.getBytes(StandardCharsets.US_ASCII));
+                buffer.put(offset, reference);
+                return value.hashCode();
+            }
+            default -> throw new IllegalArgumentException("Unsupported element kind: " + kind);
+        }
+    }
+
+    private static double doubleValue(long random) {
+        return ((random >>> 11) * 0x1.0p-53 - 0.5) * 2000.0;
+    }
+
+    private static long recordHash(long id, double value, String label, short count) {
+        return mix(id) ^ Double.doubleToLongBits(value) ^ ((long) label.hashCode() << 16) ^ count;
+    }
+
+    /**
+     * Computes the hash of a decoded element, matching the one summed into the checksum.
+     *
+     * @param kind    the element type
+     * @param element the element as read through {@link ElementKind#getJavaClass()}
+     * @return the hash of the element
+     */
+    public static long hash(ElementKind kind, Object element) {
+        return switch (kind) {
+            case INT64 -> (Long) element;
+            case DOUBLE -> Double.doubleToLongBits((Double) element);
+            case COMPOUND -> {
+                SoakRecord record = (SoakRecord) element;
+                yield recordHash(record.getId(), record.getValue(), record.getLabel(), record.getCount());
+            }
+            case VLEN_STRING -> element.hashCode();
+        };
+    }
+
+    /**
+     * Scrambles a value with the SplitMix64 finalizer.
+     *
+     * @param value the value to scramble
+     * @return the scrambled value
+     */
+    public static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static HdfDatatype datatype(ElementKind kind) {
+        return switch (kind) {
+            case INT64 -> fixedPoint(8, true);
+            case DOUBLE -> floatingPoint();
+            case COMPOUND -> new CompoundDatatype(CompoundDatatype.createClassAndVersion(),
+                    CompoundDatatype.createClassBitField((short) 4), ElementKind.COMPOUND.getSize(), List.of(
+                    new CompoundMemberDatatype("id", 0, 0, 0, new int[4], fixedPoint(8, true)),
+                    new CompoundMemberDatatype("value", 8, 0, 0, new int[4], floatingPoint()),
+                    new CompoundMemberDatatype("label", 16, 0, 0, new int[4], new StringDatatype(StringDatatype.createClassAndVersion(),
+                            StringDatatype.createClassBitField(StringDatatype.PaddingType.NULL_TERMINATE, StringDatatype.CharacterSet.ASCII), LABEL_LENGTH)),
+                    new CompoundMemberDatatype("count", 24, 0, 0, new int[4], fixedPoint(2, true))));
+            case VLEN_STRING -> new VariableLengthDatatype(VariableLengthDatatype.createClassAndVersion(),
+                    VariableLengthDatatype.createClassBitField(VariableLengthDatatype.Type.STRING,
+                            VariableLengthDatatype.PaddingType.NULL_TERMINATE, VariableLengthDatatype.CharacterSet.ASCII),
+                    ElementKind.VLEN_STRING.getSize(), fixedPoint(1, false));
+        };
+    }
+
+    private static FixedPointDatatype fixedPoint(int size, boolean signed) {
+        return new FixedPointDatatype(FixedPointDatatype.createClassAndVersion(),
+                FixedPointDatatype.createClassBitField(false, false, false, signed),
+                size, (short) 0, (short) (size * 8));
+    }
+
+    private static FloatingPointDatatype floatingPoint() {
+        return new FloatingPointDatatype(FloatingPointDatatype.createClassAndVersion(),
+                FloatingPointDatatype.ClassBitField.createBitSet(FloatingPointDatatype.ClassBitField.ByteOrder.LITTLE_ENDIAN,
+                        false, false, false, FloatingPointDatatype.ClassBitField.MantissaNormalization.IMPLIED_SET, 63),
+                8, (short) 0, (short) 64, (byte) 52, (byte) 11, (byte) 0, (byte) 52, 1023);
+    }
+
+    private static DataspaceMessage dataspace(HdfFile file, long[] shape) {
+        HdfFixedPoint[] hdfDimensions = new HdfFixedPoint[shape.length];
+        for (int i = 0; i < shape.length; i++) {
+            hdfDimensions[i] = HdfWriteUtils.hdfFixedPointFromValue(shape[i], file.getFixedPointDatatypeForLength());
+        }
+        return new DataspaceMessage(1, shape.length, DataspaceMessage.buildFlagSet(true, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, (short) (8 + 16 * shape.length));
+    }
+
+    /**
+     * Generates a file with {@link #mixedLayout(int, long, int)} and prints its checksums.
+     *
+     * @param args the output path, the number of fixed-size datasets, the bytes per dataset,
+     *             and optionally the number of variable-length strings and the seed
+     * @throws IOException if an I/O error occurs
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: SyntheticFileGenerator <file> <datasets> <bytesPerDataset> [vlenElements] [seed]");
+            return;
+        }
+        List<DatasetSpec> specs = mixedLayout(Integer.parseInt(args[1]), Long.parseLong(args[2]),
+                args.length > 3 ? Integer.parseInt(args[3]) : 0);
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+        Map<String, Long> checksums = new SyntheticFileGenerator(seed).generate(Paths.get(args[0]), specs);
+        for (DatasetSpec spec : specs) {
+            System.out.printf("%s checksum=%016x%n", spec, checksums.get(spec.getName()));
+        }
+    }
+}
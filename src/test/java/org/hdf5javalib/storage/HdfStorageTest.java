@@ -0,0 +1,246 @@
+package org.hdf5javalib.storage;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.examples.write.HdfFixedPointWrite;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+import org.hdf5javalib.utils.HdfTestDataUtils;
+import org.hdf5javalib.utils.HdfWriteUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HdfStorageTest {
+    private static final int NUM_RECORDS = 100_000;
+
+    private static void writeLongs(HdfStorage storage) throws IOException {
+        HdfFile file = new HdfFile(storage);
+        HdfFixedPoint[] hdfDimensions = {HdfWriteUtils.hdfFixedPointFromValue(NUM_RECORDS, file.getFixedPointDatatypeForLength())};
+        DataspaceMessage dataSpaceMessage = new DataspaceMessage(1, 1, DataspaceMessage.buildFlagSet(true, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, HdfFixedPointWrite.computeDataSpaceMessageSize(hdfDimensions));
+        HdfDataSet dataset = file.createDataSet(HdfTestDataUtils.DATASET_NAME, HdfTestDataUtils.intType(8), dataSpaceMessage);
+        ByteBuffer data = ByteBuffer.allocate(NUM_RECORDS * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (long i = 0; i < NUM_RECORDS; i++) {
+            data.putLong(i * 3);
+        }
+        dataset.write(data.flip());
+        dataset.close();
+        file.close();
+    }
+
+    private static void assertReadsBack(HdfStorage storage) throws IOException {
+        HdfFileReader reader = new HdfFileReader(storage).readFile();
+        assertSame(storage, reader.getStorage());
+        HdfDataSet dataSet = reader.getRootGroup().findDataset(HdfTestDataUtils.DATASET_NAME);
+        TypedDataSource<Long> source = new TypedDataSource<>(reader.getSeekableByteChannel(), reader, dataSet, Long.class);
+        assertEquals(NUM_RECORDS, source.getElementCount());
+        long expected = 3L * NUM_RECORDS * (NUM_RECORDS - 1) / 2;
+        assertEquals(expected, source.parallelStreamFlattened().mapToLong(Long::longValue).sum());
+
+        ByteBuffer block = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        source.readElements(NUM_RECORDS - 2, block);
+        assertEquals(3L * (NUM_RECORDS - 2), block.getLong(0));
+        assertEquals(3L * (NUM_RECORDS - 1), block.getLong(8));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"file", "mapped", "offheap", "channel"})
+    void testWriteAndReadBack(String backend) throws IOException {
+        Path path = Files.createTempFile("storage-", ".h5");
+        try {
+            switch (backend) {
+                case "file":
+                    try (HdfStorage storage = FileChannelStorage.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                        writeLongs(storage);
+                        assertReadsBack(storage);
+                    }
+                    break;
+                case "mapped":
+                    try (HdfStorage storage = FileChannelStorage.open(path, StandardOpenOption.WRITE)) {
+                        writeLongs(storage);
+                    }
+                    try (HdfStorage storage = new MappedFileStorage(path)) {
+                        assertEquals(Files.size(path), storage.size());
+                        assertReadsBack(storage);
+                    }
+                    break;
+                case "offheap":
+                    try (HdfStorage storage = new OffHeapStorage(4096)) {
+                        writeLongs(storage);
+                        assertReadsBack(storage);
+                    }
+                    break;
+                default:
+                    try (HdfStorage storage = new ChannelStorage(new MemorySeekableByteChannel(16384 + NUM_RECORDS * 8))) {
+                        writeLongs(storage);
+                        assertReadsBack(storage);
+                    }
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testReaderOnChannelExposesChannelAndStorage() throws IOException {
+        MemorySeekableByteChannel channel = HdfTestDataUtils.writeLongs(new int[]{4}, new long[]{1, 2, 3, 4});
+        HdfFileReader reader = new HdfFileReader(channel).readFile();
+        assertSame(channel, reader.getSeekableByteChannel());
+        assertTrue(reader.getStorage() instanceof ChannelStorage);
+        assertFalse(reader.getStorage().isMappable());
+        assertThrows(UnsupportedOperationException.class, () -> reader.getStorage().map(0, 8));
+    }
+
+    @Test
+    void testPositionalAccessLeavesChannelPositionAlone() throws IOException {
+        StorageChannel channel = new StorageChannel(new OffHeapStorage(16));
+        channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+        assertEquals(8, channel.position());
+
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        assertEquals(4, channel.read(buffer, 2));
+        assertArrayEquals(new byte[]{3, 4, 5, 6}, buffer.array());
+        assertEquals(8, channel.position());
+        assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+        assertSame(channel.getStorage(), HdfStorage.of(channel));
+    }
+
+    @Test
+    void testOffHeapStorageGrowsAndMaps() throws IOException {
+        OffHeapStorage storage = new OffHeapStorage(4096);
+        byte[] bytes = new byte[100_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 7);
+        }
+        storage.writeFully(10, ByteBuffer.wrap(bytes));
+        assertEquals(10 + bytes.length, storage.size());
+
+        ByteBuffer copy = ByteBuffer.allocate(bytes.length);
+        storage.readFully(10, copy);
+        assertArrayEquals(bytes, copy.array());
+        assertEquals(-1, storage.read(storage.size(), ByteBuffer.allocate(1)));
+
+        assertTrue(storage.isMappable());
+        ByteBuffer mapped = storage.map(10 + 500, 3);
+        assertEquals(bytes[500], mapped.get(0));
+        assertEquals(bytes[502], mapped.get(2));
+        assertThrows(IllegalArgumentException.class, () -> storage.map(storage.size() - 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> storage.map(4095, 2));
+    }
+
+    @Test
+    void testOffHeapStorageBeyondTwoGigabytesIsSparse() throws IOException {
+        OffHeapStorage storage = new OffHeapStorage(1 << 16);
+        long far = 5L << 30;
+        storage.writeFully(far - 2, ByteBuffer.wrap(new byte[]{1, 2, 3, 4}));
+        assertEquals(far + 2, storage.size());
+
+        ByteBuffer buffer = ByteBuffer.allocate(6);
+        storage.readFully(far - 4, buffer);
+        assertArrayEquals(new byte[]{0, 0, 1, 2, 3, 4}, buffer.array());
+        buffer.clear();
+        storage.readFully(1L << 31, buffer);
+        assertArrayEquals(new byte[6], buffer.array());
+    }
+
+    @Test
+    void testOffHeapImageTransfersToFile() throws IOException {
+        Path path = Files.createTempFile("storage-", ".h5");
+        try (OffHeapStorage storage = new OffHeapStorage(4096)) {
+            writeLongs(storage);
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE);
+                 StorageChannel channel = new StorageChannel(new OffHeapStorage())) {
+                long transferred = 0;
+                while (transferred < storage.size()) {
+                    transferred += storage.transferTo(transferred, storage.size() - transferred, file);
+                }
+                assertEquals(storage.size(), file.size());
+                assertEquals(0, channel.transferTo(0, 10, file));
+            }
+            try (HdfStorage copy = new MappedFileStorage(path)) {
+                assertReadsBack(copy);
+            }
+            assertEquals(storage.size() - 100, storage.transferTo(100, Long.MAX_VALUE - 100, Channels.newChannel(OutputStream.nullOutputStream())));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testFileStorageTransfersWholeRegionToSlowTarget() throws IOException {
+        Path path = Files.createTempFile("storage-", ".bin");
+        try {
+            byte[] bytes = new byte[100_000];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) (i * 7);
+            }
+            Files.write(path, bytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            WritableByteChannel inner = Channels.newChannel(out);
+            // Accepts at most 100 bytes per write, which makes FileChannel.transferTo stop short
+            WritableByteChannel slow = new WritableByteChannel() {
+                @Override
+                public int write(ByteBuffer src) throws IOException {
+                    ByteBuffer part = src.slice().limit(Math.min(100, src.remaining()));
+                    int written = inner.write(part);
+                    src.position(src.position() + written);
+                    return written;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            try (FileChannelStorage storage = FileChannelStorage.open(path, StandardOpenOption.READ)) {
+                assertEquals(bytes.length - 10, storage.transferTo(10, Long.MAX_VALUE - 10, slow));
+                assertArrayEquals(Arrays.copyOfRange(bytes, 10, bytes.length), out.toByteArray());
+                assertEquals(0, storage.transferTo(bytes.length, 10, slow));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testMappedFileStorageIsReadOnly() throws IOException {
+        Path path = Files.createTempFile("storage-", ".bin");
+        try {
+            Files.write(path, new byte[]{10, 20, 30, 40});
+            try (MappedFileStorage storage = new MappedFileStorage(path)) {
+                assertEquals(30, storage.map(2, 2).get(0));
+                assertThrows(NonWritableChannelException.class, () -> storage.write(0, ByteBuffer.allocate(1)));
+                ByteBuffer buffer = ByteBuffer.allocate(8);
+                assertEquals(4, storage.read(0, buffer));
+                assertEquals(4, buffer.position());
+                assertEquals(-1, storage.read(4, buffer));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.hdf5javalib.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.file.HdfDataSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpRangeStorageTest {
+    private static final Path RESOURCES = Paths.get("src/test/resources");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    /**
+     * Serves the test resources over HTTP, honouring single byte ranges like an object store.
+     */
+    private static class RangeServer implements AutoCloseable {
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newFixedThreadPool(8);
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger maxActive = new AtomicInteger();
+        private final boolean supportsRanges;
+        private volatile long delayMillis;
+
+        RangeServer(boolean supportsRanges) throws IOException {
+            this.supportsRanges = supportsRanges;
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/", this::handle);
+            server.setExecutor(executor);
+            server.start();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try (exchange) {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                Path file = RESOURCES.resolve(exchange.getRequestURI().getPath().substring(1));
+                if (!Files.isRegularFile(file)) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                byte[] content = Files.readAllBytes(file);
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                Matcher matcher = range == null ? null : RANGE.matcher(range);
+                if (!supportsRanges || matcher == null || !matcher.matches()) {
+                    exchange.sendResponseHeaders(200, content.length);
+                    exchange.getResponseBody().write(content);
+                    return;
+                }
+                int start = Integer.parseInt(matcher.group(1));
+                int end = (int) Math.min(Long.parseLong(matcher.group(2)), content.length - 1L);
+                if (start >= content.length) {
+                    exchange.getResponseHeaders().set("Content-Range", "bytes */" + content.length);
+                    exchange.sendResponseHeaders(416, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+                exchange.sendResponseHeaders(206, end - start + 1);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(content, start, end - start + 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        URI uri(String resource) {
+            return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/" + resource);
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private static HttpRangeStorage open(RangeServer server, String resource, int blockSize, int maxRequestBlocks) throws IOException {
+        return new HttpRangeStorage(HttpClient.newHttpClient(), server.uri(resource), blockSize, 64, maxRequestBlocks);
+    }
+
+    private static byte[] datasetBytes(HdfFileReader reader, HdfDataSet dataSet) throws IOException {
+        TypedDataSource<Object> source = new TypedDataSource<>(reader.getSeekableByteChannel(), reader, dataSet, Object.class);
+        ByteBuffer buffer = ByteBuffer.allocate((int) (source.getElementCount() * source.getElementSize()));
+        source.readElements(0, buffer);
+        return buffer.array();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"compound_example.h5", "vector.h5", "twenty_datasets.h5", "vlen_types_example.h5", "all_types_separate.h5"})
+    void testReadsFixturesLikeLocalFiles(String resource) throws IOException {
+        try (RangeServer server = new RangeServer(true);
+             HttpRangeStorage storage = open(server, resource, 4096, 4);
+             FileChannel local = FileChannel.open(RESOURCES.resolve(resource), StandardOpenOption.READ)) {
+            assertEquals(local.size(), storage.size());
+            HdfFileReader remoteReader = new HdfFileReader(storage).readFile();
+            HdfFileReader localReader = new HdfFileReader(local).readFile();
+
+            assertFalse(localReader.getRootGroup().getDataSets().isEmpty());
+            for (HdfDataSet dataSet : localReader.getRootGroup().getDataSets()) {
+                HdfDataSet remote = remoteReader.getRootGroup().findDataset(dataSet.getDatasetName());
+                assertNotNull(remote, dataSet.getDatasetName());
+                assertArrayEquals(datasetBytes(localReader, dataSet), datasetBytes(remoteReader, remote), dataSet.getDatasetName());
+            }
+            assertTrue(storage.getBytesFetched() <= storage.size() + 4096, "Each block is fetched at most once");
+        }
+    }
+
+    @Test
+    void testBlocksAreCachedAndAdjacentMissesCoalesced() throws IOException {
+        try (RangeServer server = new RangeServer(true);
+             HttpRangeStorage storage = open(server, "compound_example.h5", 1024, 16)) {
+            byte[] expected = Files.readAllBytes(RESOURCES.resolve("compound_example.h5"));
+            long before = storage.getRequestCount();
+
+            ByteBuffer buffer = ByteBuffer.allocate(10 * 1024);
+            storage.readFully(5 * 1024 + 100, buffer);
+            assertEquals(before + 1, storage.getRequestCount(), "Eleven adjacent blocks in one request");
+            assertArrayEquals(Arrays.copyOfRange(expected, 5 * 1024 + 100, 15 * 1024 + 100), buffer.array());
+
+            storage.readFully(6 * 1024, ByteBuffer.allocate(4096));
+            assertEquals(before + 1, storage.getRequestCount(), "Cached blocks are not fetched again");
+
+            storage.readFully(14 * 1024, ByteBuffer.allocate(4 * 1024));
+            assertEquals(before + 2, storage.getRequestCount(), "Only the missing blocks are fetched");
+            assertEquals(server.requests.get(), storage.getRequestCount());
+        }
+    }
+
+    @Test
+    void testConcurrentReadersShareOneRequest() throws Exception {
+        int readers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try (RangeServer server = new RangeServer(true);
+             HttpRangeStorage storage = open(server, "compound_example.h5", 4096, 16)) {
+            server.delayMillis = 200;
+            long before = storage.getRequestCount();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    ByteBuffer buffer = ByteBuffer.allocate(100);
+                    storage.readFully(40_000, buffer);
+                    return buffer.array();
+                }));
+            }
+            start.countDown();
+            byte[] first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<byte[]> result : results) {
+                assertArrayEquals(first, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(before + 1, storage.getRequestCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLargeReadsAreFetchedInParallel() throws IOException {
+        try (RangeServer server = new RangeServer(true);
+             HttpRangeStorage storage = open(server, "compound_example.h5", 1024, 4)) {
+            server.delayMillis = 100;
+            long before = storage.getRequestCount();
+            ByteBuffer buffer = ByteBuffer.allocate(32 * 1024);
+            storage.readFully(8 * 1024, buffer);
+            assertEquals(before + 8, storage.getRequestCount());
+            assertTrue(server.maxActive.get() > 1, "Requests overlapped: " + server.maxActive.get());
+            byte[] expected = Files.readAllBytes(RESOURCES.resolve("compound_example.h5"));
+            assertArrayEquals(Arrays.copyOfRange(expected, 8 * 1024, 40 * 1024), buffer.array());
+        }
+    }
+
+    @Test
+    void testServerWithoutRangeSupportIsRejected() throws IOException {
+        try (RangeServer server = new RangeServer(false)) {
+            assertThrows(IOException.class, () -> open(server, "vector.h5", 4096, 4));
+        }
+        try (RangeServer server = new RangeServer(true)) {
+            assertThrows(IOException.class, () -> open(server, "missing.h5", 4096, 4));
+        }
+    }
+}
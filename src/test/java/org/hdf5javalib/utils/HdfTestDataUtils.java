@@ -0,0 +1,87 @@
+package org.hdf5javalib.utils;
+
+import org.hdf5javalib.HdfFileReader;
+import org.hdf5javalib.dataclass.HdfFixedPoint;
+import org.hdf5javalib.datasource.TypedDataSource;
+import org.hdf5javalib.examples.write.HdfFixedPointWrite;
+import org.hdf5javalib.file.HdfDataSet;
+import org.hdf5javalib.file.HdfFile;
+import org.hdf5javalib.file.dataobject.message.DataspaceMessage;
+import org.hdf5javalib.file.dataobject.message.datatype.FixedPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.FloatingPointDatatype;
+import org.hdf5javalib.file.dataobject.message.datatype.HdfDatatype;
+import org.hdf5javalib.io.MemorySeekableByteChannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Builds small in-memory HDF5 files holding one numeric dataset, for tests of the readers.
+ */
+public class HdfTestDataUtils {
+    public static final String DATASET_NAME = "data";
+
+    public static FixedPointDatatype intType(int size) {
+        return new FixedPointDatatype(
+                FixedPointDatatype.createClassAndVersion(),
+                FixedPointDatatype.createClassBitField(false, false, false, true),
+                size, (short) 0, (short) (size * 8));
+    }
+
+    public static FloatingPointDatatype doubleType() {
+        return new FloatingPointDatatype(
+                FloatingPointDatatype.createClassAndVersion(),
+                FloatingPointDatatype.ClassBitField.createBitSet(FloatingPointDatatype.ClassBitField.ByteOrder.LITTLE_ENDIAN,
+                        false, false, false, FloatingPointDatatype.ClassBitField.MantissaNormalization.IMPLIED_SET, 63),
+                8, (short) 0, (short) 64, (byte) 52, (byte) 11, (byte) 0, (byte) 52, 1023);
+    }
+
+    public static MemorySeekableByteChannel writeDoubles(int[] shape, double[] values) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(values.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (double value : values) {
+            data.putDouble(value);
+        }
+        return writeDataset(doubleType(), shape, data.flip());
+    }
+
+    public static MemorySeekableByteChannel writeLongs(int[] shape, long[] values) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(values.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (long value : values) {
+            data.putLong(value);
+        }
+        return writeDataset(intType(8), shape, data.flip());
+    }
+
+    public static MemorySeekableByteChannel writeInts(int[] shape, int[] values) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(values.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int value : values) {
+            data.putInt(value);
+        }
+        return writeDataset(intType(4), shape, data.flip());
+    }
+
+    public static MemorySeekableByteChannel writeDataset(HdfDatatype datatype, int[] shape, ByteBuffer data) throws IOException {
+        MemorySeekableByteChannel channel = new MemorySeekableByteChannel(16384 + data.remaining());
+        HdfFile file = new HdfFile(channel);
+        HdfFixedPoint[] hdfDimensions = new HdfFixedPoint[shape.length];
+        for (int i = 0; i < shape.length; i++) {
+            hdfDimensions[i] = HdfWriteUtils.hdfFixedPointFromValue(shape[i], file.getFixedPointDatatypeForLength());
+        }
+        DataspaceMessage dataSpaceMessage = new DataspaceMessage(1, shape.length, DataspaceMessage.buildFlagSet(shape.length > 0, false),
+                hdfDimensions, hdfDimensions, false, (byte) 0, HdfFixedPointWrite.computeDataSpaceMessageSize(hdfDimensions));
+        HdfDataSet dataset = file.createDataSet(DATASET_NAME, datatype, dataSpaceMessage);
+        dataset.write(data);
+        dataset.close();
+        file.close();
+        channel.position(0);
+        return channel;
+    }
+
+    public static <T> TypedDataSource<T> openDataSource(SeekableByteChannel channel, Class<T> dataClass) throws IOException {
+        channel.position(0);
+        HdfFileReader reader = new HdfFileReader(channel).readFile();
+        return new TypedDataSource<>(channel, reader, reader.getRootGroup().findDataset(DATASET_NAME), dataClass);
+    }
+}